@@ -0,0 +1,41 @@
+package com.concordia.velocity.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Bike status changes, measured as a round trip that leaves the bike available
+ * The bike has no observers attached, so status log writes are not part of the measurement.
+ */
+@State(Scope.Thread)
+public class BikeBenchmark {
+
+    private Bike bike;
+
+    @Setup
+    public void setup() {
+        bike = new Bike();
+        bike.setBikeId("B001");
+        bike.setType("standard");
+        bike.setStatus(Bike.STATUS_AVAILABLE);
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease() {
+        bike.changeStatus(Bike.STATUS_RESERVED);
+        return bike.changeStatus(Bike.STATUS_AVAILABLE);
+    }
+
+    @Benchmark
+    public boolean undockAndReturn() {
+        bike.changeStatus(Bike.STATUS_ON_TRIP);
+        return bike.changeStatus(Bike.STATUS_AVAILABLE);
+    }
+
+    @Benchmark
+    public boolean unchangedStatus() {
+        return bike.changeStatus(Bike.STATUS_AVAILABLE);
+    }
+}
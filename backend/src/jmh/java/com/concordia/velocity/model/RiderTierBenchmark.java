@@ -0,0 +1,83 @@
+package com.concordia.velocity.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.Collections;
+
+/**
+ * Tier evaluation from each TierState, with stats that keep the rider in that tier
+ * Keeping the tier stable means every op runs the same state's rules instead of drifting to one tier.
+ * evaluateFromStats takes a precomputed RiderStats; evaluateFromAggregate also derives it from
+ * the stored aggregate, as trip completion and missed reservations do.
+ * Tier logging goes to stdout, which is discarded here.
+ */
+@State(Scope.Thread)
+public class RiderTierBenchmark {
+
+    @Param({"NoTier", "Bronze", "Silver", "Gold"})
+    public String tier;
+
+    private Rider rider;
+    private RiderStats stats;
+
+    @Setup
+    public void setup() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        LocalDate today = LocalDate.now();
+        RiderStatsAggregate aggregate = new RiderStatsAggregate();
+        switch (tier) {
+            case "Bronze" -> record(aggregate, today, today, 11);
+            case "Silver" -> {
+                // 6 trips on the first of each of the last three months: monthly rule met, weekly rule not
+                for (int month = 0; month < 3; month++) {
+                    record(aggregate, today.minusMonths(month).withDayOfMonth(1), today, 6);
+                }
+            }
+            case "Gold" -> {
+                for (int day = 0; day < 120; day++) {
+                    record(aggregate, today.minusDays(day), today, 6);
+                }
+            }
+            default -> { }
+        }
+
+        rider = new Rider("Ada", "Rider", "1 Main St", "ada@example.com", "5140000000");
+        rider.setId("R001");
+        rider.setMissedReservationTimestamps(Collections.emptyList());
+        rider.setLoyaltyStats(aggregate);
+        rider.setTier(tier);
+        stats = aggregate.toRiderStats(today);
+    }
+
+    private static void record(RiderStatsAggregate aggregate, LocalDate day, LocalDate today, int trips) {
+        for (int i = 0; i < trips; i++) {
+            aggregate.recordTrip(day, today);
+        }
+    }
+
+    @Benchmark
+    public Rider.TierChange evaluateFromStats() {
+        return rider.evaluateTier(stats);
+    }
+
+    @Benchmark
+    public Rider.TierChange evaluateFromAggregate() {
+        return rider.evaluateTier();
+    }
+
+    /**
+     * Tier lookups on the billing path
+     */
+    @Benchmark
+    public double applyDiscount() {
+        return rider.applyDiscount(12.34);
+    }
+}
@@ -0,0 +1,70 @@
+package com.concordia.velocity.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Docking and undocking a bike at a station, measured as an add followed by a remove
+ * The pair leaves the station as it found it. At "nearlyFull" every add fills the station and every
+ * remove frees it again, so each op also goes through the status change; at "half" the status stays put.
+ * The station has no observers attached, so status log writes are not part of the measurement.
+ */
+@State(Scope.Thread)
+public class StationBenchmark {
+
+    @Param({"half", "nearlyFull"})
+    public String fill;
+
+    @Param({"20", "100"})
+    public int capacity;
+
+    private Station station;
+    private Bike standardBike;
+    private Bike electricBike;
+
+    @Setup
+    public void setup() {
+        int docked = "nearlyFull".equals(fill) ? capacity - 1 : capacity / 2;
+        List<String> bikeIds = new ArrayList<>();
+        List<String> dockIds = new ArrayList<>();
+        for (int i = 0; i < capacity; i++) {
+            dockIds.add(String.format("D%03d", i));
+            if (i < docked) bikeIds.add(String.format("B%03d", i));
+        }
+
+        station = new Station();
+        station.setStationId("S001");
+        station.setCapacity(capacity);
+        station.setDockIds(dockIds);
+        station.setBikeIds(bikeIds);
+        station.setNumStandardBikes(docked);
+        station.setNumDockedBikes(docked);
+
+        standardBike = new Bike();
+        standardBike.setBikeId("B900");
+        standardBike.setType("standard");
+        electricBike = new Bike();
+        electricBike.setBikeId("B901");
+        electricBike.setType("electric");
+    }
+
+    @Benchmark
+    public Station addAndRemoveStandardBike() {
+        station.addBike(standardBike);
+        station.removeBike(standardBike);
+        return station;
+    }
+
+    @Benchmark
+    public Station addAndRemoveElectricBike() {
+        station.addBike(electricBike);
+        station.removeBike(electricBike);
+        return station;
+    }
+}
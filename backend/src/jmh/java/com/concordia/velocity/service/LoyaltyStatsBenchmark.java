@@ -0,0 +1,80 @@
+package com.concordia.velocity.service;
+
+import com.concordia.velocity.model.RiderStats;
+import com.concordia.velocity.model.RiderStatsAggregate;
+import com.concordia.velocity.model.Trip;
+import com.google.cloud.Timestamp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Loyalty bucketing over synthetic trip histories of 10 to 100k trips
+ * Trips start at random times over the last 14 months, so some fall outside every window;
+ * most are completed, the rest active or cancelled. The histories are seeded, so runs are comparable.
+ * fullRecompute is LoyaltyStatsService.computeStats without the store reads, rebuildAggregate is the
+ * reconciliation path, and aggregateToStats is what a tier evaluation costs once the aggregate exists.
+ */
+@State(Scope.Thread)
+public class LoyaltyStatsBenchmark {
+
+    private static final long WINDOW_SECONDS = 14L * 30 * 24 * 60 * 60;
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int trips;
+
+    private LoyaltyStatsService loyaltyStatsService;
+    private List<Trip> history;
+    private List<Timestamp> missedReservations;
+    private RiderStatsAggregate aggregate;
+    private LocalDate today;
+
+    @Setup
+    public void setup() {
+        // the bucketing never touches the store
+        loyaltyStatsService = new LoyaltyStatsService(null, null, null);
+        today = LocalDate.now();
+
+        Random random = new Random(343);
+        long now = Timestamp.now().getSeconds();
+        history = new ArrayList<>(trips);
+        for (int i = 0; i < trips; i++) {
+            Trip trip = new Trip(String.format("T%04d", i), "R001", "B001", "standard", "S001", "Station 1", "D001");
+            trip.setStartTime(Timestamp.ofTimeSecondsAndNanos(now - (long) (random.nextDouble() * WINDOW_SECONDS), 0));
+            int roll = random.nextInt(100);
+            if (roll < 90) {
+                trip.setStatus(Trip.STATUS_COMPLETED);
+            } else if (roll < 95) {
+                trip.setStatus(Trip.STATUS_CANCELLED);
+            }
+            history.add(trip);
+        }
+        missedReservations = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            missedReservations.add(Timestamp.ofTimeSecondsAndNanos(now - (long) (random.nextDouble() * WINDOW_SECONDS), 0));
+        }
+        aggregate = loyaltyStatsService.buildAggregate(history, missedReservations, today);
+    }
+
+    @Benchmark
+    public RiderStats fullRecompute() {
+        return loyaltyStatsService.computeStats(history, missedReservations.size());
+    }
+
+    @Benchmark
+    public RiderStatsAggregate rebuildAggregate() {
+        return loyaltyStatsService.buildAggregate(history, missedReservations, today);
+    }
+
+    @Benchmark
+    public RiderStats aggregateToStats() {
+        return aggregate.toRiderStats(today);
+    }
+}
@@ -0,0 +1,65 @@
+package com.concordia.velocity.strategy;
+
+import com.concordia.velocity.model.Bill;
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.Trip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Bill creation for each payment strategy, as TripService and AbandonedTripService call it
+ * 23 minutes is priced from the precomputed tier tables, 300 minutes (past RateCard.TABLE_MINUTES)
+ * computes the discounts. The abandoned strategy logs to stdout; it is discarded here, so
+ * formatting the line is measured but writing it is not.
+ */
+@State(Scope.Thread)
+public class PaymentStrategyBenchmark {
+
+    @Param({"standard", "electric", "abandoned"})
+    public String strategy;
+
+    @Param({"NoTier", "Gold"})
+    public String tier;
+
+    @Param({"false", "true"})
+    public boolean operator;
+
+    @Param({"23", "300"})
+    public long minutes;
+
+    private PaymentStrategy paymentStrategy;
+    private Trip trip;
+    private Rider rider;
+
+    @Setup
+    public void setup() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        paymentStrategy = "abandoned".equals(strategy) ? PaymentStrategies.ABANDONED : PaymentStrategies.forBikeType(strategy);
+
+        trip = new Trip("T0001", "R001", "B001", "standard", "S001", "Station 1", "D001");
+        rider = new Rider("Ada", "Rider", "1 Main St", "ada@example.com", "5140000000");
+        rider.setId("R001");
+        rider.setIsOperator(operator);
+        rider.setTier(tier);
+    }
+
+    @Benchmark
+    public Bill createBillAndProcessPayment() {
+        return paymentStrategy.createBillAndProcessPayment("BILL0001", trip, minutes, rider, 0);
+    }
+
+    /**
+     * A trip on which the rider redeems a flex dollar, credited in the same pass
+     */
+    @Benchmark
+    public Bill createBillRedeemingFlex() {
+        return paymentStrategy.createBillAndProcessPayment("BILL0001", trip, minutes, rider, 50);
+    }
+}
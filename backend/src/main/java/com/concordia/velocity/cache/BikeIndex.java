@@ -0,0 +1,175 @@
+package com.concordia.velocity.cache;
+
+import com.concordia.velocity.model.Bike;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index of the cached bikes by station, status and type
+ *
+ * Each bike gets a dense ordinal (freed ordinals are reused), and every attribute value keeps a
+ * bitmap of the ordinals that have it. A query ANDs the bitmaps of the attributes it filters on,
+ * so "available electric bikes at S012" costs a few word-wise ANDs instead of a scan of the fleet.
+ *
+ * Status and type are matched case-insensitively, station IDs exactly.
+ * Maintained by FleetCache from the committed change feed; not meant to be used on its own.
+ */
+final class BikeIndex {
+
+    private static final BitSet EMPTY = new BitSet();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<Bike> bikesByOrdinal = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet present = new BitSet();
+
+    private final Map<String, BitSet> byStation = new HashMap<>();
+    private final Map<String, BitSet> byStatus = new HashMap<>();
+    private final Map<String, BitSet> byType = new HashMap<>();
+
+    /**
+     * Replaces the whole index, used after a full collection load
+     */
+    void reload(Collection<Bike> bikes) {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            bikesByOrdinal.clear();
+            freeOrdinals.clear();
+            present.clear();
+            byStation.clear();
+            byStatus.clear();
+            byType.clear();
+            for (Bike bike : bikes) {
+                if (bike != null && bike.getBikeId() != null) insert(bike);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a bike's current state, or drops it when bike is null (deleted)
+     */
+    void apply(String bikeId, Bike bike) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(bikeId);
+            if (ordinal != null) {
+                Bike previous = bikesByOrdinal.get(ordinal);
+                clear(byStation, previous.getStationId(), ordinal);
+                clear(byStatus, normalize(previous.getStatus()), ordinal);
+                clear(byType, normalize(previous.getType()), ordinal);
+                bikesByOrdinal.set(ordinal, null);
+                present.clear(ordinal);
+                freeOrdinals.push(ordinal);
+            }
+            if (bike != null) insert(bike);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Bikes matching every non-null filter, in ordinal order
+     */
+    List<Bike> find(String stationId, String status, String type) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(stationId, status, type);
+            List<Bike> result = new ArrayList<>(matches.cardinality());
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                result.add(bikesByOrdinal.get(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of bikes matching every non-null filter, without materialising them
+     */
+    int count(String stationId, String status, String type) {
+        lock.readLock().lock();
+        try {
+            return match(stationId, status, type).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("bikes", ordinals.size());
+            stats.put("ordinals", bikesByOrdinal.size());
+            stats.put("stations", byStation.size());
+            stats.put("statuses", byStatus.size());
+            stats.put("types", byType.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the read lock; the returned bitmap is a private copy
+    private BitSet match(String stationId, String status, String type) {
+        BitSet result = (BitSet) present.clone();
+        if (stationId != null) result.and(bitmap(byStation, stationId));
+        if (status != null) result.and(bitmap(byStatus, normalize(status)));
+        if (type != null) result.and(bitmap(byType, normalize(type)));
+        return result;
+    }
+
+    // Callers hold the write lock
+    private void insert(Bike bike) {
+        int ordinal = freeOrdinals.isEmpty() ? bikesByOrdinal.size() : freeOrdinals.pop();
+        if (ordinal == bikesByOrdinal.size()) {
+            bikesByOrdinal.add(bike);
+        } else {
+            bikesByOrdinal.set(ordinal, bike);
+        }
+        ordinals.put(bike.getBikeId(), ordinal);
+        present.set(ordinal);
+        set(byStation, bike.getStationId(), ordinal);
+        set(byStatus, normalize(bike.getStatus()), ordinal);
+        set(byType, normalize(bike.getType()), ordinal);
+    }
+
+    private static BitSet bitmap(Map<String, BitSet> index, String key) {
+        BitSet bits = index.get(key);
+        return bits != null ? bits : EMPTY;
+    }
+
+    private static void set(Map<String, BitSet> index, String key, int ordinal) {
+        if (key == null) return;
+        index.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+    }
+
+    private static void clear(Map<String, BitSet> index, String key, int ordinal) {
+        if (key == null) return;
+        BitSet bits = index.get(key);
+        if (bits == null) return;
+        bits.clear(ordinal);
+        if (bits.isEmpty()) index.remove(key);
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.concordia.velocity.cache;
+
+import com.concordia.velocity.model.Dock;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Empty docks of the cached fleet, by station
+ *
+ * Every dock the change feed reports as empty is filed under its station, so "how many docks are
+ * free at S012, and which one" is a map lookup. Docking and undocking commit a dock's new status,
+ * which reaches the index through the feed, so it follows the trip paths without being told.
+ *
+ * Maintained by FleetCache from the committed change feed; not meant to be used on its own.
+ */
+final class DockIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, String> stationOfEmptyDock = new HashMap<>();
+    private final Map<String, NavigableSet<String>> emptyByStation = new HashMap<>();
+
+    /**
+     * Replaces the whole index, used after a full collection load
+     */
+    void reload(Collection<Dock> docks) {
+        lock.writeLock().lock();
+        try {
+            stationOfEmptyDock.clear();
+            emptyByStation.clear();
+            for (Dock dock : docks) {
+                if (dock != null && dock.getDockId() != null) insert(dock);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a dock's current state, or drops it when dock is null (deleted)
+     */
+    void apply(String dockId, Dock dock) {
+        lock.writeLock().lock();
+        try {
+            String stationId = stationOfEmptyDock.remove(dockId);
+            if (stationId != null) {
+                NavigableSet<String> empty = emptyByStation.get(stationId);
+                empty.remove(dockId);
+                if (empty.isEmpty()) emptyByStation.remove(stationId);
+            }
+            if (dock != null) insert(dock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Empty docks at a station, in dock ID order
+     */
+    List<String> emptyDocks(String stationId) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<String> empty = emptyByStation.get(stationId);
+            return empty != null ? List.copyOf(empty) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of empty docks at a station
+     */
+    int countEmpty(String stationId) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<String> empty = emptyByStation.get(stationId);
+            return empty != null ? empty.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("emptyDocks", stationOfEmptyDock.size());
+            stats.put("stationsWithEmptyDocks", emptyByStation.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the write lock
+    private void insert(Dock dock) {
+        if (!dock.isAvailable() || dock.getStationId() == null) return;
+        stationOfEmptyDock.put(dock.getDockId(), dock.getStationId());
+        emptyByStation.computeIfAbsent(dock.getStationId(), k -> new TreeSet<>()).add(dock.getDockId());
+    }
+}
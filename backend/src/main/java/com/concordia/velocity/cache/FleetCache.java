@@ -0,0 +1,402 @@
+package com.concordia.velocity.cache;
+
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.repository.BikeRepository;
+import com.concordia.velocity.repository.DockRepository;
+import com.concordia.velocity.repository.FleetChangeFeed;
+import com.concordia.velocity.repository.FleetChangeListener;
+import com.concordia.velocity.repository.StationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-process near cache of the fleet topology (stations, docks and bikes)
+ *
+ * Kept up to date by the store's change feed (Firestore snapshot listeners or local write hooks),
+ * so the list endpoints are answered from memory. Staleness is bounded: while a collection's feed
+ * is down, a read older than velocity.cache.max-staleness-ms reloads the collection from the store,
+ * and a periodic resync re-subscribes failed feeds.
+ *
+ * Returned lists are shared, read-only views. Load entities through the repositories to modify them.
+ */
+@Component
+public class FleetCache implements FleetChangeListener {
+
+    private final StationRepository stationRepository;
+    private final DockRepository dockRepository;
+    private final BikeRepository bikeRepository;
+    private final FleetChangeFeed changeFeed;
+    private final long maxStalenessMillis;
+
+    private final Region<Station> stations = new Region<>();
+    private final Region<Dock> docks = new Region<>();
+    private final Region<Bike> bikes = new Region<>();
+    private final BikeIndex bikeIndex = new BikeIndex();
+    private final StationIndex stationIndex = new StationIndex();
+    private final DockIndex dockIndex = new DockIndex();
+
+    private volatile AutoCloseable subscription;
+
+    public FleetCache(StationRepository stationRepository, DockRepository dockRepository, BikeRepository bikeRepository,
+                      FleetChangeFeed changeFeed,
+                      @Value("${velocity.cache.max-staleness-ms:30000}") long maxStalenessMillis) {
+        this.stationRepository = stationRepository;
+        this.dockRepository = dockRepository;
+        this.bikeRepository = bikeRepository;
+        this.changeFeed = changeFeed;
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            reloadStations();
+            reloadDocks();
+            reloadBikes();
+        } catch (Exception e) {
+            System.err.println("Fleet cache warm-up failed, will load on first read: " + e.getMessage());
+        }
+        subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        unsubscribe();
+    }
+
+    // ============ Reads ============
+
+    public List<Station> getAllStations() throws ExecutionException, InterruptedException {
+        if (stations.needsReload(maxStalenessMillis)) {
+            reloadStations();
+        }
+        return stations.values();
+    }
+
+    /**
+     * Up to k stations nearest to a point, nearest first, answered from the station k-d tree
+     * Stations without usable coordinates are never returned.
+     * @param hasBikes only stations where hasBikesAvailable()
+     * @param hasDocks only stations where hasAvailableSpace()
+     */
+    public List<NearbyStation> findNearestStations(double latitude, double longitude, int k,
+                                                   boolean hasBikes, boolean hasDocks)
+            throws ExecutionException, InterruptedException {
+        Predicate<Station> filter = null;
+        if (hasBikes || hasDocks) {
+            filter = station -> (!hasBikes || station.hasBikesAvailable()) && (!hasDocks || station.hasAvailableSpace());
+        }
+        return findNearestStations(latitude, longitude, k, filter);
+    }
+
+    /**
+     * Up to k stations nearest to a point that pass the filter, nearest first
+     * The filter sees the cached, read-only stations and runs under the index's read lock, so keep it cheap.
+     */
+    public List<NearbyStation> findNearestStations(double latitude, double longitude, int k, Predicate<Station> filter)
+            throws ExecutionException, InterruptedException {
+        if (stations.needsReload(maxStalenessMillis)) {
+            reloadStations();
+        }
+        return stationIndex.nearest(latitude, longitude, k, filter);
+    }
+
+    public List<Dock> getAllDocks() throws ExecutionException, InterruptedException {
+        if (docks.needsReload(maxStalenessMillis)) {
+            reloadDocks();
+        }
+        return docks.values();
+    }
+
+    /**
+     * Empty docks at a station, in dock ID order, answered from the dock index
+     */
+    public List<String> findEmptyDockIds(String stationId) throws ExecutionException, InterruptedException {
+        if (docks.needsReload(maxStalenessMillis)) {
+            reloadDocks();
+        }
+        return dockIndex.emptyDocks(stationId);
+    }
+
+    /**
+     * Number of empty docks at a station
+     */
+    public int countEmptyDocks(String stationId) throws ExecutionException, InterruptedException {
+        if (docks.needsReload(maxStalenessMillis)) {
+            reloadDocks();
+        }
+        return dockIndex.countEmpty(stationId);
+    }
+
+    public List<Bike> getAllBikes() throws ExecutionException, InterruptedException {
+        if (bikes.needsReload(maxStalenessMillis)) {
+            reloadBikes();
+        }
+        return bikes.values();
+    }
+
+    /**
+     * Bikes matching every non-null filter, answered from the bike index without scanning the fleet
+     * Status and type match case-insensitively. The returned bikes are read-only.
+     */
+    public List<Bike> findBikes(String stationId, String status, String type)
+            throws ExecutionException, InterruptedException {
+        if (bikes.needsReload(maxStalenessMillis)) {
+            reloadBikes();
+        }
+        return bikeIndex.find(stationId, status, type);
+    }
+
+    /**
+     * Number of bikes matching every non-null filter
+     */
+    public int countBikes(String stationId, String status, String type)
+            throws ExecutionException, InterruptedException {
+        if (bikes.needsReload(maxStalenessMillis)) {
+            reloadBikes();
+        }
+        return bikeIndex.count(stationId, status, type);
+    }
+
+    /**
+     * Cached station, or null if it is not cached; never reads through
+     */
+    public Station getCachedStation(String stationId) {
+        return stations.peek(stationId);
+    }
+
+    /**
+     * Cached dock, or null if it is not cached; never reads through
+     * Only suitable as a hint, e.g. to guess which station to prefetch before the dock is read
+     */
+    public Dock getCachedDock(String dockId) {
+        return docks.peek(dockId);
+    }
+
+    /**
+     * Cached bike, or null if it is not cached; never reads through
+     */
+    public Bike getCachedBike(String bikeId) {
+        return bikes.peek(bikeId);
+    }
+
+    /**
+     * Hit/miss counts, feed health and staleness per collection
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxStalenessMs", maxStalenessMillis);
+        stats.put(STATIONS, stations.stats());
+        stats.put(DOCKS, docks.stats());
+        stats.put(BIKES, bikes.stats());
+        stats.put("bikeIndex", bikeIndex.stats());
+        stats.put("stationIndex", stationIndex.stats());
+        stats.put("dockIndex", dockIndex.stats());
+        return stats;
+    }
+
+    /**
+     * Re-subscribes the change feed if any collection's listener has failed
+     */
+    @Scheduled(fixedDelayString = "${velocity.cache.resync-interval-ms:60000}")
+    public void resync() {
+        if (stations.live && docks.live && bikes.live) return;
+        System.out.println("Fleet cache feed is down, re-subscribing");
+        unsubscribe();
+        subscribe();
+    }
+
+    private void subscribe() {
+        try {
+            subscription = changeFeed.subscribe(this);
+        } catch (Exception e) {
+            System.err.println("Fleet cache could not subscribe to changes: " + e.getMessage());
+        }
+    }
+
+    private void unsubscribe() {
+        AutoCloseable current = subscription;
+        subscription = null;
+        stations.live = docks.live = bikes.live = false;
+        if (current == null) return;
+        try {
+            current.close();
+        } catch (Exception e) {
+            System.err.println("Fleet cache unsubscribe failed: " + e.getMessage());
+        }
+    }
+
+    // ============ Change Feed ============
+
+    @Override
+    public void stationChanged(String stationId, Station station) {
+        synchronized (stations) {
+            stations.apply(stationId, station);
+            stationIndex.apply(stationId, station);
+        }
+    }
+
+    @Override
+    public void dockChanged(String dockId, Dock dock) {
+        synchronized (docks) {
+            docks.apply(dockId, dock);
+            dockIndex.apply(dockId, dock);
+        }
+    }
+
+    @Override
+    public void bikeChanged(String bikeId, Bike bike) {
+        // Region and index change together so a reload cannot interleave between them
+        synchronized (bikes) {
+            bikes.apply(bikeId, bike);
+            bikeIndex.apply(bikeId, bike);
+        }
+    }
+
+    @Override
+    public void synced(String collection, long lagMillis) {
+        region(collection).synced(lagMillis);
+    }
+
+    @Override
+    public void failed(String collection, Throwable error) {
+        System.err.println("Fleet cache feed for " + collection + " failed: " + error.getMessage());
+        region(collection).live = false;
+    }
+
+    private void reloadStations() throws ExecutionException, InterruptedException {
+        List<Station> all = stationRepository.findAll();
+        synchronized (stations) {
+            stations.reload(all, Station::getStationId);
+            stationIndex.reload(all);
+        }
+    }
+
+    private void reloadDocks() throws ExecutionException, InterruptedException {
+        List<Dock> all = dockRepository.findAll();
+        synchronized (docks) {
+            docks.reload(all, Dock::getDockId);
+            dockIndex.reload(all);
+        }
+    }
+
+    private void reloadBikes() throws ExecutionException, InterruptedException {
+        List<Bike> all = bikeRepository.findAll();
+        synchronized (bikes) {
+            bikes.reload(all, Bike::getBikeId);
+            bikeIndex.reload(all);
+        }
+    }
+
+    private Region<?> region(String collection) {
+        return switch (collection) {
+            case STATIONS -> stations;
+            case DOCKS -> docks;
+            case BIKES -> bikes;
+            default -> throw new IllegalArgumentException("Unknown fleet collection: " + collection);
+        };
+    }
+
+    /**
+     * One cached collection with its own counters
+     */
+    private static final class Region<T> {
+        private final Map<String, T> entries = new ConcurrentHashMap<>();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private volatile List<T> view;            // rebuilt lazily after a change
+        private volatile boolean live;            // feed attached and delivering
+        private volatile long lastSyncMillis;     // last full load or feed batch
+        private volatile long lastLagMillis;
+        private volatile long maxLagMillis;
+
+        boolean needsReload(long maxStalenessMillis) {
+            if (live || System.currentTimeMillis() - lastSyncMillis <= maxStalenessMillis) {
+                hits.increment();
+                return false;
+            }
+            misses.increment();
+            return true;
+        }
+
+        T peek(String id) {
+            T entity = id != null ? entries.get(id) : null;
+            if (entity != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+            return entity;
+        }
+
+        synchronized void reload(List<T> all, Function<T, String> idOf) {
+            entries.clear();
+            for (T entity : all) {
+                if (entity != null) entries.put(idOf.apply(entity), entity);
+            }
+            view = null;
+            lastSyncMillis = System.currentTimeMillis();
+        }
+
+        synchronized void apply(String id, T entity) {
+            if (entity == null) {
+                entries.remove(id);
+            } else {
+                entries.put(id, entity);
+            }
+            view = null;
+        }
+
+        void synced(long lagMillis) {
+            lastSyncMillis = System.currentTimeMillis();
+            lastLagMillis = lagMillis;
+            maxLagMillis = Math.max(maxLagMillis, lagMillis);
+            live = true;
+        }
+
+        List<T> values() {
+            List<T> current = view;
+            if (current == null) {
+                synchronized (this) {
+                    current = view;
+                    if (current == null) {
+                        current = List.copyOf(entries.values());
+                        view = current;
+                    }
+                }
+            }
+            return current;
+        }
+
+        Map<String, Object> stats() {
+            long hitCount = hits.sum();
+            long missCount = misses.sum();
+            long total = hitCount + missCount;
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("size", entries.size());
+            stats.put("hits", hitCount);
+            stats.put("misses", missCount);
+            stats.put("hitRatio", total == 0 ? 0.0 : (double) hitCount / total);
+            stats.put("live", live);
+            stats.put("msSinceSync", lastSyncMillis == 0 ? -1 : System.currentTimeMillis() - lastSyncMillis);
+            stats.put("lastFeedLagMs", lastLagMillis);
+            stats.put("maxFeedLagMs", maxLagMillis);
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.concordia.velocity.cache;
+
+import com.concordia.velocity.model.Station;
+
+/**
+ * A cached station and its great-circle distance from the point it was looked up from
+ * The station is read-only, like every station the fleet cache returns.
+ */
+public record NearbyStation(Station station, double distanceMeters) {}
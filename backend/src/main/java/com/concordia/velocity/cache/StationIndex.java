@@ -0,0 +1,267 @@
+package com.concordia.velocity.cache;
+
+import com.concordia.velocity.model.Station;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * k-d tree of the cached stations by location, for nearest-station queries
+ *
+ * Coordinates are parsed once per station and placed on the unit sphere, so the straight-line
+ * (chord) distance the tree compares orders stations exactly as great-circle distance does, with
+ * no special cases at the poles or the antimeridian. The tree is a balanced, implicit one over an
+ * array and is rebuilt lazily, on the next query, only when a station is added, removed or moved;
+ * status and occupancy changes just swap the station in its node.
+ *
+ * Stations whose coordinates are missing or unparsable are kept out of the index.
+ * Maintained by FleetCache from the committed change feed; not meant to be used on its own.
+ */
+final class StationIndex {
+
+    static final double EARTH_RADIUS_METERS = 6_371_000.0;
+
+    private static final Node[] NO_NODES = new Node[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Node> located = new HashMap<>();
+    private final Set<String> unlocated = new HashSet<>();
+
+    private Node[] tree = NO_NODES;   // node of range [lo, hi) at (lo + hi) / 2, split on depth % 3
+    private boolean dirty;
+    private long rebuilds;
+
+    /**
+     * Replaces the whole index, used after a full collection load
+     */
+    void reload(Collection<Station> stations) {
+        lock.writeLock().lock();
+        try {
+            located.clear();
+            unlocated.clear();
+            for (Station station : stations) {
+                if (station != null && station.getStationId() != null) insert(station);
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a station's current state, or drops it when station is null (deleted)
+     */
+    void apply(String stationId, Station station) {
+        lock.writeLock().lock();
+        try {
+            Node node = located.get(stationId);
+            if (node != null && station != null && node.sameLocation(station)) {
+                node.station = station;
+                return;
+            }
+            if (located.remove(stationId) != null) dirty = true;
+            unlocated.remove(stationId);
+            if (station != null && insert(station)) dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to k stations matching the filter, nearest first
+     * @param filter applied to the cached station, or null to accept every station
+     */
+    List<NearbyStation> nearest(double latitude, double longitude, int k, Predicate<Station> filter) {
+        if (k <= 0) return List.of();
+        rebuildIfDirty();
+
+        double[] target = toUnitVector(latitude, longitude);
+        // farthest kept candidate on top, so it is the one a closer station evicts
+        PriorityQueue<Candidate> best = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(Candidate::chordSquared).reversed());
+
+        lock.readLock().lock();
+        try {
+            search(0, tree.length, 0, target, k, filter, best);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<NearbyStation> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Candidate candidate = best.poll();
+            result.add(new NearbyStation(candidate.station(), meters(candidate.chordSquared())));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("stations", located.size());
+            stats.put("unlocated", unlocated.size());
+            stats.put("rebuilds", rebuilds);
+            stats.put("pendingRebuild", dirty);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Great-circle distance between two points, in meters
+     */
+    static double distanceMeters(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double[] from = toUnitVector(fromLatitude, fromLongitude);
+        double[] to = toUnitVector(toLatitude, toLongitude);
+        double dx = from[0] - to[0];
+        double dy = from[1] - to[1];
+        double dz = from[2] - to[2];
+        return meters(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Parses a coordinate as stored on the station, or returns NaN if it is missing or out of range
+     */
+    static double parseCoordinate(String value, double limit) {
+        if (value == null) return Double.NaN;
+        try {
+            double parsed = Double.parseDouble(value.trim());
+            return parsed >= -limit && parsed <= limit ? parsed : Double.NaN;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    // Callers hold the write lock; returns false if the station has no usable location
+    private boolean insert(Station station) {
+        double latitude = parseCoordinate(station.getLatitude(), 90);
+        double longitude = parseCoordinate(station.getLongitude(), 180);
+        if (Double.isNaN(latitude) || Double.isNaN(longitude)) {
+            unlocated.add(station.getStationId());
+            return false;
+        }
+        located.put(station.getStationId(), new Node(station, latitude, longitude));
+        return true;
+    }
+
+    private void rebuildIfDirty() {
+        lock.readLock().lock();
+        try {
+            if (!dirty) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (!dirty) return;
+            Node[] nodes = located.values().toArray(NO_NODES);
+            build(nodes, 0, nodes.length, 0);
+            tree = nodes;
+            dirty = false;
+            rebuilds++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void build(Node[] nodes, int lo, int hi, int depth) {
+        if (hi - lo <= 1) return;
+        int axis = depth % 3;
+        Arrays.sort(nodes, lo, hi, Comparator.comparingDouble(node -> node.coordinates[axis]));
+        int mid = (lo + hi) >>> 1;
+        build(nodes, lo, mid, depth + 1);
+        build(nodes, mid + 1, hi, depth + 1);
+    }
+
+    // Callers hold the read lock
+    private void search(int lo, int hi, int depth, double[] target, int k, Predicate<Station> filter,
+                        PriorityQueue<Candidate> best) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        Node node = tree[mid];
+
+        Station station = node.station;
+        if (filter == null || filter.test(station)) {
+            double chordSquared = node.chordSquared(target);
+            if (best.size() < k) {
+                best.add(new Candidate(station, chordSquared));
+            } else if (chordSquared < best.peek().chordSquared()) {
+                best.poll();
+                best.add(new Candidate(station, chordSquared));
+            }
+        }
+
+        int axis = depth % 3;
+        double delta = target[axis] - node.coordinates[axis];
+        boolean nearLeft = delta < 0;
+        if (nearLeft) {
+            search(lo, mid, depth + 1, target, k, filter, best);
+        } else {
+            search(mid + 1, hi, depth + 1, target, k, filter, best);
+        }
+        // the far side can only help if the splitting plane is closer than the worst kept candidate
+        if (best.size() < k || delta * delta < best.peek().chordSquared()) {
+            if (nearLeft) {
+                search(mid + 1, hi, depth + 1, target, k, filter, best);
+            } else {
+                search(lo, mid, depth + 1, target, k, filter, best);
+            }
+        }
+    }
+
+    private static double[] toUnitVector(double latitude, double longitude) {
+        double phi = Math.toRadians(latitude);
+        double lambda = Math.toRadians(longitude);
+        double cosPhi = Math.cos(phi);
+        return new double[]{cosPhi * Math.cos(lambda), cosPhi * Math.sin(lambda), Math.sin(phi)};
+    }
+
+    private static double meters(double chordSquared) {
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(chordSquared) / 2));
+    }
+
+    private record Candidate(Station station, double chordSquared) {}
+
+    private static final class Node {
+        private final String latitude;    // as stored, to spot a move without parsing again
+        private final String longitude;
+        private final double[] coordinates;
+        private volatile Station station;
+
+        Node(Station station, double latitude, double longitude) {
+            this.station = station;
+            this.latitude = station.getLatitude();
+            this.longitude = station.getLongitude();
+            this.coordinates = toUnitVector(latitude, longitude);
+        }
+
+        boolean sameLocation(Station station) {
+            return Objects.equals(station.getLatitude(), latitude) && Objects.equals(station.getLongitude(), longitude);
+        }
+
+        double chordSquared(double[] target) {
+            double dx = coordinates[0] - target[0];
+            double dy = coordinates[1] - target[1];
+            double dz = coordinates[2] - target[2];
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+}
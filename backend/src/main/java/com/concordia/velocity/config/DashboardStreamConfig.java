@@ -0,0 +1,34 @@
+package com.concordia.velocity.config;
+
+import com.concordia.velocity.observer.DashboardStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Applies the velocity.dashboard.* settings to the stream behind DashboardObserver,
+ * and disconnects its clients when the application shuts down
+ */
+@Configuration
+public class DashboardStreamConfig {
+
+    private final DashboardStream.Settings settings;
+
+    public DashboardStreamConfig(@Value("${velocity.dashboard.coalesce-ms:250}") long coalesceMillis,
+                                 @Value("${velocity.dashboard.client-buffer:1024}") int clientBuffer,
+                                 @Value("${velocity.dashboard.heartbeat-ms:15000}") long heartbeatMillis) {
+        this.settings = new DashboardStream.Settings(coalesceMillis, clientBuffer, heartbeatMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        DashboardStream.configure(settings);
+    }
+
+    @PreDestroy
+    public void stop() {
+        DashboardStream.shared().close();
+    }
+}
@@ -1,15 +1,23 @@
 package com.concordia.velocity.config;
 
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.firestore.Firestore;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
+import com.google.firebase.cloud.FirestoreClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
 import javax.annotation.PostConstruct;
 import java.io.FileInputStream;
 import java.io.IOException;
 
+/**
+ * Firebase is only initialized when Firestore is the configured store (velocity.store=firestore, the default)
+ */
 @Configuration
+@ConditionalOnProperty(name = "velocity.store", havingValue = "firestore", matchIfMissing = true)
 public class FirebaseConfig {
 
     @PostConstruct
@@ -26,4 +34,12 @@ public class FirebaseConfig {
             System.out.println("Firebase initialized.");
         }
     }
+
+    /**
+     * Shared Firestore client injected into the Firestore repositories
+     */
+    @Bean
+    public Firestore firestore() {
+        return FirestoreClient.getFirestore();
+    }
 }
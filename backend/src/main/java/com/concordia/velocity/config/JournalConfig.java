@@ -0,0 +1,41 @@
+package com.concordia.velocity.config;
+
+import com.concordia.velocity.journal.TransitionJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.file.Paths;
+
+/**
+ * Applies the velocity.journal.* settings to the transition journal behind JournalObserver,
+ * exposes it as a bean for the query endpoint, and flushes it when the application shuts down
+ */
+@Configuration
+public class JournalConfig {
+
+    private final TransitionJournal.Settings settings;
+
+    public JournalConfig(@Value("${velocity.journal.directory:journal}") String directory,
+                         @Value("${velocity.journal.segment-records:1048576}") int segmentRecords,
+                         @Value("${velocity.journal.index-stride:256}") int indexStride) {
+        this.settings = new TransitionJournal.Settings(Paths.get(directory), segmentRecords, indexStride);
+    }
+
+    @PostConstruct
+    public void start() {
+        TransitionJournal.configure(settings);
+    }
+
+    @Bean
+    public TransitionJournal transitionJournal() {
+        return TransitionJournal.shared();
+    }
+
+    @PreDestroy
+    public void stop() {
+        TransitionJournal.shared().close();
+    }
+}
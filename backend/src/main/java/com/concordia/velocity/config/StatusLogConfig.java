@@ -0,0 +1,40 @@
+package com.concordia.velocity.config;
+
+import com.concordia.velocity.observer.StatusLogAppender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.file.Paths;
+
+/**
+ * Applies the velocity.status-log.* settings to the appender behind StatusObserver,
+ * and flushes it when the application shuts down
+ */
+@Configuration
+public class StatusLogConfig {
+
+    private final StatusLogAppender.Settings settings;
+
+    public StatusLogConfig(@Value("${velocity.status-log.path:status_changes.log}") String path,
+                           @Value("${velocity.status-log.queue-capacity:65536}") int queueCapacity,
+                           @Value("${velocity.status-log.batch-size:1024}") int batchSize,
+                           @Value("${velocity.status-log.fsync:interval}") String fsync,
+                           @Value("${velocity.status-log.fsync-interval-ms:1000}") long fsyncIntervalMillis,
+                           @Value("${velocity.status-log.max-file-bytes:10485760}") long maxFileBytes,
+                           @Value("${velocity.status-log.max-archives:10}") int maxArchives) {
+        this.settings = new StatusLogAppender.Settings(Paths.get(path), queueCapacity, batchSize,
+                StatusLogAppender.FsyncPolicy.valueOf(fsync.toUpperCase()), fsyncIntervalMillis, maxFileBytes, maxArchives);
+    }
+
+    @PostConstruct
+    public void start() {
+        StatusLogAppender.configure(settings);
+    }
+
+    @PreDestroy
+    public void stop() {
+        StatusLogAppender.shared().close();
+    }
+}
@@ -0,0 +1,28 @@
+package com.concordia.velocity.config;
+
+import com.concordia.velocity.reservation.ReservationManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Extends spring.threads.virtual.enabled to the reservation expiry timers
+ * Spring itself switches request handling and @Scheduled jobs to virtual threads with the same setting.
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    private final boolean enabled;
+
+    public VirtualThreadConfig(@Value("${spring.threads.virtual.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void configure() {
+        ReservationManager.useVirtualThreads(enabled);
+        System.out.println("Virtual threads " + (enabled ? "enabled" : "disabled")
+                + " for requests, scheduled jobs and reservation timers");
+    }
+}
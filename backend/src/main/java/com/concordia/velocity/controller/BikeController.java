@@ -2,6 +2,7 @@ package com.concordia.velocity.controller;
 
 import com.concordia.velocity.model.Bike;
 import com.concordia.velocity.service.BikeService;
+import com.concordia.velocity.service.Futures;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -10,6 +11,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/bikes")
@@ -25,59 +27,36 @@ public class BikeController {
      * Body: { "bikeId": "...", "userId": "...", "stationId": "..." }
      */
     @PostMapping("/reserve")
-    public ResponseEntity<Map<String, Object>> reserveBike(@RequestBody Map<String, String> request) {
-        Map<String, Object> response = new HashMap<>();
-
-        try {
-            String bikeId = request.get("bikeId");
-            String userId = request.get("userId");
-            String stationId = request.get("stationId");
-
-            String message = bikeService.reserveBike(bikeId, userId, stationId);
-
-            // Get updated bike details
-            Bike bike = bikeService.getBikeById(bikeId);
-
-            response.put("success", true);
-            response.put("message", message);
-            response.put("bike", bike);
-            response.put("reservationExpiry", bike.getReservationExpiry());
-
-            return ResponseEntity.ok(response);
-
-        } catch (IllegalArgumentException e) {
-            response.put("success", false);
-            response.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
-
-        } catch (IllegalStateException e) {
-            response.put("success", false);
-            response.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
-
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("error", "An unexpected error occurred: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-        }
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> reserveBike(@RequestBody Map<String, String> request) {
+        String bikeId = request.get("bikeId");
+        String userId = request.get("userId");
+        String stationId = request.get("stationId");
+
+        return bikeService.reserveBikeAsync(bikeId, userId, stationId)
+                .thenCompose(message -> bikeService.getBikeByIdAsync(bikeId).thenApply(bike -> {
+                    // Updated bike details
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", true);
+                    response.put("message", message);
+                    response.put("bike", bike);
+                    response.put("reservationExpiry", bike.getReservationExpiry());
+
+                    return ResponseEntity.ok(response);
+                }))
+                .exceptionally(this::failure);
     }
 
     /**
-     * Get available bikes at a station
-     * GET /api/bikes/available?stationId=...
+     * Get available bikes at a station, optionally of one type
+     * GET /api/bikes/available?stationId=...&type=electric|standard
      */
     @GetMapping("/available")
-    public ResponseEntity<Map<String, Object>> getAvailableBikes(@RequestParam String stationId) {
+    public ResponseEntity<Map<String, Object>> getAvailableBikes(@RequestParam String stationId,
+                                                                 @RequestParam(required = false) String type) {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            List<Bike> allBikes = bikeService.getAllBikes();
-
-            // Filter bikes that are available at this station
-            List<Bike> availableBikes = allBikes.stream()
-                    .filter(bike -> stationId.equals(bike.getStationId()))
-                    .filter(bike -> Bike.STATUS_AVAILABLE.equalsIgnoreCase(bike.getStatus()))
-                    .toList();
+            List<Bike> availableBikes = bikeService.getAvailableBikesAtStation(stationId, type);
 
             response.put("success", true);
             response.put("bikes", availableBikes);
@@ -158,4 +137,24 @@ public class BikeController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Maps a failed async call to the response its blocking counterpart would have given
+     */
+    private ResponseEntity<Map<String, Object>> failure(Throwable error) {
+        Throwable cause = Futures.unwrap(error);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+
+        if (cause instanceof IllegalArgumentException) {
+            response.put("error", cause.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (cause instanceof IllegalStateException) {
+            response.put("error", cause.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        response.put("error", "An unexpected error occurred: " + cause.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    }
+}
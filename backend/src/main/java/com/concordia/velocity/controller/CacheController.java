@@ -0,0 +1,34 @@
+package com.concordia.velocity.controller;
+
+import com.concordia.velocity.cache.FleetCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST Controller exposing the fleet cache's health
+ */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final FleetCache fleetCache;
+
+    public CacheController(FleetCache fleetCache) {
+        this.fleetCache = fleetCache;
+    }
+
+    /**
+     * Hit/miss and staleness metrics for the station, dock and bike caches
+     * GET /api/cache/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("fleet", fleetCache.getStats());
+        return ResponseEntity.ok(response);
+    }
+}
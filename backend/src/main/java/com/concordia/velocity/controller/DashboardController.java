@@ -0,0 +1,61 @@
+package com.concordia.velocity.controller;
+
+import com.concordia.velocity.observer.DashboardStream;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST Controller for the live dashboard stream
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "*")
+public class DashboardController {
+
+    /**
+     * Server-sent events with station, dock and bike status deltas
+     * Events: "deltas" (a JSON array of {kind, id, previous, status, stationId, dockId, dockedBikes,
+     * freeDocks, at}), "resync" when deltas were dropped and the client should re-read /api/stations
+     * and /api/docks, and "heartbeat" when idle.
+     * GET /api/dashboard/stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        // no timeout: the connection stays open until the client goes away
+        SseEmitter emitter = new SseEmitter(0L);
+        DashboardStream stream = DashboardStream.shared();
+        DashboardStream.Client client = stream.subscribe(new DashboardStream.Sink() {
+            @Override
+            public void send(String event, Object data) throws IOException {
+                emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(() -> stream.unsubscribe(client));
+        emitter.onTimeout(() -> stream.unsubscribe(client));
+        emitter.onError(error -> stream.unsubscribe(client));
+        return emitter;
+    }
+
+    /**
+     * Connected clients and delivery counters
+     * GET /api/dashboard/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("stream", DashboardStream.shared().stats());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,100 @@
+package com.concordia.velocity.controller;
+
+import com.concordia.velocity.forecast.DemandForecaster;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST Controller for station demand forecasts built from trip history
+ */
+@RestController
+@RequestMapping("/api/forecast")
+@CrossOrigin(origins = "*")
+public class ForecastController {
+
+    private final DemandForecaster demandForecaster;
+
+    public ForecastController(DemandForecaster demandForecaster) {
+        this.demandForecaster = demandForecaster;
+    }
+
+    /**
+     * Expected departures, arrivals and net flow at a station, hour by hour
+     * GET /api/forecast/stations/S001?hours=24
+     */
+    @GetMapping("/stations/{stationId}")
+    public ResponseEntity<Map<String, Object>> forecastStation(
+            @PathVariable String stationId,
+            @RequestParam(defaultValue = "24") int hours) {
+
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("forecast", demandForecaster.forecast(stationId, hours));
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Expected net flow over the next hours for every station with trip history
+     * Negative values are stations expected to lose bikes, positive ones to fill up.
+     * GET /api/forecast/net-flow?hours=3
+     */
+    @GetMapping("/net-flow")
+    public ResponseEntity<Map<String, Object>> netFlow(@RequestParam(defaultValue = "3") int hours) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            Map<String, Double> flows = demandForecaster.netFlow(hours);
+            response.put("success", true);
+            response.put("hours", hours);
+            response.put("count", flows.size());
+            response.put("netFlow", flows);
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Rebuilds the forecast from every trip in the store, e.g. after importing history
+     * POST /api/forecast/rebuild
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("trips", demandForecaster.rebuild());
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", "Unexpected error: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Size and coverage of the demand curves
+     * GET /api/forecast/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("forecast", demandForecaster.stats());
+        return ResponseEntity.ok(response);
+    }
+}
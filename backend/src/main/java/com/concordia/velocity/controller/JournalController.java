@@ -0,0 +1,95 @@
+package com.concordia.velocity.controller;
+
+import com.concordia.velocity.journal.TransitionJournal;
+import com.concordia.velocity.observer.StatusTransition;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for querying the status transition journal
+ */
+@RestController
+@RequestMapping("/api/journal")
+@CrossOrigin(origins = "*")
+public class JournalController {
+
+    private static final int DEFAULT_LIMIT = 1000;
+    private static final int MAX_LIMIT = 10_000;
+
+    private final TransitionJournal journal;
+
+    public JournalController(TransitionJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Transitions in time order, filtered by entity and/or time range
+     * GET /api/journal?kind=bike&entityId=B001&from=2025-01-01T00:00:00Z&to=2025-01-02T00:00:00Z&limit=100
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> scan(
+            @RequestParam(required = false) String kind,
+            @RequestParam(required = false) String entityId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit) {
+
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            if (limit < 1 || limit > MAX_LIMIT) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+            }
+            TransitionJournal.Query query = new TransitionJournal.Query(
+                    parseKind(kind), entityId, parseInstant("from", from), parseInstant("to", to), limit);
+
+            List<TransitionJournal.Entry> entries = journal.scan(query);
+            response.put("success", true);
+            response.put("count", entries.size());
+            response.put("truncated", entries.size() == limit);
+            response.put("transitions", entries);
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Record counts and write errors of the journal
+     * GET /api/journal/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("journal", journal.stats());
+        return ResponseEntity.ok(response);
+    }
+
+    private static StatusTransition.Kind parseKind(String kind) {
+        if (kind == null || kind.isEmpty()) return null;
+        try {
+            return StatusTransition.Kind.valueOf(kind.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid kind: " + kind + ". Valid options are: bike, dock, station");
+        }
+    }
+
+    private static Long parseInstant(String name, String value) {
+        if (value == null || value.isEmpty()) return null;
+        try {
+            return Instant.parse(value).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be an ISO-8601 instant, e.g. 2025-01-01T00:00:00Z");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.concordia.velocity.controller;
+
+import com.concordia.velocity.metrics.EndpointMetrics;
+import com.concordia.velocity.metrics.PhaseTimings;
+import com.concordia.velocity.metrics.PrometheusWriter;
+import com.concordia.velocity.metrics.StoreMetrics;
+import com.concordia.velocity.reservation.ReservationManager;
+import com.concordia.velocity.service.AbandonedTripService;
+import com.concordia.velocity.service.AbandonmentDeadlineScheduler;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST Controller exposing latency breakdowns, storage call metrics and scheduler gauges
+ */
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final PhaseTimings phaseTimings;
+    private final EndpointMetrics endpointMetrics;
+    private final StoreMetrics storeMetrics;
+    private final AbandonmentDeadlineScheduler deadlineScheduler;
+    private final AbandonedTripService abandonedTripService;
+
+    public MetricsController(PhaseTimings phaseTimings, EndpointMetrics endpointMetrics, StoreMetrics storeMetrics,
+                             AbandonmentDeadlineScheduler deadlineScheduler, AbandonedTripService abandonedTripService) {
+        this.phaseTimings = phaseTimings;
+        this.endpointMetrics = endpointMetrics;
+        this.storeMetrics = storeMetrics;
+        this.deadlineScheduler = deadlineScheduler;
+        this.abandonedTripService = abandonedTripService;
+    }
+
+    /**
+     * All metrics: per-endpoint latency and round-trips, storage calls, phases and gauges
+     * GET /api/metrics
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("endpoints", endpointMetrics.snapshot());
+        response.put("store", storeMetrics.snapshot());
+        response.put("phases", phaseTimings.snapshot());
+        response.put("gauges", gauges());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * The same metrics in the Prometheus text format, for scraping
+     * GET /api/metrics/prometheus
+     */
+    @GetMapping("/prometheus")
+    public ResponseEntity<String> scrape() {
+        PrometheusWriter out = new PrometheusWriter();
+        endpointMetrics.writePrometheus(out);
+        storeMetrics.writePrometheus(out);
+        phaseTimings.writePrometheus(out);
+        out.gauge("velocity_reservation_timers_active", "Reservation expiry timers that have not fired",
+                Collections.emptyMap(), ReservationManager.activeCount());
+        out.gauge("velocity_abandonment_deadlines_pending", "Active trips whose abandonment deadline has not passed",
+                Collections.emptyMap(), deadlineScheduler.pendingCount());
+        out.gauge("velocity_abandoned_trips_backlog", "Overdue trips waiting for or being processed as abandoned",
+                Collections.emptyMap(), abandonedTripService.processingBacklog());
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(PrometheusWriter.CONTENT_TYPE))
+                .body(out.toString());
+    }
+
+    /**
+     * Per-phase latency of the trip lifecycle operations
+     * GET /api/metrics/phases
+     */
+    @GetMapping("/phases")
+    public ResponseEntity<Map<String, Object>> getPhases() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("phases", phaseTimings.snapshot());
+        return ResponseEntity.ok(response);
+    }
+
+    private Map<String, Object> gauges() {
+        Map<String, Object> gauges = new LinkedHashMap<>();
+        gauges.put("reservationTimersActive", ReservationManager.activeCount());
+        gauges.put("abandonmentDeadlinesPending", deadlineScheduler.pendingCount());
+        gauges.put("abandonedTripsBacklog", abandonedTripService.processingBacklog());
+        return gauges;
+    }
+}
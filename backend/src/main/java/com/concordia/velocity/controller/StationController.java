@@ -1,6 +1,7 @@
 // This file handles HTTP requests. The controller handles the incoming requests, processes them by calling the service layer, which calls the repository.
 
 package com.concordia.velocity.controller;
+import com.concordia.velocity.cache.NearbyStation;
 import com.concordia.velocity.model.Station;
 import com.concordia.velocity.service.StationService;
 import org.springframework.web.bind.annotation.*;
@@ -57,6 +58,34 @@ public class StationController {
 
 
    
+    @GetMapping("/nearby") // GET endpoint to fetch the stations nearest to a point
+    public ResponseEntity<Map<String, Object>> getNearbyStations(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "5") int k,
+            @RequestParam(defaultValue = "false") boolean hasBikes,
+            @RequestParam(defaultValue = "false") boolean hasDocks) {
+
+        Map<String, Object> response = new HashMap<>();
+        try {
+            List<NearbyStation> stations = stationService.findNearbyStations(lat, lon, k, hasBikes, hasDocks);
+            response.put("success", true);
+            response.put("count", stations.size());
+            response.put("stations", stations);
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", "Unexpected error: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     @GetMapping("/{stationId}") // GET endpoint to fetch station's data
     public Object getStationById(@PathVariable String stationId) throws ExecutionException, InterruptedException {
         return stationService.getStationById(stationId);
@@ -3,12 +3,14 @@ package com.concordia.velocity.controller;
 import com.concordia.velocity.model.Bike;
 import com.concordia.velocity.model.Dock;
 import com.concordia.velocity.model.Station;
+import com.concordia.velocity.service.RebalancingPlanner;
 import com.concordia.velocity.service.TransferService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +27,9 @@ public class TransferController {
     @Autowired
     private TransferService transferService;
 
+    @Autowired
+    private RebalancingPlanner rebalancingPlanner;
+
     @GetMapping("/stations")
     public ResponseEntity<?> getAllStations() {
         try {
@@ -107,6 +112,99 @@ public class TransferController {
         }
     }
 
+    /**
+     * Moves many bikes at once; moves between the same two stations share transactions
+     * Body: { "transfers": [ { "bikeId": "...", "sourceDockId": "...", "destinationDockId": "...",
+     *                          "sourceStationId": "...", "destinationStationId": "..." }, ... ] }
+     * Responds 200 with each move's outcome, even if some moves failed
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> transferBikes(@RequestBody Map<String, List<Map<String, String>>> request) {
+        try {
+            List<Map<String, String>> items = request.get("transfers");
+            if (items == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("transfers is required"));
+            }
+
+            List<TransferService.BikeTransfer> transfers = new ArrayList<>(items.size());
+            for (Map<String, String> item : items) {
+                transfers.add(item == null ? null : new TransferService.BikeTransfer(
+                        item.get("bikeId"), item.get("sourceDockId"), item.get("destinationDockId"),
+                        item.get("sourceStationId"), item.get("destinationStationId")));
+            }
+
+            List<TransferService.TransferOutcome> outcomes = transferService.transferBikes(transfers);
+
+            Map<String, Long> counts = new HashMap<>();
+            for (TransferService.TransferOutcome outcome : outcomes) {
+                counts.merge(outcome.status(), 1L, Long::sum);
+            }
+            long transferred = counts.getOrDefault(TransferService.OUTCOME_TRANSFERRED, 0L);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", transferred == outcomes.size());
+            response.put("transferred", transferred);
+            response.put("failed", counts.getOrDefault(TransferService.OUTCOME_FAILED, 0L));
+            response.put("rejected", counts.getOrDefault(TransferService.OUTCOME_REJECTED, 0L));
+            response.put("outcomes", outcomes);
+            response.put("timestamp", java.time.Instant.now().toString());
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Plans bike moves that bring stations back to their target fill; nothing is moved
+     * Body (all optional): { "targetFill": 0.5, "tolerance": 0.1, "targets": { "S001": 0.8 }, "horizonHours": 3 }
+     * With horizonHours, stations are balanced on the bikes they are forecast to hold that many hours ahead.
+     */
+    @PostMapping("/plan")
+    public ResponseEntity<?> planRebalancing(@RequestBody(required = false) Map<String, Object> request) {
+        try {
+            Map<String, Object> body = request != null ? request : Map.of();
+            double targetFill = number(body.get("targetFill"), RebalancingPlanner.DEFAULT_TARGET_FILL, "targetFill");
+            double tolerance = number(body.get("tolerance"), RebalancingPlanner.DEFAULT_TOLERANCE, "tolerance");
+            double horizonHours = number(body.get("horizonHours"), 0.0, "horizonHours");
+            if (horizonHours != Math.rint(horizonHours)) {
+                throw new IllegalArgumentException("horizonHours must be a whole number of hours");
+            }
+
+            Map<String, Double> targets = new HashMap<>();
+            if (body.get("targets") instanceof Map<?, ?> stationTargets) {
+                for (Map.Entry<?, ?> target : stationTargets.entrySet()) {
+                    targets.put(String.valueOf(target.getKey()), number(target.getValue(), null, "targets." + target.getKey()));
+                }
+            } else if (body.get("targets") != null) {
+                throw new IllegalArgumentException("targets must map station IDs to target fills");
+            }
+
+            RebalancingPlanner.RebalancingPlan plan = rebalancingPlanner.plan(targetFill, tolerance, targets, (int) horizonHours);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("plan", plan);
+            response.put("timestamp", java.time.Instant.now().toString());
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error: " + e.getMessage()));
+        }
+    }
+
+    private static Double number(Object value, Double defaultValue, String name) {
+        if (value == null) return defaultValue;
+        if (value instanceof Number number) return number.doubleValue();
+        throw new IllegalArgumentException(name + " must be a number");
+    }
+
     private Map<String, Object> createErrorResponse(String message) {
         Map<String, Object> error = new HashMap<>();
         error.put("success", false);
@@ -2,60 +2,59 @@ package com.concordia.velocity.controller;
 
 import com.concordia.velocity.model.Bill;
 import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.service.Futures;
+import com.concordia.velocity.service.ReturnRecommendationService;
+import com.concordia.velocity.service.ReturnRecommendationService.ReturnRecommendation;
 import com.concordia.velocity.service.TripService;
+import com.google.cloud.Timestamp;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/trips")
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})  // ← Update this
 public class TripController {
 
+    // other places to return a bike, offered when a return is refused
+    private static final int RETURN_ALTERNATIVES = 3;
+
     @Autowired
     private TripService tripService;
 
+    @Autowired
+    private ReturnRecommendationService returnRecommendationService;
+
     /**
      * Start a trip by undocking a reserved bike
      * POST /api/trips/start/reserved
      * Body: { "bikeId": "...", "riderId": "...", "dockCode": "..." }
      */
     @PostMapping("/start/reserved")
-    public ResponseEntity<Map<String, Object>> startTripFromReservation(@RequestBody Map<String, String> request) {
-        Map<String, Object> response = new HashMap<>();
-
-        try {
-            String bikeId = request.get("bikeId");
-            String riderId = request.get("riderId");
-            String dockCode = request.get("dockCode");
-
-            String message = tripService.undockReservedBike(bikeId, riderId, dockCode);
-
-            response.put("success", true);
-            response.put("message", message);
-
-            return ResponseEntity.ok(response);
-
-        } catch (IllegalArgumentException e) {
-            response.put("success", false);
-            response.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
-
-        } catch (IllegalStateException e) {
-            response.put("success", false);
-            response.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
-
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("error", "An unexpected error occurred: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-        }
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> startTripFromReservation(@RequestBody Map<String, String> request) {
+        String bikeId = request.get("bikeId");
+        String riderId = request.get("riderId");
+        String dockCode = request.get("dockCode");
+
+        return tripService.undockReservedBikeAsync(bikeId, riderId, dockCode)
+                .thenApply(message -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", true);
+                    response.put("message", message);
+
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(this::failure);
     }
 
     /**
@@ -64,36 +63,20 @@ public class TripController {
      * Body: { "dockId": "...", "dockCode": "...", "riderId": "..." }
      */
     @PostMapping("/start/direct")
-    public ResponseEntity<Map<String, Object>> startTripDirect(@RequestBody Map<String, String> request) {
-        Map<String, Object> response = new HashMap<>();
-
-        try {
-            String dockId = request.get("dockId");
-            String dockCode = request.get("dockCode");
-            String riderId = request.get("riderId");
-
-            String message = tripService.undockAvailableBike(dockId, dockCode, riderId);
-
-            response.put("success", true);
-            response.put("message", message);
-
-            return ResponseEntity.ok(response);
-
-        } catch (IllegalArgumentException e) {
-            response.put("success", false);
-            response.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
-
-        } catch (IllegalStateException e) {
-            response.put("success", false);
-            response.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
-
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("error", "An unexpected error occurred: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-        }
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> startTripDirect(@RequestBody Map<String, String> request) {
+        String dockId = request.get("dockId");
+        String dockCode = request.get("dockCode");
+        String riderId = request.get("riderId");
+
+        return tripService.undockAvailableBikeAsync(dockId, dockCode, riderId)
+                .thenApply(message -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", true);
+                    response.put("message", message);
+
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(this::failure);
     }
 
     /**
@@ -102,27 +85,60 @@ public class TripController {
      * Body: { "bikeId": "...", "riderId": "...", "dockId": "...", "dockCode": "..." }
      */
     @PostMapping("/end")
-    public ResponseEntity<Map<String, Object>> endTrip(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> endTrip(@RequestBody Map<String, String> request) {
+        String bikeId = request.get("bikeId");
+        String riderId = request.get("riderId");
+        String dockId = request.get("dockId");
+        String dockCode = request.get("dockCode");
+
+        return tripService.endTripAsync(bikeId, dockId, dockCode, riderId)
+                .thenApply(tripResponse -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", true);
+                    response.put("message", tripResponse.getMessage());
+
+                    // Include tier change information if there was a change
+                    if (tripResponse.getTierChange() != null) {
+                        Map<String, String> tierChangeInfo = new HashMap<>();
+                        tierChangeInfo.put("oldTier", tripResponse.getTierChange().getOldTier());
+                        tierChangeInfo.put("newTier", tripResponse.getTierChange().getNewTier());
+                        response.put("tierChange", tierChangeInfo);
+                    }
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(error -> {
+                    ResponseEntity<Map<String, Object>> failed = failure(error);
+                    // The dock was taken or its station can't accept the bike: point the rider somewhere that can
+                    if (failed.getStatusCode() == HttpStatus.CONFLICT && dockId != null) {
+                        try {
+                            failed.getBody().put("alternatives",
+                                    returnRecommendationService.recommendInsteadOf(dockId, RETURN_ALTERNATIVES));
+                        } catch (Exception e) {
+                            // the failure itself is what the rider needs to see
+                        }
+                    }
+                    return failed;
+                });
+    }
+
+    /**
+     * Where to return a bike near a point: nearest stations with free docks, each with an empty dock
+     * GET /api/trips/return-recommendations?lat=...&lon=...&k=...
+     */
+    @GetMapping("/return-recommendations")
+    public ResponseEntity<Map<String, Object>> getReturnRecommendations(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "3") int k) {
+
         Map<String, Object> response = new HashMap<>();
 
         try {
-            String bikeId = request.get("bikeId");
-            String riderId = request.get("riderId");
-            String dockId = request.get("dockId");
-            String dockCode = request.get("dockCode");
-
-            TripService.TripEndResponse tripResponse = tripService.dockBikeAndEndTrip(bikeId, riderId, dockId, dockCode);
+            List<ReturnRecommendation> recommendations = returnRecommendationService.recommend(lat, lon, k);
 
             response.put("success", true);
-            response.put("message", tripResponse.getMessage());
-
-            // Include tier change information if there was a change
-            if (tripResponse.getTierChange() != null) {
-                Map<String, String> tierChangeInfo = new HashMap<>();
-                tierChangeInfo.put("oldTier", tripResponse.getTierChange().getOldTier());
-                tierChangeInfo.put("newTier", tripResponse.getTierChange().getNewTier());
-                response.put("tierChange", tierChangeInfo);
-            }
+            response.put("count", recommendations.size());
+            response.put("recommendations", recommendations);
             return ResponseEntity.ok(response);
 
         } catch (IllegalArgumentException e) {
@@ -130,11 +146,6 @@ public class TripController {
             response.put("error", e.getMessage());
             return ResponseEntity.badRequest().body(response);
 
-        } catch (IllegalStateException e) {
-            response.put("success", false);
-            response.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
-
         } catch (Exception e) {
             response.put("success", false);
             response.put("error", "An unexpected error occurred: " + e.getMessage());
@@ -202,53 +213,123 @@ public class TripController {
 
 
     /**
-     * GET /api/trips
-     * Returns all trips
+     * GET /api/trips?riderId=R001&from=2025-01-01T00:00:00Z&to=2025-02-01T00:00:00Z&limit=50&fields=summary&cursor=...
+     * Returns one page of trips, newest first; pass nextCursor back as cursor for the next page.
+     * fields is a comma-separated list of trip fields, or "summary" for every field but the bill.
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllTrips() {
+    public ResponseEntity<Map<String, Object>> getAllTrips(
+            @RequestParam(required = false) String riderId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + TripService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) String fields) {
+        return tripPage(riderId, from, to, cursor, limit, fields, "Failed to retrieve trips: ");
+    }
+
+
+
+    /**
+     * GET /api/trips/rider/{riderId}?from=...&to=...&limit=50&fields=summary&cursor=...
+     * Returns one page of a rider's trips, newest first
+     */
+    @GetMapping("/rider/{riderId}")
+    public ResponseEntity<Map<String, Object>> getRiderTrips(
+            @PathVariable String riderId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + TripService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) String fields) {
+        return tripPage(riderId, from, to, cursor, limit, fields, "Failed to retrieve rider trips: ");
+    }
+
+    /**
+     * GET /api/trips/rider/{riderId}/bills?from=...&to=...&limit=50&cursor=...
+     * Returns one page of a rider's bills, from their newest trips first
+     */
+    @GetMapping("/rider/{riderId}/bills")
+    public ResponseEntity<Map<String, Object>> getRiderBills(
+            @PathVariable String riderId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + TripService.DEFAULT_PAGE_SIZE) int limit) {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            List<Trip> trips = tripService.getAllTrips();
+            TripService.BillPage page = tripService.getBillPage(riderId, parseTimestamp("from", from),
+                    parseTimestamp("to", to), cursor, limit);
 
             response.put("success", true);
-            response.put("trips", trips);
+            response.put("bills", page.bills());
+            response.put("count", page.bills().size());
+            response.put("nextCursor", page.nextCursor());
+            response.put("hasMore", page.nextCursor() != null);
 
             return ResponseEntity.ok(response);
 
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+
         } catch (Exception e) {
             response.put("success", false);
-            response.put("error", "Failed to retrieve trips: " + e.getMessage());
+            response.put("error", "Failed to retrieve rider bills: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
-
-
-    /**
-     * GET /api/trips/rider/{riderId}
-     * Returns all trips for a given user
-     */
-    @GetMapping("/rider/{riderId}")
-    public ResponseEntity<Map<String, Object>> getRiderTrips(@PathVariable String riderId) {
+    private ResponseEntity<Map<String, Object>> tripPage(String riderId, String from, String to, String cursor,
+                                                         int limit, String fields, String failure) {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            List<Trip> trips = tripService.getRiderTrips(riderId);
+            TripService.TripPage page = tripService.getTripPage(riderId, parseTimestamp("from", from),
+                    parseTimestamp("to", to), cursor, limit, parseFields(fields));
 
             response.put("success", true);
-            response.put("trips", trips);
+            response.put("trips", page.trips());
+            response.put("count", page.trips().size());
+            response.put("nextCursor", page.nextCursor());
+            response.put("hasMore", page.nextCursor() != null);
 
             return ResponseEntity.ok(response);
 
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+
         } catch (Exception e) {
             response.put("success", false);
-            response.put("error", "Failed to retrieve rider trips: " + e.getMessage());
+            response.put("error", failure + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
+    private static Timestamp parseTimestamp(String name, String value) {
+        if (value == null || value.isEmpty()) return null;
+        try {
+            Instant instant = Instant.parse(value);
+            return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be an ISO-8601 instant, e.g. 2025-01-01T00:00:00Z");
+        }
+    }
+
+    private static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) return null;
+        if ("summary".equalsIgnoreCase(fields.trim())) return TripService.SUMMARY_FIELDS;
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            if (!field.isBlank()) parsed.add(field.trim());
+        }
+        return parsed;
+    }
+
 
     /**
      * Report an issue with a bike and put it in maintenance
@@ -288,5 +369,23 @@ public class TripController {
         }
     }
 
+    /**
+     * Maps a failed async call to the response its blocking counterpart would have given
+     */
+    private ResponseEntity<Map<String, Object>> failure(Throwable error) {
+        Throwable cause = Futures.unwrap(error);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
 
-}
\ No newline at end of file
+        if (cause instanceof IllegalArgumentException) {
+            response.put("error", cause.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (cause instanceof IllegalStateException) {
+            response.put("error", cause.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        response.put("error", "An unexpected error occurred: " + cause.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    }
+}
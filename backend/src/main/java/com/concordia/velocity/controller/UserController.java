@@ -1,6 +1,8 @@
 package com.concordia.velocity.controller;
 
 import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.RiderStats;
+import com.concordia.velocity.service.LoyaltyStatsService;
 import com.concordia.velocity.service.UserService;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,9 +15,11 @@ import java.util.concurrent.ExecutionException;
 public class UserController {
 
     private final UserService userService;
+    private final LoyaltyStatsService loyaltyStatsService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, LoyaltyStatsService loyaltyStatsService) {
         this.userService = userService;
+        this.loyaltyStatsService = loyaltyStatsService;
     }
 
     /**
@@ -64,4 +68,19 @@ public class UserController {
         String userId = "U001"; // TODO: Replace with authenticated user ID later
         return userService.deleteUser(userId);
     }
+
+    /**
+     * POST /api/users/{riderId}/loyalty-stats/reconcile
+     * Rebuild a rider's stored loyalty stats from their full trip history
+     */
+    @PostMapping("/{riderId}/loyalty-stats/reconcile")
+    public Object reconcileLoyaltyStats(@PathVariable String riderId) throws ExecutionException, InterruptedException {
+        RiderStats stats = loyaltyStatsService.reconcile(riderId);
+
+        if (stats == null) {
+            return Map.of("error", "Rider not found: " + riderId);
+        }
+
+        return stats;
+    }
 }
@@ -0,0 +1,273 @@
+package com.concordia.velocity.forecast;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Departures and arrivals per station and hour of the week, weighted towards recent weeks
+ *
+ * Each station keeps 168 departure and 168 arrival counters in two flat float arrays, so a trip
+ * costs a map lookup and two additions however much history there is. Recency uses forward decay:
+ * a trip at time t adds exp(lambda * (t - landmark)) instead of 1, which keeps old counters valid
+ * as time passes; when the weights grow too large the counters are scaled down once and the
+ * landmark moves. The expected count for an hour is its counter divided by the summed weight of
+ * that hour's past occurrences since the first trip, i.e. a decayed average over the weeks observed.
+ *
+ * Owned by DemandForecaster; not meant to be used on its own.
+ */
+final class DemandCurves {
+
+    static final int HOURS_PER_WEEK = 168;
+    static final long HOUR_MILLIS = 3_600_000L;
+    static final long WEEK_MILLIS = HOURS_PER_WEEK * HOUR_MILLIS;
+
+    // weights are rescaled before exp(exponent) could lose float range on busy stations
+    private static final double RESCALE_EXPONENT = 30.0;
+    private static final int INITIAL_STATIONS = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ZoneRules zoneRules;
+    private final double decayPerMilli;   // lambda, 0 when every week weighs the same
+
+    private final Map<String, Integer> slots = new HashMap<>();
+    private String[] stationIds = new String[INITIAL_STATIONS];
+    private float[] departures = new float[INITIAL_STATIONS * HOURS_PER_WEEK];
+    private float[] arrivals = new float[INITIAL_STATIONS * HOURS_PER_WEEK];
+
+    // offset in force between two transitions of the zone, so trips in time order skip the rule lookup
+    private volatile OffsetWindow offsetWindow = new OffsetWindow(0, 0, 0);
+
+    private long landmarkMillis = Long.MIN_VALUE;   // set by the first trip
+    private long weightHour = Long.MIN_VALUE;        // trips in the same hour share one weight
+    private float hourWeight;
+    private long firstMillis = Long.MAX_VALUE;
+    private long lastMillis = Long.MIN_VALUE;
+    private long recorded;
+    private long rescales;
+
+    /**
+     * @param halfLifeMillis age at which a trip counts half as much, or 0 to weigh every week the same
+     */
+    DemandCurves(ZoneId zone, long halfLifeMillis) {
+        this.zoneRules = zone.getRules();
+        this.decayPerMilli = halfLifeMillis > 0 ? Math.log(2) / halfLifeMillis : 0.0;
+    }
+
+    /**
+     * Counts a bike leaving a station
+     */
+    void recordDeparture(String stationId, long millis) {
+        record(stationId, millis, false);
+    }
+
+    /**
+     * Counts a bike returned to a station
+     */
+    void recordArrival(String stationId, long millis) {
+        record(stationId, millis, true);
+    }
+
+    /**
+     * Expected departures and arrivals at a station for consecutive hours, written into the arrays
+     * @param fromMillis start of the first hour
+     * @return false if the station has no recorded trips, leaving the arrays at zero
+     */
+    boolean expected(String stationId, long fromMillis, double[] expectedDepartures, double[] expectedArrivals) {
+        int hours = expectedDepartures.length;
+        int[] buckets = buckets(fromMillis, hours);
+        Arrays.fill(expectedDepartures, 0);
+        Arrays.fill(expectedArrivals, 0);
+        lock.readLock().lock();
+        try {
+            Integer slot = slots.get(stationId);
+            if (slot == null) return false;
+            double[] scales = scales(fromMillis, hours);
+            int base = slot * HOURS_PER_WEEK;
+            for (int h = 0; h < hours; h++) {
+                expectedDepartures[h] = departures[base + buckets[h]] * scales[h];
+                expectedArrivals[h] = arrivals[base + buckets[h]] * scales[h];
+            }
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Expected arrivals minus departures over consecutive hours, for every station with recorded trips
+     */
+    Map<String, Double> netFlow(long fromMillis, int hours) {
+        int[] buckets = buckets(fromMillis, hours);
+        lock.readLock().lock();
+        try {
+            Map<String, Double> flows = new HashMap<>(slots.size() * 2);
+            if (slots.isEmpty()) return flows;
+            double[] scales = scales(fromMillis, hours);
+            for (int slot = 0; slot < slots.size(); slot++) {
+                int base = slot * HOURS_PER_WEEK;
+                double net = 0;
+                for (int h = 0; h < hours; h++) {
+                    net += (arrivals[base + buckets[h]] - departures[base + buckets[h]]) * scales[h];
+                }
+                flows.put(stationIds[slot], net);
+            }
+            return flows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Hour of the week in this model's time zone, 0 being Monday 00:00 to 01:00
+     */
+    int hourOfWeek(long millis) {
+        long localSeconds = Math.floorDiv(millis, 1000) + offsetSeconds(millis);
+        long days = Math.floorDiv(localSeconds, 86_400);
+        int dayOfWeek = (int) Math.floorMod(days + 3, 7);   // 1970-01-01 was a Thursday
+        int hour = (int) (Math.floorMod(localSeconds, 86_400) / 3600);
+        return dayOfWeek * 24 + hour;
+    }
+
+    /**
+     * Start of the local hour that contains the given instant
+     */
+    long startOfHour(long millis) {
+        long offsetMillis = offsetSeconds(millis) * 1000L;
+        return Math.floorDiv(millis + offsetMillis, HOUR_MILLIS) * HOUR_MILLIS - offsetMillis;
+    }
+
+    Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("stations", slots.size());
+            stats.put("recorded", recorded);
+            stats.put("firstMillis", recorded > 0 ? firstMillis : null);
+            stats.put("lastMillis", recorded > 0 ? lastMillis : null);
+            stats.put("rescales", rescales);
+            stats.put("counterBytes", 2L * departures.length * Float.BYTES);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void record(String stationId, long millis, boolean arrival) {
+        if (stationId == null) return;
+        int bucket = hourOfWeek(millis);
+        lock.writeLock().lock();
+        try {
+            int index = slot(stationId) * HOURS_PER_WEEK + bucket;
+            float weight = weight(millis);
+            if (arrival) {
+                arrivals[index] += weight;
+            } else {
+                departures[index] += weight;
+            }
+            firstMillis = Math.min(firstMillis, millis);
+            lastMillis = Math.max(lastMillis, millis);
+            recorded++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Callers hold the write lock; an hour's worth of decay is well below what the counters resolve
+    private float weight(long millis) {
+        long hour = Math.floorDiv(millis, HOUR_MILLIS);
+        if (hour == weightHour) return hourWeight;
+
+        long hourStart = hour * HOUR_MILLIS;
+        if (landmarkMillis == Long.MIN_VALUE) landmarkMillis = hourStart;
+        double exponent = decayPerMilli * (hourStart - landmarkMillis);
+        if (exponent > RESCALE_EXPONENT) {
+            rescale(hourStart);
+            exponent = 0;
+        }
+        weightHour = hour;
+        hourWeight = (float) Math.exp(exponent);
+        return hourWeight;
+    }
+
+    // Callers hold the write lock
+    private int slot(String stationId) {
+        Integer slot = slots.get(stationId);
+        if (slot != null) return slot;
+
+        int next = slots.size();
+        if (next == stationIds.length) {
+            stationIds = Arrays.copyOf(stationIds, next * 2);
+            departures = Arrays.copyOf(departures, next * 2 * HOURS_PER_WEEK);
+            arrivals = Arrays.copyOf(arrivals, next * 2 * HOURS_PER_WEEK);
+        }
+        stationIds[next] = stationId;
+        slots.put(stationId, next);
+        return next;
+    }
+
+    // Callers hold the write lock; moves the landmark to the given time
+    private void rescale(long millis) {
+        float factor = (float) Math.exp(-decayPerMilli * (millis - landmarkMillis));
+        int used = slots.size() * HOURS_PER_WEEK;
+        for (int i = 0; i < used; i++) {
+            departures[i] *= factor;
+            arrivals[i] *= factor;
+        }
+        landmarkMillis = millis;
+        weightHour = Long.MIN_VALUE;
+        rescales++;
+    }
+
+    private int[] buckets(long fromMillis, int hours) {
+        int[] buckets = new int[hours];
+        for (int h = 0; h < hours; h++) {
+            buckets[h] = hourOfWeek(fromMillis + h * HOUR_MILLIS);
+        }
+        return buckets;
+    }
+
+    // 1 / total weight of each hour's past occurrences since the first trip, which its counters
+    // are an average over; 0 for an hour that has not occurred since (callers hold a lock)
+    private double[] scales(long fromMillis, int hours) {
+        double[] scales = new double[hours];
+        double ratio = Math.exp(-decayPerMilli * WEEK_MILLIS);
+        for (int h = 0; h < hours; h++) {
+            long hourStart = fromMillis + h * HOUR_MILLIS;
+            // occurrences a week, two weeks, ... before this hour that end after the first trip
+            long weeks = Math.max(0, (hourStart + HOUR_MILLIS - firstMillis + WEEK_MILLIS - 1) / WEEK_MILLIS - 1);
+            if (weeks == 0) continue;
+            if (decayPerMilli == 0) {
+                scales[h] = 1.0 / weeks;
+                continue;
+            }
+            // sum over j = 1..weeks of exp(lambda * (hourStart - j * week - landmark)), a geometric series
+            double latest = Math.exp(decayPerMilli * (hourStart - WEEK_MILLIS - landmarkMillis));
+            scales[h] = (1 - ratio) / (latest * (1 - Math.pow(ratio, weeks)));
+        }
+        return scales;
+    }
+
+    private int offsetSeconds(long millis) {
+        OffsetWindow window = offsetWindow;
+        if (millis >= window.fromMillis && millis < window.untilMillis) return window.offsetSeconds;
+
+        Instant instant = Instant.ofEpochMilli(millis);
+        ZoneOffsetTransition previous = zoneRules.previousTransition(instant.plusMillis(1));
+        ZoneOffsetTransition next = zoneRules.nextTransition(instant);
+        window = new OffsetWindow(previous != null ? previous.toEpochSecond() * 1000 : Long.MIN_VALUE,
+                next != null ? next.toEpochSecond() * 1000 : Long.MAX_VALUE,
+                zoneRules.getOffset(instant).getTotalSeconds());
+        offsetWindow = window;
+        return window.offsetSeconds;
+    }
+
+    private record OffsetWindow(long fromMillis, long untilMillis, int offsetSeconds) {}
+}
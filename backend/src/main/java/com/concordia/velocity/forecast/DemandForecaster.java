@@ -0,0 +1,186 @@
+package com.concordia.velocity.forecast;
+
+import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.TripRepository;
+import com.google.cloud.Timestamp;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Forecasts bike departures and arrivals per station from trip history
+ *
+ * Trips are aggregated into hour-of-the-week demand curves: a departure at the trip's start station
+ * and start time, and for a completed trip an arrival at its end station and end time. The curves
+ * are loaded from the trip collection at startup and then kept current by TripService as trips end,
+ * so a forecast costs no store reads. Predicted net flow (arrivals minus departures) tells which
+ * stations will run short of bikes or docks in the next hours, before their counts show it.
+ *
+ * Hours are taken in velocity.forecast.zone, and a trip's weight halves every
+ * velocity.forecast.half-life-days so the curves follow seasonal change.
+ */
+@Component
+public class DemandForecaster {
+
+    public static final int MAX_HORIZON_HOURS = DemandCurves.HOURS_PER_WEEK;
+
+    // history is read in pages of only the fields a forecast needs, so a rebuild never holds it all
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final Set<String> LOAD_FIELDS = Set.of("startTime", "endTime", "startStationId", "endStationId", "status");
+
+    private final TripRepository tripRepository;
+    private final ZoneId zone;
+    private final long halfLifeMillis;
+
+    private volatile DemandCurves curves;
+    private volatile long lastRebuildMillis;
+
+    public DemandForecaster(TripRepository tripRepository,
+                            @Value("${velocity.forecast.zone:America/Montreal}") String zone,
+                            @Value("${velocity.forecast.half-life-days:56}") double halfLifeDays) {
+        this.tripRepository = tripRepository;
+        this.zone = ZoneId.of(zone);
+        this.halfLifeMillis = (long) (halfLifeDays * 24 * DemandCurves.HOUR_MILLIS);
+        this.curves = new DemandCurves(this.zone, halfLifeMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            System.err.println("Demand forecast load failed, forecasting from new trips only: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Expected departures and arrivals at a station for one hour
+     */
+    public record HourlyDemand(long hourStartMillis, int hourOfWeek, double departures, double arrivals,
+                               double netFlow) {}
+
+    /**
+     * A station's expected demand hour by hour, with the totals over the horizon
+     * @param netFlow expected arrivals minus departures; negative when the station is drained
+     */
+    public record StationForecast(String stationId, List<HourlyDemand> hours, double departures, double arrivals,
+                                  double netFlow) {}
+
+    /**
+     * Replaces the curves with ones built from every trip in the store
+     * Trips that end while the history loads may be missed or counted twice; either is noise
+     * against the history.
+     * @return the number of trips counted
+     */
+    public int rebuild() throws ExecutionException, InterruptedException {
+        long started = System.nanoTime();
+        DemandCurves rebuilt = new DemandCurves(zone, halfLifeMillis);
+        int counted = 0;
+        List<Trip> page = tripRepository.findPage(new TripRepository.PageQuery(null, null, null, null, null,
+                LOAD_PAGE_SIZE, LOAD_FIELDS));
+        while (!page.isEmpty()) {
+            for (Trip trip : page) {
+                if (record(rebuilt, trip)) counted++;
+            }
+            if (page.size() < LOAD_PAGE_SIZE) break;
+            Trip last = page.get(page.size() - 1);
+            page = tripRepository.findPage(new TripRepository.PageQuery(null, null, null, last.getStartTime(),
+                    last.getTripId(), LOAD_PAGE_SIZE, LOAD_FIELDS));
+        }
+        curves = rebuilt;
+        lastRebuildMillis = (System.nanoTime() - started) / 1_000_000;
+        System.out.println("Demand forecast built from " + counted + " trips in " + lastRebuildMillis + " ms");
+        return counted;
+    }
+
+    /**
+     * Adds a trip to the curves, once it has completed or been abandoned
+     */
+    public void recordTrip(Trip trip) {
+        record(curves, trip);
+    }
+
+    /**
+     * A station's expected demand for the next hours, starting with the current one
+     */
+    public StationForecast forecast(String stationId, int hours) {
+        return forecast(stationId, System.currentTimeMillis(), hours);
+    }
+
+    StationForecast forecast(String stationId, long nowMillis, int hours) {
+        if (stationId == null || stationId.isBlank()) {
+            throw new IllegalArgumentException("Station ID is required");
+        }
+        validateHorizon(hours);
+
+        DemandCurves current = curves;
+        long from = current.startOfHour(nowMillis);
+        double[] departures = new double[hours];
+        double[] arrivals = new double[hours];
+        current.expected(stationId, from, departures, arrivals);
+
+        List<HourlyDemand> hourly = new ArrayList<>(hours);
+        double totalDepartures = 0;
+        double totalArrivals = 0;
+        for (int h = 0; h < hours; h++) {
+            long hourStart = from + h * DemandCurves.HOUR_MILLIS;
+            hourly.add(new HourlyDemand(hourStart, current.hourOfWeek(hourStart), departures[h], arrivals[h],
+                    arrivals[h] - departures[h]));
+            totalDepartures += departures[h];
+            totalArrivals += arrivals[h];
+        }
+        return new StationForecast(stationId, hourly, totalDepartures, totalArrivals, totalArrivals - totalDepartures);
+    }
+
+    /**
+     * Expected net flow of every station with trip history over the next hours, by station ID
+     * Stations missing from the map have no history, so no flow is expected.
+     */
+    public Map<String, Double> netFlow(int hours) {
+        return netFlow(System.currentTimeMillis(), hours);
+    }
+
+    Map<String, Double> netFlow(long nowMillis, int hours) {
+        validateHorizon(hours);
+        DemandCurves current = curves;
+        return current.netFlow(current.startOfHour(nowMillis), hours);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(curves.stats());
+        stats.put("zone", zone.getId());
+        stats.put("halfLifeDays", halfLifeMillis / (24.0 * DemandCurves.HOUR_MILLIS));
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        return stats;
+    }
+
+    private static boolean record(DemandCurves curves, Trip trip) {
+        if (trip == null || trip.getStartTime() == null || trip.getStartStationId() == null) return false;
+        // active trips are counted when they end; cancelled and missed ones never left the dock
+        if (!trip.isCompleted() && !Trip.STATUS_ABANDONED.equalsIgnoreCase(trip.getStatus())) return false;
+
+        curves.recordDeparture(trip.getStartStationId(), millis(trip.getStartTime()));
+        if (trip.isCompleted() && trip.getEndTime() != null && trip.getEndStationId() != null) {
+            curves.recordArrival(trip.getEndStationId(), millis(trip.getEndTime()));
+        }
+        return true;
+    }
+
+    private static long millis(Timestamp timestamp) {
+        return timestamp.getSeconds() * 1000 + timestamp.getNanos() / 1_000_000;
+    }
+
+    private static void validateHorizon(int hours) {
+        if (hours < 1 || hours > MAX_HORIZON_HOURS) {
+            throw new IllegalArgumentException("hours must be between 1 and " + MAX_HORIZON_HOURS);
+        }
+    }
+}
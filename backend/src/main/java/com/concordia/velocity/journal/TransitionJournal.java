@@ -0,0 +1,419 @@
+package com.concordia.velocity.journal;
+
+import com.concordia.velocity.observer.StatusTransition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append-only binary journal of bike, dock and station status transitions
+ *
+ * Every transition is a fixed 20-byte record:
+ *   long timestamp (epoch millis, never 0) | int entity ordinal | int trip ordinal (-1 = none)
+ *   | byte kind | byte old status | byte new status | byte unused
+ * Entity and trip IDs are stored once in ids.txt and referenced by their line number; statuses are
+ * codes from a fixed table. Records live in memory-mapped segment files of segmentRecords records
+ * each, preallocated and zero-filled, so the end of the journal is the first record whose timestamp
+ * is 0. Timestamps are taken when a record is appended and never go backwards, which lets a sparse
+ * in-memory index (the timestamp of every indexStride-th record, rebuilt from the segments on open)
+ * find the start of a time range with a binary search. Scans then read the mapped segments directly.
+ *
+ * JournalObserver is created with new in the services, so the journal it commits to is a
+ * process-wide instance; JournalConfig applies the application's settings to it at startup.
+ */
+public final class TransitionJournal implements AutoCloseable {
+
+    public record Settings(Path directory, int segmentRecords, int indexStride) {
+        public static Settings defaults() {
+            return new Settings(Paths.get("journal"), 1 << 20, 256);
+        }
+    }
+
+    /**
+     * A decoded record
+     */
+    public record Entry(String kind, String entityId, String oldStatus, String newStatus, long timestamp, String tripId) {}
+
+    /**
+     * Filters for a scan; null fields match everything
+     */
+    public record Query(StatusTransition.Kind kind, String entityId, Long fromMillis, Long toMillis, int limit) {}
+
+    public static final int RECORD_BYTES = 20;
+
+    private static final String IDS_FILE = "ids.txt";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".jnl";
+    private static final int NO_TRIP = -1;
+
+    // status codes; 0 is "no status" and unknown statuses are stored as OTHER_STATUS
+    private static final List<String> STATUSES = Arrays.asList(null,
+            "available", "reserved", "maintenance", "on_trip", "abandoned",
+            "empty", "occupied", "full", "out_of_service");
+    private static final int OTHER_STATUS = 0xFF;
+
+    private static volatile TransitionJournal shared;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            TransitionJournal journal = shared;
+            if (journal != null) journal.close();
+        }, "journal-shutdown"));
+    }
+
+    private final Settings settings;
+    private final int segmentRecords;
+
+    // written under the lock; readers only look at records below count, whose IDs are already published
+    private final List<String> ids = new ArrayList<>();
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private FileChannel idsChannel;
+    private long lastTimestamp;
+    private boolean open = true;
+
+    private volatile long count;
+    private volatile long[] sparseIndex = new long[64];
+    private volatile MappedByteBuffer[] segmentView = new MappedByteBuffer[0];
+    private volatile String[] idView = new String[0];
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder ioErrors = new LongAdder();
+
+    public TransitionJournal(Settings settings) throws IOException {
+        this.settings = settings;
+        Files.createDirectories(settings.directory());
+        loadIds();
+        this.segmentRecords = openSegments();
+        rebuildIndex();
+    }
+
+    /**
+     * The journal JournalObserver commits to, created with default settings on first use
+     */
+    public static TransitionJournal shared() {
+        TransitionJournal journal = shared;
+        if (journal == null) {
+            synchronized (TransitionJournal.class) {
+                if (shared == null) {
+                    shared = openOrFail(Settings.defaults());
+                }
+                journal = shared;
+            }
+        }
+        return journal;
+    }
+
+    /**
+     * Replaces the shared journal with one using the given settings, closing the old one
+     */
+    public static void configure(Settings settings) {
+        TransitionJournal previous;
+        synchronized (TransitionJournal.class) {
+            previous = shared;
+            if (previous != null) {
+                previous.close();
+            }
+            shared = openOrFail(settings);
+        }
+    }
+
+    private static TransitionJournal openOrFail(Settings settings) {
+        try {
+            return new TransitionJournal(settings);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open journal in " + settings.directory() + ": " + e.getMessage(), e);
+        }
+    }
+
+    // ============ Writing ============
+
+    /**
+     * Appends the transitions as one batch, all stamped with the same time
+     * @param tripId the trip the changes belong to, or null
+     * @return false if the journal is closed or could not be written, and the batch was dropped
+     */
+    public synchronized boolean append(List<StatusTransition> transitions, String tripId) {
+        if (transitions.isEmpty()) return true;
+        if (!open) {
+            dropped.add(transitions.size());
+            return false;
+        }
+        try {
+            long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+            int trip = tripId != null ? ordinal(tripId) : NO_TRIP;
+            for (StatusTransition transition : transitions) {
+                write(count, timestamp, ordinal(transition.entityId()), trip, transition);
+                count = count + 1;
+            }
+            lastTimestamp = timestamp;
+            appended.add(transitions.size());
+            return true;
+        } catch (IOException e) {
+            ioErrors.increment();
+            dropped.add(transitions.size());
+            System.err.println("Journal write failed, dropped " + transitions.size() + " record(s): " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void write(long position, long timestamp, int entity, int trip, StatusTransition transition) throws IOException {
+        int segment = (int) (position / segmentRecords);
+        if (segment == segments.size()) {
+            if (segment > 0) {
+                segments.get(segment - 1).force();
+            }
+            mapSegment(segment, true);
+        }
+        MappedByteBuffer buffer = segments.get(segment);
+        int offset = (int) (position % segmentRecords) * RECORD_BYTES;
+        buffer.putInt(offset + 8, entity);
+        buffer.putInt(offset + 12, trip);
+        buffer.put(offset + 16, (byte) (transition.kind().ordinal() + 1));
+        buffer.put(offset + 17, statusCode(transition.oldStatus()));
+        buffer.put(offset + 18, statusCode(transition.newStatus()));
+        // the timestamp goes in last: a record with timestamp 0 is not there yet
+        buffer.putLong(offset, timestamp);
+
+        if (position % settings.indexStride() == 0) {
+            int slot = (int) (position / settings.indexStride());
+            long[] index = sparseIndex;
+            if (slot == index.length) {
+                index = Arrays.copyOf(index, index.length * 2);
+            }
+            index[slot] = timestamp;
+            sparseIndex = index;
+        }
+    }
+
+    private int ordinal(String id) throws IOException {
+        if (id == null) id = "";
+        Integer known = ordinals.get(id);
+        if (known != null) return known;
+
+        ByteBuffer line = StandardCharsets.UTF_8.encode(id + "\n");
+        while (line.hasRemaining()) {
+            idsChannel.write(line);
+        }
+        int ordinal = ids.size();
+        ids.add(id);
+        ordinals.put(id, ordinal);
+        String[] view = idView;
+        if (ordinal >= view.length) {
+            view = Arrays.copyOf(view, Math.max(64, view.length * 2));
+        }
+        view[ordinal] = id;
+        idView = view;
+        return ordinal;
+    }
+
+    private static byte statusCode(String status) {
+        if (status == null) return 0;
+        int code = STATUSES.indexOf(status.toLowerCase());
+        return (byte) (code > 0 ? code : OTHER_STATUS);
+    }
+
+    private static String statusName(byte code) {
+        int value = code & 0xFF;
+        if (value == OTHER_STATUS) return "other";
+        return value < STATUSES.size() ? STATUSES.get(value) : "other";
+    }
+
+    /**
+     * Writes the open segment and the ID file through to disk (earlier segments were forced when they filled up)
+     */
+    public synchronized void flush() {
+        if (!open) return;
+        if (!segments.isEmpty()) {
+            segments.get(segments.size() - 1).force();
+        }
+        try {
+            idsChannel.force(false);
+        } catch (IOException e) {
+            ioErrors.increment();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!open) return;
+        flush();
+        open = false;
+        try {
+            idsChannel.close();
+        } catch (IOException e) {
+            ioErrors.increment();
+        }
+    }
+
+    // ============ Reading ============
+
+    /**
+     * Records matching the query in time order, up to its limit
+     * The sparse index skips to the start of the time range; an unknown entity ID matches nothing.
+     */
+    public List<Entry> scan(Query query) {
+        List<Entry> results = new ArrayList<>();
+        long end = count;
+        MappedByteBuffer[] mapped = segmentView;
+        String[] names = idView;
+
+        int entity = -1;
+        if (query.entityId() != null) {
+            entity = indexOf(names, query.entityId());
+            if (entity < 0) return results;
+        }
+        byte kind = query.kind() != null ? (byte) (query.kind().ordinal() + 1) : 0;
+        long from = query.fromMillis() != null ? query.fromMillis() : Long.MIN_VALUE;
+        long to = query.toMillis() != null ? query.toMillis() : Long.MAX_VALUE;
+
+        for (long position = startPosition(from, end); position < end && results.size() < query.limit(); position++) {
+            ByteBuffer buffer = mapped[(int) (position / segmentRecords)];
+            int offset = (int) (position % segmentRecords) * RECORD_BYTES;
+            long timestamp = buffer.getLong(offset);
+            if (timestamp > to) break;
+            if (timestamp < from) continue;
+            if (entity >= 0 && buffer.getInt(offset + 8) != entity) continue;
+            if (kind != 0 && buffer.get(offset + 16) != kind) continue;
+
+            int trip = buffer.getInt(offset + 12);
+            results.add(new Entry(
+                    StatusTransition.Kind.values()[buffer.get(offset + 16) - 1].name().toLowerCase(),
+                    names[buffer.getInt(offset + 8)],
+                    statusName(buffer.get(offset + 17)),
+                    statusName(buffer.get(offset + 18)),
+                    timestamp,
+                    trip == NO_TRIP ? null : names[trip]));
+        }
+        return results;
+    }
+
+    /**
+     * First indexed position whose successors may be at or after from
+     */
+    private long startPosition(long from, long end) {
+        if (from == Long.MIN_VALUE || end == 0) return 0;
+        long[] index = sparseIndex;
+        int samples = (int) ((end - 1) / settings.indexStride()) + 1;
+        int low = 0, high = samples - 1, found = 0;
+        // last sample strictly before from; records between it and the next sample may still be < from
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (index[mid] < from) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return (long) found * settings.indexStride();
+    }
+
+    private int indexOf(String[] names, String id) {
+        Integer ordinal = ordinals.get(id);
+        return ordinal != null && ordinal < names.length ? ordinal : -1;
+    }
+
+    public long size() {
+        return count;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("directory", settings.directory().toString());
+        stats.put("records", count);
+        stats.put("segments", segmentView.length);
+        stats.put("ids", ordinals.size());
+        stats.put("appended", appended.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("ioErrors", ioErrors.sum());
+        return stats;
+    }
+
+    // ============ Opening ============
+
+    private void loadIds() throws IOException {
+        Path path = settings.directory().resolve(IDS_FILE);
+        if (Files.exists(path)) {
+            for (String id : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                ordinals.put(id, ids.size());
+                ids.add(id);
+            }
+        }
+        idView = ids.toArray(new String[Math.max(64, ids.size() * 2)]);
+        idsChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Maps the existing segments and finds the end of the last one
+     * @return records per segment: taken from the existing files, so a changed setting only applies to a new journal
+     */
+    private int openSegments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(settings.directory(), SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            entries.forEach(files::add);
+        }
+        files.sort(null);
+        if (files.isEmpty()) return settings.segmentRecords();
+
+        int perSegment = (int) (Files.size(files.get(0)) / RECORD_BYTES);
+        for (int i = 0; i < files.size(); i++) {
+            mapSegment(i, perSegment, i == files.size() - 1);
+        }
+
+        // records are written in order, so the written part of the last segment is a prefix
+        ByteBuffer last = segments.get(segments.size() - 1);
+        int low = 0, high = perSegment;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (last.getLong(mid * RECORD_BYTES) != 0) low = mid + 1; else high = mid;
+        }
+        count = (long) (segments.size() - 1) * perSegment + low;
+        if (count > 0) {
+            long position = count - 1;
+            lastTimestamp = segments.get((int) (position / perSegment)).getLong((int) (position % perSegment) * RECORD_BYTES);
+        }
+        return perSegment;
+    }
+
+    private void mapSegment(int segment, boolean writable) throws IOException {
+        mapSegment(segment, segmentRecords, writable);
+    }
+
+    private void mapSegment(int segment, int records, boolean writable) throws IOException {
+        Path path = settings.directory().resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+        long bytes = (long) records * RECORD_BYTES;
+        // mapping read-write grows a new file to full size; the mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, bytes);
+            segments.add(buffer);
+        }
+        segmentView = segments.toArray(new MappedByteBuffer[0]);
+    }
+
+    private void rebuildIndex() {
+        int samples = (int) ((count + settings.indexStride() - 1) / settings.indexStride());
+        long[] index = new long[Math.max(64, samples * 2)];
+        for (int slot = 0; slot < samples; slot++) {
+            long position = (long) slot * settings.indexStride();
+            index[slot] = segments.get((int) (position / segmentRecords)).getLong((int) (position % segmentRecords) * RECORD_BYTES);
+        }
+        sparseIndex = index;
+    }
+}
@@ -0,0 +1,79 @@
+package com.concordia.velocity.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, server errors and store round-trips per request, by endpoint (e.g. "POST /api/trips/end")
+ */
+@Component
+public class EndpointMetrics {
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, int status, long nanos, long roundTrips) {
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, name -> new EndpointStats());
+        stats.latency.recordNanos(nanos);
+        if (status >= 500) stats.serverErrors.increment();
+        stats.roundTrips.add(roundTrips);
+        stats.maxRoundTrips.accumulateAndGet(roundTrips, Math::max);
+        stats.lastRoundTrips = roundTrips;
+    }
+
+    public LatencyHistogram histogram(String endpoint) {
+        EndpointStats stats = endpoints.get(endpoint);
+        return stats != null ? stats.latency : null;
+    }
+
+    /**
+     * Latency, errors and round-trips per request for each endpoint seen so far, in name order
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new TreeMap<>();
+        endpoints.forEach((endpoint, stats) -> {
+            long requests = stats.latency.getCount();
+            Map<String, Object> roundTrips = new LinkedHashMap<>();
+            roundTrips.put("last", stats.lastRoundTrips);
+            roundTrips.put("mean", requests == 0 ? 0.0 : (double) stats.roundTrips.sum() / requests);
+            roundTrips.put("max", stats.maxRoundTrips.get());
+
+            Map<String, Object> endpointStats = new LinkedHashMap<>(stats.latency.snapshot());
+            endpointStats.put("serverErrors", stats.serverErrors.sum());
+            endpointStats.put("roundTripsPerRequest", roundTrips);
+            snapshot.put(endpoint, endpointStats);
+        });
+        return snapshot;
+    }
+
+    public void writePrometheus(PrometheusWriter out) {
+        Map<String, EndpointStats> sorted = new TreeMap<>(endpoints);
+        sorted.forEach((endpoint, stats) -> out.summary("velocity_http_request_seconds",
+                "Latency of requests by endpoint", PrometheusWriter.labels("endpoint", endpoint), stats.latency));
+        sorted.forEach((endpoint, stats) -> out.counter("velocity_http_server_errors_total",
+                "Requests answered with a 5xx status", PrometheusWriter.labels("endpoint", endpoint),
+                stats.serverErrors.sum()));
+        sorted.forEach((endpoint, stats) -> out.counter("velocity_http_request_round_trips_total",
+                "Store round-trips made by requests; divide by the request count for the mean",
+                PrometheusWriter.labels("endpoint", endpoint), stats.roundTrips.sum()));
+        sorted.forEach((endpoint, stats) -> out.gauge("velocity_http_request_round_trips",
+                "Store round-trips made by the latest request", PrometheusWriter.labels("endpoint", endpoint),
+                stats.lastRoundTrips));
+        sorted.forEach((endpoint, stats) -> out.gauge("velocity_http_request_round_trips_max",
+                "Most store round-trips made by one request", PrometheusWriter.labels("endpoint", endpoint),
+                stats.maxRoundTrips.get()));
+    }
+
+    private static final class EndpointStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder roundTrips = new LongAdder();
+        private final AtomicLong maxRoundTrips = new AtomicLong();
+        private volatile long lastRoundTrips;
+    }
+}
@@ -0,0 +1,74 @@
+package com.concordia.velocity.metrics;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Times each request and counts the store round-trips it makes, keyed by its mapped endpoint
+ * Requests whose handler returns a future are recorded when the async response completes.
+ */
+@Component
+public class EndpointMetricsFilter extends OncePerRequestFilter {
+
+    private final EndpointMetrics endpointMetrics;
+
+    public EndpointMetricsFilter(EndpointMetrics endpointMetrics) {
+        this.endpointMetrics = endpointMetrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long startNanos = System.nanoTime();
+        RequestRoundTrips roundTrips = RequestRoundTrips.open();
+        boolean failed = true;
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+            if (request.isAsyncStarted()) {
+                async = true;
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response.getStatus(), startNanos, roundTrips);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            }
+        } finally {
+            RequestRoundTrips.unbind();
+            if (!async) {
+                record(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(),
+                        startNanos, roundTrips);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, long startNanos, RequestRoundTrips roundTrips) {
+        // the route pattern rather than the path, so /api/trips/T0001 and /api/trips/T0002 share an entry
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "unmapped");
+        endpointMetrics.record(endpoint, status, System.nanoTime() - startNanos, roundTrips.get());
+    }
+}
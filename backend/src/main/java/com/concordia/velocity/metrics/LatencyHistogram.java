@@ -0,0 +1,83 @@
+package com.concordia.velocity.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets (4 per power of two, about 20% resolution)
+ * Values are recorded in microseconds; percentiles report the upper edge of their bucket.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(bucketOf(micros));
+        count.increment();
+        sumMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSumMicros() {
+        return sumMicros.sum();
+    }
+
+    /**
+     * Value in microseconds at or below which the given fraction of recordings fall
+     */
+    public long percentileMicros(double fraction) {
+        long total = count.sum();
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperEdgeOf(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    public Map<String, Object> snapshot() {
+        long total = count.sum();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", total);
+        snapshot.put("meanMs", total == 0 ? 0.0 : sumMicros.sum() / (total * 1000.0));
+        snapshot.put("p50Ms", percentileMicros(0.50) / 1000.0);
+        snapshot.put("p90Ms", percentileMicros(0.90) / 1000.0);
+        snapshot.put("p99Ms", percentileMicros(0.99) / 1000.0);
+        snapshot.put("maxMs", maxMicros.get() / 1000.0);
+        return snapshot;
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    static long upperEdgeOf(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << (exponent - SUB_BUCKET_BITS);
+        return lower + width - 1;
+    }
+}
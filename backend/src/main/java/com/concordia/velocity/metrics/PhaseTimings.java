@@ -0,0 +1,86 @@
+package com.concordia.velocity.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-phase latency breakdown of multi-step operations (e.g. the reads, billing and commit of endTrip)
+ */
+@Component
+public class PhaseTimings {
+
+    private final Map<String, Map<String, LatencyHistogram>> operations = new ConcurrentHashMap<>();
+
+    /**
+     * Starts timing one run of an operation; the first phase starts now
+     */
+    public PhaseTimer start(String operation) {
+        return new PhaseTimer(operation);
+    }
+
+    public LatencyHistogram histogram(String operation, String phase) {
+        return operations
+                .computeIfAbsent(operation, name -> Collections.synchronizedMap(new LinkedHashMap<>()))
+                .computeIfAbsent(phase, name -> new LatencyHistogram());
+    }
+
+    /**
+     * Latency summary per operation and phase, phases in the order they were first seen
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        operations.forEach((operation, phases) -> {
+            Map<String, Object> phaseStats = new LinkedHashMap<>();
+            synchronized (phases) {
+                phases.forEach((phase, histogram) -> phaseStats.put(phase, histogram.snapshot()));
+            }
+            snapshot.put(operation, phaseStats);
+        });
+        return snapshot;
+    }
+
+    public void writePrometheus(PrometheusWriter out) {
+        operations.forEach((operation, phases) -> {
+            synchronized (phases) {
+                phases.forEach((phase, histogram) -> out.summary("velocity_phase_seconds",
+                        "Latency of each phase of the trip lifecycle operations",
+                        PrometheusWriter.labels("operation", operation, "phase", phase), histogram));
+            }
+        });
+    }
+
+    /**
+     * Times consecutive phases of one run; used by a single thread
+     */
+    public class PhaseTimer {
+        private final String operation;
+        private final long startNanos;
+        private long phaseStartNanos;
+
+        private PhaseTimer(String operation) {
+            this.operation = operation;
+            this.startNanos = System.nanoTime();
+            this.phaseStartNanos = startNanos;
+        }
+
+        /**
+         * Ends the current phase under the given name and starts the next one
+         */
+        public void mark(String phase) {
+            long now = System.nanoTime();
+            histogram(operation, phase).recordNanos(now - phaseStartNanos);
+            phaseStartNanos = now;
+        }
+
+        /**
+         * Records the whole run as the "total" phase
+         */
+        public void finish() {
+            histogram(operation, "total").recordNanos(System.nanoTime() - startNanos);
+        }
+    }
+}
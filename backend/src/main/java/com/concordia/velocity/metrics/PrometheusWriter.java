@@ -0,0 +1,107 @@
+package com.concordia.velocity.metrics;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders metrics in the Prometheus text exposition format
+ * All samples of one metric must be written before the next metric starts.
+ */
+public class PrometheusWriter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final StringBuilder out = new StringBuilder();
+    private final Set<String> described = new HashSet<>();
+
+    /**
+     * Labels in the given order, from alternating names and values
+     */
+    public static Map<String, String> labels(String... namesAndValues) {
+        Map<String, String> labels = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+            labels.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return labels;
+    }
+
+    /**
+     * Writes a latency histogram as a summary in seconds: p50, p90 and p99, plus _sum and _count
+     */
+    public PrometheusWriter summary(String name, String help, Map<String, String> labels, LatencyHistogram histogram) {
+        describe(name, "summary", help);
+        for (double quantile : QUANTILES) {
+            sample(name, labels, "quantile", String.valueOf(quantile), histogram.percentileMicros(quantile) / 1e6);
+        }
+        sample(name + "_sum", labels, null, null, histogram.getSumMicros() / 1e6);
+        sample(name + "_count", labels, null, null, histogram.getCount());
+        return this;
+    }
+
+    public PrometheusWriter counter(String name, String help, Map<String, String> labels, double value) {
+        describe(name, "counter", help);
+        sample(name, labels, null, null, value);
+        return this;
+    }
+
+    public PrometheusWriter gauge(String name, String help, Map<String, String> labels, double value) {
+        describe(name, "gauge", help);
+        sample(name, labels, null, null, value);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void describe(String name, String type, String help) {
+        if (described.add(name)) {
+            out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+    }
+
+    private void sample(String name, Map<String, String> labels, String extraLabel, String extraValue, double value) {
+        out.append(name);
+        if (!labels.isEmpty() || extraLabel != null) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<String, String> label : labels.entrySet()) {
+                if (!first) out.append(',');
+                appendLabel(label.getKey(), label.getValue());
+                first = false;
+            }
+            if (extraLabel != null) {
+                if (!first) out.append(',');
+                appendLabel(extraLabel, extraValue);
+            }
+            out.append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private void appendLabel(String name, String value) {
+        out.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,82 @@
+package com.concordia.velocity.metrics;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the store round-trips made on behalf of one request
+ * EndpointMetricsFilter binds the count to the request thread. Store futures and transactions rebind
+ * it on the threads that carry the work on, so round-trips made by chained async stages count too.
+ */
+public final class RequestRoundTrips {
+
+    private static final ThreadLocal<RequestRoundTrips> CURRENT = new ThreadLocal<>();
+
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Starts a count for a request and binds it to the calling thread
+     */
+    public static RequestRoundTrips open() {
+        RequestRoundTrips roundTrips = new RequestRoundTrips();
+        CURRENT.set(roundTrips);
+        return roundTrips;
+    }
+
+    /**
+     * Unbinds the calling thread; work chained on the request's futures keeps counting
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * The count of the request being handled on this thread, or null outside a request
+     */
+    public static RequestRoundTrips current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Counts one round-trip toward the request being handled on this thread, if any
+     */
+    public static void increment() {
+        RequestRoundTrips roundTrips = CURRENT.get();
+        if (roundTrips != null) roundTrips.count.increment();
+    }
+
+    /**
+     * Runs the action with the given count bound, e.g. to complete a store future on a callback thread
+     */
+    public static void runWith(RequestRoundTrips roundTrips, Runnable action) {
+        RequestRoundTrips previous = bind(roundTrips);
+        try {
+            action.run();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    public static <T> T callWith(RequestRoundTrips roundTrips, Callable<T> action) throws Exception {
+        RequestRoundTrips previous = bind(roundTrips);
+        try {
+            return action.call();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    public long get() {
+        return count.sum();
+    }
+
+    private static RequestRoundTrips bind(RequestRoundTrips roundTrips) {
+        RequestRoundTrips previous = CURRENT.get();
+        if (roundTrips != null) {
+            CURRENT.set(roundTrips);
+        } else {
+            CURRENT.remove();
+        }
+        return previous;
+    }
+}
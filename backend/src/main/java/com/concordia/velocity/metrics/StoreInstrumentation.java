@@ -0,0 +1,173 @@
+package com.concordia.velocity.metrics;
+
+import com.concordia.velocity.repository.BikeRepository;
+import com.concordia.velocity.repository.BillRepository;
+import com.concordia.velocity.repository.CounterRepository;
+import com.concordia.velocity.repository.DockRepository;
+import com.concordia.velocity.repository.RiderRepository;
+import com.concordia.velocity.repository.StationRepository;
+import com.concordia.velocity.repository.StoreTransaction;
+import com.concordia.velocity.repository.StoreTransaction.Key;
+import com.concordia.velocity.repository.TransactionRunner;
+import com.concordia.velocity.repository.TripRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Wraps the repositories and the transaction runner so every storage call is timed in StoreMetrics
+ * Calls are tagged with their collection and operation (the method name, without the Async suffix).
+ * Each call counts as one round-trip, except transaction writes, which are buffered until commit,
+ * and transaction reads answered from a prefetch; a transaction's commit counts as one.
+ */
+@Component
+public class StoreInstrumentation implements BeanPostProcessor {
+
+    private static final Map<Class<?>, String> COLLECTIONS = new LinkedHashMap<>();
+
+    static {
+        COLLECTIONS.put(BikeRepository.class, "bikes");
+        COLLECTIONS.put(DockRepository.class, "docks");
+        COLLECTIONS.put(StationRepository.class, "stations");
+        COLLECTIONS.put(TripRepository.class, "trips");
+        COLLECTIONS.put(BillRepository.class, "bills");
+        COLLECTIONS.put(RiderRepository.class, "riders");
+        COLLECTIONS.put(CounterRepository.class, "counters");
+    }
+
+    private final ObjectProvider<StoreMetrics> storeMetrics;
+
+    public StoreInstrumentation(ObjectProvider<StoreMetrics> storeMetrics) {
+        this.storeMetrics = storeMetrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof TransactionRunner runner) {
+            return instrument(runner, storeMetrics.getObject());
+        }
+        for (Map.Entry<Class<?>, String> repository : COLLECTIONS.entrySet()) {
+            if (repository.getKey().isInstance(bean)) {
+                return instrument(repository.getKey(), bean, repository.getValue(), storeMetrics.getObject());
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Wraps a repository so each of its calls is recorded under the given collection
+     */
+    public static <T> T instrument(Class<T> repositoryType, Object repository, String collection, StoreMetrics metrics) {
+        return proxy(repositoryType, repository, (method, args) -> metrics.start(collection, operationOf(method), true));
+    }
+
+    /**
+     * Wraps a transaction runner so each transaction and each call inside it is recorded
+     * The work runs with the caller's request round-trip count bound, on whichever thread the store runs it.
+     */
+    @SuppressWarnings("unchecked")
+    public static TransactionRunner instrument(TransactionRunner runner, StoreMetrics metrics) {
+        return (TransactionRunner) Proxy.newProxyInstance(TransactionRunner.class.getClassLoader(),
+                new Class<?>[]{TransactionRunner.class}, (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return invoke(runner, method, args, null);
+                    }
+
+                    RequestRoundTrips roundTrips = RequestRoundTrips.current();
+                    Object[] wrapped = args.clone();
+                    if (args[0] instanceof TransactionRunner.Work<?> work) {
+                        wrapped[0] = (TransactionRunner.Work<Object>) txn -> RequestRoundTrips.callWith(roundTrips,
+                                () -> work.execute(instrument(txn, metrics)));
+                    } else if (args[0] instanceof TransactionRunner.AsyncWork<?> work) {
+                        TransactionRunner.AsyncWork<Object> asyncWork = (TransactionRunner.AsyncWork<Object>) work;
+                        wrapped[0] = (TransactionRunner.AsyncWork<Object>) txn -> RequestRoundTrips.callWith(roundTrips,
+                                () -> asyncWork.execute(instrument(txn, metrics)));
+                    }
+                    return invoke(runner, method, wrapped, metrics.start("transactions", operationOf(method), true));
+                });
+    }
+
+    static StoreTransaction instrument(StoreTransaction txn, StoreMetrics metrics) {
+        Set<Key> prefetched = new HashSet<>();
+        return proxy(StoreTransaction.class, txn, (method, args) -> {
+            String name = method.getName();
+            String collection = collectionOf(name);
+            boolean roundTrip = true;
+            if (name.startsWith("prefetch")) {
+                synchronized (prefetched) {
+                    for (Key key : (Key[]) args[0]) prefetched.add(key);
+                }
+            } else if (name.startsWith("save") || name.startsWith("update")) {
+                roundTrip = false;
+            } else if (name.startsWith("get") && args != null && args.length == 1) {
+                synchronized (prefetched) {
+                    roundTrip = !prefetched.contains(new Key(collection, (String) args[0]));
+                }
+            }
+            return metrics.start(collection, "txn." + operationOf(method), roundTrip);
+        });
+    }
+
+    private interface CallStarter {
+        StoreMetrics.Call start(Method method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, CallStarter starter) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return invoke(target, method, args, null);
+            }
+            return invoke(target, method, args, starter.start(method, args));
+        }));
+    }
+
+    /**
+     * Calls the target, finishing the call when it returns, or when its future completes
+     */
+    private static Object invoke(Object target, Method method, Object[] args, StoreMetrics.Call call) throws Throwable {
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (call != null) call.finish(e.getCause());
+            throw e.getCause();
+        }
+        if (call != null) {
+            if (result instanceof CompletableFuture<?> future) {
+                // the caller keeps the original future, so its failures reach them unwrapped
+                future.whenComplete((value, error) -> call.finish(error));
+            } else {
+                call.finish(null);
+            }
+        }
+        return result;
+    }
+
+    private static String operationOf(Method method) {
+        String name = method.getName();
+        return name.endsWith("Async") ? name.substring(0, name.length() - "Async".length()) : name;
+    }
+
+    /**
+     * The collection a transaction method works on, from its name (e.g. findFirstBikeByDockIdAndStatus reads bikes)
+     */
+    static String collectionOf(String methodName) {
+        if (methodName.startsWith("prefetch")) return "batch";
+        if (methodName.contains("Bike")) return "bikes";
+        if (methodName.contains("Dock")) return "docks";
+        if (methodName.contains("Station")) return "stations";
+        if (methodName.contains("Rider")) return "riders";
+        if (methodName.contains("Trip")) return "trips";
+        if (methodName.contains("Bill")) return "bills";
+        return "other";
+    }
+}
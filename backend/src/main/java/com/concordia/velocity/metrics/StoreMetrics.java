@@ -0,0 +1,117 @@
+package com.concordia.velocity.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call counts, errors and latency of every storage call, by collection and operation
+ * Calls are recorded by StoreInstrumentation, which wraps the repositories and transaction runner.
+ */
+@Component
+public class StoreMetrics {
+
+    private final Map<String, Map<String, OperationStats>> collections = new ConcurrentHashMap<>();
+    private final LongAdder roundTrips = new LongAdder();
+
+    /**
+     * Starts timing one call; a call that reaches the store also counts toward the current request
+     * @param roundTrip false for calls answered without going to the store, e.g. buffered transaction writes
+     */
+    public Call start(String collection, String operation, boolean roundTrip) {
+        if (roundTrip) {
+            roundTrips.increment();
+            RequestRoundTrips.increment();
+        }
+        return new Call(stats(collection, operation));
+    }
+
+    /**
+     * Store round-trips made so far, requests or not
+     */
+    public long getRoundTrips() {
+        return roundTrips.sum();
+    }
+
+    public LatencyHistogram histogram(String collection, String operation) {
+        return stats(collection, operation).latency;
+    }
+
+    public long errors(String collection, String operation) {
+        return stats(collection, operation).errors.sum();
+    }
+
+    /**
+     * Calls, errors and latency per collection and operation, in name order
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("roundTrips", roundTrips.sum());
+        Map<String, Object> byCollection = new TreeMap<>();
+        collections.forEach((collection, operations) -> {
+            Map<String, Object> byOperation = new TreeMap<>();
+            operations.forEach((operation, stats) -> {
+                Map<String, Object> operationStats = new LinkedHashMap<>(stats.latency.snapshot());
+                operationStats.put("errors", stats.errors.sum());
+                byOperation.put(operation, operationStats);
+            });
+            byCollection.put(collection, byOperation);
+        });
+        snapshot.put("collections", byCollection);
+        return snapshot;
+    }
+
+    public void writePrometheus(PrometheusWriter out) {
+        Map<String, Map<String, OperationStats>> sorted = sorted();
+        sorted.forEach((collection, operations) -> operations.forEach((operation, stats) ->
+                out.summary("velocity_store_call_seconds", "Latency of storage calls",
+                        PrometheusWriter.labels("collection", collection, "operation", operation), stats.latency)));
+        sorted.forEach((collection, operations) -> operations.forEach((operation, stats) ->
+                out.counter("velocity_store_call_errors_total", "Storage calls that failed",
+                        PrometheusWriter.labels("collection", collection, "operation", operation), stats.errors.sum())));
+        out.counter("velocity_store_round_trips_total", "Storage calls that went to the store",
+                Collections.emptyMap(), roundTrips.sum());
+    }
+
+    private OperationStats stats(String collection, String operation) {
+        return collections
+                .computeIfAbsent(collection, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(operation, name -> new OperationStats());
+    }
+
+    private Map<String, Map<String, OperationStats>> sorted() {
+        Map<String, Map<String, OperationStats>> sorted = new TreeMap<>();
+        collections.forEach((collection, operations) -> sorted.put(collection, new TreeMap<>(operations)));
+        return sorted;
+    }
+
+    private static final class OperationStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+    }
+
+    /**
+     * One storage call in flight
+     */
+    public static final class Call {
+        private final OperationStats stats;
+        private final long startNanos = System.nanoTime();
+
+        private Call(OperationStats stats) {
+            this.stats = stats;
+        }
+
+        /**
+         * @param error what the call failed with, or null if it succeeded
+         */
+        public void finish(Throwable error) {
+            stats.latency.recordNanos(System.nanoTime() - startNanos);
+            if (error != null) stats.errors.increment();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.concordia.velocity.model;
 
 import com.concordia.velocity.observer.Observer;
 import com.concordia.velocity.observer.StatusObserver;
+import com.concordia.velocity.observer.StatusTransition;
 import com.concordia.velocity.observer.Subject;
 import com.concordia.velocity.reservation.ReservationManager;
 import com.google.cloud.Timestamp;
@@ -44,6 +45,8 @@ public class Bike implements Subject {
     private Rider reservationUser;
 
     private transient List<Observer> observers = new ArrayList<>();
+    // status last reported to observers, the old status of the next transition
+    private transient String reportedStatus;
     // private transient java.util.concurrent.ScheduledFuture<?> reservationTask;
 
     public Bike() {}
@@ -63,6 +66,8 @@ public class Bike implements Subject {
     public void attach(Observer observer) {
         if (observers == null)
             observers = new ArrayList<>();
+        if (observers.isEmpty())
+            reportedStatus = status;
         observers.add(observer);
     }
 
@@ -76,8 +81,10 @@ public class Bike implements Subject {
     @Override
     public void notifyObservers() {
         if (observers != null) {
+            StatusTransition transition = nextTransition();
             for (Observer o : observers) {
                 o.update("Bike " + bikeId + " changed status to " + status);
+                o.onTransition(transition);
             }
         }
     }
@@ -85,12 +92,20 @@ public class Bike implements Subject {
     // notifyObservers with a custom message so we can detect the event in StatusObserver 
     public void notifyObservers(String message) {
         if (observers != null) {
+            StatusTransition transition = nextTransition();
             for (Observer o : observers) {
                 o.update(message);
+                o.onTransition(transition);
             }
         }
     }
 
+    private StatusTransition nextTransition() {
+        StatusTransition transition = new StatusTransition(StatusTransition.Kind.BIKE, bikeId, reportedStatus, status);
+        reportedStatus = status;
+        return transition;
+    }
+
     public static boolean isValidStatus(String status) {
         if (status == null)
             return false;
@@ -151,32 +166,23 @@ public class Bike implements Subject {
                         " → Expires at: " + expiryTime
         );
 
-        // Schedule expiration using ReservationManager
-        ReservationManager.schedule(
-                bikeId,
-                () -> {
-                    LocalDateTime exp = getReservationExpiryAsLocalDateTime();
-
-                    if (STATUS_RESERVED.equalsIgnoreCase(getStatus())
-                            && exp != null
-                            && !LocalDateTime.now().isBefore(exp)) {
-
-                        setStatus(STATUS_AVAILABLE);
-                        setReservationExpiry(null);
-                        notifyObservers("RESERVATION_EXPIRED userId=" + reservedByUserId);
-                        setReservedByUserId(null);
-
-                        System.out.println("Reservation expired for bike " + bikeId +
-                                " (hold time: " + totalHold + " mins)");
-                    }
-                },
-                totalHold // IMPORTANT: schedule actual corrected hold time
-        );
+        // The expiry timer is scheduled by ReservationExpiryService once the reservation is persisted,
+        // so it can be rebuilt from the stored expiry after a restart
 
         return expiryTime;
     }
 
 
+    /**
+     * True if the bike is still reserved and its hold time has run out
+     */
+    @Exclude
+    public boolean isReservationOverdue() {
+        if (!STATUS_RESERVED.equalsIgnoreCase(this.status) || reservationExpiry == null)
+            return false;
+        return reservationExpiry.compareTo(Timestamp.now()) <= 0;
+    }
+
     public void clearReservation() {
         this.reservationExpiry = null;
         this.reservedByUserId = null;
@@ -2,6 +2,7 @@ package com.concordia.velocity.model;
 
 import com.concordia.velocity.observer.Observer;
 import com.concordia.velocity.observer.StatusObserver;
+import com.concordia.velocity.observer.StatusTransition;
 import com.concordia.velocity.observer.Subject;
 
 import java.util.ArrayList;
@@ -27,6 +28,8 @@ public class Dock implements Subject {
     private String dockCode;  // Code required to unlock the dock
 
     private transient List<Observer> observers = new ArrayList<>();
+    // status last reported to observers, the old status of the next transition
+    private transient String reportedStatus;
 
     public Dock() {}
 
@@ -119,6 +122,7 @@ public class Dock implements Subject {
     @Override
     public void attach(Observer o) {
         if (observers == null) observers = new ArrayList<>();
+        if (observers.isEmpty()) reportedStatus = status;
         observers.add(o);
     }
 
@@ -131,8 +135,11 @@ public class Dock implements Subject {
     @Override
     public void notifyObservers() {
         if (observers != null) {
+            StatusTransition transition = new StatusTransition(StatusTransition.Kind.DOCK, dockId, reportedStatus, status);
+            reportedStatus = status;
             for (Observer o : observers) {
                 o.update("Dock " + dockId + " status changed to " + status);
+                o.onTransition(transition);
             }
         }
     }
@@ -18,6 +18,7 @@ public class Rider {
     private Boolean isOperator;
     private PaymentInfo paymentInfo;
     private List<Timestamp> missedReservationTimestamps = new ArrayList<>();
+    private RiderStatsAggregate loyaltyStats; // running tier stats, null until first built
 
     private TierState tierState;
     private String tier; // For Firestore persistence to store "NoTier", "Bronze", "Silver", "Gold"
@@ -135,6 +136,14 @@ public class Rider {
         this.missedReservationTimestamps = timestamps;
     }
 
+    public RiderStatsAggregate getLoyaltyStats() {
+        return loyaltyStats;
+    }
+
+    public void setLoyaltyStats(RiderStatsAggregate loyaltyStats) {
+        this.loyaltyStats = loyaltyStats;
+    }
+
     // add a missed reservation timestamp
     public void addMissedReservation() {
         if (missedReservationTimestamps == null) {
@@ -264,6 +273,17 @@ public class Rider {
         return null;
     }
 
+    /**
+     * Evaluates tier from the rider's own stats aggregate, rolled forward to today
+     * Callers make sure the aggregate exists (LoyaltyStatsService builds it on first use)
+     */
+    public TierChange evaluateTier() {
+        if (loyaltyStats == null) {
+            throw new IllegalStateException("Rider " + id + " has no loyalty stats to evaluate");
+        }
+        return evaluateTier(loyaltyStats.toRiderStats(LocalDate.now()));
+    }
+
     /**
      * Sets the tier state (called by TierState implementations)
      */
@@ -85,16 +85,8 @@ public class RiderStats {
         return missedReservations == 0;
     }
 
-    public boolean returnedAllBikes() { // for Bronze, the rider must have returned all bikes.
-        // need to update this method once i define logic in TripService for bike
-        // returns
-        /**
-         *
-         * TODO: Implement properly in LoyaltyStatsService:
-         * - Check if trip.getStatus() == "completed"
-         * - Check that endStationId/endDockId are valid
-         */
-        return true;
+    public boolean returnedAllBikes() { // for Bronze, the rider must have returned all bikes (no trip still active)
+        return returnedAllBikes;
     }
 
     public boolean hasTripsLastYear(int threshold) { // checks whether the rider meets a minimum number of trips in the
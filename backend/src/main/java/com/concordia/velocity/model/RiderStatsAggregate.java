@@ -0,0 +1,178 @@
+package com.concordia.velocity.model;
+
+import java.time.LocalDate;
+import java.time.temporal.WeekFields;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RiderStatsAggregate is the persisted running summary behind a rider's loyalty tier.
+ *
+ * It is stored on the rider document (field "loyaltyStats") and updated in O(1) when a trip
+ * completes or a reservation is missed, so evaluating a tier never reloads the trip history.
+ *
+ * Completed trips (by start date) and missed reservations are counted per day for the last year.
+ * That is the widest window any tier rule looks at, so the yearly total and the 12-month and
+ * 12-week buckets are all derived from it. Days that fall out of the year are dropped as the
+ * window rolls forward, which keeps the document bounded no matter how many trips the rider takes.
+ * It also counts the rider's trips in progress, since Bronze requires every bike to be returned.
+ *
+ * LoyaltyStatsService can rebuild it from the trip history when it is missing or suspected stale.
+ */
+public class RiderStatsAggregate {
+
+    private Map<String, Integer> tripsByDay = new HashMap<>();   // ISO date -> completed trips started that day
+    private Map<String, Integer> missedByDay = new HashMap<>();  // ISO date -> reservations missed that day
+    private int activeTrips;                                      // trips started and not yet completed or abandoned
+
+    public RiderStatsAggregate() { // default constructor for Firestore
+    }
+
+    /**
+     * Counts a completed trip that started on the given day
+     */
+    public void recordTrip(LocalDate startDay, LocalDate today) {
+        increment(tripsByDay, startDay);
+        rollForward(today);
+    }
+
+    /**
+     * Counts a reservation that expired unclaimed on the given day
+     */
+    public void recordMissedReservation(LocalDate day, LocalDate today) {
+        increment(missedByDay, day);
+        rollForward(today);
+    }
+
+    /**
+     * Counts a trip the rider has just started; the bike is out until recordTripClosed
+     */
+    public void recordTripStarted() {
+        activeTrips++;
+    }
+
+    /**
+     * Counts one of the rider's trips as over, whether completed or abandoned
+     * Floored at zero: aggregates stored before active trips were counted start from none.
+     */
+    public void recordTripClosed() {
+        activeTrips = Math.max(0, activeTrips - 1);
+    }
+
+    /**
+     * Drops days older than a year before today
+     */
+    public void rollForward(LocalDate today) {
+        LocalDate oneYearAgo = today.minusYears(1);
+        tripsByDay.keySet().removeIf(day -> LocalDate.parse(day).isBefore(oneYearAgo));
+        missedByDay.keySet().removeIf(day -> LocalDate.parse(day).isBefore(oneYearAgo));
+    }
+
+    /**
+     * Derives the windowed stats the TierState rules check, as of today
+     * Uses the same window boundaries as LoyaltyStatsService.computeStats
+     */
+    public RiderStats toRiderStats(LocalDate today) {
+        LocalDate oneYearAgo = today.minusYears(1);
+        WeekFields wf = WeekFields.of(Locale.getDefault());
+        int currentWeek = today.get(wf.weekOfWeekBasedYear());
+
+        int tripsLastYear = 0;
+        List<Integer> months = zeros();
+        List<Integer> weeks = zeros();
+
+        for (Map.Entry<String, Integer> entry : tripsByDay.entrySet()) {
+            LocalDate date = LocalDate.parse(entry.getKey());
+            int count = entry.getValue();
+            if (date.isBefore(oneYearAgo)) continue;
+
+            tripsLastYear += count;
+
+            int monthDiff = (today.getYear() - date.getYear()) * 12 + (today.getMonthValue() - date.getMonthValue());
+            if (monthDiff >= 0 && monthDiff < 12) {
+                months.set(monthDiff, months.get(monthDiff) + count);
+            }
+
+            int weekDiff = weekDifference(today.getYear(), currentWeek, date.getYear(), date.get(wf.weekOfWeekBasedYear()));
+            if (weekDiff >= 0 && weekDiff < 12) {
+                weeks.set(weekDiff, weeks.get(weekDiff) + count);
+            }
+        }
+
+        int missed = 0;
+        for (Map.Entry<String, Integer> entry : missedByDay.entrySet()) {
+            if (LocalDate.parse(entry.getKey()).isAfter(oneYearAgo)) {
+                missed += entry.getValue();
+            }
+        }
+
+        RiderStats stats = new RiderStats();
+        stats.setTripsLastYear(tripsLastYear);
+        stats.setSuccessfulClaims(tripsLastYear);
+        stats.setMissedReservations(missed);
+        stats.setTripsPerMonth(months);
+        stats.setTripsPerWeek(weeks);
+        stats.setReturnedAllBikes(activeTrips == 0);
+        return stats;
+    }
+
+    /**
+     * Same week arithmetic as LoyaltyStatsService, so both paths bucket a trip identically
+     */
+    static int weekDifference(int currentYear, int currentWeek, int tripYear, int tripWeek) {
+        if (tripYear == currentYear) {
+            return currentWeek - tripWeek;
+        }
+        if (tripYear == currentYear - 1) {
+            return currentWeek + (52 - tripWeek);
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private static void increment(Map<String, Integer> counts, LocalDate day) {
+        counts.merge(day.toString(), 1, Integer::sum);
+    }
+
+    private static List<Integer> zeros() {
+        List<Integer> buckets = new ArrayList<>();
+        for (int i = 0; i < 12; i++)
+            buckets.add(0);
+        return buckets;
+    }
+
+    // getters and setters
+    public Map<String, Integer> getTripsByDay() {
+        return tripsByDay;
+    }
+
+    public void setTripsByDay(Map<String, Integer> tripsByDay) {
+        this.tripsByDay = tripsByDay != null ? new HashMap<>(tripsByDay) : new HashMap<>();
+    }
+
+    public Map<String, Integer> getMissedByDay() {
+        return missedByDay;
+    }
+
+    public void setMissedByDay(Map<String, Integer> missedByDay) {
+        this.missedByDay = missedByDay != null ? new HashMap<>(missedByDay) : new HashMap<>();
+    }
+
+    public int getActiveTrips() {
+        return activeTrips;
+    }
+
+    public void setActiveTrips(int activeTrips) {
+        this.activeTrips = activeTrips;
+    }
+
+    public String toString() {
+        return "RiderStatsAggregate{" +
+                "tripsByDay=" + tripsByDay +
+                ", missedByDay=" + missedByDay +
+                ", activeTrips=" + activeTrips +
+                '}';
+    }
+}
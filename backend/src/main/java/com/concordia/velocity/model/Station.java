@@ -2,10 +2,12 @@ package com.concordia.velocity.model;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 import com.concordia.velocity.observer.Observer;
 import com.concordia.velocity.observer.StatusObserver;
+import com.concordia.velocity.observer.StatusTransition;
 import com.concordia.velocity.observer.Subject;
 
 public class Station implements Subject {
@@ -39,6 +41,8 @@ public class Station implements Subject {
     private boolean lowCapacity;
 
     private transient final List<Observer> observers = new ArrayList<>();
+    // status last reported to observers, the old status of the next transition
+    private transient String reportedStatus;
 
     public Station() {}
 
@@ -151,6 +155,9 @@ public class Station implements Subject {
     @Override
     public void attach(Observer observer) {
         if (!observers.contains(observer)) {
+            if (observers.isEmpty()) {
+                reportedStatus = status;
+            }
             observers.add(observer);
         }
     }
@@ -162,8 +169,11 @@ public class Station implements Subject {
 
     @Override
     public void notifyObservers() {
+        StatusTransition transition = new StatusTransition(StatusTransition.Kind.STATION, stationId, reportedStatus, status);
+        reportedStatus = status;
         for (Observer obs : observers) {
             obs.update("Station " + stationId + " status changed to " + status);
+            obs.onTransition(transition);
         }
     }
 
@@ -227,6 +237,7 @@ public class Station implements Subject {
     // we could probably integrate the incrementing with this... so incrementing code does not repeat + maintained simultaneously
     public void removeBike(Bike bike) {
         String bikeId = bike.getBikeId();
+        String previousStatus = getStatus();
         this.bikeIds.remove(bikeId);
         setNumDockedBikes(Math.max(0, getNumDockedBikes() - 1));
 
@@ -236,8 +247,9 @@ public class Station implements Subject {
             setNumStandardBikes(Math.max(0, getNumStandardBikes() - 1));
         }
 
+        // setNumDockedBikes has already moved the status, so compare with the one before the change
         String newStationStatus = determineStatusFromCapacity();
-        if (!newStationStatus.equals(getStatus())) {
+        if (!newStationStatus.equals(previousStatus)) {
             setStatus(newStationStatus);
         }
         boolean newLow = getNumDockedBikes() < (0.25 * getCapacity());
@@ -248,6 +260,7 @@ public class Station implements Subject {
 
     public void addBike(Bike bike) {
         String bikeId = bike.getBikeId();
+        String previousStatus = getStatus();
         this.bikeIds.add(bikeId);
 
         setNumDockedBikes(Math.max(0, getNumDockedBikes() + 1));
@@ -258,8 +271,52 @@ public class Station implements Subject {
             setNumStandardBikes(Math.max(0, getNumStandardBikes() + 1));
         }
 
+        // setNumDockedBikes has already moved the status, so compare with the one before the change
         String newStationStatus = determineStatusFromCapacity();
-        if (!newStationStatus.equals(getStatus())) {
+        if (!newStationStatus.equals(previousStatus)) {
+            setStatus(newStationStatus);
+        }
+        boolean newLow = getNumDockedBikes() < (0.25 * getCapacity());
+        if (newLow != isLowCapacity()) {
+            setLowCapacity(newLow);
+        }
+    }
+
+    /**
+     * Removes several bikes with one counter update, so observers see at most one status change
+     */
+    public void removeBikes(Collection<Bike> bikes) {
+        if (bikes.isEmpty()) return;
+        int electric = 0;
+        for (Bike bike : bikes) {
+            this.bikeIds.remove(bike.getBikeId());
+            if ("electric".equals(bike.getType())) electric++;
+        }
+        applyDockedChange(-bikes.size(), -electric);
+    }
+
+    /**
+     * Adds several bikes with one counter update, so observers see at most one status change
+     */
+    public void addBikes(Collection<Bike> bikes) {
+        if (bikes.isEmpty()) return;
+        int electric = 0;
+        for (Bike bike : bikes) {
+            this.bikeIds.add(bike.getBikeId());
+            if ("electric".equals(bike.getType())) electric++;
+        }
+        applyDockedChange(bikes.size(), electric);
+    }
+
+    private void applyDockedChange(int docked, int electric) {
+        String previousStatus = getStatus();
+        setNumDockedBikes(Math.max(0, getNumDockedBikes() + docked));
+        setNumElectricBikes(Math.max(0, getNumElectricBikes() + electric));
+        setNumStandardBikes(Math.max(0, getNumStandardBikes() + docked - electric));
+
+        // setNumDockedBikes has already moved the status, so compare with the one before the change
+        String newStationStatus = determineStatusFromCapacity();
+        if (!newStationStatus.equals(previousStatus)) {
             setStatus(newStationStatus);
         }
         boolean newLow = getNumDockedBikes() < (0.25 * getCapacity());
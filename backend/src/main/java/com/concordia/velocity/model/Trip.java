@@ -33,6 +33,8 @@ public class Trip {
     private Bill bill;
     private Boolean flexRedeemed;
     private Double flexRedeemedAmount;
+    private Boolean flexAwarded;        // rider earned flex dollars for docking at a low-capacity station
+    private Integer flexAwardAmount;
 
     public Trip() {}
 
@@ -172,6 +174,12 @@ public class Trip {
     public Double getFlexRedeemedAmount() { return flexRedeemedAmount; }
     public void setFlexRedeemedAmount(Double flexRedeemedAmount) { this.flexRedeemedAmount = flexRedeemedAmount; }
 
+    public Boolean getFlexAwarded() { return flexAwarded; }
+    public void setFlexAwarded(Boolean flexAwarded) { this.flexAwarded = flexAwarded; }
+
+    public Integer getFlexAwardAmount() { return flexAwardAmount; }
+    public void setFlexAwardAmount(Integer flexAwardAmount) { this.flexAwardAmount = flexAwardAmount; }
+
     @Override
     public String toString() {
         return "Trip{" +
@@ -1,8 +1,127 @@
 package com.concordia.velocity.observer;
 
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.observer.DashboardStream.Delta;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects the status changes of one operation and publishes them to the live dashboard stream
+ *
+ * Like JournalObserver, transitions are only staged while the operation runs: the service calls
+ * publish once its changes are committed and discard at the start of each transaction attempt, so
+ * clients never see a change that was retried or rolled back. Entities registered with watch are
+ * published with their state as committed (a bike's dock and station, a station's docked bikes and
+ * free docks), including when only that state changed, e.g. a station losing a bike but staying occupied.
+ */
 public class DashboardObserver implements Observer {
+
+    private final Map<String, StatusTransition> staged = new LinkedHashMap<>();
+    private final Map<String, Watched> watched = new LinkedHashMap<>();
+
     @Override
     public void update(String message) {
-        System.out.println("Dashboard updated: " + message);
+        // clients get the typed delta from onTransition instead of the message
+    }
+
+    @Override
+    public void onTransition(StatusTransition transition) {
+        if (transition.isNoOp()) return;
+        staged.merge(key(transition.kind(), transition.entityId()), transition, (earlier, later) ->
+                new StatusTransition(later.kind(), later.entityId(), earlier.oldStatus(), later.newStatus()));
+    }
+
+    /**
+     * Attaches to the bike and publishes its status, dock and station if they change
+     */
+    public void watch(Bike bike) {
+        watch(StatusTransition.Kind.BIKE, bike.getBikeId(), bike);
+        bike.attach(this);
+    }
+
+    /**
+     * Attaches to the dock and publishes its status if it changes
+     */
+    public void watch(Dock dock) {
+        watch(StatusTransition.Kind.DOCK, dock.getDockId(), dock);
+        dock.attach(this);
+    }
+
+    /**
+     * Attaches to the station and publishes its status and counts if they change
+     */
+    public void watch(Station station) {
+        watch(StatusTransition.Kind.STATION, station.getStationId(), station);
+        station.attach(this);
     }
-}
\ No newline at end of file
+
+    /**
+     * Drops what was staged and watched so far, e.g. at the start of a transaction attempt
+     */
+    public void discard() {
+        staged.clear();
+        watched.clear();
+    }
+
+    /**
+     * Publishes the staged changes to the dashboard stream, once they are committed
+     */
+    public void publish() {
+        DashboardStream stream = DashboardStream.shared();
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Watched> entry : watched.entrySet()) {
+            Watched watch = entry.getValue();
+            StatusTransition transition = staged.remove(entry.getKey());
+            if (transition == null && watch.before().equals(state(watch.entity()))) continue;
+            String previous = transition != null ? transition.oldStatus() : null;
+            stream.publish(delta(watch.entity(), previous, now));
+        }
+        for (StatusTransition transition : staged.values()) {
+            stream.publish(transition);
+        }
+        discard();
+    }
+
+    private void watch(StatusTransition.Kind kind, String id, Object entity) {
+        watched.putIfAbsent(key(kind, id), new Watched(entity, state(entity)));
+    }
+
+    private static Delta delta(Object entity, String previous, long at) {
+        if (entity instanceof Bike bike) {
+            String status = bike.getStatus();
+            return new Delta("bike", bike.getBikeId(), previous != null ? previous : status, status,
+                    bike.getStationId(), bike.getDockId(), null, null, at);
+        }
+        if (entity instanceof Dock dock) {
+            String status = dock.getStatus();
+            return new Delta("dock", dock.getDockId(), previous != null ? previous : status, status,
+                    dock.getStationId(), null, null, null, at);
+        }
+        Station station = (Station) entity;
+        String status = station.getStatus();
+        int docked = station.getNumDockedBikes();
+        return new Delta("station", station.getStationId(), previous != null ? previous : status, status,
+                null, null, docked, Math.max(0, station.getCapacity() - docked), at);
+    }
+
+    // what a delta reports about the entity, to tell whether it changed without a status change
+    private static String state(Object entity) {
+        if (entity instanceof Bike bike) {
+            return bike.getStatus() + "|" + bike.getDockId() + "|" + bike.getStationId();
+        }
+        if (entity instanceof Dock dock) {
+            return dock.getStatus() + "|" + dock.getStationId();
+        }
+        Station station = (Station) entity;
+        return station.getStatus() + "|" + station.getNumDockedBikes() + "|" + station.getCapacity();
+    }
+
+    private static String key(StatusTransition.Kind kind, String id) {
+        return kind + ":" + id;
+    }
+
+    private record Watched(Object entity, String before) {}
+}
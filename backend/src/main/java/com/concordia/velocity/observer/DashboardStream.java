@@ -0,0 +1,298 @@
+package com.concordia.velocity.observer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes station, dock and bike status deltas to connected dashboard clients
+ *
+ * DashboardObserver publishes each operation's changes here once they are committed. Bike deltas
+ * carry the bike's dock and station and station deltas its docked bikes and free docks, so a client
+ * can keep a map current from the deltas alone. Deltas are coalesced per entity for
+ * coalesceMillis, so a burst of changes to one dock goes out as a single delta from the first old
+ * status to the latest status, and each window is sent to every client as one batch.
+ * Each client has its own bounded buffer and at most one send in flight: a client that falls
+ * behind never holds up the others, and when its buffer overflows the buffered deltas are dropped
+ * and it is told to resync (re-read the current state) instead.
+ *
+ * DashboardObserver is created with new all over the services, so the stream it publishes to is a
+ * process-wide instance; DashboardStreamConfig applies the application's settings to it at startup.
+ */
+public final class DashboardStream implements AutoCloseable {
+
+    public record Settings(long coalesceMillis, int clientBuffer, long heartbeatMillis) {
+        public static Settings defaults() {
+            return new Settings(250, 1024, 15_000);
+        }
+    }
+
+    /**
+     * One entity's change within a window: previous is its status before the window, status the latest
+     * stationId and dockId are where a bike is now (null on a trip) and a dock's station;
+     * dockedBikes and freeDocks are a station's counts. Fields that don't apply to the kind are null.
+     */
+    public record Delta(String kind, String id, String previous, String status, String stationId, String dockId,
+                        Integer dockedBikes, Integer freeDocks, long at) {
+
+        // this delta carrying on from an earlier one for the same entity in the window
+        Delta since(Delta earlier) {
+            return new Delta(kind, id, earlier.previous(), status, stationId, dockId, dockedBikes, freeDocks, at);
+        }
+    }
+
+    /**
+     * Where a client's events go; SSE in the controller, a list in tests
+     */
+    public interface Sink {
+        void send(String event, Object data) throws IOException;
+        void close();
+    }
+
+    public static final String EVENT_DELTAS = "deltas";
+    public static final String EVENT_RESYNC = "resync";
+    public static final String EVENT_HEARTBEAT = "heartbeat";
+
+    private static volatile DashboardStream shared;
+
+    private final Settings settings;
+    private final ConcurrentHashMap<String, Delta> pending = new ConcurrentHashMap<>();
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher;
+    private final ExecutorService senders;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder disconnects = new LongAdder();
+
+    public DashboardStream(Settings settings) {
+        this.settings = settings;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // one send per client at a time, so a blocked client ties up one thread and nothing else
+        this.senders = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleAtFixedRate(this::flush, settings.coalesceMillis(), settings.coalesceMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The stream DashboardObserver publishes to, created with default settings on first use
+     */
+    public static DashboardStream shared() {
+        DashboardStream stream = shared;
+        if (stream == null) {
+            synchronized (DashboardStream.class) {
+                if (shared == null) {
+                    shared = new DashboardStream(Settings.defaults());
+                }
+                stream = shared;
+            }
+        }
+        return stream;
+    }
+
+    /**
+     * Replaces the shared stream with one using the given settings, disconnecting the old one's clients
+     */
+    public static void configure(Settings settings) {
+        DashboardStream previous;
+        synchronized (DashboardStream.class) {
+            previous = shared;
+            shared = new DashboardStream(settings);
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Queues a bare status change for the next window
+     */
+    public void publish(StatusTransition transition) {
+        if (transition.isNoOp()) return;
+        publish(new Delta(transition.kind().name().toLowerCase(), transition.entityId(), transition.oldStatus(),
+                transition.newStatus(), null, null, null, null, System.currentTimeMillis()));
+    }
+
+    /**
+     * Queues the delta for the next window, merging it with one already queued for the same entity
+     */
+    public void publish(Delta delta) {
+        published.increment();
+        pending.merge(delta.kind() + ":" + delta.id(), delta, (earlier, later) -> {
+            coalesced.increment();
+            return later.since(earlier);
+        });
+    }
+
+    /**
+     * Registers a client; it receives every window's deltas from now on
+     * @return the client, to pass to unsubscribe when the connection ends
+     */
+    public Client subscribe(Sink sink) {
+        Client client = new Client(sink);
+        clients.add(client);
+        return client;
+    }
+
+    public void unsubscribe(Client client) {
+        if (clients.remove(client)) {
+            client.buffer.clear();
+        }
+    }
+
+    public int clientCount() {
+        return clients.size();
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+        for (Client client : clients) {
+            unsubscribe(client);
+            client.sink.close();
+        }
+        senders.shutdown();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("clients", clients.size());
+        stats.put("pending", pending.size());
+        stats.put("published", published.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("batches", batches.sum());
+        stats.put("delivered", delivered.sum());
+        stats.put("overflows", overflows.sum());
+        stats.put("disconnects", disconnects.sum());
+        return stats;
+    }
+
+    // ============ Flusher thread ============
+
+    void flush() {
+        try {
+            List<Delta> window = new ArrayList<>(pending.size());
+            for (String key : pending.keySet()) {
+                Delta delta = pending.remove(key);
+                if (delta != null && !unchanged(delta)) {
+                    window.add(delta);
+                }
+            }
+            window.sort(Comparator.comparingLong(Delta::at));
+            if (!window.isEmpty()) {
+                batches.increment();
+            }
+
+            long now = System.nanoTime();
+            for (Client client : clients) {
+                if (!window.isEmpty()) {
+                    client.offer(window);
+                } else if (now - client.lastSentNanos > TimeUnit.MILLISECONDS.toNanos(settings.heartbeatMillis())) {
+                    client.heartbeatDue = true;
+                }
+                client.scheduleSend();
+            }
+        } catch (RuntimeException e) {
+            // keep the schedule alive
+            System.err.println("Dashboard stream flush failed: " + e.getMessage());
+        }
+    }
+
+    // a burst that ended at the status it started from has nothing to report, unless it may have
+    // moved a docked bike or changed a station's counts
+    private static boolean unchanged(Delta delta) {
+        if (delta.previous() == null || !delta.previous().equals(delta.status())) return false;
+        boolean docked = "bike".equals(delta.kind()) && (delta.stationId() != null || delta.dockId() != null);
+        return !docked && delta.dockedBikes() == null;
+    }
+
+    /**
+     * A connected dashboard and its bounded buffer of deltas not sent yet
+     */
+    public final class Client {
+
+        private final Sink sink;
+        private final ArrayBlockingQueue<Delta> buffer = new ArrayBlockingQueue<>(settings.clientBuffer());
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean resyncDue;
+        private volatile boolean heartbeatDue;
+        private volatile long lastSentNanos = System.nanoTime();
+
+        private Client(Sink sink) {
+            this.sink = sink;
+        }
+
+        private void offer(List<Delta> window) {
+            for (Delta delta : window) {
+                if (!buffer.offer(delta)) {
+                    // the deltas it missed can't be replayed; it re-reads the current state instead
+                    buffer.clear();
+                    resyncDue = true;
+                    overflows.increment();
+                    return;
+                }
+            }
+        }
+
+        private void scheduleSend() {
+            if ((buffer.isEmpty() && !resyncDue && !heartbeatDue) || !sending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::send);
+            } catch (RuntimeException e) {
+                sending.set(false);
+            }
+        }
+
+        private void send() {
+            try {
+                if (resyncDue) {
+                    resyncDue = false;
+                    sink.send(EVENT_RESYNC, Map.of("reason", "buffer overflow"));
+                }
+                List<Delta> batch = new ArrayList<>(buffer.size());
+                buffer.drainTo(batch);
+                if (!batch.isEmpty()) {
+                    sink.send(EVENT_DELTAS, batch);
+                    delivered.add(batch.size());
+                } else if (heartbeatDue) {
+                    sink.send(EVENT_HEARTBEAT, Map.of());
+                }
+                heartbeatDue = false;
+                lastSentNanos = System.nanoTime();
+            } catch (IOException | RuntimeException e) {
+                disconnects.increment();
+                unsubscribe(this);
+                sink.close();
+                return;
+            } finally {
+                sending.set(false);
+            }
+            // whatever arrived while this send was blocked goes out now rather than next window
+            scheduleSend();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.concordia.velocity.observer;
+
+import com.concordia.velocity.journal.TransitionJournal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the status transitions of one operation and writes them to the transition journal
+ *
+ * Transitions are only staged while the operation runs; the service calls commit once its changes
+ * are saved, so the trip ID can be attached and a rolled-back or retried transaction leaves nothing
+ * behind (discard drops what an earlier attempt staged). No-op and repeated notifications are skipped.
+ */
+public class JournalObserver implements Observer {
+
+    private final List<StatusTransition> staged = new ArrayList<>();
+
+    @Override
+    public void update(String message) {
+        // the journal only records the typed transition
+    }
+
+    @Override
+    public void onTransition(StatusTransition transition) {
+        if (transition.isNoOp()) return;
+        for (int i = staged.size() - 1; i >= 0; i--) {
+            StatusTransition previous = staged.get(i);
+            if (previous.kind() == transition.kind() && previous.entityId().equals(transition.entityId())) {
+                if (previous.equals(transition)) return;
+                break;
+            }
+        }
+        staged.add(transition);
+    }
+
+    /**
+     * Drops the transitions staged so far, e.g. at the start of a transaction attempt
+     */
+    public void discard() {
+        staged.clear();
+    }
+
+    /**
+     * Writes the staged transitions to the journal
+     * @param tripId the trip they belong to, or null
+     */
+    public void commit(String tripId) {
+        if (staged.isEmpty()) return;
+        TransitionJournal.shared().append(staged, tripId);
+        staged.clear();
+    }
+}
@@ -2,4 +2,10 @@ package com.concordia.velocity.observer;
 
 public interface Observer {
     void update(String message);
-}
\ No newline at end of file
+
+    /**
+     * Typed form of the same notification, for observers that keep structured history
+     * Subjects call it right after update; most observers only need the message.
+     */
+    default void onTransition(StatusTransition transition) { }
+}
@@ -0,0 +1,327 @@
+package com.concordia.velocity.observer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes status log lines on a background thread so notifying observers never waits on the disk
+ *
+ * Callers only enqueue: the queue is a lock-free linked queue bounded by a counter, and when it is
+ * full the line is dropped and counted instead of blocking the request thread. The writer thread
+ * keeps the file channel open, drains the queue in batches, writes each batch with one call and
+ * fsyncs per the configured policy (every batch, at most once per interval, or never).
+ * When the file passes the size limit it is renamed aside and gzipped off the writer thread,
+ * keeping the newest maxArchives archives.
+ *
+ * StatusObserver is created with new all over the models, so the appender it uses is a process-wide
+ * instance; StatusLogConfig applies the application's settings to it at startup.
+ */
+public final class StatusLogAppender implements AutoCloseable {
+
+    public enum FsyncPolicy { NEVER, BATCH, INTERVAL }
+
+    public record Settings(Path path, int queueCapacity, int batchSize, FsyncPolicy fsync,
+                           long fsyncIntervalMillis, long maxFileBytes, int maxArchives) {
+        public static Settings defaults() {
+            return new Settings(Paths.get("status_changes.log"), 65_536, 1024, FsyncPolicy.INTERVAL,
+                    1000, 10L * 1024 * 1024, 10);
+        }
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final DateTimeFormatter ARCHIVE_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private static volatile StatusLogAppender shared;
+
+    static {
+        // whatever is still queued when the JVM exits gets written out
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            StatusLogAppender appender = shared;
+            if (appender != null) appender.close();
+        }, "status-log-shutdown"));
+    }
+
+    private final Settings settings;
+    private final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Thread writer;
+    private final ExecutorService compressor;
+    private volatile boolean running = true;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder fsyncs = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder ioErrors = new LongAdder();
+
+    // writer thread only
+    private FileChannel channel;
+    private long fileBytes;
+    private long lastFsyncNanos = System.nanoTime();
+    private boolean unsynced;
+
+    public StatusLogAppender(Settings settings) {
+        this.settings = settings;
+        this.compressor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "status-log-compressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writer = new Thread(this::run, "status-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * The appender StatusObserver writes to, created with default settings on first use
+     */
+    public static StatusLogAppender shared() {
+        StatusLogAppender appender = shared;
+        if (appender == null) {
+            synchronized (StatusLogAppender.class) {
+                if (shared == null) {
+                    shared = new StatusLogAppender(Settings.defaults());
+                }
+                appender = shared;
+            }
+        }
+        return appender;
+    }
+
+    /**
+     * Replaces the shared appender with one using the given settings, flushing the old one
+     */
+    public static void configure(Settings settings) {
+        StatusLogAppender previous;
+        synchronized (StatusLogAppender.class) {
+            previous = shared;
+            shared = new StatusLogAppender(settings);
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Queues a line for writing without blocking
+     * @return false if the queue was full (or the appender closed) and the line was dropped
+     */
+    public boolean append(String line) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        if (queued.incrementAndGet() > settings.queueCapacity()) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(line);
+        return true;
+    }
+
+    /**
+     * Stops accepting lines, writes out everything already queued and fsyncs
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compressor.shutdown();
+        try {
+            compressor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("path", settings.path().toString());
+        stats.put("queued", queued.get());
+        stats.put("written", written.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("batches", batches.sum());
+        stats.put("fsyncs", fsyncs.sum());
+        stats.put("rotations", rotations.sum());
+        stats.put("ioErrors", ioErrors.sum());
+        return stats;
+    }
+
+    // ============ Writer thread ============
+
+    private void run() {
+        StringBuilder batch = new StringBuilder();
+        while (running || !queue.isEmpty()) {
+            int lines = drain(batch);
+            if (lines == 0) {
+                syncIfDue();
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            writeBatch(batch, lines);
+        }
+        syncNow();
+        closeChannel();
+    }
+
+    private int drain(StringBuilder batch) {
+        batch.setLength(0);
+        int lines = 0;
+        String line;
+        while (lines < settings.batchSize() && (line = queue.poll()) != null) {
+            batch.append(line);
+            lines++;
+        }
+        queued.addAndGet(-lines);
+        return lines;
+    }
+
+    private void writeBatch(StringBuilder batch, int lines) {
+        try {
+            if (channel == null) {
+                openChannel();
+            }
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(batch.toString());
+            while (bytes.hasRemaining()) {
+                fileBytes += channel.write(bytes);
+            }
+            written.add(lines);
+            batches.increment();
+            unsynced = true;
+
+            if (settings.fsync() == FsyncPolicy.BATCH) {
+                syncNow();
+            } else {
+                syncIfDue();
+            }
+            if (fileBytes >= settings.maxFileBytes()) {
+                rotate();
+            }
+        } catch (IOException e) {
+            ioErrors.increment();
+            System.err.println("Status log write failed, dropped " + lines + " line(s): " + e.getMessage());
+            closeChannel();
+        }
+    }
+
+    private void syncIfDue() {
+        if (settings.fsync() == FsyncPolicy.INTERVAL
+                && System.nanoTime() - lastFsyncNanos >= TimeUnit.MILLISECONDS.toNanos(settings.fsyncIntervalMillis())) {
+            syncNow();
+        }
+    }
+
+    private void syncNow() {
+        if (!unsynced || channel == null) return;
+        try {
+            channel.force(false);
+            fsyncs.increment();
+            unsynced = false;
+            lastFsyncNanos = System.nanoTime();
+        } catch (IOException e) {
+            ioErrors.increment();
+            System.err.println("Status log fsync failed: " + e.getMessage());
+        }
+    }
+
+    private void openChannel() throws IOException {
+        Path parent = settings.path().toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(settings.path(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileBytes = channel.size();
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            ioErrors.increment();
+        }
+        channel = null;
+    }
+
+    /**
+     * Moves the full file aside and starts a new one; the old segment is compressed in the background
+     */
+    private void rotate() throws IOException {
+        syncNow();
+        closeChannel();
+        Path archived = settings.path().resolveSibling(
+                baseName() + "-" + LocalDateTime.now().format(ARCHIVE_SUFFIX) + ".log");
+        Files.move(settings.path(), archived);
+        rotations.increment();
+        openChannel();
+        compressor.execute(() -> compress(archived));
+    }
+
+    private void compress(Path segment) {
+        Path gzipped = segment.resolveSibling(segment.getFileName() + ".gz");
+        try (InputStream in = Files.newInputStream(segment);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipped))) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            ioErrors.increment();
+            System.err.println("Status log compression failed for " + segment + ": " + e.getMessage());
+            return;
+        }
+        try {
+            Files.delete(segment);
+            pruneArchives();
+        } catch (IOException e) {
+            ioErrors.increment();
+            System.err.println("Status log archive cleanup failed: " + e.getMessage());
+        }
+    }
+
+    private void pruneArchives() throws IOException {
+        List<Path> archives = new ArrayList<>();
+        Path dir = settings.path().toAbsolutePath().getParent();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir, baseName() + "-*.log.gz")) {
+            entries.forEach(archives::add);
+        }
+        // the timestamp suffix sorts oldest first
+        archives.sort(null);
+        for (int i = 0; i < archives.size() - settings.maxArchives(); i++) {
+            Files.deleteIfExists(archives.get(i));
+        }
+    }
+
+    private String baseName() {
+        String name = settings.path().getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
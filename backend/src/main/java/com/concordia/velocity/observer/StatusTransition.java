@@ -0,0 +1,18 @@
+package com.concordia.velocity.observer;
+
+/**
+ * A status change of a bike, dock or station, as delivered to observers alongside the text message
+ * oldStatus is the status the entity had when it was last reported (or when the first observer was
+ * attached), so it is null for an entity that was only just created.
+ */
+public record StatusTransition(Kind kind, String entityId, String oldStatus, String newStatus) {
+
+    public enum Kind { BIKE, DOCK, STATION }
+
+    /**
+     * True if the status did not actually change, e.g. when a subject is notified twice
+     */
+    public boolean isNoOp() {
+        return oldStatus != null && oldStatus.equalsIgnoreCase(newStatus);
+    }
+}
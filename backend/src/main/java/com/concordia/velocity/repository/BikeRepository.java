@@ -0,0 +1,56 @@
+package com.concordia.velocity.repository;
+
+import com.concordia.velocity.model.Bike;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Storage access for bikes
+ * Implemented once per backend (Firestore, local store) so services never touch the database directly
+ */
+public interface BikeRepository {
+
+    /**
+     * Gets a bike by ID, or null if it does not exist
+     */
+    Bike findById(String bikeId) throws ExecutionException, InterruptedException;
+
+    CompletableFuture<Bike> findByIdAsync(String bikeId);
+
+    List<Bike> findAll() throws ExecutionException, InterruptedException;
+
+    /**
+     * Gets several bikes by ID in as few round-trips as the backend allows
+     * Results follow the order of the IDs given; IDs with no bike are skipped
+     */
+    List<Bike> findAllById(Collection<String> bikeIds) throws ExecutionException, InterruptedException;
+
+    /**
+     * Gets every bike with the given status, answered from the status index rather than a full scan
+     */
+    List<Bike> findByStatus(String status) throws ExecutionException, InterruptedException;
+
+    /**
+     * Gets all bikes at a station with the given status
+     */
+    List<Bike> findByStationIdAndStatus(String stationId, String status)
+            throws ExecutionException, InterruptedException;
+
+    /**
+     * Gets the first bike at a dock with the given status, or null if there is none
+     */
+    Bike findFirstByDockIdAndStatus(String dockId, String status)
+            throws ExecutionException, InterruptedException;
+
+    void save(Bike bike) throws ExecutionException, InterruptedException;
+
+    CompletableFuture<Void> saveAsync(Bike bike);
+
+    /**
+     * Saves several bikes in as few round-trips as the backend allows
+     */
+    void saveAll(Collection<Bike> bikes) throws ExecutionException, InterruptedException;
+}
@@ -0,0 +1,18 @@
+package com.concordia.velocity.repository;
+
+import com.concordia.velocity.model.Bill;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Storage access for bills
+ */
+public interface BillRepository {
+
+    /**
+     * Gets a bill by ID, or null if it does not exist
+     */
+    Bill findById(String billId) throws ExecutionException, InterruptedException;
+
+    void save(Bill bill) throws ExecutionException, InterruptedException;
+}
@@ -0,0 +1,33 @@
+package com.concordia.velocity.repository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Storage access for named sequence counters (trip and bill IDs)
+ * A counter holds the next value to hand out; a missing counter starts at 1
+ */
+public interface CounterRepository {
+
+    /**
+     * Returns the current value of the counter and increments it atomically
+     */
+    default int getAndIncrement(String counterName) throws ExecutionException, InterruptedException {
+        return getAndAdd(counterName, 1);
+    }
+
+    /**
+     * Returns the current value of the counter and adds delta to it atomically
+     * Used to lease a whole block of values in one write
+     */
+    int getAndAdd(String counterName, int delta) throws ExecutionException, InterruptedException;
+
+    CompletableFuture<Integer> getAndAddAsync(String counterName, int delta);
+
+    /**
+     * Gets the current counter value without incrementing, or 0 if the counter does not exist
+     */
+    int get(String counterName) throws ExecutionException, InterruptedException;
+
+    void set(String counterName, int value) throws ExecutionException, InterruptedException;
+}
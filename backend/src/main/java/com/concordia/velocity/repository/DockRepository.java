@@ -0,0 +1,34 @@
+package com.concordia.velocity.repository;
+
+import com.concordia.velocity.model.Dock;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Storage access for docks
+ */
+public interface DockRepository {
+
+    /**
+     * Gets a dock by ID, or null if it does not exist
+     */
+    Dock findById(String dockId) throws ExecutionException, InterruptedException;
+
+    List<Dock> findAll() throws ExecutionException, InterruptedException;
+
+    /**
+     * Gets several docks by ID in as few round-trips as the backend allows
+     * Results follow the order of the IDs given; IDs with no dock are skipped
+     */
+    List<Dock> findAllById(Collection<String> dockIds) throws ExecutionException, InterruptedException;
+
+    /**
+     * Gets all docks at a station with the given status
+     */
+    List<Dock> findByStationIdAndStatus(String stationId, String status)
+            throws ExecutionException, InterruptedException;
+
+    void save(Dock dock) throws ExecutionException, InterruptedException;
+}
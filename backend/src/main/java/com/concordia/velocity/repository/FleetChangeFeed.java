@@ -0,0 +1,13 @@
+package com.concordia.velocity.repository;
+
+/**
+ * Pushes fleet topology changes to listeners
+ * (Firestore snapshot listeners, or write hooks on the local store)
+ */
+public interface FleetChangeFeed {
+
+    /**
+     * Starts delivering changes to the listener; closing the handle stops delivery
+     */
+    AutoCloseable subscribe(FleetChangeListener listener);
+}
@@ -0,0 +1,33 @@
+package com.concordia.velocity.repository;
+
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Station;
+
+/**
+ * Receives changes to the fleet topology (stations, docks and bikes) as the store sees them
+ * A null entity means the document was removed
+ */
+public interface FleetChangeListener {
+
+    String STATIONS = "stations";
+    String DOCKS = "docks";
+    String BIKES = "bikes";
+
+    void stationChanged(String stationId, Station station);
+
+    void dockChanged(String dockId, Dock dock);
+
+    void bikeChanged(String bikeId, Bike bike);
+
+    /**
+     * Called after a batch of changes to a collection has been delivered
+     * @param lagMillis how long after the store committed the batch it reached the listener
+     */
+    void synced(String collection, long lagMillis);
+
+    /**
+     * Called when the feed for a collection stops; no further changes will arrive for it
+     */
+    void failed(String collection, Throwable error);
+}
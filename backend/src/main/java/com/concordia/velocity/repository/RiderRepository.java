@@ -0,0 +1,44 @@
+package com.concordia.velocity.repository;
+
+import com.concordia.velocity.model.Rider;
+import com.google.cloud.Timestamp;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Storage access for riders
+ * Riders are keyed by document ID (their email for self-registered riders)
+ */
+public interface RiderRepository {
+
+    /**
+     * Gets a rider by ID with its id field populated, or null if it does not exist
+     */
+    Rider findById(String riderId) throws ExecutionException, InterruptedException;
+
+    CompletableFuture<Rider> findByIdAsync(String riderId);
+
+    boolean existsByEmail(String email) throws ExecutionException, InterruptedException;
+
+    void save(String riderId, Rider rider) throws ExecutionException, InterruptedException;
+
+    /**
+     * Merges the given fields into the rider document, creating it if needed
+     * Each field is replaced whole; other fields are left as they are
+     */
+    void update(String riderId, Map<String, Object> fields) throws ExecutionException, InterruptedException;
+
+    /**
+     * Atomically adds delta to the rider's flex dollar balance
+     */
+    void incrementFlexDollars(String riderId, int delta) throws ExecutionException, InterruptedException;
+
+    /**
+     * Atomically appends a missed reservation timestamp to the rider
+     */
+    void addMissedReservation(String riderId, Timestamp timestamp) throws ExecutionException, InterruptedException;
+
+    void delete(String riderId) throws ExecutionException, InterruptedException;
+}
@@ -0,0 +1,31 @@
+package com.concordia.velocity.repository;
+
+import com.concordia.velocity.model.Station;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Storage access for stations
+ */
+public interface StationRepository {
+
+    /**
+     * Gets a station by ID, or null if it does not exist
+     */
+    Station findById(String stationId) throws ExecutionException, InterruptedException;
+
+    CompletableFuture<Station> findByIdAsync(String stationId);
+
+    List<Station> findAll() throws ExecutionException, InterruptedException;
+
+    /**
+     * Gets several stations by ID in as few round-trips as the backend allows
+     * Results follow the order of the IDs given; IDs with no station are skipped
+     */
+    List<Station> findAllById(Collection<String> stationIds) throws ExecutionException, InterruptedException;
+
+    void save(Station station) throws ExecutionException, InterruptedException;
+}
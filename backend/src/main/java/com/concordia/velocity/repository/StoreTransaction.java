@@ -0,0 +1,103 @@
+package com.concordia.velocity.repository;
+
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Bill;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.model.Trip;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Reads and writes performed inside a single atomic transaction
+ * All reads must happen before the first write (Firestore rule); writes are applied together on commit
+ */
+public interface StoreTransaction {
+
+    /**
+     * Identifies one document to read
+     */
+    record Key(String collection, String id) {
+        public static Key bike(String bikeId) { return new Key("bikes", bikeId); }
+        public static Key dock(String dockId) { return new Key("docks", dockId); }
+        public static Key station(String stationId) { return new Key("stations", stationId); }
+        public static Key rider(String riderId) { return new Key("riders", riderId); }
+    }
+
+    /**
+     * Starts reading several independent documents in one round-trip without waiting for it
+     * Later get calls for these keys wait on and are answered from the prefetched snapshots.
+     */
+    CompletableFuture<Void> prefetchAsync(Key... keys);
+
+    default void prefetch(Key... keys) throws ExecutionException, InterruptedException {
+        prefetchAsync(keys).get();
+    }
+
+    /**
+     * Starts reading the bike without waiting for it; completes with null if it does not exist
+     */
+    CompletableFuture<Bike> getBikeAsync(String bikeId);
+
+    CompletableFuture<Dock> getDockAsync(String dockId);
+
+    CompletableFuture<Station> getStationAsync(String stationId);
+
+    /**
+     * Starts reading the rider; completes with it, ID populated, or null if it does not exist
+     */
+    CompletableFuture<Rider> getRiderAsync(String riderId);
+
+    CompletableFuture<Bike> findFirstBikeByDockIdAndStatusAsync(String dockId, String status);
+
+    default Bike getBike(String bikeId) throws ExecutionException, InterruptedException {
+        return getBikeAsync(bikeId).get();
+    }
+
+    default Dock getDock(String dockId) throws ExecutionException, InterruptedException {
+        return getDockAsync(dockId).get();
+    }
+
+    default Station getStation(String stationId) throws ExecutionException, InterruptedException {
+        return getStationAsync(stationId).get();
+    }
+
+    /**
+     * Gets a rider with its ID populated, or null if it does not exist
+     */
+    default Rider getRider(String riderId) throws ExecutionException, InterruptedException {
+        return getRiderAsync(riderId).get();
+    }
+
+    default Bike findFirstBikeByDockIdAndStatus(String dockId, String status) throws ExecutionException, InterruptedException {
+        return findFirstBikeByDockIdAndStatusAsync(dockId, status).get();
+    }
+
+    /**
+     * Starts the active-trip query without waiting for it, so it can overlap other reads
+     */
+    CompletableFuture<Trip> findActiveTripAsync(String bikeId, String riderId);
+
+    default Trip findActiveTrip(String bikeId, String riderId) throws ExecutionException, InterruptedException {
+        return findActiveTripAsync(bikeId, riderId).get();
+    }
+
+    void saveBike(Bike bike);
+
+    void saveDock(Dock dock);
+
+    void saveStation(Station station);
+
+    void saveTrip(Trip trip);
+
+    void saveBill(Bill bill);
+
+    /**
+     * Merges the given fields into the rider document
+     * Each field is replaced whole; other fields are left as they are
+     */
+    void updateRider(String riderId, Map<String, Object> fields);
+}
@@ -0,0 +1,34 @@
+package com.concordia.velocity.repository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs a unit of work as one atomic transaction against the configured store
+ * IllegalArgumentException and IllegalStateException thrown by the work are rethrown unwrapped
+ * so controllers can keep mapping them to 400 and 409
+ */
+public interface TransactionRunner {
+
+    @FunctionalInterface
+    interface Work<T> {
+        T execute(StoreTransaction txn) throws Exception;
+    }
+
+    /**
+     * Work that reads with the transaction's async methods and chains on them instead of waiting
+     */
+    @FunctionalInterface
+    interface AsyncWork<T> {
+        CompletableFuture<T> execute(StoreTransaction txn) throws Exception;
+    }
+
+    <T> T runInTransaction(Work<T> work) throws ExecutionException, InterruptedException;
+
+    /**
+     * Runs the work as one atomic transaction without blocking the calling thread
+     * The future fails with whatever the work failed with, IllegalArgumentException and
+     * IllegalStateException included, possibly wrapped in a CompletionException.
+     */
+    <T> CompletableFuture<T> runInTransactionAsync(AsyncWork<T> work);
+}
@@ -0,0 +1,68 @@
+package com.concordia.velocity.repository;
+
+import com.concordia.velocity.model.Trip;
+import com.google.cloud.Timestamp;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Storage access for trips
+ */
+public interface TripRepository {
+
+    /**
+     * Every stored trip field, for projections
+     */
+    Set<String> FIELDS = Set.of("tripId", "riderId", "startTime", "endTime", "startStationId", "startStationName",
+            "endStationId", "endStationName", "startDockId", "endDockId", "bikeId", "bikeType", "status",
+            "durationMinutes", "bill", "flexRedeemed", "flexRedeemedAmount", "flexAwarded", "flexAwardAmount");
+
+    /**
+     * One page of a trip listing, newest start first
+     * @param riderId only this rider's trips, or null for every rider's
+     * @param startedFrom only trips started at or after this time, or null
+     * @param startedBefore only trips started before this time, or null
+     * @param afterStartTime start time of the last trip of the previous page, or null for the first page
+     * @param afterTripId ID of the last trip of the previous page, breaking ties on start time
+     * @param fields trip fields to load, or null for whole trips; tripId and startTime are always loaded
+     */
+    record PageQuery(String riderId, Timestamp startedFrom, Timestamp startedBefore, Timestamp afterStartTime,
+                     String afterTripId, int limit, Set<String> fields) {}
+
+    /**
+     * Gets a trip by ID, or null if it does not exist
+     */
+    Trip findById(String tripId) throws ExecutionException, InterruptedException;
+
+    List<Trip> findAll() throws ExecutionException, InterruptedException;
+
+    List<Trip> findByRiderId(String riderId) throws ExecutionException, InterruptedException;
+
+    CompletableFuture<List<Trip>> findByRiderIdAsync(String riderId);
+
+    List<Trip> findByStatus(String status) throws ExecutionException, InterruptedException;
+
+    /**
+     * Gets up to limit trips ordered by start time then trip ID, both descending, after the query's cursor
+     * A keyset page: it reads only the documents it returns, however deep into the history it starts.
+     * In Firestore it is served by the (riderId, startTime) composite index when a rider is given.
+     * Trips without a start time are not listed.
+     */
+    List<Trip> findPage(PageQuery query) throws ExecutionException, InterruptedException;
+
+    /**
+     * Gets the active trips that started at or before the cutoff, oldest first
+     * A range query on startTime; in Firestore it is served by the (status, startTime) composite index.
+     */
+    List<Trip> findActiveStartedBefore(Timestamp cutoff) throws ExecutionException, InterruptedException;
+
+    /**
+     * Gets the active trip for a bike and rider, or null if there is none
+     */
+    Trip findActiveTrip(String bikeId, String riderId) throws ExecutionException, InterruptedException;
+
+    void save(Trip trip) throws ExecutionException, InterruptedException;
+}
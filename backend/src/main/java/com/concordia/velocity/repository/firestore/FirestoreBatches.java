@@ -0,0 +1,69 @@
+package com.concordia.velocity.repository.firestore;
+
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Multi-document reads and writes split into chunks Firestore accepts in a single request
+ */
+final class FirestoreBatches {
+
+    /**
+     * Firestore rejects batched writes with more than 500 operations; reads use the same bound
+     */
+    static final int MAX_BATCH_SIZE = 500;
+
+    private FirestoreBatches() {
+    }
+
+    /**
+     * Reads documents by ID with one getAll per chunk, in the order given
+     * Duplicate IDs are read once and missing documents are skipped.
+     */
+    static <T> List<T> getAll(Firestore db, String collection, Collection<String> ids, Class<T> type)
+            throws ExecutionException, InterruptedException {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<T> results = new ArrayList<>(distinct.size());
+
+        for (int from = 0; from < distinct.size(); from += MAX_BATCH_SIZE) {
+            List<String> chunk = distinct.subList(from, Math.min(from + MAX_BATCH_SIZE, distinct.size()));
+            DocumentReference[] refs = new DocumentReference[chunk.size()];
+            for (int i = 0; i < refs.length; i++) {
+                refs[i] = db.collection(collection).document(chunk.get(i));
+            }
+
+            for (DocumentSnapshot doc : db.getAll(refs).get()) {
+                if (!doc.exists()) continue;
+                T value = doc.toObject(type);
+                if (value != null) results.add(value);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Writes documents with one batch commit per chunk
+     * Each chunk is atomic on its own; a failure part-way leaves earlier chunks applied.
+     */
+    static <T> void setAll(Firestore db, String collection, Collection<T> values, Function<T, String> idOf)
+            throws ExecutionException, InterruptedException {
+        List<T> pending = new ArrayList<>(values);
+
+        for (int from = 0; from < pending.size(); from += MAX_BATCH_SIZE) {
+            WriteBatch batch = db.batch();
+            for (T value : pending.subList(from, Math.min(from + MAX_BATCH_SIZE, pending.size()))) {
+                batch.set(db.collection(collection).document(idOf.apply(value)), value);
+            }
+            batch.commit().get();
+        }
+    }
+}
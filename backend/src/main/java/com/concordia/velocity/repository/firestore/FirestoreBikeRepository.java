@@ -0,0 +1,129 @@
+package com.concordia.velocity.repository.firestore;
+
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.repository.BikeRepository;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@ConditionalOnProperty(name = "velocity.store", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreBikeRepository implements BikeRepository {
+
+    private static final String BIKES_COLLECTION = "bikes";
+    private static final int SCAN_PAGE_SIZE = 1000;
+
+    private final Firestore db;
+
+    public FirestoreBikeRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public Bike findById(String bikeId) throws ExecutionException, InterruptedException {
+        DocumentSnapshot doc = db.collection(BIKES_COLLECTION).document(bikeId).get().get();
+        return doc.toObject(Bike.class);
+    }
+
+    @Override
+    public CompletableFuture<Bike> findByIdAsync(String bikeId) {
+        return FirestoreFutures.toCompletable(db.collection(BIKES_COLLECTION).document(bikeId).get())
+                .thenApply(doc -> doc.toObject(Bike.class));
+    }
+
+    @Override
+    public List<Bike> findAll() throws ExecutionException, InterruptedException {
+        List<Bike> bikes = new ArrayList<>();
+        for (DocumentSnapshot doc : db.collection(BIKES_COLLECTION).get().get().getDocuments()) {
+            Bike bike = doc.toObject(Bike.class);
+            if (bike != null) bikes.add(bike);
+        }
+        return bikes;
+    }
+
+    @Override
+    public List<Bike> findAllById(Collection<String> bikeIds) throws ExecutionException, InterruptedException {
+        return FirestoreBatches.getAll(db, BIKES_COLLECTION, bikeIds, Bike.class);
+    }
+
+    /**
+     * Pages through the single-field status index in document ID order,
+     * so a large result never has to come back in one response
+     */
+    @Override
+    public List<Bike> findByStatus(String status) throws ExecutionException, InterruptedException {
+        Query query = db.collection(BIKES_COLLECTION)
+                .whereEqualTo("status", status)
+                .orderBy(FieldPath.documentId())
+                .limit(SCAN_PAGE_SIZE);
+
+        List<Bike> bikes = new ArrayList<>();
+        List<QueryDocumentSnapshot> page = query.get().get().getDocuments();
+        while (true) {
+            for (QueryDocumentSnapshot doc : page) {
+                bikes.add(doc.toObject(Bike.class));
+            }
+            if (page.size() < SCAN_PAGE_SIZE) {
+                return bikes;
+            }
+            page = query.startAfter(page.get(page.size() - 1)).get().get().getDocuments();
+        }
+    }
+
+    @Override
+    public List<Bike> findByStationIdAndStatus(String stationId, String status)
+            throws ExecutionException, InterruptedException {
+        List<QueryDocumentSnapshot> docs = db.collection(BIKES_COLLECTION)
+                .whereEqualTo("stationId", stationId)
+                .whereEqualTo("status", status)
+                .get()
+                .get()
+                .getDocuments();
+
+        List<Bike> bikes = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : docs) {
+            bikes.add(doc.toObject(Bike.class));
+        }
+        return bikes;
+    }
+
+    @Override
+    public Bike findFirstByDockIdAndStatus(String dockId, String status)
+            throws ExecutionException, InterruptedException {
+        List<QueryDocumentSnapshot> docs = db.collection(BIKES_COLLECTION)
+                .whereEqualTo("dockId", dockId)
+                .whereEqualTo("status", status)
+                .limit(1)
+                .get()
+                .get()
+                .getDocuments();
+
+        return docs.isEmpty() ? null : docs.get(0).toObject(Bike.class);
+    }
+
+    @Override
+    public void save(Bike bike) throws ExecutionException, InterruptedException {
+        db.collection(BIKES_COLLECTION).document(bike.getBikeId()).set(bike).get();
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(Bike bike) {
+        return FirestoreFutures.toCompletable(db.collection(BIKES_COLLECTION).document(bike.getBikeId()).set(bike))
+                .thenApply(result -> null);
+    }
+
+    @Override
+    public void saveAll(Collection<Bike> bikes) throws ExecutionException, InterruptedException {
+        FirestoreBatches.setAll(db, BIKES_COLLECTION, bikes, Bike::getBikeId);
+    }
+}
@@ -0,0 +1,34 @@
+package com.concordia.velocity.repository.firestore;
+
+import com.concordia.velocity.model.Bill;
+import com.concordia.velocity.repository.BillRepository;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@ConditionalOnProperty(name = "velocity.store", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreBillRepository implements BillRepository {
+
+    private static final String BILLS_COLLECTION = "bills";
+
+    private final Firestore db;
+
+    public FirestoreBillRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public Bill findById(String billId) throws ExecutionException, InterruptedException {
+        DocumentSnapshot doc = db.collection(BILLS_COLLECTION).document(billId).get().get();
+        return doc.exists() ? doc.toObject(Bill.class) : null;
+    }
+
+    @Override
+    public void save(Bill bill) throws ExecutionException, InterruptedException {
+        db.collection(BILLS_COLLECTION).document(bill.getBillId()).set(bill).get();
+    }
+}
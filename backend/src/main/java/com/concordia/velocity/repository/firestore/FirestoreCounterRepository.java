@@ -0,0 +1,83 @@
+package com.concordia.velocity.repository.firestore;
+
+import com.concordia.velocity.repository.CounterRepository;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Counters live in the "counters" collection as { value, lastUpdated } documents
+ */
+@Repository
+@ConditionalOnProperty(name = "velocity.store", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreCounterRepository implements CounterRepository {
+
+    private static final String COUNTERS_COLLECTION = "counters";
+
+    private final Firestore db;
+
+    public FirestoreCounterRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public int getAndAdd(String counterName, int delta) throws ExecutionException, InterruptedException {
+        DocumentReference counterRef = db.collection(COUNTERS_COLLECTION).document(counterName);
+
+        // Use Firestore transaction to ensure atomic increment
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot snapshot = transaction.get(counterRef).get();
+
+            // First time - initialize counter
+            int currentValue = snapshot.exists() ? snapshot.getLong("value").intValue() : 1;
+
+            transaction.set(counterRef, counterData(currentValue + delta));
+            return currentValue;
+        }).get();
+    }
+
+    @Override
+    public CompletableFuture<Integer> getAndAddAsync(String counterName, int delta) {
+        DocumentReference counterRef = db.collection(COUNTERS_COLLECTION).document(counterName);
+
+        return FirestoreFutures.toCompletable(db.runAsyncTransaction(transaction ->
+                ApiFutures.transform(transaction.get(counterRef), snapshot -> {
+                    int currentValue = snapshot.exists() ? snapshot.getLong("value").intValue() : 1;
+                    transaction.set(counterRef, counterData(currentValue + delta));
+                    return currentValue;
+                }, MoreExecutors.directExecutor())));
+    }
+
+    @Override
+    public int get(String counterName) throws ExecutionException, InterruptedException {
+        DocumentSnapshot snapshot = db.collection(COUNTERS_COLLECTION).document(counterName).get().get();
+
+        if (!snapshot.exists()) {
+            return 0;
+        }
+
+        return snapshot.getLong("value").intValue();
+    }
+
+    @Override
+    public void set(String counterName, int value) throws ExecutionException, InterruptedException {
+        db.collection(COUNTERS_COLLECTION).document(counterName).set(counterData(value)).get();
+    }
+
+    private Map<String, Object> counterData(int value) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("value", value);
+        data.put("lastUpdated", Timestamp.now());
+        return data;
+    }
+}
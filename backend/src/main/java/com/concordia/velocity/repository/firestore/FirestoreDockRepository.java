@@ -0,0 +1,69 @@
+package com.concordia.velocity.repository.firestore;
+
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.repository.DockRepository;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@ConditionalOnProperty(name = "velocity.store", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreDockRepository implements DockRepository {
+
+    private static final String DOCKS_COLLECTION = "docks";
+
+    private final Firestore db;
+
+    public FirestoreDockRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public Dock findById(String dockId) throws ExecutionException, InterruptedException {
+        DocumentSnapshot doc = db.collection(DOCKS_COLLECTION).document(dockId).get().get();
+        return doc.toObject(Dock.class);
+    }
+
+    @Override
+    public List<Dock> findAll() throws ExecutionException, InterruptedException {
+        List<Dock> docks = new ArrayList<>();
+        for (DocumentSnapshot doc : db.collection(DOCKS_COLLECTION).get().get().getDocuments()) {
+            docks.add(doc.toObject(Dock.class));
+        }
+        return docks;
+    }
+
+    @Override
+    public List<Dock> findAllById(Collection<String> dockIds) throws ExecutionException, InterruptedException {
+        return FirestoreBatches.getAll(db, DOCKS_COLLECTION, dockIds, Dock.class);
+    }
+
+    @Override
+    public List<Dock> findByStationIdAndStatus(String stationId, String status)
+            throws ExecutionException, InterruptedException {
+        List<QueryDocumentSnapshot> docs = db.collection(DOCKS_COLLECTION)
+                .whereEqualTo("stationId", stationId)
+                .whereEqualTo("status", status)
+                .get()
+                .get()
+                .getDocuments();
+
+        List<Dock> docks = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : docs) {
+            docks.add(doc.toObject(Dock.class));
+        }
+        return docks;
+    }
+
+    @Override
+    public void save(Dock dock) throws ExecutionException, InterruptedException {
+        db.collection(DOCKS_COLLECTION).document(dock.getDockId()).set(dock).get();
+    }
+}
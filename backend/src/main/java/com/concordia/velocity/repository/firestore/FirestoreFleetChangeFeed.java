@@ -0,0 +1,67 @@
+package com.concordia.velocity.repository.firestore;
+
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.repository.FleetChangeFeed;
+import com.concordia.velocity.repository.FleetChangeListener;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Feeds fleet changes from Firestore snapshot listeners on the stations, docks and bikes collections
+ * The first snapshot of each listener delivers every document as an addition.
+ */
+@Component
+@ConditionalOnProperty(name = "velocity.store", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreFleetChangeFeed implements FleetChangeFeed {
+
+    private final Firestore db;
+
+    public FirestoreFleetChangeFeed(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public AutoCloseable subscribe(FleetChangeListener listener) {
+        List<ListenerRegistration> registrations = List.of(
+                listen(FleetChangeListener.STATIONS, Station.class, listener::stationChanged, listener),
+                listen(FleetChangeListener.DOCKS, Dock.class, listener::dockChanged, listener),
+                listen(FleetChangeListener.BIKES, Bike.class, listener::bikeChanged, listener));
+        return () -> registrations.forEach(ListenerRegistration::remove);
+    }
+
+    private <T> ListenerRegistration listen(String collection, Class<T> type,
+                                            BiConsumer<String, T> onChange, FleetChangeListener listener) {
+        return db.collection(collection).addSnapshotListener((QuerySnapshot snapshot, FirestoreException error) -> {
+            if (error != null) {
+                listener.failed(collection, error);
+                return;
+            }
+            if (snapshot == null) return;
+
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                QueryDocumentSnapshot doc = change.getDocument();
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    onChange.accept(doc.getId(), null);
+                } else {
+                    onChange.accept(doc.getId(), doc.toObject(type));
+                }
+            }
+
+            Timestamp readTime = snapshot.getReadTime();
+            long readTimeMillis = readTime.getSeconds() * 1000 + readTime.getNanos() / 1_000_000;
+            listener.synced(collection, Math.max(0, System.currentTimeMillis() - readTimeMillis));
+        });
+    }
+}
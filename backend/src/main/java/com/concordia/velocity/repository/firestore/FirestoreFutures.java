@@ -0,0 +1,61 @@
+package com.concordia.velocity.repository.firestore;
+
+import com.concordia.velocity.metrics.RequestRoundTrips;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Bridges Firestore's ApiFutures and the CompletableFutures the repositories hand out
+ */
+final class FirestoreFutures {
+
+    private FirestoreFutures() {
+    }
+
+    /**
+     * Stages chained on the result run on Firestore's callback thread, with the calling request's
+     * round-trip count bound so the store calls they make are attributed to it
+     */
+    static <T> CompletableFuture<T> toCompletable(ApiFuture<T> future) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        RequestRoundTrips roundTrips = RequestRoundTrips.current();
+        ApiFutures.addCallback(future, new ApiFutureCallback<>() {
+            @Override
+            public void onFailure(Throwable t) {
+                RequestRoundTrips.runWith(roundTrips, () -> result.completeExceptionally(t));
+            }
+
+            @Override
+            public void onSuccess(T value) {
+                RequestRoundTrips.runWith(roundTrips, () -> result.complete(value));
+            }
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
+
+    /**
+     * Firestore only retries a transaction whose callback failed with its own ABORTED error, so the
+     * CompletionException each dependent stage wraps around a failure is stripped first
+     */
+    static <T> ApiFuture<T> toApiFuture(CompletableFuture<T> future) {
+        SettableApiFuture<T> result = SettableApiFuture.create();
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.set(value);
+                return;
+            }
+            Throwable cause = error;
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            result.setException(cause);
+        });
+        return result;
+    }
+}
@@ -0,0 +1,93 @@
+package com.concordia.velocity.repository.firestore;
+
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.repository.RiderRepository;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.SetOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@ConditionalOnProperty(name = "velocity.store", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreRiderRepository implements RiderRepository {
+
+    private static final String RIDERS_COLLECTION = "riders";
+
+    private final Firestore db;
+
+    public FirestoreRiderRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public Rider findById(String riderId) throws ExecutionException, InterruptedException {
+        DocumentSnapshot doc = db.collection(RIDERS_COLLECTION).document(riderId).get().get();
+
+        if (!doc.exists()) return null;
+
+        Rider rider = doc.toObject(Rider.class);
+        if (rider != null) rider.setId(doc.getId());
+        return rider;
+    }
+
+    @Override
+    public CompletableFuture<Rider> findByIdAsync(String riderId) {
+        return FirestoreFutures.toCompletable(db.collection(RIDERS_COLLECTION).document(riderId).get())
+                .thenApply(doc -> {
+                    if (!doc.exists()) return null;
+
+                    Rider rider = doc.toObject(Rider.class);
+                    if (rider != null) rider.setId(doc.getId());
+                    return rider;
+                });
+    }
+
+    @Override
+    public boolean existsByEmail(String email) throws ExecutionException, InterruptedException {
+        var query = db.collection(RIDERS_COLLECTION)
+                .whereEqualTo("email", email)
+                .limit(1)
+                .get()
+                .get();
+        return !query.isEmpty();
+    }
+
+    @Override
+    public void save(String riderId, Rider rider) throws ExecutionException, InterruptedException {
+        db.collection(RIDERS_COLLECTION).document(riderId).set(rider).get();
+    }
+
+    @Override
+    public void update(String riderId, Map<String, Object> fields) throws ExecutionException, InterruptedException {
+        // mergeFields replaces each given field whole, so map-valued fields drop keys that were removed
+        db.collection(RIDERS_COLLECTION).document(riderId)
+                .set(fields, SetOptions.mergeFields(List.copyOf(fields.keySet()))).get();
+    }
+
+    @Override
+    public void incrementFlexDollars(String riderId, int delta) throws ExecutionException, InterruptedException {
+        db.collection(RIDERS_COLLECTION).document(riderId)
+                .update("flexDollars", FieldValue.increment(delta)).get();
+    }
+
+    @Override
+    public void addMissedReservation(String riderId, Timestamp timestamp)
+            throws ExecutionException, InterruptedException {
+        // atomic array union so concurrent expiries don't overwrite each other
+        db.collection(RIDERS_COLLECTION).document(riderId)
+                .update("missedReservationTimestamps", FieldValue.arrayUnion(timestamp)).get();
+    }
+
+    @Override
+    public void delete(String riderId) throws ExecutionException, InterruptedException {
+        db.collection(RIDERS_COLLECTION).document(riderId).delete().get();
+    }
+}
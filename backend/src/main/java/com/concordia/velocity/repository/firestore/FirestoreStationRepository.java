@@ -0,0 +1,58 @@
+package com.concordia.velocity.repository.firestore;
+
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.repository.StationRepository;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@ConditionalOnProperty(name = "velocity.store", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreStationRepository implements StationRepository {
+
+    private static final String STATIONS_COLLECTION = "stations";
+
+    private final Firestore db;
+
+    public FirestoreStationRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public Station findById(String stationId) throws ExecutionException, InterruptedException {
+        DocumentSnapshot doc = db.collection(STATIONS_COLLECTION).document(stationId).get().get();
+        return doc.toObject(Station.class);
+    }
+
+    @Override
+    public CompletableFuture<Station> findByIdAsync(String stationId) {
+        return FirestoreFutures.toCompletable(db.collection(STATIONS_COLLECTION).document(stationId).get())
+                .thenApply(doc -> doc.toObject(Station.class));
+    }
+
+    @Override
+    public List<Station> findAll() throws ExecutionException, InterruptedException {
+        List<Station> stations = new ArrayList<>();
+        for (DocumentSnapshot doc : db.collection(STATIONS_COLLECTION).get().get().getDocuments()) {
+            stations.add(doc.toObject(Station.class));
+        }
+        return stations;
+    }
+
+    @Override
+    public List<Station> findAllById(Collection<String> stationIds) throws ExecutionException, InterruptedException {
+        return FirestoreBatches.getAll(db, STATIONS_COLLECTION, stationIds, Station.class);
+    }
+
+    @Override
+    public void save(Station station) throws ExecutionException, InterruptedException {
+        db.collection(STATIONS_COLLECTION).document(station.getStationId()).set(station).get();
+    }
+}
@@ -0,0 +1,185 @@
+package com.concordia.velocity.repository.firestore;
+
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Bill;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.StoreTransaction;
+import com.concordia.velocity.repository.TransactionRunner;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.Transaction;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs work inside Firestore's runTransaction (runAsyncTransaction for async work), which retries on contention
+ */
+@Component
+@ConditionalOnProperty(name = "velocity.store", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreTransactionRunner implements TransactionRunner {
+
+    private final Firestore db;
+
+    public FirestoreTransactionRunner(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public <T> T runInTransaction(Work<T> work) throws ExecutionException, InterruptedException {
+        try {
+            return db.runTransaction(txn -> work.execute(new FirestoreStoreTransaction(db, txn))).get();
+        } catch (ExecutionException e) {
+            // Surface validation failures the same way the non-transactional paths do
+            if (e.getCause() instanceof IllegalArgumentException || e.getCause() instanceof IllegalStateException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> runInTransactionAsync(AsyncWork<T> work) {
+        return FirestoreFutures.toCompletable(db.runAsyncTransaction(txn -> {
+            try {
+                return FirestoreFutures.toApiFuture(work.execute(new FirestoreStoreTransaction(db, txn)));
+            } catch (Exception e) {
+                return ApiFutures.immediateFailedFuture(e);
+            }
+        }));
+    }
+
+    private static class FirestoreStoreTransaction implements StoreTransaction {
+        private final Firestore db;
+        private final Transaction txn;
+        private final Map<String, CompletableFuture<DocumentSnapshot>> prefetched = new ConcurrentHashMap<>();
+
+        FirestoreStoreTransaction(Firestore db, Transaction txn) {
+            this.db = db;
+            this.txn = txn;
+        }
+
+        @Override
+        public CompletableFuture<Void> prefetchAsync(Key... keys) {
+            DocumentReference[] refs = new DocumentReference[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                refs[i] = db.collection(keys[i].collection()).document(keys[i].id());
+                prefetched.put(refs[i].getPath(), new CompletableFuture<>());
+            }
+
+            return FirestoreFutures.toCompletable(txn.getAll(refs)).whenComplete((docs, error) -> {
+                if (error != null) {
+                    for (DocumentReference ref : refs) {
+                        prefetched.get(ref.getPath()).completeExceptionally(error);
+                    }
+                    return;
+                }
+                for (DocumentSnapshot doc : docs) {
+                    prefetched.get(doc.getReference().getPath()).complete(doc);
+                }
+            }).thenApply(docs -> null);
+        }
+
+        @Override
+        public CompletableFuture<Bike> getBikeAsync(String bikeId) {
+            return read(Key.bike(bikeId)).thenApply(doc -> doc.toObject(Bike.class));
+        }
+
+        @Override
+        public CompletableFuture<Dock> getDockAsync(String dockId) {
+            return read(Key.dock(dockId)).thenApply(doc -> doc.toObject(Dock.class));
+        }
+
+        @Override
+        public CompletableFuture<Station> getStationAsync(String stationId) {
+            return read(Key.station(stationId)).thenApply(doc -> doc.toObject(Station.class));
+        }
+
+        @Override
+        public CompletableFuture<Rider> getRiderAsync(String riderId) {
+            return read(Key.rider(riderId)).thenApply(doc -> {
+                if (!doc.exists()) return null;
+
+                Rider rider = doc.toObject(Rider.class);
+                if (rider != null) rider.setId(doc.getId());
+                return rider;
+            });
+        }
+
+        @Override
+        public CompletableFuture<Bike> findFirstBikeByDockIdAndStatusAsync(String dockId, String status) {
+            ApiFuture<QuerySnapshot> query = txn.get(db.collection("bikes")
+                    .whereEqualTo("dockId", dockId)
+                    .whereEqualTo("status", status)
+                    .limit(1));
+            return FirestoreFutures.toCompletable(query).thenApply(snapshot -> {
+                List<QueryDocumentSnapshot> docs = snapshot.getDocuments();
+                return docs.isEmpty() ? null : docs.get(0).toObject(Bike.class);
+            });
+        }
+
+        @Override
+        public CompletableFuture<Trip> findActiveTripAsync(String bikeId, String riderId) {
+            ApiFuture<QuerySnapshot> query = txn.get(db.collection("trips")
+                    .whereEqualTo("bikeId", bikeId)
+                    .whereEqualTo("riderId", riderId)
+                    .whereEqualTo("status", Trip.STATUS_ACTIVE)
+                    .limit(1));
+            return FirestoreFutures.toCompletable(query).thenApply(snapshot -> {
+                List<QueryDocumentSnapshot> docs = snapshot.getDocuments();
+                return docs.isEmpty() ? null : docs.get(0).toObject(Trip.class);
+            });
+        }
+
+        @Override
+        public void saveBike(Bike bike) {
+            txn.set(db.collection("bikes").document(bike.getBikeId()), bike);
+        }
+
+        @Override
+        public void saveDock(Dock dock) {
+            txn.set(db.collection("docks").document(dock.getDockId()), dock);
+        }
+
+        @Override
+        public void saveStation(Station station) {
+            txn.set(db.collection("stations").document(station.getStationId()), station);
+        }
+
+        @Override
+        public void saveTrip(Trip trip) {
+            txn.set(db.collection("trips").document(trip.getTripId()), trip);
+        }
+
+        @Override
+        public void saveBill(Bill bill) {
+            txn.set(db.collection("bills").document(bill.getBillId()), bill);
+        }
+
+        @Override
+        public void updateRider(String riderId, Map<String, Object> fields) {
+            // mergeFields replaces each given field whole, so map-valued fields drop keys that were removed
+            txn.set(db.collection("riders").document(riderId), fields, SetOptions.mergeFields(List.copyOf(fields.keySet())));
+        }
+
+        private CompletableFuture<DocumentSnapshot> read(Key key) {
+            DocumentReference ref = db.collection(key.collection()).document(key.id());
+            CompletableFuture<DocumentSnapshot> doc = prefetched.get(ref.getPath());
+            return doc != null ? doc : FirestoreFutures.toCompletable(txn.get(ref));
+        }
+    }
+}
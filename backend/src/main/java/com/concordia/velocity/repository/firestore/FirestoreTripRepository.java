@@ -0,0 +1,124 @@
+package com.concordia.velocity.repository.firestore;
+
+import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.TripRepository;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@ConditionalOnProperty(name = "velocity.store", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreTripRepository implements TripRepository {
+
+    private static final String TRIPS_COLLECTION = "trips";
+
+    private final Firestore db;
+
+    public FirestoreTripRepository(Firestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public Trip findById(String tripId) throws ExecutionException, InterruptedException {
+        DocumentSnapshot doc = db.collection(TRIPS_COLLECTION).document(tripId).get().get();
+        return doc.exists() ? doc.toObject(Trip.class) : null;
+    }
+
+    @Override
+    public List<Trip> findAll() throws ExecutionException, InterruptedException {
+        return toTrips(db.collection(TRIPS_COLLECTION));
+    }
+
+    @Override
+    public List<Trip> findByRiderId(String riderId) throws ExecutionException, InterruptedException {
+        return toTrips(db.collection(TRIPS_COLLECTION).whereEqualTo("riderId", riderId));
+    }
+
+    @Override
+    public CompletableFuture<List<Trip>> findByRiderIdAsync(String riderId) {
+        return FirestoreFutures.toCompletable(db.collection(TRIPS_COLLECTION).whereEqualTo("riderId", riderId).get())
+                .thenApply(FirestoreTripRepository::toTrips);
+    }
+
+    @Override
+    public List<Trip> findByStatus(String status) throws ExecutionException, InterruptedException {
+        return toTrips(db.collection(TRIPS_COLLECTION).whereEqualTo("status", status));
+    }
+
+    @Override
+    public List<Trip> findPage(PageQuery page) throws ExecutionException, InterruptedException {
+        Query query = db.collection(TRIPS_COLLECTION);
+        if (page.riderId() != null) {
+            query = query.whereEqualTo("riderId", page.riderId());
+        }
+        if (page.startedFrom() != null) {
+            query = query.whereGreaterThanOrEqualTo("startTime", page.startedFrom());
+        }
+        if (page.startedBefore() != null) {
+            query = query.whereLessThan("startTime", page.startedBefore());
+        }
+        query = query.orderBy("startTime", Query.Direction.DESCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING);
+        if (page.afterStartTime() != null) {
+            // trip documents are keyed by trip ID
+            query = query.startAfter(page.afterStartTime(), page.afterTripId());
+        }
+        if (page.fields() != null) {
+            Set<String> fields = new LinkedHashSet<>(page.fields());
+            fields.add("tripId");
+            fields.add("startTime");
+            query = query.select(fields.toArray(new String[0]));
+        }
+        return toTrips(query.limit(page.limit()));
+    }
+
+    @Override
+    public List<Trip> findActiveStartedBefore(Timestamp cutoff) throws ExecutionException, InterruptedException {
+        return toTrips(db.collection(TRIPS_COLLECTION)
+                .whereEqualTo("status", Trip.STATUS_ACTIVE)
+                .whereLessThanOrEqualTo("startTime", cutoff)
+                .orderBy("startTime"));
+    }
+
+    @Override
+    public Trip findActiveTrip(String bikeId, String riderId) throws ExecutionException, InterruptedException {
+        List<Trip> trips = toTrips(db.collection(TRIPS_COLLECTION)
+                .whereEqualTo("bikeId", bikeId)
+                .whereEqualTo("riderId", riderId)
+                .whereEqualTo("status", Trip.STATUS_ACTIVE)
+                .limit(1));
+
+        return trips.isEmpty() ? null : trips.get(0);
+    }
+
+    @Override
+    public void save(Trip trip) throws ExecutionException, InterruptedException {
+        db.collection(TRIPS_COLLECTION).document(trip.getTripId()).set(trip).get();
+    }
+
+    private List<Trip> toTrips(Query query) throws ExecutionException, InterruptedException {
+        return toTrips(query.get().get());
+    }
+
+    private static List<Trip> toTrips(QuerySnapshot snapshot) {
+        List<Trip> trips = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : snapshot.getDocuments()) {
+            Trip trip = doc.toObject(Trip.class);
+            if (trip != null) trips.add(trip);
+        }
+        return trips;
+    }
+}
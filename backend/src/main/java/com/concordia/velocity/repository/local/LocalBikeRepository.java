@@ -0,0 +1,105 @@
+package com.concordia.velocity.repository.local;
+
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.repository.BikeRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+@Repository
+@ConditionalOnProperty(name = "velocity.store", havingValue = "local")
+public class LocalBikeRepository implements BikeRepository {
+
+    private final LocalStore store;
+
+    public LocalBikeRepository(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Bike findById(String bikeId) {
+        store.roundTrip();
+        return LocalStore.copy(store.bikes.get(bikeId));
+    }
+
+    @Override
+    public CompletableFuture<Bike> findByIdAsync(String bikeId) {
+        return store.roundTripAsync().thenApply(ignored -> LocalStore.copy(store.bikes.get(bikeId)));
+    }
+
+    @Override
+    public List<Bike> findAll() {
+        store.roundTrip();
+        return store.bikes.values().stream().map(LocalStore::copy).toList();
+    }
+
+    @Override
+    public List<Bike> findAllById(Collection<String> bikeIds) {
+        store.roundTrip();
+        return new LinkedHashSet<>(bikeIds).stream()
+                .map(store.bikes::get)
+                .filter(Objects::nonNull)
+                .map(LocalStore::copy)
+                .toList();
+    }
+
+    @Override
+    public List<Bike> findByStatus(String status) {
+        store.roundTrip();
+        return store.bikes.values().stream()
+                .filter(bike -> status.equals(bike.getStatus()))
+                .map(LocalStore::copy)
+                .toList();
+    }
+
+    @Override
+    public List<Bike> findByStationIdAndStatus(String stationId, String status) {
+        store.roundTrip();
+        return store.bikes.values().stream()
+                .filter(bike -> stationId.equals(bike.getStationId()))
+                .filter(bike -> status.equals(bike.getStatus()))
+                .map(LocalStore::copy)
+                .toList();
+    }
+
+    @Override
+    public Bike findFirstByDockIdAndStatus(String dockId, String status) {
+        store.roundTrip();
+        return store.bikes.values().stream()
+                .filter(bike -> dockId.equals(bike.getDockId()))
+                .filter(bike -> status.equals(bike.getStatus()))
+                .findFirst()
+                .map(LocalStore::copy)
+                .orElse(null);
+    }
+
+    @Override
+    public void save(Bike bike) {
+        store.roundTrip();
+        synchronized (store.writeLock) {
+            store.putBike(bike);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(Bike bike) {
+        return store.roundTripAsync().thenRun(() -> {
+            synchronized (store.writeLock) {
+                store.putBike(bike);
+            }
+        });
+    }
+
+    @Override
+    public void saveAll(Collection<Bike> bikes) {
+        store.roundTrip();
+        synchronized (store.writeLock) {
+            bikes.forEach(store::putBike);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.concordia.velocity.repository.local;
+
+import com.concordia.velocity.model.Bill;
+import com.concordia.velocity.repository.BillRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@ConditionalOnProperty(name = "velocity.store", havingValue = "local")
+public class LocalBillRepository implements BillRepository {
+
+    private final LocalStore store;
+
+    public LocalBillRepository(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Bill findById(String billId) {
+        store.roundTrip();
+        return LocalStore.copy(store.bills.get(billId));
+    }
+
+    @Override
+    public void save(Bill bill) {
+        store.roundTrip();
+        synchronized (store.writeLock) {
+            store.bills.put(bill.getBillId(), LocalStore.copy(bill));
+            store.changed("bills", bill.getBillId());
+        }
+    }
+}
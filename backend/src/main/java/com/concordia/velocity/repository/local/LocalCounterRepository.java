@@ -0,0 +1,53 @@
+package com.concordia.velocity.repository.local;
+
+import com.concordia.velocity.repository.CounterRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.CompletableFuture;
+
+@Repository
+@ConditionalOnProperty(name = "velocity.store", havingValue = "local")
+public class LocalCounterRepository implements CounterRepository {
+
+    private final LocalStore store;
+
+    public LocalCounterRepository(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public int getAndAdd(String counterName, int delta) {
+        store.roundTrip();
+        return add(counterName, delta);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getAndAddAsync(String counterName, int delta) {
+        return store.roundTripAsync().thenApply(ignored -> add(counterName, delta));
+    }
+
+    @Override
+    public int get(String counterName) {
+        store.roundTrip();
+        return store.counters.getOrDefault(counterName, 0);
+    }
+
+    @Override
+    public void set(String counterName, int value) {
+        store.roundTrip();
+        synchronized (store.writeLock) {
+            store.counters.put(counterName, value);
+            store.changed("counters", counterName);
+        }
+    }
+
+    private int add(String counterName, int delta) {
+        synchronized (store.writeLock) {
+            int currentValue = store.counters.getOrDefault(counterName, 1);
+            store.counters.put(counterName, currentValue + delta);
+            store.changed("counters", counterName);
+            return currentValue;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.concordia.velocity.repository.local;
+
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.repository.DockRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+@Repository
+@ConditionalOnProperty(name = "velocity.store", havingValue = "local")
+public class LocalDockRepository implements DockRepository {
+
+    private final LocalStore store;
+
+    public LocalDockRepository(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Dock findById(String dockId) {
+        store.roundTrip();
+        return LocalStore.copy(store.docks.get(dockId));
+    }
+
+    @Override
+    public List<Dock> findAll() {
+        store.roundTrip();
+        return store.docks.values().stream().map(LocalStore::copy).toList();
+    }
+
+    @Override
+    public List<Dock> findAllById(Collection<String> dockIds) {
+        store.roundTrip();
+        return new LinkedHashSet<>(dockIds).stream()
+                .map(store.docks::get)
+                .filter(Objects::nonNull)
+                .map(LocalStore::copy)
+                .toList();
+    }
+
+    @Override
+    public List<Dock> findByStationIdAndStatus(String stationId, String status) {
+        store.roundTrip();
+        return store.docks.values().stream()
+                .filter(dock -> stationId.equals(dock.getStationId()))
+                .filter(dock -> status.equals(dock.getStatus()))
+                .map(LocalStore::copy)
+                .toList();
+    }
+
+    @Override
+    public void save(Dock dock) {
+        store.roundTrip();
+        synchronized (store.writeLock) {
+            store.putDock(dock);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.concordia.velocity.repository.local;
+
+import com.concordia.velocity.repository.FleetChangeFeed;
+import com.concordia.velocity.repository.FleetChangeListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds fleet changes from the local store's write hooks
+ * Changes are delivered synchronously inside the write, so listeners are never behind the store.
+ */
+@Component
+@ConditionalOnProperty(name = "velocity.store", havingValue = "local")
+public class LocalFleetChangeFeed implements FleetChangeFeed {
+
+    private final LocalStore store;
+
+    public LocalFleetChangeFeed(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public AutoCloseable subscribe(FleetChangeListener listener) {
+        store.fleetListeners.add(listener);
+        listener.synced(FleetChangeListener.STATIONS, 0);
+        listener.synced(FleetChangeListener.DOCKS, 0);
+        listener.synced(FleetChangeListener.BIKES, 0);
+        return () -> store.fleetListeners.remove(listener);
+    }
+}
@@ -0,0 +1,178 @@
+package com.concordia.velocity.repository.local;
+
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.RiderStatsAggregate;
+import com.concordia.velocity.repository.RiderRepository;
+import com.google.cloud.Timestamp;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Repository
+@ConditionalOnProperty(name = "velocity.store", havingValue = "local")
+public class LocalRiderRepository implements RiderRepository {
+
+    private final LocalStore store;
+
+    public LocalRiderRepository(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Rider findById(String riderId) {
+        store.roundTrip();
+        Rider rider = LocalStore.copy(store.riders.get(riderId));
+        if (rider != null) rider.setId(riderId);
+        return rider;
+    }
+
+    @Override
+    public CompletableFuture<Rider> findByIdAsync(String riderId) {
+        return store.roundTripAsync().thenApply(ignored -> {
+            Rider rider = LocalStore.copy(store.riders.get(riderId));
+            if (rider != null) rider.setId(riderId);
+            return rider;
+        });
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        store.roundTrip();
+        return store.riders.values().stream().anyMatch(rider -> email != null && email.equals(rider.getEmail()));
+    }
+
+    @Override
+    public void save(String riderId, Rider rider) {
+        store.roundTrip();
+        synchronized (store.writeLock) {
+            store.riders.put(riderId, LocalStore.copy(rider));
+            store.changed("riders", riderId);
+        }
+    }
+
+    @Override
+    public void update(String riderId, Map<String, Object> fields) {
+        store.roundTrip();
+        synchronized (store.writeLock) {
+            Rider rider = LocalStore.copy(store.riders.get(riderId));
+            if (rider == null) rider = new Rider();
+            for (Map.Entry<String, Object> field : fields.entrySet()) {
+                applyField(rider, field.getKey(), field.getValue());
+            }
+            store.riders.put(riderId, rider);
+            store.changed("riders", riderId);
+        }
+    }
+
+    @Override
+    public void incrementFlexDollars(String riderId, int delta) {
+        store.roundTrip();
+        synchronized (store.writeLock) {
+            Rider rider = requireRider(riderId);
+            rider.setFlexDollars(rider.getFlexDollars() + delta);
+            store.riders.put(riderId, rider);
+            store.changed("riders", riderId);
+        }
+    }
+
+    @Override
+    public void addMissedReservation(String riderId, Timestamp timestamp) {
+        store.roundTrip();
+        synchronized (store.writeLock) {
+            Rider rider = requireRider(riderId);
+            if (!rider.getMissedReservationTimestamps().contains(timestamp)) {
+                rider.getMissedReservationTimestamps().add(timestamp);
+            }
+            store.riders.put(riderId, rider);
+            store.changed("riders", riderId);
+        }
+    }
+
+    @Override
+    public void delete(String riderId) {
+        store.roundTrip();
+        synchronized (store.writeLock) {
+            store.riders.remove(riderId);
+            store.changed("riders", riderId);
+        }
+    }
+
+    /**
+     * Mirrors Firestore's update(), which fails when the document does not exist
+     */
+    private Rider requireRider(String riderId) {
+        Rider rider = LocalStore.copy(store.riders.get(riderId));
+        if (rider == null) {
+            throw new IllegalArgumentException("Rider not found: " + riderId);
+        }
+        return rider;
+    }
+
+    /**
+     * Applies one merged field the way Firestore would map it onto the Rider document
+     * Fields the model does not know about are ignored
+     */
+    @SuppressWarnings("unchecked")
+    static void applyField(Rider rider, String name, Object value) {
+        switch (name) {
+            case "firstName" -> rider.setFirstName((String) value);
+            case "lastName" -> rider.setLastName((String) value);
+            case "address" -> rider.setAddress((String) value);
+            case "email" -> rider.setEmail((String) value);
+            case "phoneNumber" -> rider.setPhoneNumber((String) value);
+            case "flexDollars" -> rider.setFlexDollars(value != null ? ((Number) value).intValue() : 0);
+            case "isOperator" -> rider.setIsOperator((Boolean) value);
+            case "tier" -> rider.setTier(value != null ? (String) value : "NoTier");
+            case "missedReservationTimestamps" ->
+                    rider.setMissedReservationTimestamps(value != null ? new ArrayList<>((List<Timestamp>) value) : new ArrayList<>());
+            case "paymentInfo" -> rider.setPaymentInfo(toPaymentInfo(value));
+            case "loyaltyStats" -> rider.setLoyaltyStats(toLoyaltyStats(value));
+            default -> { }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RiderStatsAggregate toLoyaltyStats(Object value) {
+        if (value instanceof RiderStatsAggregate stats) {
+            return LocalStore.copy(stats);
+        }
+        if (!(value instanceof Map<?, ?> fields)) {
+            return null;
+        }
+        RiderStatsAggregate stats = new RiderStatsAggregate();
+        stats.setTripsByDay(toCounts((Map<String, Object>) fields.get("tripsByDay")));
+        stats.setMissedByDay(toCounts((Map<String, Object>) fields.get("missedByDay")));
+        Object activeTrips = fields.get("activeTrips");
+        stats.setActiveTrips(activeTrips != null ? ((Number) activeTrips).intValue() : 0);
+        return stats;
+    }
+
+    private static Map<String, Integer> toCounts(Map<String, Object> value) {
+        Map<String, Integer> counts = new HashMap<>();
+        if (value != null) {
+            value.forEach((day, count) -> counts.put(day, ((Number) count).intValue()));
+        }
+        return counts;
+    }
+
+    private static Rider.PaymentInfo toPaymentInfo(Object value) {
+        if (value instanceof Rider.PaymentInfo paymentInfo) {
+            return LocalStore.copy(paymentInfo);
+        }
+        if (!(value instanceof Map<?, ?> fields)) {
+            return null;
+        }
+        Rider.PaymentInfo paymentInfo = new Rider.PaymentInfo();
+        paymentInfo.setHasPaymentMethod((Boolean) fields.get("hasPaymentMethod"));
+        paymentInfo.setCardNumber((String) fields.get("cardNumber"));
+        paymentInfo.setCvc((String) fields.get("cvc"));
+        paymentInfo.setCardholderName((String) fields.get("cardholderName"));
+        paymentInfo.setExpiryDate((String) fields.get("expiryDate"));
+        return paymentInfo;
+    }
+}
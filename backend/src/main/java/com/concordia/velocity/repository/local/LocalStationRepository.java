@@ -0,0 +1,58 @@
+package com.concordia.velocity.repository.local;
+
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.repository.StationRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+@Repository
+@ConditionalOnProperty(name = "velocity.store", havingValue = "local")
+public class LocalStationRepository implements StationRepository {
+
+    private final LocalStore store;
+
+    public LocalStationRepository(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Station findById(String stationId) {
+        store.roundTrip();
+        return LocalStore.copy(store.stations.get(stationId));
+    }
+
+    @Override
+    public CompletableFuture<Station> findByIdAsync(String stationId) {
+        return store.roundTripAsync().thenApply(ignored -> LocalStore.copy(store.stations.get(stationId)));
+    }
+
+    @Override
+    public List<Station> findAll() {
+        store.roundTrip();
+        return store.stations.values().stream().map(LocalStore::copy).toList();
+    }
+
+    @Override
+    public List<Station> findAllById(Collection<String> stationIds) {
+        store.roundTrip();
+        return new LinkedHashSet<>(stationIds).stream()
+                .map(store.stations::get)
+                .filter(Objects::nonNull)
+                .map(LocalStore::copy)
+                .toList();
+    }
+
+    @Override
+    public void save(Station station) {
+        store.roundTrip();
+        synchronized (store.writeLock) {
+            store.putStation(station);
+        }
+    }
+}
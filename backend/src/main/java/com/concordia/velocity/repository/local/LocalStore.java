@@ -0,0 +1,345 @@
+package com.concordia.velocity.repository.local;
+
+import com.concordia.velocity.metrics.RequestRoundTrips;
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Bill;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.RiderStatsAggregate;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.FleetChangeListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Embedded in-process store used when velocity.store=local
+ * Lets the whole backend run (and be load-tested) without a network connection to Firestore.
+ *
+ * Entities are copied on the way in and out, so callers get the same detached-object semantics
+ * as Firestore's toObject/set. Every write takes the store lock and records the document's new
+ * version, which LocalTransactionRunner checks to commit transactions optimistically.
+ */
+@Component
+@ConditionalOnProperty(name = "velocity.store", havingValue = "local")
+public class LocalStore {
+
+    final Map<String, Bike> bikes = new ConcurrentHashMap<>();
+    final Map<String, Dock> docks = new ConcurrentHashMap<>();
+    final Map<String, Station> stations = new ConcurrentHashMap<>();
+    final Map<String, Trip> trips = new ConcurrentHashMap<>();
+    final Map<String, Bill> bills = new ConcurrentHashMap<>();
+    final Map<String, Rider> riders = new ConcurrentHashMap<>();
+    final Map<String, Integer> counters = new ConcurrentHashMap<>();
+
+    final Object writeLock = new Object();
+
+    // commit sequence and the sequence at which each document last changed; written under writeLock
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private volatile long sequence;
+
+    final List<FleetChangeListener> fleetListeners = new CopyOnWriteArrayList<>();
+
+    private final LongAdder roundTrips = new LongAdder();
+    private volatile long simulatedLatencyNanos;
+
+    // waits out simulated latency for calls that are in flight concurrently
+    private static final ExecutorService latencyExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "local-store-latency");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Makes every store call cost a simulated network round-trip, so latency benchmarks
+     * on the local store reflect how many round-trips an operation makes
+     */
+    @Value("${velocity.local.simulated-latency-us:0}")
+    public void setSimulatedLatencyMicros(long micros) {
+        this.simulatedLatencyNanos = micros * 1000;
+    }
+
+    /**
+     * Number of store calls made so far
+     */
+    public long getRoundTrips() {
+        return roundTrips.sum();
+    }
+
+    /**
+     * Accounts for one call to the store, waiting out the simulated latency if one is set
+     */
+    void roundTrip() {
+        roundTrips.increment();
+        awaitSimulatedLatency();
+    }
+
+    /**
+     * Accounts for one call to the store that the caller does not wait on
+     */
+    CompletableFuture<Void> roundTripAsync() {
+        roundTrips.increment();
+        if (simulatedLatencyNanos == 0) return CompletableFuture.completedFuture(null);
+
+        // stages chained on the call run on the latency thread, still counted toward the calling request
+        RequestRoundTrips requestRoundTrips = RequestRoundTrips.current();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        latencyExecutor.execute(() -> {
+            awaitSimulatedLatency();
+            RequestRoundTrips.runWith(requestRoundTrips, () -> done.complete(null));
+        });
+        return done;
+    }
+
+    private void awaitSimulatedLatency() {
+        long remaining = simulatedLatencyNanos;
+        long deadline = System.nanoTime() + remaining;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    /**
+     * Records that a document changed; callers hold writeLock
+     */
+    void changed(String collection, String id) {
+        long next = sequence + 1;
+        versions.put(collection + "/" + id, next);
+        sequence = next;
+    }
+
+    /**
+     * Sequence of the latest change, to compare versions against
+     */
+    long currentSequence() {
+        return sequence;
+    }
+
+    /**
+     * Sequence at which the document last changed, 0 if it never did
+     */
+    long versionOf(String collection, String id) {
+        return versions.getOrDefault(collection + "/" + id, 0L);
+    }
+
+    /**
+     * Removes every document from every collection
+     */
+    public void clear() {
+        synchronized (writeLock) {
+            bikes.keySet().forEach(bikeId -> fleetListeners.forEach(l -> l.bikeChanged(bikeId, null)));
+            docks.keySet().forEach(dockId -> fleetListeners.forEach(l -> l.dockChanged(dockId, null)));
+            stations.keySet().forEach(stationId -> fleetListeners.forEach(l -> l.stationChanged(stationId, null)));
+            bikes.clear();
+            docks.clear();
+            stations.clear();
+            trips.clear();
+            bills.clear();
+            riders.clear();
+            counters.clear();
+        }
+    }
+
+    // ============ Fleet Writes ============
+    // Callers hold writeLock; each write is published to the fleet listeners as its own copy
+
+    void putBike(Bike bike) {
+        bikes.put(bike.getBikeId(), copy(bike));
+        changed("bikes", bike.getBikeId());
+        for (FleetChangeListener listener : fleetListeners) {
+            listener.bikeChanged(bike.getBikeId(), copy(bike));
+        }
+    }
+
+    void putDock(Dock dock) {
+        docks.put(dock.getDockId(), copy(dock));
+        changed("docks", dock.getDockId());
+        for (FleetChangeListener listener : fleetListeners) {
+            listener.dockChanged(dock.getDockId(), copy(dock));
+        }
+    }
+
+    void putStation(Station station) {
+        stations.put(station.getStationId(), copy(station));
+        changed("stations", station.getStationId());
+        for (FleetChangeListener listener : fleetListeners) {
+            listener.stationChanged(station.getStationId(), copy(station));
+        }
+    }
+
+    // ============ Copy Helpers ============
+
+    static Bike copy(Bike source) {
+        if (source == null) return null;
+        Bike bike = new Bike();
+        bike.setBikeId(source.getBikeId());
+        bike.setStatus(source.getStatus());
+        bike.setType(source.getType());
+        bike.setReservationExpiry(source.getReservationExpiry());
+        bike.setReservedByUserId(source.getReservedByUserId());
+        bike.setDockId(source.getDockId());
+        bike.setStationId(source.getStationId());
+        return bike;
+    }
+
+    static Dock copy(Dock source) {
+        if (source == null) return null;
+        Dock dock = new Dock();
+        dock.setDockId(source.getDockId());
+        dock.setStatus(source.getStatus());
+        dock.setBikeId(source.getBikeId());
+        dock.setStationId(source.getStationId());
+        dock.setDockCode(source.getDockCode());
+        return dock;
+    }
+
+    static Station copy(Station source) {
+        if (source == null) return null;
+        Station station = new Station();
+        station.setStationId(source.getStationId());
+        station.setStationName(source.getStationName());
+        station.setLatitude(source.getLatitude());
+        station.setLongitude(source.getLongitude());
+        station.setStreetAddress(source.getStreetAddress());
+        // capacity and count setters recompute status, so the stored status is applied last
+        station.setCapacity(source.getCapacity());
+        station.setNumDockedBikes(source.getNumDockedBikes());
+        station.setStatus(source.getStatus());
+        station.setReservationHoldTime(source.getReservationHoldTime());
+        station.setDockIds(source.getDockIds() != null ? new ArrayList<>(source.getDockIds()) : null);
+        station.setBikeIds(source.getBikeIds() != null ? new ArrayList<>(source.getBikeIds()) : null);
+        station.setNumElectricBikes(source.getNumElectricBikes());
+        station.setNumStandardBikes(source.getNumStandardBikes());
+        station.setLowCapacity(source.isLowCapacity());
+        return station;
+    }
+
+    static Bill copy(Bill source) {
+        if (source == null) return null;
+        Bill bill = new Bill();
+        bill.setBillId(source.getBillId());
+        bill.setTripId(source.getTripId());
+        bill.setRiderId(source.getRiderId());
+        bill.setBaseCost(source.getBaseCost());
+        bill.setCost(source.getCost());
+        bill.setDiscount(source.getDiscount());
+        bill.setOperatorDiscount(source.getOperatorDiscount());
+        bill.setTax(source.getTax());
+        bill.setTotal(source.getTotal());
+        bill.setPaymentMethodLastFour(source.getPaymentMethodLastFour());
+        bill.setBillingDate(source.getBillingDate());
+        bill.setStatus(source.getStatus());
+        return bill;
+    }
+
+    static Trip copy(Trip source) {
+        if (source == null) return null;
+        Trip trip = new Trip();
+        trip.setTripId(source.getTripId());
+        trip.setRiderId(source.getRiderId());
+        trip.setStartTime(source.getStartTime());
+        trip.setEndTime(source.getEndTime());
+        trip.setStartStationId(source.getStartStationId());
+        trip.setStartStationName(source.getStartStationName());
+        trip.setEndStationId(source.getEndStationId());
+        trip.setEndStationName(source.getEndStationName());
+        trip.setStartDockId(source.getStartDockId());
+        trip.setEndDockId(source.getEndDockId());
+        trip.setBikeId(source.getBikeId());
+        trip.setBikeType(source.getBikeType());
+        trip.setStatus(source.getStatus());
+        trip.setDurationMinutes(source.getDurationMinutes());
+        trip.setBill(copy(source.getBill()));
+        trip.setFlexRedeemed(source.getFlexRedeemed());
+        trip.setFlexRedeemedAmount(source.getFlexRedeemedAmount());
+        trip.setFlexAwarded(source.getFlexAwarded());
+        trip.setFlexAwardAmount(source.getFlexAwardAmount());
+        return trip;
+    }
+
+    /**
+     * Copies only the given trip fields (plus tripId and startTime), as a Firestore select() would load them
+     */
+    static Trip copy(Trip source, Set<String> fields) {
+        if (source == null || fields == null) return copy(source);
+        Trip trip = new Trip();
+        trip.setTripId(source.getTripId());
+        trip.setStartTime(source.getStartTime());
+        for (String field : fields) {
+            switch (field) {
+                case "riderId" -> trip.setRiderId(source.getRiderId());
+                case "endTime" -> trip.setEndTime(source.getEndTime());
+                case "startStationId" -> trip.setStartStationId(source.getStartStationId());
+                case "startStationName" -> trip.setStartStationName(source.getStartStationName());
+                case "endStationId" -> trip.setEndStationId(source.getEndStationId());
+                case "endStationName" -> trip.setEndStationName(source.getEndStationName());
+                case "startDockId" -> trip.setStartDockId(source.getStartDockId());
+                case "endDockId" -> trip.setEndDockId(source.getEndDockId());
+                case "bikeId" -> trip.setBikeId(source.getBikeId());
+                case "bikeType" -> trip.setBikeType(source.getBikeType());
+                case "status" -> trip.setStatus(source.getStatus());
+                case "durationMinutes" -> trip.setDurationMinutes(source.getDurationMinutes());
+                case "bill" -> trip.setBill(copy(source.getBill()));
+                case "flexRedeemed" -> trip.setFlexRedeemed(source.getFlexRedeemed());
+                case "flexRedeemedAmount" -> trip.setFlexRedeemedAmount(source.getFlexRedeemedAmount());
+                case "flexAwarded" -> trip.setFlexAwarded(source.getFlexAwarded());
+                case "flexAwardAmount" -> trip.setFlexAwardAmount(source.getFlexAwardAmount());
+                default -> { } // tripId and startTime are always copied; unknown fields load nothing, as in Firestore
+            }
+        }
+        return trip;
+    }
+
+    static Rider copy(Rider source) {
+        if (source == null) return null;
+        Rider rider = new Rider();
+        rider.setId(source.getId());
+        rider.setFirstName(source.getFirstName());
+        rider.setLastName(source.getLastName());
+        rider.setAddress(source.getAddress());
+        rider.setEmail(source.getEmail());
+        rider.setPhoneNumber(source.getPhoneNumber());
+        rider.setFlexDollars(source.getFlexDollars());
+        rider.setIsOperator(source.getIsOperator());
+        rider.setPaymentInfo(copy(source.getPaymentInfo()));
+        rider.setMissedReservationTimestamps(source.getMissedReservationTimestamps() != null
+                ? new ArrayList<>(source.getMissedReservationTimestamps()) : new ArrayList<>());
+        if (source.getTier() != null) rider.setTier(source.getTier());
+        rider.setLoyaltyStats(copy(source.getLoyaltyStats()));
+        return rider;
+    }
+
+    static RiderStatsAggregate copy(RiderStatsAggregate source) {
+        if (source == null) return null;
+        RiderStatsAggregate stats = new RiderStatsAggregate();
+        stats.setTripsByDay(source.getTripsByDay());
+        stats.setMissedByDay(source.getMissedByDay());
+        stats.setActiveTrips(source.getActiveTrips());
+        return stats;
+    }
+
+    static Rider.PaymentInfo copy(Rider.PaymentInfo source) {
+        if (source == null) return null;
+        Rider.PaymentInfo paymentInfo = new Rider.PaymentInfo();
+        paymentInfo.setHasPaymentMethod(source.getHasPaymentMethod());
+        paymentInfo.setCardNumber(source.getCardNumber());
+        paymentInfo.setCvc(source.getCvc());
+        paymentInfo.setCardholderName(source.getCardholderName());
+        paymentInfo.setExpiryDate(source.getExpiryDate());
+        return paymentInfo;
+    }
+}
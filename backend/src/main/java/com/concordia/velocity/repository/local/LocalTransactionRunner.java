@@ -0,0 +1,270 @@
+package com.concordia.velocity.repository.local;
+
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Bill;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.StoreTransaction;
+import com.concordia.velocity.repository.TransactionRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs work against the store and applies its buffered writes only if it completes,
+ * so a failed transaction leaves nothing behind
+ *
+ * Like Firestore, transactions run concurrently and are checked at commit: if a document the work
+ * read or wrote has changed since the transaction started, its writes are discarded and the work
+ * runs again, up to MAX_ATTEMPTS times. Only the check and the writes hold the store lock.
+ */
+@Component
+@ConditionalOnProperty(name = "velocity.store", havingValue = "local")
+public class LocalTransactionRunner implements TransactionRunner {
+
+    // Firestore's default number of attempts
+    static final int MAX_ATTEMPTS = 5;
+
+    private final LocalStore store;
+
+    public LocalTransactionRunner(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public <T> T runInTransaction(Work<T> work) throws ExecutionException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            LocalStoreTransaction txn = new LocalStoreTransaction(store.currentSequence());
+            T result;
+            try {
+                result = work.execute(txn);
+            } catch (RuntimeException | ExecutionException | InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ExecutionException(e);
+            }
+            if (txn.writes.isEmpty()) {
+                return result;
+            }
+
+            store.roundTrip();
+            if (txn.commit()) {
+                return result;
+            }
+            if (attempt == MAX_ATTEMPTS) {
+                throw new ExecutionException(contention());
+            }
+            LockSupport.parkNanos(backoffNanos(attempt));
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> runInTransactionAsync(AsyncWork<T> work) {
+        return attemptAsync(work, 1);
+    }
+
+    private <T> CompletableFuture<T> attemptAsync(AsyncWork<T> work, int attempt) {
+        LocalStoreTransaction txn = new LocalStoreTransaction(store.currentSequence());
+        CompletableFuture<T> result;
+        try {
+            result = work.execute(txn);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return result.thenCompose(value -> {
+            if (txn.writes.isEmpty()) {
+                return CompletableFuture.completedFuture(value);
+            }
+            return store.roundTripAsync().thenCompose(ignored -> {
+                if (txn.commit()) {
+                    return CompletableFuture.completedFuture(value);
+                }
+                if (attempt == MAX_ATTEMPTS) {
+                    return CompletableFuture.failedFuture(contention());
+                }
+                Executor backoff = CompletableFuture.delayedExecutor(backoffNanos(attempt), TimeUnit.NANOSECONDS);
+                return CompletableFuture.supplyAsync(() -> null, backoff)
+                        .thenCompose(retry -> attemptAsync(work, attempt + 1));
+            });
+        });
+    }
+
+    // back off a little, more each time, so competing transactions spread out
+    private static long backoffNanos(int attempt) {
+        return ThreadLocalRandom.current().nextLong(TimeUnit.MILLISECONDS.toNanos(attempt));
+    }
+
+    private static ConcurrentModificationException contention() {
+        return new ConcurrentModificationException(
+                "Transaction aborted after " + MAX_ATTEMPTS + " attempts due to contention");
+    }
+
+    private class LocalStoreTransaction implements StoreTransaction {
+        private final long startSequence;
+        private final List<Runnable> writes = new ArrayList<>();
+        private final Map<Key, CompletableFuture<Void>> prefetched = new ConcurrentHashMap<>();
+        // documents read or written, checked for changes at commit
+        private final Set<Key> touched = ConcurrentHashMap.newKeySet();
+
+        LocalStoreTransaction(long startSequence) {
+            this.startSequence = startSequence;
+        }
+
+        /**
+         * Applies the buffered writes unless a document this transaction depends on changed after it started
+         * @return false if the transaction has to run again
+         */
+        boolean commit() {
+            synchronized (store.writeLock) {
+                for (Key key : touched) {
+                    if (store.versionOf(key.collection(), key.id()) > startSequence) {
+                        return false;
+                    }
+                }
+                writes.forEach(Runnable::run);
+                return true;
+            }
+        }
+
+        @Override
+        public CompletableFuture<Void> prefetchAsync(Key... keys) {
+            CompletableFuture<Void> batch = store.roundTripAsync();
+            for (Key key : keys) {
+                prefetched.put(key, batch);
+            }
+            return batch;
+        }
+
+        @Override
+        public CompletableFuture<Bike> getBikeAsync(String bikeId) {
+            return read(Key.bike(bikeId)).thenApply(ignored -> LocalStore.copy(store.bikes.get(bikeId)));
+        }
+
+        @Override
+        public CompletableFuture<Dock> getDockAsync(String dockId) {
+            return read(Key.dock(dockId)).thenApply(ignored -> LocalStore.copy(store.docks.get(dockId)));
+        }
+
+        @Override
+        public CompletableFuture<Station> getStationAsync(String stationId) {
+            return read(Key.station(stationId)).thenApply(ignored -> LocalStore.copy(store.stations.get(stationId)));
+        }
+
+        @Override
+        public CompletableFuture<Rider> getRiderAsync(String riderId) {
+            return read(Key.rider(riderId)).thenApply(ignored -> {
+                Rider rider = LocalStore.copy(store.riders.get(riderId));
+                if (rider != null) rider.setId(riderId);
+                return rider;
+            });
+        }
+
+        @Override
+        public CompletableFuture<Bike> findFirstBikeByDockIdAndStatusAsync(String dockId, String status) {
+            return store.roundTripAsync().thenApply(ignored -> store.bikes.values().stream()
+                    .filter(bike -> dockId.equals(bike.getDockId()))
+                    .filter(bike -> status.equals(bike.getStatus()))
+                    .findFirst()
+                    .map(bike -> {
+                        touched.add(Key.bike(bike.getBikeId()));
+                        return LocalStore.copy(bike);
+                    })
+                    .orElse(null));
+        }
+
+        @Override
+        public CompletableFuture<Trip> findActiveTripAsync(String bikeId, String riderId) {
+            return store.roundTripAsync().thenApply(ignored -> store.trips.values().stream()
+                    .filter(trip -> bikeId.equals(trip.getBikeId()))
+                    .filter(trip -> riderId.equals(trip.getRiderId()))
+                    .filter(trip -> Trip.STATUS_ACTIVE.equals(trip.getStatus()))
+                    .findFirst()
+                    .map(trip -> {
+                        touched.add(new Key("trips", trip.getTripId()));
+                        return LocalStore.copy(trip);
+                    })
+                    .orElse(null));
+        }
+
+        @Override
+        public void saveBike(Bike bike) {
+            Bike snapshot = LocalStore.copy(bike);
+            touched.add(Key.bike(snapshot.getBikeId()));
+            writes.add(() -> store.putBike(snapshot));
+        }
+
+        @Override
+        public void saveDock(Dock dock) {
+            Dock snapshot = LocalStore.copy(dock);
+            touched.add(Key.dock(snapshot.getDockId()));
+            writes.add(() -> store.putDock(snapshot));
+        }
+
+        @Override
+        public void saveStation(Station station) {
+            Station snapshot = LocalStore.copy(station);
+            touched.add(Key.station(snapshot.getStationId()));
+            writes.add(() -> store.putStation(snapshot));
+        }
+
+        @Override
+        public void saveTrip(Trip trip) {
+            Trip snapshot = LocalStore.copy(trip);
+            touched.add(new Key("trips", snapshot.getTripId()));
+            writes.add(() -> {
+                store.trips.put(snapshot.getTripId(), snapshot);
+                store.changed("trips", snapshot.getTripId());
+            });
+        }
+
+        @Override
+        public void saveBill(Bill bill) {
+            Bill snapshot = LocalStore.copy(bill);
+            touched.add(new Key("bills", snapshot.getBillId()));
+            writes.add(() -> {
+                store.bills.put(snapshot.getBillId(), snapshot);
+                store.changed("bills", snapshot.getBillId());
+            });
+        }
+
+        @Override
+        public void updateRider(String riderId, Map<String, Object> fields) {
+            Map<String, Object> snapshot = new HashMap<>(fields);
+            touched.add(Key.rider(riderId));
+            writes.add(() -> {
+                Rider rider = LocalStore.copy(store.riders.get(riderId));
+                if (rider == null) rider = new Rider();
+                for (Map.Entry<String, Object> field : snapshot.entrySet()) {
+                    LocalRiderRepository.applyField(rider, field.getKey(), field.getValue());
+                }
+                store.riders.put(riderId, rider);
+                store.changed("riders", riderId);
+            });
+        }
+
+        /**
+         * Reads covered by a prefetch wait for it; others cost their own round-trip
+         */
+        private CompletableFuture<Void> read(Key key) {
+            touched.add(key);
+            CompletableFuture<Void> batch = prefetched.get(key);
+            return batch != null ? batch : store.roundTripAsync();
+        }
+    }
+}
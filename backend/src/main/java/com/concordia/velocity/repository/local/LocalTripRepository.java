@@ -0,0 +1,131 @@
+package com.concordia.velocity.repository.local;
+
+import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.TripRepository;
+import com.google.cloud.Timestamp;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+
+@Repository
+@ConditionalOnProperty(name = "velocity.store", havingValue = "local")
+public class LocalTripRepository implements TripRepository {
+
+    // the order a page is listed in, reversed
+    private static final Comparator<Trip> OLDEST_FIRST = Comparator.comparing(Trip::getStartTime)
+            .thenComparing(Trip::getTripId);
+
+    private final LocalStore store;
+
+    public LocalTripRepository(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Trip findById(String tripId) {
+        store.roundTrip();
+        return LocalStore.copy(store.trips.get(tripId));
+    }
+
+    @Override
+    public List<Trip> findAll() {
+        store.roundTrip();
+        return store.trips.values().stream().map(LocalStore::copy).toList();
+    }
+
+    @Override
+    public List<Trip> findByRiderId(String riderId) {
+        store.roundTrip();
+        return store.trips.values().stream()
+                .filter(trip -> riderId.equals(trip.getRiderId()))
+                .map(LocalStore::copy)
+                .toList();
+    }
+
+    @Override
+    public CompletableFuture<List<Trip>> findByRiderIdAsync(String riderId) {
+        return store.roundTripAsync().thenApply(ignored -> store.trips.values().stream()
+                .filter(trip -> riderId.equals(trip.getRiderId()))
+                .map(LocalStore::copy)
+                .toList());
+    }
+
+    @Override
+    public List<Trip> findByStatus(String status) {
+        store.roundTrip();
+        return store.trips.values().stream()
+                .filter(trip -> status.equals(trip.getStatus()))
+                .map(LocalStore::copy)
+                .toList();
+    }
+
+    @Override
+    public List<Trip> findPage(PageQuery page) {
+        store.roundTrip();
+        // the oldest kept trip is on top, so a newer one evicts it and only one page is ever held
+        PriorityQueue<Trip> kept = new PriorityQueue<>(page.limit() + 1, OLDEST_FIRST);
+        for (Trip trip : store.trips.values()) {
+            if (!onPage(trip, page)) continue;
+            kept.add(trip);
+            if (kept.size() > page.limit()) kept.poll();
+        }
+
+        List<Trip> trips = new ArrayList<>(kept.size());
+        while (!kept.isEmpty()) {
+            trips.add(LocalStore.copy(kept.poll(), page.fields()));
+        }
+        Collections.reverse(trips);
+        return trips;
+    }
+
+    private static boolean onPage(Trip trip, PageQuery page) {
+        Timestamp started = trip.getStartTime();
+        if (started == null || trip.getTripId() == null) return false;
+        if (page.riderId() != null && !page.riderId().equals(trip.getRiderId())) return false;
+        if (page.startedFrom() != null && started.compareTo(page.startedFrom()) < 0) return false;
+        if (page.startedBefore() != null && started.compareTo(page.startedBefore()) >= 0) return false;
+        if (page.afterStartTime() != null) {
+            int order = started.compareTo(page.afterStartTime());
+            return order < 0 || (order == 0 && trip.getTripId().compareTo(page.afterTripId()) < 0);
+        }
+        return true;
+    }
+
+    @Override
+    public List<Trip> findActiveStartedBefore(Timestamp cutoff) {
+        store.roundTrip();
+        return store.trips.values().stream()
+                .filter(trip -> Trip.STATUS_ACTIVE.equals(trip.getStatus()))
+                .filter(trip -> trip.getStartTime() != null && trip.getStartTime().compareTo(cutoff) <= 0)
+                .sorted(Comparator.comparing(Trip::getStartTime))
+                .map(LocalStore::copy)
+                .toList();
+    }
+
+    @Override
+    public Trip findActiveTrip(String bikeId, String riderId) {
+        store.roundTrip();
+        return store.trips.values().stream()
+                .filter(trip -> bikeId.equals(trip.getBikeId()))
+                .filter(trip -> riderId.equals(trip.getRiderId()))
+                .filter(trip -> Trip.STATUS_ACTIVE.equals(trip.getStatus()))
+                .findFirst()
+                .map(LocalStore::copy)
+                .orElse(null);
+    }
+
+    @Override
+    public void save(Trip trip) {
+        store.roundTrip();
+        synchronized (store.writeLock) {
+            store.trips.put(trip.getTripId(), LocalStore.copy(trip));
+            store.changed("trips", trip.getTripId());
+        }
+    }
+}
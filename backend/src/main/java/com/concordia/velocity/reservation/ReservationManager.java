@@ -2,20 +2,61 @@ package com.concordia.velocity.reservation;
 
 import java.util.concurrent.*;
 
+/**
+ * Holds one reservation expiry timer per bike
+ *
+ * The scheduler threads only keep time: a timer that fires hands its task to the callback executor,
+ * which runs it inline by default or on a virtual thread of its own when virtual threads are enabled,
+ * so expiries that wait on the store don't hold up the timers behind them.
+ */
 public class ReservationManager {
 
     private static final ScheduledExecutorService SCHEDULER =
             Executors.newScheduledThreadPool(4);
 
+    private static final Executor INLINE = Runnable::run;
+    private static final Executor VIRTUAL =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("reservation-expiry-", 0).factory());
+
+    private static volatile Executor callbacks = INLINE;
+
     private static final ConcurrentHashMap<String, ScheduledFuture<?>> activeTimers =
             new ConcurrentHashMap<>();
 
     public static void schedule(String bikeId, Runnable task, long minutes) {
+        schedule(bikeId, task, minutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Runs fired timers' tasks on virtual threads, or back on the scheduler threads when disabled
+     */
+    public static void useVirtualThreads(boolean enabled) {
+        callbacks = enabled ? VIRTUAL : INLINE;
+    }
+
+    public static void schedule(String bikeId, Runnable task, long delay, TimeUnit unit) {
         cancel(bikeId); // cancel old timer if exists
-        ScheduledFuture<?> future = SCHEDULER.schedule(task, minutes, TimeUnit.MINUTES);
+        ScheduledFuture<?> future = SCHEDULER.schedule(handOff(task), delay, unit);
         activeTimers.put(bikeId, future);
     }
 
+    /**
+     * Schedules the task only if the bike has no pending timer
+     * Used when rebuilding timers so a reservation made meanwhile keeps its own timer
+     * @return true if a timer was scheduled
+     */
+    public static boolean scheduleIfAbsent(String bikeId, Runnable task, long delay, TimeUnit unit) {
+        boolean[] scheduled = {false};
+        activeTimers.compute(bikeId, (id, existing) -> {
+            if (existing != null && !existing.isDone()) {
+                return existing;
+            }
+            scheduled[0] = true;
+            return SCHEDULER.schedule(handOff(task), delay, unit);
+        });
+        return scheduled[0];
+    }
+
     public static void cancel(String bikeId) {
         ScheduledFuture<?> task = activeTimers.remove(bikeId);
         if (task != null && !task.isDone()) {
@@ -23,4 +64,19 @@ public class ReservationManager {
             System.out.println("[DEBUG] Cancelled reservation timer for bike " + bikeId);
         }
     }
+
+    /**
+     * Number of timers that have not fired or been cancelled yet
+     */
+    public static int activeCount() {
+        int count = 0;
+        for (ScheduledFuture<?> future : activeTimers.values()) {
+            if (!future.isDone()) count++;
+        }
+        return count;
+    }
+
+    private static Runnable handOff(Runnable task) {
+        return () -> callbacks.execute(task);
+    }
 }
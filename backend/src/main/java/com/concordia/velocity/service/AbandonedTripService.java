@@ -1,69 +1,124 @@
 package com.concordia.velocity.service;
 
+import com.concordia.velocity.forecast.DemandForecaster;
 import com.concordia.velocity.model.Bike;
 import com.concordia.velocity.model.Bill;
 import com.concordia.velocity.model.Rider;
 import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.observer.DashboardObserver;
+import com.concordia.velocity.observer.JournalObserver;
+import com.concordia.velocity.repository.StoreTransaction.Key;
+import com.concordia.velocity.repository.TransactionRunner;
+import com.concordia.velocity.repository.TripRepository;
 import com.concordia.velocity.strategy.AbandonedPayment;
-import com.concordia.velocity.strategy.PaymentStrategy;
+import com.concordia.velocity.strategy.PaymentStrategies;
 import com.google.cloud.Timestamp;
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QueryDocumentSnapshot;
-import com.google.firebase.cloud.FirestoreClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
+import javax.annotation.PreDestroy;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service to detect and handle abandoned trips
- * A trip is considered abandoned if it has been active for more than 12 hours
+ * A trip is considered abandoned if it has been active for more than 4 hours
+ *
+ * Each trip's deadline is registered with AbandonmentDeadlineScheduler when it starts, so it is
+ * abandoned close to on time. A periodic catch-up query picks up any trip whose deadline was missed
+ * (e.g. while the server was down). Abandoned trips are processed on a bounded pool, one transaction each.
  */
 @Service
 public class AbandonedTripService {
 
     private static final long ABANDONMENT_THRESHOLD_HOURS = 4;
+    private static final long ABANDONMENT_THRESHOLD_MILLIS = TimeUnit.HOURS.toMillis(ABANDONMENT_THRESHOLD_HOURS);
     public static final String STATUS_ABANDONED = "abandoned";
 
-    private final Firestore db = FirestoreClient.getFirestore();
-    private final UserService userService;
-    private final BikeService bikeService;
-    private final PaymentStrategy abandonedPaymentStrategy;
+    private final TripRepository tripRepository;
+    private final TransactionRunner transactionRunner;
     private final IdGeneratorService idGeneratorService;
-
-    public AbandonedTripService(UserService userService, BikeService bikeService, IdGeneratorService idGeneratorService) {
-        this.userService = userService;
-        this.bikeService = bikeService;
-        this.abandonedPaymentStrategy = new AbandonedPayment();
+    private final LoyaltyStatsService loyaltyStatsService;
+    private final AbandonmentDeadlineScheduler deadlineScheduler;
+    private final DemandForecaster demandForecaster;
+    private final AbandonedPayment abandonedPaymentStrategy;
+    private final ThreadPoolExecutor processingPool;
+
+    public AbandonedTripService(TripRepository tripRepository, TransactionRunner transactionRunner,
+                                IdGeneratorService idGeneratorService, LoyaltyStatsService loyaltyStatsService,
+                                AbandonmentDeadlineScheduler deadlineScheduler, DemandForecaster demandForecaster,
+                                @Value("${velocity.abandoned.parallelism:8}") int parallelism) {
+        this.tripRepository = tripRepository;
+        this.transactionRunner = transactionRunner;
         this.idGeneratorService = idGeneratorService;
+        this.loyaltyStatsService = loyaltyStatsService;
+        this.deadlineScheduler = deadlineScheduler;
+        this.demandForecaster = demandForecaster;
+        this.abandonedPaymentStrategy = PaymentStrategies.ABANDONED;
+        this.processingPool = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "abandoned-trips");
+            thread.setDaemon(true);
+            return thread;
+        });
+        deadlineScheduler.onDeadline(ABANDONMENT_THRESHOLD_MILLIS,
+                deadline -> processingPool.execute(() -> processDeadline(deadline)));
+    }
+
+    @PreDestroy
+    public void stop() {
+        processingPool.shutdownNow();
     }
 
     /**
-     * Scheduled task that runs every hour to check for abandoned trips
-     * Uses Spring's @Scheduled annotation with cron expression
-     * Cron: "0 0 * * * *" means run at the top of every hour
+     * Abandoned trips whose deadline has passed and that are waiting for or being processed on the pool
      */
-    @Scheduled(cron = "0 0 * * * *")
-    public void checkForAbandonedTrips() {
-        System.out.println("[ABANDONED TRIP CHECK] Starting scheduled check at " + LocalDateTime.now());
+    public int processingBacklog() {
+        return processingPool.getQueue().size() + processingPool.getActiveCount();
+    }
 
+    /**
+     * Registers the deadlines of the trips that were active when the application started
+     * Trips already past their deadline fire right away.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerActiveTrips() {
         try {
-            List<Trip> abandonedTrips = findAbandonedTrips();
-
-            if (abandonedTrips.isEmpty()) {
-                System.out.println("[ABANDONED TRIP CHECK] No abandoned trips found");
-                return;
+            List<Trip> activeTrips = tripRepository.findByStatus(Trip.STATUS_ACTIVE);
+            for (Trip trip : activeTrips) {
+                deadlineScheduler.register(trip);
             }
+            System.out.println("[ABANDONED TRIP CHECK] Registered deadlines for " + activeTrips.size() + " active trip(s)");
+        } catch (Exception e) {
+            System.err.println("[ABANDONED TRIP CHECK] Could not register active trip deadlines: " + e.getMessage());
+        }
+    }
 
-            System.out.println("[ABANDONED TRIP CHECK] Found " + abandonedTrips.size() + " abandoned trip(s)");
+    /**
+     * Catch-up for deadlines that were missed, e.g. trips started on another node or before a restart
+     * Only queries the active trips already past the threshold, so it is cheap when nothing is overdue.
+     */
+    @Scheduled(fixedDelayString = "${velocity.abandoned.catch-up-interval-ms:600000}")
+    public void checkForAbandonedTrips() {
+        System.out.println("[ABANDONED TRIP CHECK] Starting catch-up check at " + LocalDateTime.now());
 
-            for (Trip trip : abandonedTrips) {
-                processAbandonedTrip(trip);
+        try {
+            int processed = manualCheckForAbandonedTrips();
+            if (processed == 0) {
+                System.out.println("[ABANDONED TRIP CHECK] No abandoned trips found");
             }
-
         } catch (Exception e) {
             System.err.println("[ABANDONED TRIP CHECK] Error during abandoned trip check: " + e.getMessage());
             e.printStackTrace();
@@ -75,142 +130,162 @@ public class AbandonedTripService {
      * @return number of abandoned trips processed
      */
     public int manualCheckForAbandonedTrips() throws ExecutionException, InterruptedException {
-        System.out.println("[ABANDONED TRIP CHECK] Manual check initiated");
-
-        List<Trip> abandonedTrips = findAbandonedTrips();
-
-        for (Trip trip : abandonedTrips) {
-            processAbandonedTrip(trip);
+        List<Trip> overdue = findAbandonedTrips();
+        if (!overdue.isEmpty()) {
+            System.out.println("[ABANDONED TRIP CHECK] Found " + overdue.size() + " abandoned trip(s)");
         }
-
-        return abandonedTrips.size();
+        return processAll(overdue);
     }
 
     /**
-     * Finds all active trips that have exceeded the 12-hour threshold
-     * @return list of abandoned trips
+     * Active trips that started more than the threshold ago, from a range query on startTime
      */
     private List<Trip> findAbandonedTrips() throws ExecutionException, InterruptedException {
-        // Query all active trips
-        var querySnapshot = db.collection("trips")
-                .whereEqualTo("status", Trip.STATUS_ACTIVE)
-                .get()
-                .get();
-
-        List<Trip> abandonedTrips = new java.util.ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
-
-        for (QueryDocumentSnapshot doc : querySnapshot.getDocuments()) {
-            Trip trip = doc.toObject(Trip.class);
-
-            if (trip.getStartTime() != null) {
-                LocalDateTime startTime = trip.getStartTime().toSqlTimestamp().toLocalDateTime();
-                Duration duration = Duration.between(startTime, now);
-
-                if (duration.toHours() >= ABANDONMENT_THRESHOLD_HOURS) {
-                    abandonedTrips.add(trip);
-                    System.out.println("[ABANDONED TRIP] Found abandoned trip: " + trip.getTripId() +
-                            " (active for " + duration.toHours() + " hours)");
-                }
+        long cutoffMillis = System.currentTimeMillis() - ABANDONMENT_THRESHOLD_MILLIS;
+        return tripRepository.findActiveStartedBefore(Timestamp.ofTimeMicroseconds(cutoffMillis * 1000));
+    }
+
+    /**
+     * Processes the trips on the bounded pool and waits for all of them
+     * @return number of trips that were abandoned (trips that ended meanwhile are skipped)
+     */
+    private int processAll(List<Trip> trips) throws InterruptedException {
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (Trip trip : trips) {
+            tasks.add(() -> processAbandonedTrip(trip.getTripId(), trip.getBikeId(), trip.getRiderId()));
+        }
+
+        int processed = 0;
+        for (Future<Boolean> result : processingPool.invokeAll(tasks)) {
+            try {
+                if (result.get()) processed++;
+            } catch (ExecutionException e) {
+                System.err.println("[ABANDONED TRIP] Could not process trip: " + e.getCause().getMessage());
             }
         }
+        return processed;
+    }
 
-        return abandonedTrips;
+    private void processDeadline(AbandonmentDeadlineScheduler.Deadline deadline) {
+        try {
+            processAbandonedTrip(deadline.tripId(), deadline.bikeId(), deadline.riderId());
+        } catch (Exception e) {
+            System.err.println("[ABANDONED TRIP] Could not process trip " + deadline.tripId() + ": " + e.getMessage());
+        }
     }
 
     /**
-     * Processes an abandoned trip by:
+     * Processes an abandoned trip in one transaction by:
      * 1. Changing trip status to "abandoned"
      * 2. Creating a bill using AbandonedPayment strategy ($333 fee)
      * 3. Setting end time to now
      * 4. Updating the bike status to "abandoned" (lost/never returned)
+     * 5. Closing the trip in the rider's loyalty stats
+     * The trip is re-read first, so one that ended or was already abandoned is left alone.
+     * Once committed, the trip's departure is added to the demand forecast, as a rebuild would count it.
+     * @return true if the trip was abandoned
      */
-    private void processAbandonedTrip(Trip trip) throws ExecutionException, InterruptedException {
-        System.out.println("[ABANDONED TRIP] Processing abandoned trip: " + trip.getTripId());
-
-        // Calculate actual duration
-        LocalDateTime startTime = trip.getStartTime().toSqlTimestamp().toLocalDateTime();
-        LocalDateTime endTime = LocalDateTime.now();
-        Duration duration = Duration.between(startTime, endTime);
-        long durationMinutes = duration.toMinutes();
-
-        // Update trip status and end time
-        trip.setStatus(STATUS_ABANDONED);
-        trip.setEndTime(Timestamp.now());
-        trip.setDurationMinutes(durationMinutes);
-
-        // Get rider for bill creation
-        Rider rider = userService.getUserById(trip.getRiderId());
+    private boolean processAbandonedTrip(String tripId, String bikeId, String riderId)
+            throws ExecutionException, InterruptedException {
+        if (bikeId == null || riderId == null) return false;
+
+        Trip[] abandonedTrip = new Trip[1];
+        JournalObserver journal = new JournalObserver();
+        DashboardObserver dashboard = new DashboardObserver();
+        boolean abandoned = transactionRunner.runInTransaction(txn -> {
+            journal.discard();
+            dashboard.discard();
+
+            // Trip, bike and rider are read together in one round-trip
+            txn.prefetchAsync(Key.bike(bikeId), Key.rider(riderId));
+            CompletableFuture<Trip> activeTrip = txn.findActiveTripAsync(bikeId, riderId);
+
+            Trip trip = activeTrip.get();
+            if (trip == null || !tripId.equals(trip.getTripId()) || !isPastDeadline(trip)) {
+                return false;
+            }
+            Rider rider = txn.getRider(riderId);
+            Bike bike = txn.getBike(bikeId);
 
-        // Create abandonment bill using payment strategy
-        Bill abandonmentBill = abandonedPaymentStrategy.createBillAndProcessPayment(trip, durationMinutes, rider);
+            System.out.println("[ABANDONED TRIP] Processing abandoned trip: " + tripId);
 
-        String billId = idGeneratorService.generateBillId();  // Creates BILL0001, BILL0002, etc.
-        abandonmentBill.setBillId(billId);
+            // Calculate actual duration
+            Timestamp endTime = Timestamp.now();
+            long durationMinutes = (toMillis(endTime) - toMillis(trip.getStartTime())) / 60_000;
 
-        trip.setBill(abandonmentBill);
+            // Update trip status and end time
+            trip.setStatus(STATUS_ABANDONED);
+            trip.setEndTime(endTime);
+            trip.setDurationMinutes(durationMinutes);
 
-        // Save updated trip to Firestore
-        db.collection("trips").document(trip.getTripId()).set(trip).get();
+            // Create abandonment bill using payment strategy
+            String billId = idGeneratorService.generateBillId();  // Creates BILL0001, BILL0002, etc.
+            Bill abandonmentBill = abandonedPaymentStrategy.createBillAndProcessPayment(billId, trip, durationMinutes, rider, 0);
 
-        // Save bill to Firestore
-        db.collection("bills").document(abandonmentBill.getBillId()).set(abandonmentBill).get();
+            trip.setBill(abandonmentBill);
 
-        // Log the action
-        System.out.println(String.format(
-                "[ABANDONED TRIP] Trip %s marked as abandoned. Duration: %d hours, %d minutes. Bill: $%.2f (includes tax)",
-                trip.getTripId(),
-                duration.toHours(),
-                duration.toMinutes() % 60,
-                abandonmentBill.getTotal()
-        ));
+            txn.saveTrip(trip);
+            txn.saveBill(abandonmentBill);
+            abandonedTrip[0] = trip;
+            if (rider != null) {
+                txn.updateRider(riderId, Map.of("loyaltyStats", loyaltyStatsService.recordAbandonedTrip(rider)));
+            }
 
-        // Update bike status to ABANDONED (lost/never returned to dock)
-        if (trip.getBikeId() != null && !trip.getBikeId().isEmpty()) {
-            try {
-                var bike = bikeService.getBikeById(trip.getBikeId());
-                if (bike != null) {
-                    String oldBikeStatus = bike.getStatus();
-                    bike.setStatus(Bike.STATUS_ABANDONED);
-                    db.collection("bikes").document(bike.getBikeId()).set(bike).get();
-                    System.out.println(String.format(
-                            "[ABANDONED TRIP] Bike %s status changed: %s → abandoned (bike is lost/not returned to dock)",
-                            bike.getBikeId(), oldBikeStatus
-                    ));
-                }
-            } catch (Exception e) {
-                System.err.println("[ABANDONED TRIP] Could not update bike status: " + e.getMessage());
+            // Update bike status to ABANDONED (lost/never returned to dock)
+            String oldBikeStatus = null;
+            if (bike != null) {
+                oldBikeStatus = bike.getStatus();
+                bike.attach(journal);
+                dashboard.watch(bike);
+                bike.setStatus(Bike.STATUS_ABANDONED);
+                bike.notifyObservers();
+                txn.saveBike(bike);
             }
+
+            // Log the action
+            System.out.println(String.format(
+                    "[ABANDONED TRIP] Trip %s marked as abandoned. Duration: %d hours, %d minutes. Bill: $%.2f (includes tax). Bike %s: %s → abandoned",
+                    tripId,
+                    durationMinutes / 60,
+                    durationMinutes % 60,
+                    abandonmentBill.getTotal(),
+                    bikeId,
+                    oldBikeStatus
+            ));
+            return true;
+        });
+
+        if (abandoned) {
+            journal.commit(tripId);
+            dashboard.publish();
+            demandForecaster.recordTrip(abandonedTrip[0]);
         }
+        return abandoned;
     }
 
     /**
      * Check if a specific trip is abandoned
      * @param tripId the trip ID to check
-     * @return true if the trip is abandoned (>12 hours active)
+     * @return true if the trip is abandoned (>4 hours active)
      */
     public boolean isTripAbandoned(String tripId) throws ExecutionException, InterruptedException {
-        var doc = db.collection("trips").document(tripId).get().get();
-
-        if (!doc.exists()) {
-            return false;
-        }
-
-        Trip trip = doc.toObject(Trip.class);
+        Trip trip = tripRepository.findById(tripId);
 
         if (trip == null || !Trip.STATUS_ACTIVE.equalsIgnoreCase(trip.getStatus())) {
             return false;
         }
 
-        if (trip.getStartTime() == null) {
-            return false;
-        }
+        return isPastDeadline(trip);
+    }
 
-        LocalDateTime startTime = trip.getStartTime().toSqlTimestamp().toLocalDateTime();
-        LocalDateTime now = LocalDateTime.now();
-        Duration duration = Duration.between(startTime, now);
+    private boolean isPastDeadline(Trip trip) {
+        return trip.getStartTime() != null
+                && AbandonmentDeadlineScheduler.deadlineMillis(trip.getStartTime(), ABANDONMENT_THRESHOLD_MILLIS)
+                <= System.currentTimeMillis();
+    }
 
-        return duration.toHours() >= ABANDONMENT_THRESHOLD_HOURS;
+    private static long toMillis(Timestamp timestamp) {
+        return timestamp.getSeconds() * 1000 + timestamp.getNanos() / 1_000_000;
     }
 
     /**
@@ -224,6 +299,6 @@ public class AbandonedTripService {
      * Get abandonment fee amount
      */
     public double getAbandonmentFee() {
-        return ((AbandonedPayment) abandonedPaymentStrategy).getAbandonmentFee();
+        return abandonedPaymentStrategy.getAbandonmentFee();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package com.concordia.velocity.service;
+
+import com.concordia.velocity.model.Trip;
+import com.google.cloud.Timestamp;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Holds one abandonment deadline per bike on a trip
+ *
+ * TripService registers the deadline when a trip starts and cancels it when the trip ends,
+ * so a trip that is never returned is picked up when its deadline passes rather than at the next
+ * hourly scan. Deadlines are in memory only; AbandonedTripService re-registers them on startup and
+ * its catch-up query covers any that were lost.
+ */
+@Service
+public class AbandonmentDeadlineScheduler {
+
+    /**
+     * A trip that will be abandoned at deadlineMillis (epoch millis) unless it ends first
+     */
+    public record Deadline(String tripId, String bikeId, String riderId, long deadlineMillis) {}
+
+    private final ScheduledThreadPoolExecutor timers;
+    private final ConcurrentHashMap<String, Pending> deadlines = new ConcurrentHashMap<>();
+    private volatile long thresholdMillis = TimeUnit.HOURS.toMillis(4);
+    private volatile Consumer<Deadline> handler = deadline -> { };
+
+    public AbandonmentDeadlineScheduler() {
+        timers = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "abandonment-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timers.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Sets what runs when a deadline passes and how long after its start a trip is abandoned
+     * The handler runs on the timer thread, so it should hand the work off rather than do it inline.
+     */
+    void onDeadline(long thresholdMillis, Consumer<Deadline> handler) {
+        this.thresholdMillis = thresholdMillis;
+        this.handler = handler;
+    }
+
+    /**
+     * Schedules the trip's abandonment deadline, replacing any earlier one for the same bike
+     */
+    public void register(Trip trip) {
+        if (trip == null || trip.getBikeId() == null || trip.getStartTime() == null) return;
+
+        Deadline deadline = new Deadline(trip.getTripId(), trip.getBikeId(), trip.getRiderId(),
+                deadlineMillis(trip.getStartTime(), thresholdMillis));
+        long delay = Math.max(0, deadline.deadlineMillis() - System.currentTimeMillis());
+        Pending previous = deadlines.put(trip.getBikeId(),
+                new Pending(deadline, timers.schedule(() -> fire(deadline), delay, TimeUnit.MILLISECONDS)));
+        if (previous != null) {
+            previous.future().cancel(false);
+        }
+    }
+
+    /**
+     * Drops the deadline of the trip the bike is on, if any
+     */
+    public void cancel(String bikeId) {
+        Pending pending = deadlines.remove(bikeId);
+        if (pending != null) {
+            pending.future().cancel(false);
+        }
+    }
+
+    /**
+     * Number of registered deadlines that have not passed yet
+     */
+    public int pendingCount() {
+        return deadlines.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        timers.shutdownNow();
+    }
+
+    private void fire(Deadline deadline) {
+        // a newer trip on the same bike keeps its own entry
+        deadlines.computeIfPresent(deadline.bikeId(), (bikeId, pending) -> pending.deadline() == deadline ? null : pending);
+        handler.accept(deadline);
+    }
+
+    private record Pending(Deadline deadline, ScheduledFuture<?> future) {}
+
+    /**
+     * Epoch millis at which a trip started at startTime is abandoned
+     */
+    static long deadlineMillis(Timestamp startTime, long thresholdMillis) {
+        return startTime.getSeconds() * 1000 + startTime.getNanos() / 1_000_000 + thresholdMillis;
+    }
+}
@@ -1,33 +1,42 @@
 package com.concordia.velocity.service;
 
+import com.concordia.velocity.cache.FleetCache;
 import com.concordia.velocity.model.Bike;
 import com.concordia.velocity.model.Rider;
 import com.concordia.velocity.model.Station;
 import com.concordia.velocity.observer.DashboardObserver;
-import com.concordia.velocity.observer.Observer;
+import com.concordia.velocity.observer.JournalObserver;
 import com.concordia.velocity.observer.ReservationObserver;
 import com.concordia.velocity.observer.StatusObserver;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
-import com.google.firebase.cloud.FirestoreClient;
+import com.concordia.velocity.repository.BikeRepository;
+import com.concordia.velocity.repository.StationRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 @Service
 public class BikeService {
 
-    private final Firestore db = FirestoreClient.getFirestore();
+    private final BikeRepository bikeRepository;
+    private final StationRepository stationRepository;
     private final UserService userService;
     private final LoyaltyStatsService loyaltyStatsService;
+    private final FleetCache fleetCache;
+    private final ReservationExpiryService reservationExpiryService;
 
     // Constructor injection for dependencies
-    public BikeService(UserService userService, LoyaltyStatsService loyaltyStatsService) {
+    public BikeService(BikeRepository bikeRepository, StationRepository stationRepository,
+                       UserService userService, LoyaltyStatsService loyaltyStatsService, FleetCache fleetCache,
+                       ReservationExpiryService reservationExpiryService) {
+        this.bikeRepository = bikeRepository;
+        this.stationRepository = stationRepository;
         this.userService = userService;
         this.loyaltyStatsService = loyaltyStatsService;
+        this.fleetCache = fleetCache;
+        this.reservationExpiryService = reservationExpiryService;
     }
 
     /**
@@ -36,7 +45,6 @@ public class BikeService {
     private void attachObservers(Bike bike) {
         if (bike != null) {
             bike.attach(new StatusObserver());
-            bike.attach(new DashboardObserver());
             bike.attach(new ReservationObserver(userService, loyaltyStatsService));
         }
     }
@@ -50,40 +58,62 @@ public class BikeService {
      */
     public String reserveBike(String bikeId, String userId, String stationId)
             throws ExecutionException, InterruptedException {
+        return Futures.await(reserveBikeAsync(bikeId, userId, stationId));
+    }
 
-        // Retrieve bike from Firestore
-        DocumentSnapshot doc = db.collection("bikes").document(bikeId).get().get();
-        Bike bike = doc.toObject(Bike.class);
-
-        if (bike == null) {
-            throw new IllegalArgumentException("Bike not found: " + bikeId);
-        }
-
-        // Validate bike is available
-        if (!Bike.STATUS_AVAILABLE.equalsIgnoreCase(bike.getStatus())) {
-            throw new IllegalStateException("Bike is not available for reservation. Current status: " + bike.getStatus());
-        }
+    /**
+     * Async counterpart of reserveBike
+     * Bike, station and rider are read concurrently and the save is chained on them, so no thread
+     * waits on the store. The future fails with IllegalArgumentException/IllegalStateException
+     * (possibly wrapped in a CompletionException) where reserveBike would throw them.
+     */
+    public CompletableFuture<String> reserveBikeAsync(String bikeId, String userId, String stationId) {
+        CompletableFuture<Bike> bikeRead = bikeRepository.findByIdAsync(bikeId);
+        CompletableFuture<Station> stationRead = stationRepository.findByIdAsync(stationId);
+        CompletableFuture<Rider> riderRead = userService.getUserByIdAsync(userId);
 
-        // Get station to determine hold time
-        DocumentSnapshot stationDoc = db.collection("stations").document(stationId).get().get();
-        com.concordia.velocity.model.Station station = stationDoc.toObject(com.concordia.velocity.model.Station.class);
+        return CompletableFuture.allOf(bikeRead, stationRead, riderRead).thenCompose(read -> {
+            Bike bike = bikeRead.join();
 
-        if (station == null) {
-            throw new IllegalArgumentException("Station not found: " + stationId);
-        }
+            if (bike == null) {
+                throw new IllegalArgumentException("Bike not found: " + bikeId);
+            }
 
-        // Attach all observers
-        attachObservers(bike);
+            // Validate bike is available
+            if (!Bike.STATUS_AVAILABLE.equalsIgnoreCase(bike.getStatus())) {
+                throw new IllegalStateException("Bike is not available for reservation. Current status: " + bike.getStatus());
+            }
 
-        // Start reservation (sets status to RESERVED and schedules auto-expiry)
-        Rider rider = userService.getUserById(userId);
-        LocalDateTime expiryTime = bike.startReservationExpiry(station, rider);
+            // Get station to determine hold time
+            Station station = stationRead.join();
 
-        // Persist to Firestore
-        db.collection("bikes").document(bikeId).set(bike).get();
+            if (station == null) {
+                throw new IllegalArgumentException("Station not found: " + stationId);
+            }
 
-        return "Bike " + bikeId + " reserved successfully for user " + rider.getFullName() +
-                ". Reservation expires at " + expiryTime;
+            // Attach all observers
+            JournalObserver journal = new JournalObserver();
+            DashboardObserver dashboard = new DashboardObserver();
+            attachObservers(bike);
+            dashboard.watch(bike);
+            bike.attach(journal);
+
+            // Start reservation (sets status to RESERVED and the expiry time)
+            Rider rider = riderRead.join();
+            LocalDateTime expiryTime = bike.startReservationExpiry(station, rider);
+
+            // Persist to the store, then notify once and schedule auto-expiry from the stored expiry;
+            // a failed save leaves nothing logged or pushed
+            return bikeRepository.saveAsync(bike).thenApply(saved -> {
+                bike.notifyObservers();
+                reservationExpiryService.schedule(bike);
+                journal.commit(null);
+                dashboard.publish();
+
+                return "Bike " + bikeId + " reserved successfully for user " + rider.getFullName() +
+                        ". Reservation expires at " + expiryTime;
+            });
+        });
     }
 
     /**
@@ -92,46 +122,63 @@ public class BikeService {
     public String updateBikeStatus(String bikeId, String newStatus)
             throws ExecutionException, InterruptedException {
 
-        // Retrieve bike from Firestore
-        DocumentSnapshot doc = db.collection("bikes").document(bikeId).get().get();
-        Bike bike = doc.toObject(Bike.class);
+        // Retrieve bike from the store
+        Bike bike = bikeRepository.findById(bikeId);
 
         if (bike == null) {
             throw new IllegalArgumentException("Bike not found: " + bikeId);
         }
 
         // Attach all observers before making changes
+        JournalObserver journal = new JournalObserver();
+        DashboardObserver dashboard = new DashboardObserver();
         attachObservers(bike);
+        dashboard.watch(bike);
+        bike.attach(journal);
 
         // Perform status change (this will validate and notify observers)
         bike.changeStatus(newStatus);
 
-        // Persist to Firestore
-        db.collection("bikes").document(bikeId).set(bike).get();
+        // Persist to the store
+        bikeRepository.save(bike);
+        journal.commit(null);
+        dashboard.publish();
 
         return "Bike " + bikeId + " updated successfully to status: " + bike.getStatus();
     }
 
     public Bike getBikeById(String bikeId) throws ExecutionException, InterruptedException {
-        Bike bike = db.collection("bikes").document(bikeId)
-                .get().get().toObject(Bike.class);
-        
+        Bike bike = bikeRepository.findById(bikeId);
+
         // Attach observers when retrieving bikes
         attachObservers(bike);
         
         return bike;
     }
 
+    public CompletableFuture<Bike> getBikeByIdAsync(String bikeId) {
+        return bikeRepository.findByIdAsync(bikeId).thenApply(bike -> {
+            attachObservers(bike);
+            return bike;
+        });
+    }
+
+    /**
+     * Served from the fleet cache; the returned bikes are read-only and have no observers attached
+     */
     public List<Bike> getAllBikes() throws ExecutionException, InterruptedException {
-        List<Bike> bikes = new ArrayList<>();
-        for (DocumentSnapshot doc : db.collection("bikes").get().get().getDocuments()) {
-            Bike bike = doc.toObject(Bike.class);
-            if (bike != null) {
-                // Attach observers to each bike
-                attachObservers(bike);
-                bikes.add(bike);
-            }
+        return fleetCache.getAllBikes();
+    }
+
+    /**
+     * Available bikes at a station, optionally of one type, answered from the fleet cache's bike index
+     * The returned bikes are read-only and have no observers attached
+     */
+    public List<Bike> getAvailableBikesAtStation(String stationId, String type)
+            throws ExecutionException, InterruptedException {
+        if (stationId == null || stationId.isEmpty()) {
+            throw new IllegalArgumentException("Station ID cannot be null or empty");
         }
-        return bikes;
+        return fleetCache.findBikes(stationId, Bike.STATUS_AVAILABLE, type);
     }
 }
\ No newline at end of file
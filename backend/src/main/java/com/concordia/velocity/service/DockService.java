@@ -1,30 +1,36 @@
 package com.concordia.velocity.service;
 
+import com.concordia.velocity.cache.FleetCache;
 import com.concordia.velocity.model.Bike;
 import com.concordia.velocity.model.Dock;
 import com.concordia.velocity.observer.DashboardObserver;
-import com.concordia.velocity.observer.Observer;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
-import com.google.firebase.cloud.FirestoreClient;
+import com.concordia.velocity.observer.JournalObserver;
+import com.concordia.velocity.repository.BikeRepository;
+import com.concordia.velocity.repository.DockRepository;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 @Service
 public class DockService {
 
-    private final Firestore db = FirestoreClient.getFirestore();
+    private final DockRepository dockRepository;
+    private final BikeRepository bikeRepository;
+    private final FleetCache fleetCache;
+
+    public DockService(DockRepository dockRepository, BikeRepository bikeRepository, FleetCache fleetCache) {
+        this.dockRepository = dockRepository;
+        this.bikeRepository = bikeRepository;
+        this.fleetCache = fleetCache;
+    }
 
     //Updates a dock’s status while validating bike state.
 
     public String updateDockStatus(String dockId, String newStatus)
             throws ExecutionException, InterruptedException {
 
-        DocumentSnapshot doc = db.collection("docks").document(dockId).get().get();
-        Dock dock = doc.toObject(Dock.class);
+        Dock dock = dockRepository.findById(dockId);
 
         if (dock == null) {
             throw new IllegalArgumentException("Dock not found: " + dockId);
@@ -34,62 +40,56 @@ public class DockService {
             throw new IllegalArgumentException("Invalid dock status: " + newStatus);
         }
 
+        // Attached before any change so the journal sees the old status
+        JournalObserver journal = new JournalObserver();
+        DashboardObserver dashboard = new DashboardObserver();
+        dock.attach(journal);
+        dashboard.watch(dock);
+
         // If dock has an associated bike, check its status
         if (dock.getBikeId() != null && !dock.getBikeId().isEmpty()) {
-            DocumentSnapshot bikeDoc = db.collection("bikes")
-                                         .document(dock.getBikeId())
-                                         .get().get();
-            Bike bike = bikeDoc.toObject(Bike.class);
+            Bike bike = bikeRepository.findById(dock.getBikeId());
 
             if (bike != null && "reserved".equalsIgnoreCase(bike.getStatus())) {
                 // terminate reservation before proceeding
-                terminateReservation(bike.getBikeId());
+                bike.attach(journal);
+                dashboard.watch(bike);
+                terminateReservation(bike);
                 bike.setStatus("available");
-                db.collection("bikes").document(bike.getBikeId()).set(bike);
+                bike.notifyObservers();
+                bikeRepository.save(bike);
                 System.out.println("Reservation terminated for bike " + bike.getBikeId());
             }
         }
 
 
         dock.setStatus(newStatus);
-        db.collection("docks").document(dockId).set(dock);
-
-
-        Observer dashboardObserver = new DashboardObserver();
-        dock.attach(dashboardObserver);
+        dockRepository.save(dock);
 
         dock.notifyObservers();
+        journal.commit(null);
+        dashboard.publish();
 
         return "Dock " + dockId + " updated to status: " + dock.getStatus();
     }
 
-    private void terminateReservation(String bikeId)
-            throws ExecutionException, InterruptedException {
-        var reservations = db.collection("reservations")
-                             .whereEqualTo("bikeId", bikeId)
-                             .get()
-                             .get()
-                             .getDocuments();
-
-        for (DocumentSnapshot res : reservations) {
-            db.collection("reservations").document(res.getId()).delete();
-        }
-        System.out.println("Reservation entries for bike " + bikeId + " cleaned up.");
+    // Clears the reservation holder/expiry and stops the expiry timer
+    private void terminateReservation(Bike bike) {
+        bike.clearReservation();
+        System.out.println("Reservation entries for bike " + bike.getBikeId() + " cleaned up.");
     }
 
 
     public Dock getDockById(String dockId)
             throws ExecutionException, InterruptedException {
-        DocumentSnapshot doc = db.collection("docks").document(dockId).get().get();
-        return doc.toObject(Dock.class);
+        return dockRepository.findById(dockId);
     }
 
+    /**
+     * Served from the fleet cache; the returned docks are read-only
+     */
     public List<Dock> getAllDocks()
             throws ExecutionException, InterruptedException {
-        List<Dock> docks = new ArrayList<>();
-        for (DocumentSnapshot doc : db.collection("docks").get().get().getDocuments()) {
-            docks.add(doc.toObject(Dock.class));
-        }
-        return docks;
+        return fleetCache.getAllDocks();
     }
 }
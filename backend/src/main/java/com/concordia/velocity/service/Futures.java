@@ -0,0 +1,43 @@
+package com.concordia.velocity.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Helpers shared by the async service methods and the controllers that return them
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * The exception a future failed with, without the CompletionException/ExecutionException wrappers
+     * that each dependent stage adds
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * Waits for an async service call on behalf of its blocking counterpart
+     * Validation failures are rethrown unwrapped, as the blocking methods always have, so callers
+     * can keep mapping them to 400 and 409.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws ExecutionException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof IllegalArgumentException || cause instanceof IllegalStateException) {
+                throw (RuntimeException) cause;
+            }
+            throw cause instanceof Exception ? new ExecutionException(cause) : e;
+        }
+    }
+}
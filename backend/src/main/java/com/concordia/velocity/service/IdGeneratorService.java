@@ -1,33 +1,49 @@
 package com.concordia.velocity.service;
 
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
-import com.google.firebase.cloud.FirestoreClient;
+import com.concordia.velocity.repository.CounterRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service for generating sequential IDs for Trips and Bills
- * Maintains counters in Firestore to ensure uniqueness across server restarts
+ * Maintains counters in the store to ensure uniqueness across server restarts
+ *
+ * IDs are allocated hi/lo: each node leases a block of velocity.ids.block-size values from the
+ * stored counter in one write and hands them out from memory, so the counter document is only
+ * touched once per block. IDs stay unique across nodes but are no longer strictly ordered between
+ * them, and values left in a block when the node stops are skipped.
  */
 @Service
 public class IdGeneratorService {
 
-    private final Firestore db = FirestoreClient.getFirestore();
-
-    // Collection to store counters
-    private static final String COUNTERS_COLLECTION = "counters";
+    // Counter document names
     private static final String TRIP_COUNTER_DOC = "tripCounter";
     private static final String BILL_COUNTER_DOC = "billCounter";
 
+    private final CounterRepository counterRepository;
+    private final BlockAllocator tripIds;
+    private final BlockAllocator billIds;
+
+    public IdGeneratorService(CounterRepository counterRepository,
+                              @Value("${velocity.ids.block-size:50}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("ID block size must be at least 1: " + blockSize);
+        }
+        this.counterRepository = counterRepository;
+        this.tripIds = new BlockAllocator(TRIP_COUNTER_DOC, blockSize);
+        this.billIds = new BlockAllocator(BILL_COUNTER_DOC, blockSize);
+    }
+
     /**
      * Generates next trip ID in format: T0001, T0002, etc.
      */
     public String generateTripId() throws ExecutionException, InterruptedException {
-        int nextNumber = getAndIncrementCounter(TRIP_COUNTER_DOC);
+        int nextNumber = tripIds.next();
         return String.format("T%04d", nextNumber);
     }
 
@@ -35,42 +51,19 @@ public class IdGeneratorService {
      * Generates next bill ID in format: BILL0001, BILL0002, etc.
      */
     public String generateBillId() throws ExecutionException, InterruptedException {
-        int nextNumber = getAndIncrementCounter(BILL_COUNTER_DOC);
+        int nextNumber = billIds.next();
         return String.format("BILL%04d", nextNumber);
     }
 
     /**
-     * Gets the current counter value and increments it atomically
+     * Like generateTripId, but waits for a block lease without holding a thread
      */
-    private int getAndIncrementCounter(String counterName) throws ExecutionException, InterruptedException {
-        // Use Firestore transaction to ensure atomic increment
-        return db.runTransaction(transaction -> {
-            DocumentSnapshot snapshot = transaction.get(
-                    db.collection(COUNTERS_COLLECTION).document(counterName)
-            ).get();
-
-            int currentValue;
-            if (!snapshot.exists()) {
-                // First time - initialize counter
-                currentValue = 1;
-            } else {
-                currentValue = snapshot.getLong("value").intValue();
-            }
-
-            // Increment counter
-            int nextValue = currentValue + 1;
-
-            Map<String, Object> data = new HashMap<>();
-            data.put("value", nextValue);
-            data.put("lastUpdated", com.google.cloud.Timestamp.now());
-
-            transaction.set(
-                    db.collection(COUNTERS_COLLECTION).document(counterName),
-                    data
-            );
+    public CompletableFuture<String> generateTripIdAsync() {
+        return tripIds.nextAsync().thenApply(nextNumber -> String.format("T%04d", nextNumber));
+    }
 
-            return currentValue;
-        }).get();
+    public CompletableFuture<String> generateBillIdAsync() {
+        return billIds.nextAsync().thenApply(nextNumber -> String.format("BILL%04d", nextNumber));
     }
 
     /**
@@ -78,14 +71,7 @@ public class IdGeneratorService {
      * Useful for testing or migration
      */
     public void resetTripCounter(int value) throws ExecutionException, InterruptedException {
-        Map<String, Object> data = new HashMap<>();
-        data.put("value", value);
-        data.put("lastUpdated", com.google.cloud.Timestamp.now());
-
-        db.collection(COUNTERS_COLLECTION)
-                .document(TRIP_COUNTER_DOC)
-                .set(data)
-                .get();
+        tripIds.reset(value);
     }
 
     /**
@@ -93,45 +79,113 @@ public class IdGeneratorService {
      * Useful for testing or migration
      */
     public void resetBillCounter(int value) throws ExecutionException, InterruptedException {
-        Map<String, Object> data = new HashMap<>();
-        data.put("value", value);
-        data.put("lastUpdated", com.google.cloud.Timestamp.now());
-
-        db.collection(COUNTERS_COLLECTION)
-                .document(BILL_COUNTER_DOC)
-                .set(data)
-                .get();
+        billIds.reset(value);
     }
 
     /**
      * Gets the current trip counter value without incrementing
+     * This is the first value not yet leased by any node
      */
     public int getCurrentTripCounter() throws ExecutionException, InterruptedException {
-        DocumentSnapshot snapshot = db.collection(COUNTERS_COLLECTION)
-                .document(TRIP_COUNTER_DOC)
-                .get()
-                .get();
-
-        if (!snapshot.exists()) {
-            return 0;
-        }
-
-        return snapshot.getLong("value").intValue();
+        return counterRepository.get(TRIP_COUNTER_DOC);
     }
 
     /**
      * Gets the current bill counter value without incrementing
+     * This is the first value not yet leased by any node
      */
     public int getCurrentBillCounter() throws ExecutionException, InterruptedException {
-        DocumentSnapshot snapshot = db.collection(COUNTERS_COLLECTION)
-                .document(BILL_COUNTER_DOC)
-                .get()
-                .get();
+        return counterRepository.get(BILL_COUNTER_DOC);
+    }
 
-        if (!snapshot.exists()) {
-            return 0;
+    /**
+     * Hands out values from a leased [next, end) range, leasing a new block when it runs out
+     */
+    private final class BlockAllocator {
+        private final String counterName;
+        private final int blockSize;
+        private final ReentrantLock leaseLock = new ReentrantLock();
+        private volatile Block block = new Block(0, 0);
+        // the lease in flight; callers that find the same block exhausted wait on it instead of leasing again
+        private Lease lease;
+
+        BlockAllocator(String counterName, int blockSize) {
+            this.counterName = counterName;
+            this.blockSize = blockSize;
         }
 
-        return snapshot.getLong("value").intValue();
+        int next() throws ExecutionException, InterruptedException {
+            while (true) {
+                Block current = block;
+                int value = current.next.getAndIncrement();
+                if (value < current.end) {
+                    return value;
+                }
+                lease(current).get();
+            }
+        }
+
+        CompletableFuture<Integer> nextAsync() {
+            Block current = block;
+            int value = current.next.getAndIncrement();
+            if (value < current.end) {
+                return CompletableFuture.completedFuture(value);
+            }
+            return lease(current).thenCompose(leased -> nextAsync());
+        }
+
+        /**
+         * Starts leasing the block that replaces the exhausted one, unless a lease for it is already in flight
+         */
+        private CompletableFuture<Void> lease(Block exhausted) {
+            leaseLock.lock();
+            try {
+                if (block != exhausted) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                if (lease == null || lease.exhausted() != exhausted || lease.done().isCompletedExceptionally()) {
+                    CompletableFuture<Void> done = counterRepository.getAndAddAsync(counterName, blockSize)
+                            .thenAccept(start -> install(exhausted, new Block(start, start + blockSize)));
+                    lease = new Lease(exhausted, done);
+                }
+                return lease.done();
+            } finally {
+                leaseLock.unlock();
+            }
+        }
+
+        private void install(Block exhausted, Block leased) {
+            leaseLock.lock();
+            try {
+                // a reset meanwhile wins; the leased values are skipped
+                if (block == exhausted) {
+                    block = leased;
+                }
+            } finally {
+                leaseLock.unlock();
+            }
+        }
+
+        void reset(int value) throws ExecutionException, InterruptedException {
+            leaseLock.lock();
+            try {
+                counterRepository.set(counterName, value);
+                block = new Block(0, 0);
+            } finally {
+                leaseLock.unlock();
+            }
+        }
+    }
+
+    private record Lease(Block exhausted, CompletableFuture<Void> done) {}
+
+    private static final class Block {
+        private final AtomicInteger next;
+        private final int end;
+
+        Block(int start, int end) {
+            this.next = new AtomicInteger(start);
+            this.end = end;
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,19 +2,23 @@ package com.concordia.velocity.service;
 
 import com.concordia.velocity.model.Rider;
 import com.concordia.velocity.model.RiderStats;
+import com.concordia.velocity.model.RiderStatsAggregate;
 import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.RiderRepository;
+import com.concordia.velocity.repository.TransactionRunner;
+import com.concordia.velocity.repository.TripRepository;
 import org.springframework.stereotype.Service;
 import com.google.cloud.Timestamp;
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QueryDocumentSnapshot;
-import com.google.firebase.cloud.FirestoreClient;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.WeekFields;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.lang.InterruptedException;
 
@@ -24,10 +28,13 @@ import java.lang.InterruptedException;
  * This service computes ALL historical metrics required by the Loyalty Tier
  * System.
  *
- * It does NOT store anything in Firestore.
- * It simply reads:
- * - all trips belonging to a given rider
- * and transforms this raw trip data into a RiderStats object.
+ * Day to day, tiers are evaluated from the RiderStatsAggregate stored on the
+ * rider, which this service updates in O(1) when a trip starts, completes or
+ * is abandoned, or a reservation is missed.
+ *
+ * computeStats is the full recompute: it reads all trips belonging to a
+ * given rider and transforms this raw trip data into a RiderStats object.
+ * reconcile uses the same history to rebuild the stored aggregate.
  *
  * TierState classes (EntryState, BronzeState, SilverState, GoldState)
  * will call RiderStats helper methods to validate eligibility.
@@ -35,33 +42,241 @@ import java.lang.InterruptedException;
 @Service
 public class LoyaltyStatsService {
 
-    private final Firestore db = FirestoreClient.getFirestore();
+    private final TripRepository tripRepository;
+    private final RiderRepository riderRepository;
+    private final TransactionRunner transactionRunner;
 
-    public LoyaltyStatsService() {
+    public LoyaltyStatsService(TripRepository tripRepository, RiderRepository riderRepository,
+                               TransactionRunner transactionRunner) {
+        this.tripRepository = tripRepository;
+        this.riderRepository = riderRepository;
+        this.transactionRunner = transactionRunner;
     }
 
+    // ---------------------------------------------------------------------
+    // STORED AGGREGATE
+    // ---------------------------------------------------------------------
+
+    /**
+     * Counts a just-started trip as a bike the rider has out (building the aggregate first if the rider has none)
+     * The caller persists rider.getLoyaltyStats() along with the trip; the history a first build reads
+     * does not include the new trip yet.
+     */
+    public CompletableFuture<RiderStatsAggregate> recordStartedTripAsync(Rider rider) {
+        return aggregateForAsync(rider).thenApply(aggregate -> {
+            aggregate.recordTripStarted();
+            return aggregate;
+        });
+    }
+
+    /**
+     * Counts a just-abandoned trip as no longer out, without counting it as a completed trip
+     * The caller persists rider.getLoyaltyStats() along with the trip.
+     */
+    public RiderStatsAggregate recordAbandonedTrip(Rider rider) throws ExecutionException, InterruptedException {
+        RiderStatsAggregate aggregate = aggregateFor(rider);
+        aggregate.recordTripClosed();
+        return aggregate;
+    }
+
+    /**
+     * Counts a just-completed trip in the rider's aggregate (building it first if the rider has none)
+     * The caller persists rider.getLoyaltyStats() along with the trip.
+     */
+    public RiderStatsAggregate recordCompletedTrip(Rider rider, Trip trip) throws ExecutionException, InterruptedException {
+        return Futures.await(recordCompletedTripAsync(rider, trip));
+    }
+
+    /**
+     * Async counterpart of recordCompletedTrip
+     * Completes at once for a rider with stored stats; otherwise once the trip history read behind
+     * the rebuild is back, without a thread waiting on it.
+     */
+    public CompletableFuture<RiderStatsAggregate> recordCompletedTripAsync(Rider rider, Trip trip) {
+        return aggregateForAsync(rider).thenApply(aggregate -> {
+            LocalDate startDay = getDate(trip.getStartTime());
+            aggregate.recordTrip(startDay != null ? startDay : LocalDate.now(), LocalDate.now());
+            aggregate.recordTripClosed();
+            return aggregate;
+        });
+    }
+
+    /**
+     * Counts a missed reservation, re-evaluates the rider's tier and saves both atomically
+     * The missed timestamp itself must already be on the rider (UserService.recordMissedReservation).
+     * @return the tier change, or null if the tier stayed the same or the rider does not exist
+     */
+    public Rider.TierChange recordMissedReservation(String riderId) throws ExecutionException, InterruptedException {
+        return transactionRunner.runInTransaction(txn -> {
+            Rider rider = txn.getRider(riderId);
+            if (rider == null) return null;
+
+            // A freshly built aggregate already includes this miss from the rider's timestamps
+            boolean rebuilt = rider.getLoyaltyStats() == null;
+            RiderStatsAggregate aggregate = aggregateFor(rider);
+            if (!rebuilt) {
+                aggregate.recordMissedReservation(LocalDate.now(), LocalDate.now());
+            }
+
+            Rider.TierChange tierChange = rider.evaluateTier();
+
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("tier", rider.getTierName());
+            updates.put("loyaltyStats", aggregate);
+            txn.updateRider(riderId, updates);
+            return tierChange;
+        });
+    }
+
+    /**
+     * Records several missed reservations for one rider in a single transaction
+     * Appends the timestamps, counts them in the aggregate and re-evaluates the tier,
+     * so a batch of expiries costs one read and one write per rider instead of per miss.
+     * @return the tier change, or null if the tier stayed the same or the rider does not exist
+     */
+    public Rider.TierChange recordMissedReservations(String riderId, List<Timestamp> missedAt)
+            throws ExecutionException, InterruptedException {
+        return transactionRunner.runInTransaction(txn -> {
+            Rider rider = txn.getRider(riderId);
+            if (rider == null) return null;
+
+            // built before the new timestamps are added, so each miss is counted once
+            RiderStatsAggregate aggregate = aggregateFor(rider);
+            List<Timestamp> timestamps = rider.getMissedReservationTimestamps() != null
+                    ? new ArrayList<>(rider.getMissedReservationTimestamps()) : new ArrayList<>();
+            LocalDate today = LocalDate.now();
+            for (Timestamp missed : missedAt) {
+                if (timestamps.contains(missed)) continue;
+                timestamps.add(missed);
+                aggregate.recordMissedReservation(getDate(missed), today);
+            }
+            rider.setMissedReservationTimestamps(timestamps);
+
+            Rider.TierChange tierChange = rider.evaluateTier();
+
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("missedReservationTimestamps", timestamps);
+            updates.put("tier", rider.getTierName());
+            updates.put("loyaltyStats", aggregate);
+            txn.updateRider(riderId, updates);
+            return tierChange;
+        });
+    }
+
+    /**
+     * Rebuilds the rider's aggregate from the full trip history and saves it
+     * The reconciliation path for riders whose aggregate is missing or has drifted.
+     * @return the stats derived from the rebuilt aggregate, or null if the rider does not exist
+     */
+    public RiderStats reconcile(String riderId) throws ExecutionException, InterruptedException {
+        Rider rider = loadRider(riderId);
+        if (rider == null) return null;
+
+        RiderStatsAggregate previous = rider.getLoyaltyStats();
+        RiderStatsAggregate rebuilt = rebuildAggregate(riderId, rider);
+        LocalDate today = LocalDate.now();
+        if (previous != null) {
+            previous.rollForward(today);
+            if (!previous.getTripsByDay().equals(rebuilt.getTripsByDay())
+                    || !previous.getMissedByDay().equals(rebuilt.getMissedByDay())
+                    || previous.getActiveTrips() != rebuilt.getActiveTrips()) {
+                System.out.println("Loyalty stats for rider " + riderId + " drifted, was " + previous + ", now " + rebuilt);
+            }
+        }
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("loyaltyStats", rebuilt);
+        riderRepository.update(riderId, updates);
+        return rebuilt.toRiderStats(today);
+    }
+
+    /**
+     * The rider's stored aggregate, built from history and attached to the rider the first time
+     */
+    private RiderStatsAggregate aggregateFor(Rider rider) throws ExecutionException, InterruptedException {
+        if (rider.getLoyaltyStats() == null) {
+            rider.setLoyaltyStats(rebuildAggregate(rider.getId(), rider));
+        }
+        return rider.getLoyaltyStats();
+    }
+
+    private CompletableFuture<RiderStatsAggregate> aggregateForAsync(Rider rider) {
+        if (rider.getLoyaltyStats() != null) {
+            return CompletableFuture.completedFuture(rider.getLoyaltyStats());
+        }
+        return tripRepository.findByRiderIdAsync(rider.getId()).thenApply(trips -> {
+            rider.setLoyaltyStats(buildAggregate(trips, rider.getMissedReservationTimestamps(), LocalDate.now()));
+            return rider.getLoyaltyStats();
+        });
+    }
+
+    /**
+     * Counts completed trips by start day and missed reservations by day from the stored history
+     * Active trips are only counted as bikes still out; they count as trips when they complete.
+     */
+    private RiderStatsAggregate rebuildAggregate(String riderId, Rider rider) throws ExecutionException, InterruptedException {
+        return buildAggregate(tripRepository.findByRiderId(riderId), rider.getMissedReservationTimestamps(), LocalDate.now());
+    }
+
+    /**
+     * Buckets a trip history and missed reservation timestamps into an aggregate as of today
+     * Pure, so the JMH benchmarks can run it over synthetic histories.
+     */
+    RiderStatsAggregate buildAggregate(List<Trip> trips, List<Timestamp> missedReservations, LocalDate today) {
+        RiderStatsAggregate aggregate = new RiderStatsAggregate();
+
+        for (Trip trip : trips) {
+            if (trip != null && Trip.STATUS_ACTIVE.equalsIgnoreCase(trip.getStatus())) {
+                aggregate.recordTripStarted();
+                continue;
+            }
+            if (trip == null || !Trip.STATUS_COMPLETED.equalsIgnoreCase(trip.getStatus())) continue;
+            LocalDate date = getDate(trip.getStartTime());
+            if (date != null) aggregate.recordTrip(date, today);
+        }
+        if (missedReservations != null) {
+            for (Timestamp missed : missedReservations) {
+                LocalDate date = getDate(missed);
+                if (date != null) aggregate.recordMissedReservation(date, today);
+            }
+        }
+        aggregate.rollForward(today);
+        return aggregate;
+    }
+
+    // ---------------------------------------------------------------------
+    // FULL RECOMPUTE
+    // ---------------------------------------------------------------------
+
     public RiderStats computeStats(String riderId) throws ExecutionException, InterruptedException {
         List<Trip> trips = loadRiderTrips(riderId);
 
         // Get rider to access missedReservationsCount
         Rider rider = loadRider(riderId);
 
+        RiderStats stats = computeStats(trips, rider != null ? rider.getMissedReservationsLastYear() : 0);
+        System.out.println("Rider " + riderId + " has missed reservations: " + stats.getMissedReservations());
+        System.out.println("Computed stats for rider " + rider.getFirstName() + ": " + stats);
+        return stats;
+    }
+
+    /**
+     * Buckets an already loaded trip history into RiderStats, without touching the store
+     */
+    RiderStats computeStats(List<Trip> trips, int missedReservations) {
         RiderStats stats = new RiderStats();
         stats.setTripsLastYear(countTripsLastYear(trips));
-        stats.setMissedReservations(rider != null ? rider.getMissedReservationsLastYear() : 0);
-        System.out.println("Rider " + riderId + " has missed reservations: " + stats.getMissedReservations());
+        stats.setMissedReservations(missedReservations);
         stats.setSuccessfulClaims(countSuccessfulClaims(trips));
         stats.setReturnedAllBikes(hasReturnedAllBikes(trips));
         stats.setTripsPerMonth(computeTripsPerMonth(trips));
         stats.setTripsPerWeek(computeTripsPerWeek(trips));
-        System.out.println("Computed stats for rider " + rider.getFirstName() + ": " + stats);
         return stats;
     }
 
-    // load rider directly from Firestore to use in computeStats
+    // load rider directly from the store to use in computeStats
     private Rider loadRider(String riderId) throws ExecutionException, InterruptedException {
-        var doc = db.collection("riders").document(riderId).get().get();
-        return doc.exists() ? doc.toObject(Rider.class) : null;
+        return riderRepository.findById(riderId);
     }
 
     private boolean hasReturnedAllBikes(List<Trip> trips) {
@@ -74,17 +289,10 @@ public class LoyaltyStatsService {
         return true; // All bikes returned
     }
 
-    // load trips directly from Firestore
+    // load trips directly from the store
     private List<Trip> loadRiderTrips(String riderId) throws ExecutionException, InterruptedException {
-        var docs = db.collection("trips")
-                .whereEqualTo("riderId", riderId)
-                .get()
-                .get()
-                .getDocuments();
-
         List<Trip> trips = new ArrayList<>();
-        for (QueryDocumentSnapshot doc : docs) {
-            Trip t = doc.toObject(Trip.class);
+        for (Trip t : tripRepository.findByRiderId(riderId)) {
             if (t != null){
                 trips.add(t);
                 System.out.println(
@@ -0,0 +1,296 @@
+package com.concordia.velocity.service;
+
+import com.concordia.velocity.cache.FleetCache;
+import com.concordia.velocity.cache.NearbyStation;
+import com.concordia.velocity.forecast.DemandForecaster;
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Station;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Plans which bikes operators should move to bring stations back to their target fill
+ *
+ * A station above its target (plus the tolerance band) can give up the bikes over target, as long
+ * as they are available; one below it can take bikes up to target, as long as it has empty docks.
+ * Moves are chosen greedily over the station k-d tree: every short station is paired with its
+ * nearest stations that have bikes to spare, and the pairs are filled shortest first, which keeps
+ * the total bike-distance low without comparing every station with every other. Stations still
+ * short after a round look further out in the next one.
+ *
+ * The plan is read from the fleet cache and nothing is changed; each move lists concrete bikes
+ * and docks that TransferService.transferBike accepts. Moves into low-capacity stations come first.
+ *
+ * With a forecast horizon, each station is balanced on the bikes it is expected to hold at the end
+ * of it (current bikes plus DemandForecaster's net flow), so stations that are about to be drained
+ * get bikes before they run out. Only bikes available now can be moved and only docks empty now
+ * filled, whatever the forecast.
+ */
+@Service
+public class RebalancingPlanner {
+
+    public static final double DEFAULT_TARGET_FILL = 0.5;
+    public static final double DEFAULT_TOLERANCE = 0.1;
+
+    // surplus stations each short station is paired with in the first round, widened 4x per round
+    private static final int FIRST_ROUND_NEIGHBOURS = 8;
+    private static final int NEIGHBOUR_GROWTH = 4;
+
+    private final FleetCache fleetCache;
+    private final DemandForecaster demandForecaster;
+
+    public RebalancingPlanner(FleetCache fleetCache, DemandForecaster demandForecaster) {
+        this.fleetCache = fleetCache;
+        this.demandForecaster = demandForecaster;
+    }
+
+    /**
+     * One bike to move, as TransferService.transferBike takes it
+     */
+    public record Transfer(String bikeId, String sourceDockId, String destinationDockId) {}
+
+    /**
+     * Bikes to move from one station to another
+     */
+    public record Move(String sourceStationId, String destinationStationId, int bikes, double distanceMeters,
+                       boolean lowCapacityDestination, List<Transfer> transfers) {}
+
+    /**
+     * An ordered list of moves with what it achieves
+     * @param bikeMeters sum over moved bikes of the distance each travels
+     * @param unmetDemand bikes still missing at short stations once every spare bike is placed
+     * @param unusedSurplus spare bikes that no short station needs
+     */
+    public record RebalancingPlan(List<Move> moves, int bikesMoved, double bikeMeters, int unmetDemand,
+                                  int unusedSurplus, int stationsPlanned, long elapsedMillis) {}
+
+    /**
+     * Plans with the same target fill for every station
+     */
+    public RebalancingPlan plan(double targetFill, double tolerance) throws ExecutionException, InterruptedException {
+        return plan(targetFill, tolerance, Map.of(), 0);
+    }
+
+    /**
+     * Plans on current counts, with a target fill per station
+     */
+    public RebalancingPlan plan(double targetFill, double tolerance, Map<String, Double> stationTargets)
+            throws ExecutionException, InterruptedException {
+        return plan(targetFill, tolerance, stationTargets, 0);
+    }
+
+    /**
+     * Plans towards a target fill (docked bikes / capacity) per station
+     * @param targetFill fill for stations without their own target
+     * @param tolerance stations within this fill of their target are left alone
+     * @param stationTargets target fill of particular stations, by station ID
+     * @param horizonHours hours of forecast demand to plan ahead for, or 0 to plan on current counts
+     */
+    public RebalancingPlan plan(double targetFill, double tolerance, Map<String, Double> stationTargets, int horizonHours)
+            throws ExecutionException, InterruptedException {
+        validateFill(targetFill, "Target fill");
+        if (!(tolerance >= 0 && tolerance < 1)) {
+            throw new IllegalArgumentException("Tolerance must be at least 0 and below 1");
+        }
+        stationTargets = stationTargets != null ? stationTargets : Map.of();
+        for (Map.Entry<String, Double> target : stationTargets.entrySet()) {
+            validateFill(target.getValue(), "Target fill of " + target.getKey());
+        }
+        if (horizonHours < 0 || horizonHours > DemandForecaster.MAX_HORIZON_HOURS) {
+            throw new IllegalArgumentException("Horizon must be between 0 and " + DemandForecaster.MAX_HORIZON_HOURS + " hours");
+        }
+        Map<String, Double> netFlow = horizonHours > 0 ? demandForecaster.netFlow(horizonHours) : Map.of();
+
+        long started = System.nanoTime();
+
+        // 1. Bikes each station can give up or take
+        Map<String, Balance> surplus = new HashMap<>();
+        List<Balance> deficits = new ArrayList<>();
+        for (Station station : fleetCache.getAllStations()) {
+            Balance balance = balance(station, stationTargets.getOrDefault(station.getStationId(), targetFill), tolerance,
+                    netFlow.getOrDefault(station.getStationId(), 0.0));
+            if (balance == null) continue;
+            if (balance.remaining > 0) {
+                surplus.put(station.getStationId(), balance);
+            } else if (balance.remaining < 0) {
+                balance.remaining = -balance.remaining;
+                deficits.add(balance);
+            }
+        }
+
+        // 2. Pair short stations with nearby spare bikes, shortest pairs first
+        Map<String, Map<String, Flow>> flows = new LinkedHashMap<>();
+        int spare = surplus.values().stream().mapToInt(b -> b.remaining).sum();
+        int neighbours = FIRST_ROUND_NEIGHBOURS;
+        List<Balance> open = deficits;
+        while (spare > 0 && !open.isEmpty()) {
+            List<Edge> edges = new ArrayList<>();
+            for (Balance deficit : open) {
+                List<NearbyStation> nearby = fleetCache.findNearestStations(deficit.latitude, deficit.longitude, neighbours,
+                        station -> {
+                            Balance giver = surplus.get(station.getStationId());
+                            return giver != null && giver.remaining > 0;
+                        });
+                for (NearbyStation candidate : nearby) {
+                    edges.add(new Edge(surplus.get(candidate.station().getStationId()), deficit, candidate.distanceMeters()));
+                }
+            }
+            edges.sort(Comparator.comparingDouble(Edge::distanceMeters));
+
+            for (Edge edge : edges) {
+                int bikes = Math.min(edge.source.remaining, edge.destination.remaining);
+                if (bikes <= 0) continue;
+                edge.source.remaining -= bikes;
+                edge.destination.remaining -= bikes;
+                spare -= bikes;
+                flows.computeIfAbsent(edge.source.stationId, k -> new LinkedHashMap<>())
+                        .computeIfAbsent(edge.destination.stationId, k -> new Flow(edge.source, edge.destination, edge.distanceMeters))
+                        .bikes += bikes;
+            }
+
+            // every spare bike was in reach of this round, so a wider one cannot place more
+            if (neighbours >= surplus.size()) break;
+            neighbours = (int) Math.min((long) neighbours * NEIGHBOUR_GROWTH, surplus.size());
+            open = open.stream().filter(deficit -> deficit.remaining > 0).toList();
+        }
+
+        // 3. Order the moves and pick the bikes and docks for each
+        List<Flow> ordered = new ArrayList<>();
+        flows.values().forEach(to -> ordered.addAll(to.values()));
+        ordered.sort(Comparator.comparing((Flow flow) -> !flow.destination.lowCapacity)
+                .thenComparing(Comparator.comparingInt((Flow flow) -> flow.destination.shortfall).reversed())
+                .thenComparingDouble(flow -> flow.distanceMeters));
+
+        Map<String, Iterator<Bike>> bikesBySource = new HashMap<>();
+        Map<String, Iterator<String>> docksByDestination = new HashMap<>();
+        List<Move> moves = new ArrayList<>(ordered.size());
+        int bikesMoved = 0;
+        double bikeMeters = 0;
+        for (Flow flow : ordered) {
+            Iterator<Bike> bikes = bikesBySource.computeIfAbsent(flow.source.stationId, this::movableBikes);
+            Iterator<String> docks = docksByDestination.computeIfAbsent(flow.destination.stationId, this::emptyDocks);
+            List<Transfer> transfers = new ArrayList<>(flow.bikes);
+            while (transfers.size() < flow.bikes && bikes.hasNext() && docks.hasNext()) {
+                Bike bike = bikes.next();
+                transfers.add(new Transfer(bike.getBikeId(), bike.getDockId(), docks.next()));
+            }
+            if (transfers.isEmpty()) continue;
+
+            moves.add(new Move(flow.source.stationId, flow.destination.stationId, transfers.size(), flow.distanceMeters,
+                    flow.destination.lowCapacity, transfers));
+            bikesMoved += transfers.size();
+            bikeMeters += transfers.size() * flow.distanceMeters;
+        }
+
+        int unmetDemand = deficits.stream().mapToInt(b -> b.shortfall).sum() - bikesMoved;
+        int unusedSurplus = surplus.values().stream().mapToInt(b -> b.spare).sum() - bikesMoved;
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return new RebalancingPlan(moves, bikesMoved, bikeMeters, unmetDemand, unusedSurplus,
+                surplus.size() + deficits.size(), elapsedMillis);
+    }
+
+    // Bikes over (positive) or under (negative) target, or null for a station that is left alone
+    private Balance balance(Station station, double targetFill, double tolerance, double expectedNetFlow)
+            throws ExecutionException, InterruptedException {
+        if (station.isOutOfService() || station.getCapacity() <= 0) return null;
+        double latitude = parse(station.getLatitude(), 90);
+        double longitude = parse(station.getLongitude(), 180);
+        if (Double.isNaN(latitude) || Double.isNaN(longitude)) return null;
+
+        int capacity = station.getCapacity();
+        // bikes expected at the end of the horizon; a station cannot go below empty or above full
+        int docked = (int) Math.max(0, Math.min(capacity, Math.round(station.getNumDockedBikes() + expectedNetFlow)));
+        int target = (int) Math.round(targetFill * capacity);
+        int band = (int) Math.floor(tolerance * capacity);
+
+        int remaining = 0;
+        if (docked > target + band) {
+            // only available bikes can be moved; reserved ones stay for their riders
+            remaining = Math.min(docked - target, fleetCache.countBikes(station.getStationId(), Bike.STATUS_AVAILABLE, null));
+        } else if (docked < target - band) {
+            remaining = -Math.min(target - docked, fleetCache.countEmptyDocks(station.getStationId()));
+        }
+        if (remaining == 0) return null;
+        return new Balance(station.getStationId(), latitude, longitude, station.isLowCapacity(), remaining);
+    }
+
+    private Iterator<Bike> movableBikes(String stationId) {
+        try {
+            return fleetCache.findBikes(stationId, Bike.STATUS_AVAILABLE, null).stream()
+                    .filter(bike -> bike.getDockId() != null)
+                    .iterator();
+        } catch (ExecutionException | InterruptedException e) {
+            throw new IllegalStateException("Could not read bikes at station " + stationId, e);
+        }
+    }
+
+    private Iterator<String> emptyDocks(String stationId) {
+        try {
+            return fleetCache.findEmptyDockIds(stationId).iterator();
+        } catch (ExecutionException | InterruptedException e) {
+            throw new IllegalStateException("Could not read docks at station " + stationId, e);
+        }
+    }
+
+    private static void validateFill(Double fill, String name) {
+        if (fill == null || !(fill >= 0 && fill <= 1)) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1");
+        }
+    }
+
+    private static double parse(String coordinate, double limit) {
+        if (coordinate == null) return Double.NaN;
+        try {
+            double value = Double.parseDouble(coordinate.trim());
+            return value >= -limit && value <= limit ? value : Double.NaN;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * A station's spare bikes or missing bikes, counted down as moves are planned
+     */
+    private static final class Balance {
+        private final String stationId;
+        private final double latitude;
+        private final double longitude;
+        private final boolean lowCapacity;
+        private final int spare;       // bikes over target, 0 for a short station
+        private final int shortfall;   // bikes under target, 0 for a station with spare bikes
+        private int remaining;
+
+        Balance(String stationId, double latitude, double longitude, boolean lowCapacity, int remaining) {
+            this.stationId = stationId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.lowCapacity = lowCapacity;
+            this.spare = Math.max(0, remaining);
+            this.shortfall = Math.max(0, -remaining);
+            this.remaining = remaining;
+        }
+    }
+
+    private record Edge(Balance source, Balance destination, double distanceMeters) {}
+
+    private static final class Flow {
+        private final Balance source;
+        private final Balance destination;
+        private final double distanceMeters;
+        private int bikes;
+
+        Flow(Balance source, Balance destination, double distanceMeters) {
+            this.source = source;
+            this.destination = destination;
+            this.distanceMeters = distanceMeters;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.concordia.velocity.service;
+
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.observer.DashboardObserver;
+import com.concordia.velocity.observer.JournalObserver;
+import com.concordia.velocity.observer.StatusObserver;
+import com.concordia.velocity.repository.BikeRepository;
+import com.concordia.velocity.repository.StoreTransaction;
+import com.concordia.velocity.repository.TransactionRunner;
+import com.concordia.velocity.reservation.ReservationManager;
+import com.google.cloud.Timestamp;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires bike reservations from their persisted reservationExpiry
+ *
+ * Timers only live in ReservationManager's memory, so they are driven from the stored expiry:
+ * a timer re-reads the bike and expires it only if it is still reserved and overdue.
+ * On startup the timers are rebuilt from the reserved bikes, and reservations that ran out
+ * while the server was down are expired in batches.
+ */
+@Service
+public class ReservationExpiryService {
+
+    // Firestore caps a transaction at 500 writes
+    static final int EXPIRY_CHUNK_SIZE = 500;
+
+    private final BikeRepository bikeRepository;
+    private final TransactionRunner transactionRunner;
+    private final LoyaltyStatsService loyaltyStatsService;
+
+    public ReservationExpiryService(BikeRepository bikeRepository, TransactionRunner transactionRunner,
+                                    LoyaltyStatsService loyaltyStatsService) {
+        this.bikeRepository = bikeRepository;
+        this.transactionRunner = transactionRunner;
+        this.loyaltyStatsService = loyaltyStatsService;
+    }
+
+    /**
+     * Schedules the expiry of a persisted reservation, replacing any earlier timer for the bike
+     */
+    public void schedule(Bike bike) {
+        ReservationManager.schedule(bike.getBikeId(), expiryTask(bike.getBikeId()),
+                millisUntil(bike.getReservationExpiry()), TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            recoverReservations();
+        } catch (Exception e) {
+            System.err.println("[RESERVATION RECOVERY] Error rebuilding reservation timers: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Rebuilds the expiry schedule from the store
+     * Overdue reservations are expired in batches; the rest get a timer unless one was set meanwhile
+     * @return counts of reserved, expired and scheduled bikes and the time taken
+     */
+    public Map<String, Object> recoverReservations() throws ExecutionException, InterruptedException {
+        long start = System.nanoTime();
+        List<Bike> reserved = bikeRepository.findByStatus(Bike.STATUS_RESERVED);
+
+        List<String> overdue = new ArrayList<>();
+        int scheduled = 0;
+        for (Bike bike : reserved) {
+            if (bike.getReservationExpiry() == null || bike.isReservationOverdue()) {
+                overdue.add(bike.getBikeId());
+            } else if (ReservationManager.scheduleIfAbsent(bike.getBikeId(), expiryTask(bike.getBikeId()),
+                    millisUntil(bike.getReservationExpiry()), TimeUnit.MILLISECONDS)) {
+                scheduled++;
+            }
+        }
+        int expired = expireOverdue(overdue);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("reserved", reserved.size());
+        result.put("expired", expired);
+        result.put("scheduled", scheduled);
+        result.put("millis", millis);
+        System.out.println("[RESERVATION RECOVERY] " + result);
+        return result;
+    }
+
+    /**
+     * Expires the given reservations that are still reserved and overdue, one transaction per chunk
+     * Bikes that were claimed, cancelled or re-reserved since are left alone.
+     * The misses are then recorded once per rider rather than once per bike.
+     * @return number of reservations expired
+     */
+    public int expireOverdue(Collection<String> bikeIds) throws ExecutionException, InterruptedException {
+        List<String> ids = new ArrayList<>(bikeIds);
+        Map<String, List<Timestamp>> missedByRider = new LinkedHashMap<>();
+        int expired = 0;
+        for (int from = 0; from < ids.size(); from += EXPIRY_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + EXPIRY_CHUNK_SIZE, ids.size()));
+            JournalObserver journal = new JournalObserver();
+            DashboardObserver dashboard = new DashboardObserver();
+            List<Expired> released = transactionRunner.runInTransaction(txn -> {
+                journal.discard();
+                dashboard.discard();
+                return expireChunk(txn, chunk, journal, dashboard);
+            });
+            for (Expired bike : released) {
+                notifyExpired(bike);
+                if (bike.userId() != null) {
+                    missedByRider.computeIfAbsent(bike.userId(), id -> new ArrayList<>()).add(bike.missedAt());
+                }
+            }
+            journal.commit(null);
+            dashboard.publish();
+            expired += released.size();
+        }
+
+        for (Map.Entry<String, List<Timestamp>> rider : missedByRider.entrySet()) {
+            Rider.TierChange tierChange = loyaltyStatsService.recordMissedReservations(rider.getKey(), rider.getValue());
+            if (tierChange != null) {
+                System.out.println("Tier changed for rider " + rider.getKey() + ": " + tierChange.getOldTier() + " → " + tierChange.getNewTier());
+            }
+        }
+        return expired;
+    }
+
+    private List<Expired> expireChunk(StoreTransaction txn, List<String> bikeIds, JournalObserver journal,
+                                      DashboardObserver dashboard) throws ExecutionException, InterruptedException {
+        txn.prefetch(bikeIds.stream().map(StoreTransaction.Key::bike).toArray(StoreTransaction.Key[]::new));
+
+        List<Expired> released = new ArrayList<>();
+        for (String bikeId : bikeIds) {
+            Bike bike = txn.getBike(bikeId);
+            if (bike == null || !Bike.STATUS_RESERVED.equalsIgnoreCase(bike.getStatus())) {
+                continue;
+            }
+            if (bike.getReservationExpiry() != null && !bike.isReservationOverdue()) {
+                continue;
+            }
+            String userId = bike.getReservedByUserId();
+            Timestamp missedAt = bike.getReservationExpiry() != null ? bike.getReservationExpiry() : Timestamp.now();
+            // attached before the change so each observer sees reserved -> available once notified,
+            // which only happens after the chunk commits
+            bike.attach(new StatusObserver());
+            bike.attach(journal);
+            dashboard.watch(bike);
+            bike.setStatus(Bike.STATUS_AVAILABLE);
+            bike.setReservationExpiry(null);
+            bike.setReservedByUserId(null);
+            txn.saveBike(bike);
+            released.add(new Expired(bike, userId, missedAt));
+        }
+        return released;
+    }
+
+    /**
+     * Reports the committed expiry to the observers attached in expireChunk, once
+     */
+    private void notifyExpired(Expired expired) {
+        Bike bike = expired.bike();
+        bike.notifyObservers("RESERVATION_EXPIRED userId=" + expired.userId());
+        System.out.println("Reservation expired for bike " + bike.getBikeId());
+    }
+
+    private Runnable expiryTask(String bikeId) {
+        return () -> {
+            try {
+                expireOverdue(List.of(bikeId));
+            } catch (ExecutionException | InterruptedException e) {
+                System.err.println("Error expiring reservation for bike " + bikeId + ": " + e.getMessage());
+            }
+        };
+    }
+
+    private record Expired(Bike bike, String userId, Timestamp missedAt) {}
+
+    private static long millisUntil(Timestamp expiry) {
+        long expiryMillis = expiry.getSeconds() * 1000 + expiry.getNanos() / 1_000_000;
+        return Math.max(0, expiryMillis - System.currentTimeMillis());
+    }
+}
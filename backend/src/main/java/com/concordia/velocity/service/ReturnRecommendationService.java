@@ -0,0 +1,112 @@
+package com.concordia.velocity.service;
+
+import com.concordia.velocity.cache.FleetCache;
+import com.concordia.velocity.cache.NearbyStation;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Station;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Recommends where a rider should return a bike, before they ride there
+ *
+ * Nearby stations that accept bikes are ranked by distance plus a penalty that grows as their free
+ * docks run out, since the last free dock at a station is the one most likely to be taken before
+ * the rider arrives. Each recommendation names a concrete empty dock to end the trip at.
+ *
+ * Answered from the fleet cache's station and dock indexes, so it costs no store reads; endTrip
+ * still validates the dock when the bike is returned.
+ */
+@Service
+public class ReturnRecommendationService {
+
+    public static final int MAX_RECOMMENDATIONS = 20;
+
+    // added to the distance of a station with one free dock; half as much with two, and so on
+    static final double SCARCITY_PENALTY_METERS = 300.0;
+
+    // stations looked at per recommendation asked for, so a few full ones don't leave the list short
+    private static final int CANDIDATES_PER_RECOMMENDATION = 4;
+    private static final int MIN_CANDIDATES = 10;
+
+    private final FleetCache fleetCache;
+
+    public ReturnRecommendationService(FleetCache fleetCache) {
+        this.fleetCache = fleetCache;
+    }
+
+    /**
+     * A station and one of its empty docks to return a bike to
+     */
+    public record ReturnRecommendation(String stationId, String stationName, String dockId, int freeDocks,
+                                       double distanceMeters) {}
+
+    /**
+     * Up to k places to return a bike near a point, best first
+     */
+    public List<ReturnRecommendation> recommend(double latitude, double longitude, int k)
+            throws ExecutionException, InterruptedException {
+        validate(latitude, longitude, k);
+        return rank(latitude, longitude, k, null);
+    }
+
+    /**
+     * Up to k places to return a bike instead of the given dock, near its station
+     * Used when a return fails because the dock was taken or its station is full or out of service.
+     */
+    public List<ReturnRecommendation> recommendInsteadOf(String dockId, int k)
+            throws ExecutionException, InterruptedException {
+        Dock dock = fleetCache.getCachedDock(dockId);
+        Station station = dock != null && dock.getStationId() != null ? fleetCache.getCachedStation(dock.getStationId()) : null;
+        if (station == null || station.getLatitude() == null || station.getLongitude() == null) {
+            return List.of();
+        }
+        try {
+            double latitude = Double.parseDouble(station.getLatitude().trim());
+            double longitude = Double.parseDouble(station.getLongitude().trim());
+            validate(latitude, longitude, k);
+            return rank(latitude, longitude, k, station.getStationId());
+        } catch (IllegalArgumentException e) {
+            return List.of(); // the station has no usable location
+        }
+    }
+
+    private List<ReturnRecommendation> rank(double latitude, double longitude, int k, String excludedStationId)
+            throws ExecutionException, InterruptedException {
+        int candidates = Math.max(MIN_CANDIDATES, k * CANDIDATES_PER_RECOMMENDATION);
+        List<NearbyStation> nearby = fleetCache.findNearestStations(latitude, longitude, candidates, false, true);
+
+        List<ReturnRecommendation> ranked = new ArrayList<>(nearby.size());
+        for (NearbyStation candidate : nearby) {
+            Station station = candidate.station();
+            if (station.getStationId().equals(excludedStationId)) continue;
+
+            // the dock index is what a return needs; the station's counters can lag a dock out of service
+            List<String> emptyDocks = fleetCache.findEmptyDockIds(station.getStationId());
+            if (emptyDocks.isEmpty()) continue;
+
+            ranked.add(new ReturnRecommendation(station.getStationId(), station.getStationName(), emptyDocks.get(0),
+                    emptyDocks.size(), candidate.distanceMeters()));
+        }
+
+        ranked.sort(Comparator.comparingDouble(ReturnRecommendationService::score));
+        return ranked.size() > k ? List.copyOf(ranked.subList(0, k)) : ranked;
+    }
+
+    static double score(ReturnRecommendation recommendation) {
+        return recommendation.distanceMeters() + SCARCITY_PENALTY_METERS / recommendation.freeDocks();
+    }
+
+    private static void validate(double latitude, double longitude, int k) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        if (k < 1 || k > MAX_RECOMMENDATIONS) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_RECOMMENDATIONS);
+        }
+    }
+}
@@ -2,12 +2,14 @@
 
 package com.concordia.velocity.service;
 
+import com.concordia.velocity.cache.FleetCache;
+import com.concordia.velocity.cache.NearbyStation;
+import com.concordia.velocity.model.Bike;
 import com.concordia.velocity.model.Station;
 import com.concordia.velocity.observer.DashboardObserver;
-import com.concordia.velocity.observer.Observer;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
-import com.google.firebase.cloud.FirestoreClient;
+import com.concordia.velocity.observer.JournalObserver;
+import com.concordia.velocity.repository.BikeRepository;
+import com.concordia.velocity.repository.StationRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -18,34 +20,47 @@ import java.util.concurrent.ExecutionException;
 @Service
 public class StationService {
 
-    private final Firestore db = FirestoreClient.getFirestore();
+    public static final int MAX_NEARBY_STATIONS = 100;
+
+    private final StationRepository stationRepository;
+    private final BikeRepository bikeRepository;
+    private final FleetCache fleetCache;
+
+    public StationService(StationRepository stationRepository, BikeRepository bikeRepository, FleetCache fleetCache) {
+        this.stationRepository = stationRepository;
+        this.bikeRepository = bikeRepository;
+        this.fleetCache = fleetCache;
+    }
 
     // This handles the logic for updating a station's status by validating status changes, enforing reservation rules, and emitting observer events
     public String updateStationStatus(String stationId, String newStatus) throws ExecutionException, InterruptedException {
-        Station station = db.collection("stations").document(stationId)
-                .get().get().toObject(Station.class);
+        Station station = stationRepository.findById(stationId);
 
         if (station == null) {
             return "Station not found.";
         }
 
         // Attaches observers
-        Observer dashboardObserver = new DashboardObserver();
+        DashboardObserver dashboard = new DashboardObserver();
+        JournalObserver journal = new JournalObserver();
 
-        station.attach(dashboardObserver);
+        dashboard.watch(station);
+        station.attach(journal);
 
         
         if (newStatus.equals("out_of_service")) {
             station.setStatus("out_of_service");
         } else if (Arrays.asList("empty", "occupied", "full").contains(newStatus)) {
-            if (noReservedBikes(station)) {
+            // One batched read for the whole station instead of one round-trip per bike
+            List<Bike> bikes = findBikesAt(station);
+            if (noReservedBikes(bikes)) {
                 // No reservations, so activates normally
                 String computedStatus = determineActiveStatus(station);
                 station.setStatus(computedStatus);
 
             } else {
                 // Has reservations, so terminate and then activate
-                terminateReservations(station);
+                terminateReservations(bikes, journal, dashboard);
                 String computedStatus = determineActiveStatus(station);
                 station.setStatus(computedStatus);
             }
@@ -53,25 +68,27 @@ public class StationService {
             throw new IllegalArgumentException("Invalid station status: " + newStatus + "\n");
         }
         station.notifyObservers();
-        db.collection("stations").document(stationId).set(station);
+        stationRepository.save(station);
+        journal.commit(null);
+        dashboard.publish();
         return "Station " + stationId + " updated to status:  " + station.getStatus();
     }
 
-    // Checks if any bikes at the station are still reserved
-    private boolean noReservedBikes(Station station) throws ExecutionException, InterruptedException {
+    // Loads every bike the station lists in a single multi-get
+    private List<Bike> findBikesAt(Station station) throws ExecutionException, InterruptedException {
         List<String> bikeIds = station.getBikeIds();
         if (bikeIds == null || bikeIds.isEmpty()) {
-            return true; // No bikes = ok to change status
+            return List.of(); // No bikes = ok to change status
         }
+        return bikeRepository.findAllById(bikeIds);
+    }
 
-        for (String bikeId : bikeIds) {
-            var bikeDoc = db.collection("bikes").document(bikeId).get().get();
-            if (bikeDoc.exists()) {
-                String bikeStatus = bikeDoc.getString("status");
-                if ("reserved".equalsIgnoreCase(bikeStatus)) {
-                    System.out.println("Bike " + bikeId + " is reserved. The station cannot be activated.");
-                    return false;
-                }
+    // Checks if any bikes at the station are still reserved
+    private boolean noReservedBikes(List<Bike> bikes) {
+        for (Bike bike : bikes) {
+            if ("reserved".equalsIgnoreCase(bike.getStatus())) {
+                System.out.println("Bike " + bike.getBikeId() + " is reserved. The station cannot be activated.");
+                return false;
             }
         }
         return true;
@@ -91,32 +108,49 @@ public class StationService {
     }
 
     // This terminates reservations and sets the reserved bikes back to "available" before reactivatnig
-    private void terminateReservations(Station station) throws ExecutionException, InterruptedException {
-        List<String> bikeIds = station.getBikeIds();
-        if (bikeIds == null || bikeIds.isEmpty()) return;
-
-        for (String bikeId : bikeIds) {
-            var bikeDoc = db.collection("bikes").document(bikeId).get().get();
-            if (bikeDoc.exists() && "reserved".equalsIgnoreCase(bikeDoc.getString("status"))) {
-                bikeDoc.getReference().update("status", "available");
-                System.out.println("Reservation terminated for bike " + bikeId);
+    private void terminateReservations(List<Bike> bikes, JournalObserver journal, DashboardObserver dashboard)
+            throws ExecutionException, InterruptedException {
+        List<Bike> released = new ArrayList<>();
+        for (Bike bike : bikes) {
+            if ("reserved".equalsIgnoreCase(bike.getStatus())) {
+                bike.attach(journal);
+                dashboard.watch(bike);
+                bike.setStatus("available");
+                bike.notifyObservers();
+                released.add(bike);
+                System.out.println("Reservation terminated for bike " + bike.getBikeId());
             }
         }
+        if (!released.isEmpty()) {
+            bikeRepository.saveAll(released);
+        }
     }
 
     public Station getStationById(String stationId) throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-        return  db.collection("stations").document(stationId)
-                .get().get().toObject(Station.class);
+        return stationRepository.findById(stationId);
     }
 
+    /**
+     * Served from the fleet cache; the returned stations are read-only
+     */
     public List<Station> getAllStations() throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-        List<Station> stations = new ArrayList<>();
-        for (DocumentSnapshot doc : db.collection("stations").get().get().getDocuments()) {
-        stations.add(doc.toObject(Station.class));
+        return fleetCache.getAllStations();
+    }
+
+    /**
+     * Up to k stations nearest to a point, nearest first, served from the fleet cache's spatial index
+     * hasBikes keeps stations with a bike to take, hasDocks stations with room to return one.
+     */
+    public List<NearbyStation> findNearbyStations(double latitude, double longitude, int k,
+                                                  boolean hasBikes, boolean hasDocks)
+            throws ExecutionException, InterruptedException {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        if (k < 1 || k > MAX_NEARBY_STATIONS) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_NEARBY_STATIONS);
+        }
+        return fleetCache.findNearestStations(latitude, longitude, k, hasBikes, hasDocks);
     }
-        return stations;
-}
 
 }
@@ -1,17 +1,25 @@
 package com.concordia.velocity.service;
 
+import com.concordia.velocity.cache.FleetCache;
 import com.concordia.velocity.model.Bike;
 import com.concordia.velocity.model.Dock;
 import com.concordia.velocity.model.Station;
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.*;
-import com.google.firebase.cloud.FirestoreClient;
+import com.concordia.velocity.observer.DashboardObserver;
+import com.concordia.velocity.observer.JournalObserver;
+import com.concordia.velocity.repository.BikeRepository;
+import com.concordia.velocity.repository.DockRepository;
+import com.concordia.velocity.repository.StationRepository;
+import com.concordia.velocity.repository.StoreTransaction.Key;
+import com.concordia.velocity.repository.TransactionRunner;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -20,26 +28,27 @@ import java.util.concurrent.ExecutionException;
 @Service
 public class TransferService {
 
-    private static final String BIKES_COLLECTION = "bikes";
-    private static final String DOCKS_COLLECTION = "docks";
-    private static final String STATIONS_COLLECTION = "stations";
+    private final BikeRepository bikeRepository;
+    private final DockRepository dockRepository;
+    private final StationRepository stationRepository;
+    private final TransactionRunner transactionRunner;
+    private final FleetCache fleetCache;
+
+    public TransferService(BikeRepository bikeRepository, DockRepository dockRepository,
+                           StationRepository stationRepository, TransactionRunner transactionRunner,
+                           FleetCache fleetCache) {
+        this.bikeRepository = bikeRepository;
+        this.dockRepository = dockRepository;
+        this.stationRepository = stationRepository;
+        this.transactionRunner = transactionRunner;
+        this.fleetCache = fleetCache;
+    }
 
     /**
-     * Get all stations from Firestore
+     * Get all stations from the fleet cache (read-only)
      */
     public List<Station> getAllStations() throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-
-        ApiFuture<QuerySnapshot> future = db.collection(STATIONS_COLLECTION).get();
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-
-        List<Station> stations = new ArrayList<>();
-        for (QueryDocumentSnapshot document : documents) {
-            Station station = document.toObject(Station.class);
-            stations.add(station);
-        }
-
-        return stations;
+        return fleetCache.getAllStations();
     }
 
     /**
@@ -52,22 +61,7 @@ public class TransferService {
             throw new IllegalArgumentException("Station ID cannot be null or empty");
         }
 
-        Firestore db = FirestoreClient.getFirestore();
-
-        ApiFuture<QuerySnapshot> future = db.collection(BIKES_COLLECTION)
-                .whereEqualTo("stationId", stationId)
-                .whereEqualTo("status", Bike.STATUS_AVAILABLE)
-                .get();
-
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-        List<Bike> bikes = new ArrayList<>();
-
-        for (QueryDocumentSnapshot document : documents) {
-            Bike bike = document.toObject(Bike.class);
-            bikes.add(bike);
-        }
-
-        return bikes;
+        return bikeRepository.findByStationIdAndStatus(stationId, Bike.STATUS_AVAILABLE);
     }
 
     /**
@@ -80,22 +74,7 @@ public class TransferService {
             throw new IllegalArgumentException("Station ID cannot be null or empty");
         }
 
-        Firestore db = FirestoreClient.getFirestore();
-
-        ApiFuture<QuerySnapshot> future = db.collection(DOCKS_COLLECTION)
-                .whereEqualTo("stationId", stationId)
-                .whereEqualTo("status", Dock.STATUS_EMPTY)
-                .get();
-
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-        List<Dock> docks = new ArrayList<>();
-
-        for (QueryDocumentSnapshot document : documents) {
-            Dock dock = document.toObject(Dock.class);
-            docks.add(dock);
-        }
-
-        return docks;
+        return dockRepository.findByStationIdAndStatus(stationId, Dock.STATUS_EMPTY);
     }
 
     /**
@@ -109,100 +88,38 @@ public class TransferService {
             String destinationStationId
     ) throws ExecutionException, InterruptedException {
 
-        Firestore db = FirestoreClient.getFirestore();
-
-        // Start a transaction to ensure atomicity
-        ApiFuture<Map<String, Object>> transaction = db.runTransaction(txn -> {
+        JournalObserver journal = new JournalObserver();
+        DashboardObserver dashboard = new DashboardObserver();
 
-            // 1. Fetch the bike
-            DocumentReference bikeRef = db.collection(BIKES_COLLECTION).document(bikeId);
-            DocumentSnapshot bikeDoc = txn.get(bikeRef).get();
-
-            if (!bikeDoc.exists()) {
-                throw new IllegalArgumentException("Bike not found: " + bikeId);
-            }
-
-            Bike bike = bikeDoc.toObject(Bike.class);
-
-            // Validate bike status
-            if (!Bike.STATUS_AVAILABLE.equalsIgnoreCase(bike.getStatus())) {
-                throw new IllegalStateException(
-                        "Bike is not available for transfer. Current status: " + bike.getStatus()
-                );
-            }
-
-            // Validate bike is at the source dock
-            if (!sourceDockId.equals(bike.getDockId())) {
-                throw new IllegalArgumentException(
-                        "Bike is not at the specified source dock. Expected: " +
-                                sourceDockId + ", Actual: " + bike.getDockId()
-                );
-            }
+        // Run as a transaction to ensure atomicity
+        Map<String, Object> result = transactionRunner.runInTransaction(txn -> {
+            journal.discard();
+            dashboard.discard();
 
-            // 2. Fetch source dock
-            DocumentReference sourceDockRef = db.collection(DOCKS_COLLECTION).document(sourceDockId);
-            DocumentSnapshot sourceDockDoc = txn.get(sourceDockRef).get();
-
-            if (!sourceDockDoc.exists()) {
-                throw new IllegalArgumentException("Source dock not found: " + sourceDockId);
-            }
-
-            Dock sourceDock = sourceDockDoc.toObject(Dock.class);
-
-            if (!Dock.STATUS_OCCUPIED.equalsIgnoreCase(sourceDock.getStatus())) {
-                throw new IllegalStateException(
-                        "Source dock is not occupied. Status: " + sourceDock.getStatus()
-                );
-            }
-
-            if (!bikeId.equals(sourceDock.getBikeId())) {
-                throw new IllegalArgumentException(
-                        "Source dock does not contain the specified bike"
-                );
-            }
-
-            // 3. Fetch destination dock
-            DocumentReference destDockRef = db.collection(DOCKS_COLLECTION).document(destinationDockId);
-            DocumentSnapshot destDockDoc = txn.get(destDockRef).get();
-
-            if (!destDockDoc.exists()) {
-                throw new IllegalArgumentException(
-                        "Destination dock not found: " + destinationDockId
-                );
-            }
-
-            Dock destDock = destDockDoc.toObject(Dock.class);
-
-            if (!Dock.STATUS_EMPTY.equalsIgnoreCase(destDock.getStatus())) {
-                throw new IllegalStateException(
-                        "Destination dock is not empty. Status: " + destDock.getStatus()
-                );
-            }
+            // 1-3. Fetch the bike and both docks
+            Bike bike = txn.getBike(bikeId);
+            Dock sourceDock = txn.getDock(sourceDockId);
+            Dock destDock = txn.getDock(destinationDockId);
+            checkTransfer(bikeId, sourceDockId, destinationDockId, bike, sourceDock, destDock);
 
             // 4. Fetch source station
-            DocumentReference sourceStationRef = db.collection(STATIONS_COLLECTION).document(sourceStationId);
-            DocumentSnapshot sourceStationDoc = txn.get(sourceStationRef).get();
+            Station sourceStation = txn.getStation(sourceStationId);
 
-            if (!sourceStationDoc.exists()) {
+            if (sourceStation == null) {
                 throw new IllegalArgumentException(
                         "Source station not found: " + sourceStationId
                 );
             }
 
-            Station sourceStation = sourceStationDoc.toObject(Station.class);
-
             // 5. Fetch destination station
-            DocumentReference destStationRef = db.collection(STATIONS_COLLECTION).document(destinationStationId);
-            DocumentSnapshot destStationDoc = txn.get(destStationRef).get();
+            Station destStation = txn.getStation(destinationStationId);
 
-            if (!destStationDoc.exists()) {
+            if (destStation == null) {
                 throw new IllegalArgumentException(
                         "Destination station not found: " + destinationStationId
                 );
             }
 
-            Station destStation = destStationDoc.toObject(Station.class);
-
             if (!destStation.hasAvailableSpace()) {
                 throw new IllegalStateException(
                         "Destination station has no available space or is out of service"
@@ -212,6 +129,16 @@ public class TransferService {
             // 6. Perform the transfer
             boolean isInterStationTransfer = !sourceStationId.equals(destinationStationId);
 
+            sourceDock.attach(journal);
+            destDock.attach(journal);
+            sourceStation.attach(journal);
+            destStation.attach(journal);
+            dashboard.watch(bike);
+            dashboard.watch(sourceDock);
+            dashboard.watch(destDock);
+            dashboard.watch(sourceStation);
+            dashboard.watch(destStation);
+
             // Update bike location
             bike.setDockId(destinationDockId);
             bike.setStationId(destinationStationId);
@@ -220,25 +147,25 @@ public class TransferService {
             // This also cancels any scheduled reservation expiry tasks
             bike.clearReservation();
 
-            txn.set(bikeRef, bike);
+            txn.saveBike(bike);
 
             // Update source dock - make it empty
             sourceDock.changeStatus(Dock.STATUS_EMPTY);
             sourceDock.setBikeId(null);
-            txn.set(sourceDockRef, sourceDock);
+            txn.saveDock(sourceDock);
 
             // Update destination dock - make it occupied
             destDock.changeStatus(Dock.STATUS_OCCUPIED);
             destDock.setBikeId(bikeId);
-            txn.set(destDockRef, destDock);
+            txn.saveDock(destDock);
 
             // Update stations if inter-station transfer
             if (isInterStationTransfer) {
                 sourceStation.removeBike(bike);
-                txn.set(sourceStationRef, sourceStation);
+                txn.saveStation(sourceStation);
 
                 destStation.addBike(bike);
-                txn.set(destStationRef, destStation);
+                txn.saveStation(destStation);
             }
 
             // 7. Create response map
@@ -258,6 +185,277 @@ public class TransferService {
             return response;
         });
 
-        return transaction.get();
+        journal.commit(null);
+        dashboard.publish();
+        return result;
+    }
+
+    // ==================== Bulk Transfers ====================
+
+    /**
+     * One bike to move, as transferBike takes it
+     */
+    public record BikeTransfer(String bikeId, String sourceDockId, String destinationDockId,
+                               String sourceStationId, String destinationStationId) {}
+
+    /**
+     * What became of one move of a bulk transfer
+     * @param index position of the move in the request
+     * @param chunk transaction the move was committed or refused in, -1 if it was rejected up front
+     */
+    public record TransferOutcome(int index, String bikeId, String status, String message, int chunk) {}
+
+    public static final String OUTCOME_TRANSFERRED = "transferred";
+    public static final String OUTCOME_FAILED = "failed";
+    public static final String OUTCOME_REJECTED = "rejected";
+
+    public static final int MAX_BULK_TRANSFERS = 1000;
+
+    // Firestore allows 500 writes per transaction: each move writes the bike and two docks,
+    // and a chunk writes its two stations once
+    static final int MAX_MOVES_PER_CHUNK = (500 - 2) / 3;
+
+    /**
+     * Moves many bikes, committing the moves between each pair of stations in as few transactions as possible
+     *
+     * The batch is checked up front: moves with missing fields, or that reuse a bike or dock of an
+     * earlier move, are rejected without touching the store. The rest are grouped by station pair and
+     * committed in chunks of up to MAX_MOVES_PER_CHUNK. Each chunk reads everything it needs in one
+     * round-trip and writes each station once, with its counters moved by the whole chunk. A move
+     * that fails its checks inside a chunk is left out of it; the others still commit.
+     *
+     * @return one outcome per move, in request order
+     */
+    public List<TransferOutcome> transferBikes(List<BikeTransfer> transfers) {
+        if (transfers == null || transfers.isEmpty()) {
+            throw new IllegalArgumentException("At least one transfer is required");
+        }
+        if (transfers.size() > MAX_BULK_TRANSFERS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_TRANSFERS + " transfers can be sent at once");
+        }
+
+        TransferOutcome[] outcomes = new TransferOutcome[transfers.size()];
+
+        // 1. Reject malformed moves and moves that collide with an earlier one
+        Set<String> bikes = new HashSet<>();
+        Set<String> docks = new HashSet<>();
+        Map<List<String>, List<Integer>> byStationPair = new LinkedHashMap<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            BikeTransfer transfer = transfers.get(i);
+            String problem = precheck(transfer, bikes, docks);
+            if (problem != null) {
+                outcomes[i] = new TransferOutcome(i, transfer != null ? transfer.bikeId() : null, OUTCOME_REJECTED, problem, -1);
+                continue;
+            }
+            byStationPair.computeIfAbsent(List.of(transfer.sourceStationId(), transfer.destinationStationId()),
+                    k -> new ArrayList<>()).add(i);
+        }
+
+        // 2. Commit each station pair's moves chunk by chunk
+        int chunk = 0;
+        for (List<Integer> pair : byStationPair.values()) {
+            for (int from = 0; from < pair.size(); from += MAX_MOVES_PER_CHUNK) {
+                List<Integer> indexes = pair.subList(from, Math.min(from + MAX_MOVES_PER_CHUNK, pair.size()));
+                commitChunk(transfers, indexes, chunk++, outcomes);
+            }
+        }
+        return List.of(outcomes);
+    }
+
+    private void commitChunk(List<BikeTransfer> transfers, List<Integer> indexes, int chunk, TransferOutcome[] outcomes) {
+        BikeTransfer first = transfers.get(indexes.get(0));
+        String sourceStationId = first.sourceStationId();
+        String destinationStationId = first.destinationStationId();
+        boolean isInterStationTransfer = !sourceStationId.equals(destinationStationId);
+        JournalObserver journal = new JournalObserver();
+        DashboardObserver dashboard = new DashboardObserver();
+
+        try {
+            Map<Integer, TransferOutcome> committed = transactionRunner.runInTransaction(txn -> {
+                journal.discard();
+                dashboard.discard();
+                Map<Integer, TransferOutcome> results = new LinkedHashMap<>();
+
+                // Every bike, dock and both stations in one round-trip
+                List<Key> keys = new ArrayList<>(indexes.size() * 3 + 2);
+                keys.add(Key.station(sourceStationId));
+                keys.add(Key.station(destinationStationId));
+                for (int index : indexes) {
+                    BikeTransfer transfer = transfers.get(index);
+                    keys.add(Key.bike(transfer.bikeId()));
+                    keys.add(Key.dock(transfer.sourceDockId()));
+                    keys.add(Key.dock(transfer.destinationDockId()));
+                }
+                txn.prefetch(keys.toArray(new Key[0]));
+
+                Station sourceStation = txn.getStation(sourceStationId);
+                Station destStation = txn.getStation(destinationStationId);
+                if (sourceStation == null) {
+                    throw new IllegalArgumentException("Source station not found: " + sourceStationId);
+                }
+                if (destStation == null) {
+                    throw new IllegalArgumentException("Destination station not found: " + destinationStationId);
+                }
+
+                // Room left at the destination, as transferBike checks it; a move within a station frees a dock as it fills one
+                int room = destStation.hasAvailableSpace() ? destStation.getCapacity() - destStation.getNumDockedBikes() : 0;
+
+                List<Bike> moved = new ArrayList<>(indexes.size());
+                for (int index : indexes) {
+                    BikeTransfer transfer = transfers.get(index);
+                    Bike bike = txn.getBike(transfer.bikeId());
+                    Dock sourceDock = txn.getDock(transfer.sourceDockId());
+                    Dock destDock = txn.getDock(transfer.destinationDockId());
+                    try {
+                        checkTransfer(transfer.bikeId(), transfer.sourceDockId(), transfer.destinationDockId(),
+                                bike, sourceDock, destDock);
+                        checkDockAtStation(sourceDock, sourceStationId, "Source");
+                        checkDockAtStation(destDock, destinationStationId, "Destination");
+                        if (room == 0) {
+                            throw new IllegalStateException("Destination station has no available space or is out of service");
+                        }
+                    } catch (IllegalArgumentException | IllegalStateException e) {
+                        results.put(index, new TransferOutcome(index, transfer.bikeId(), OUTCOME_FAILED, e.getMessage(), chunk));
+                        continue;
+                    }
+                    if (isInterStationTransfer) room--;
+
+                    sourceDock.attach(journal);
+                    destDock.attach(journal);
+                    dashboard.watch(bike);
+                    dashboard.watch(sourceDock);
+                    dashboard.watch(destDock);
+
+                    bike.setDockId(transfer.destinationDockId());
+                    bike.setStationId(destinationStationId);
+                    bike.clearReservation();
+                    txn.saveBike(bike);
+
+                    sourceDock.changeStatus(Dock.STATUS_EMPTY);
+                    sourceDock.setBikeId(null);
+                    txn.saveDock(sourceDock);
+
+                    destDock.changeStatus(Dock.STATUS_OCCUPIED);
+                    destDock.setBikeId(transfer.bikeId());
+                    txn.saveDock(destDock);
+
+                    moved.add(bike);
+                    results.put(index, new TransferOutcome(index, transfer.bikeId(), OUTCOME_TRANSFERRED,
+                            "Bike successfully transferred", chunk));
+                }
+
+                // Station counters move once for the whole chunk
+                if (isInterStationTransfer && !moved.isEmpty()) {
+                    sourceStation.attach(journal);
+                    destStation.attach(journal);
+                    dashboard.watch(sourceStation);
+                    dashboard.watch(destStation);
+                    sourceStation.removeBikes(moved);
+                    destStation.addBikes(moved);
+                    txn.saveStation(sourceStation);
+                    txn.saveStation(destStation);
+                }
+                return results;
+            });
+
+            journal.commit(null);
+            dashboard.publish();
+            committed.forEach((index, outcome) -> outcomes[index] = outcome);
+
+        } catch (Exception e) {
+            // Nothing in the chunk was written
+            String message = e instanceof IllegalArgumentException || e instanceof IllegalStateException
+                    ? e.getMessage() : "Transaction failed: " + e.getMessage();
+            for (int index : indexes) {
+                outcomes[index] = new TransferOutcome(index, transfers.get(index).bikeId(), OUTCOME_FAILED, message, chunk);
+            }
+        }
+    }
+
+    // Problems that can be seen without reading the store, or null if there are none
+    private static String precheck(BikeTransfer transfer, Set<String> bikes, Set<String> docks) {
+        if (transfer == null) return "Transfer is empty";
+        if (isBlank(transfer.bikeId())) return "Bike ID is required";
+        if (isBlank(transfer.sourceDockId())) return "Source dock ID is required";
+        if (isBlank(transfer.destinationDockId())) return "Destination dock ID is required";
+        if (isBlank(transfer.sourceStationId())) return "Source station ID is required";
+        if (isBlank(transfer.destinationStationId())) return "Destination station ID is required";
+        if (transfer.sourceDockId().equals(transfer.destinationDockId())) {
+            return "Source and destination dock are the same";
+        }
+        if (bikes.contains(transfer.bikeId())) return "Bike " + transfer.bikeId() + " is moved by an earlier transfer";
+        if (docks.contains(transfer.sourceDockId())) return "Dock " + transfer.sourceDockId() + " is used by an earlier transfer";
+        if (docks.contains(transfer.destinationDockId())) {
+            return "Dock " + transfer.destinationDockId() + " is used by an earlier transfer";
+        }
+        bikes.add(transfer.bikeId());
+        docks.add(transfer.sourceDockId());
+        docks.add(transfer.destinationDockId());
+        return null;
+    }
+
+    private static void checkDockAtStation(Dock dock, String stationId, String role) {
+        if (!stationId.equals(dock.getStationId())) {
+            throw new IllegalArgumentException(role + " dock " + dock.getDockId() + " is not at station " + stationId);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    /**
+     * Checks that the bike can move from the source dock to the destination dock
+     * @throws IllegalArgumentException if something is missing or doesn't match
+     * @throws IllegalStateException if the bike or a dock is in the wrong state
+     */
+    private static void checkTransfer(String bikeId, String sourceDockId, String destinationDockId,
+                                      Bike bike, Dock sourceDock, Dock destDock) {
+        if (bike == null) {
+            throw new IllegalArgumentException("Bike not found: " + bikeId);
+        }
+
+        // Validate bike status
+        if (!Bike.STATUS_AVAILABLE.equalsIgnoreCase(bike.getStatus())) {
+            throw new IllegalStateException(
+                    "Bike is not available for transfer. Current status: " + bike.getStatus()
+            );
+        }
+
+        // Validate bike is at the source dock
+        if (!sourceDockId.equals(bike.getDockId())) {
+            throw new IllegalArgumentException(
+                    "Bike is not at the specified source dock. Expected: " +
+                            sourceDockId + ", Actual: " + bike.getDockId()
+            );
+        }
+
+        if (sourceDock == null) {
+            throw new IllegalArgumentException("Source dock not found: " + sourceDockId);
+        }
+
+        if (!Dock.STATUS_OCCUPIED.equalsIgnoreCase(sourceDock.getStatus())) {
+            throw new IllegalStateException(
+                    "Source dock is not occupied. Status: " + sourceDock.getStatus()
+            );
+        }
+
+        if (!bikeId.equals(sourceDock.getBikeId())) {
+            throw new IllegalArgumentException(
+                    "Source dock does not contain the specified bike"
+            );
+        }
+
+        if (destDock == null) {
+            throw new IllegalArgumentException(
+                    "Destination dock not found: " + destinationDockId
+            );
+        }
+
+        if (!Dock.STATUS_EMPTY.equalsIgnoreCase(destDock.getStatus())) {
+            throw new IllegalStateException(
+                    "Destination dock is not empty. Status: " + destDock.getStatus()
+            );
+        }
     }
-}
\ No newline at end of file
+}
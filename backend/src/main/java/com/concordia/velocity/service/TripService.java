@@ -1,17 +1,24 @@
 package com.concordia.velocity.service;
 
+import com.concordia.velocity.cache.FleetCache;
+import com.concordia.velocity.forecast.DemandForecaster;
+import com.concordia.velocity.metrics.PhaseTimings;
 import com.concordia.velocity.model.*;
 import com.concordia.velocity.observer.DashboardObserver;
+import com.concordia.velocity.observer.JournalObserver;
 import com.concordia.velocity.observer.Observer;
 import com.concordia.velocity.observer.StatusObserver;
+import com.concordia.velocity.repository.BikeRepository;
+import com.concordia.velocity.repository.BillRepository;
+import com.concordia.velocity.repository.StoreTransaction;
+import com.concordia.velocity.repository.StoreTransaction.Key;
+import com.concordia.velocity.repository.TransactionRunner;
+import com.concordia.velocity.repository.TripRepository;
 import com.concordia.velocity.reservation.ReservationManager;
-import com.concordia.velocity.strategy.OneTimeElectricPayment;
-import com.concordia.velocity.strategy.OneTimeStandardPayment;
+import com.concordia.velocity.strategy.PaymentStrategies;
 import com.concordia.velocity.strategy.PaymentStrategy;
-import com.google.api.core.ApiFuture;
+import com.concordia.velocity.strategy.RateCard;
 import com.google.cloud.Timestamp;
-import com.google.cloud.firestore.*;
-import com.google.firebase.cloud.FirestoreClient;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -21,21 +28,56 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 @Service
 public class TripService {
 
-    private final Firestore db = FirestoreClient.getFirestore();
-    private final UserService userService;
+    // credit for redeeming one flex dollar on a trip
+    private static final long FLEX_REDEMPTION_CENTS = 50;
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Every trip field but the nested bill, for list views
+     */
+    public static final Set<String> SUMMARY_FIELDS = TripRepository.FIELDS.stream()
+            .filter(field -> !"bill".equals(field))
+            .collect(Collectors.toUnmodifiableSet());
+
+    // trip fields a bill history page loads
+    private static final Set<String> BILL_FIELDS = Set.of("tripId", "startTime", "bill");
+
+    private final BikeRepository bikeRepository;
+    private final TripRepository tripRepository;
+    private final BillRepository billRepository;
+    private final TransactionRunner transactionRunner;
+    private final FleetCache fleetCache;
     private final LoyaltyStatsService loyaltyStatsService;
     private final IdGeneratorService idGeneratorService;
+    private final AbandonmentDeadlineScheduler deadlineScheduler;
+    private final PhaseTimings phaseTimings;
+    private final DemandForecaster demandForecaster;
 
     // constructor injection
-    public TripService(UserService userService, LoyaltyStatsService loyaltyStatsService,IdGeneratorService idGeneratorService ) {
-    this.userService = userService;
-    this.loyaltyStatsService = loyaltyStatsService;
-    this.idGeneratorService = idGeneratorService;
-}
+    public TripService(BikeRepository bikeRepository, TripRepository tripRepository, BillRepository billRepository,
+                       TransactionRunner transactionRunner, FleetCache fleetCache,
+                       LoyaltyStatsService loyaltyStatsService, IdGeneratorService idGeneratorService,
+                       AbandonmentDeadlineScheduler deadlineScheduler, PhaseTimings phaseTimings,
+                       DemandForecaster demandForecaster) {
+        this.bikeRepository = bikeRepository;
+        this.tripRepository = tripRepository;
+        this.billRepository = billRepository;
+        this.transactionRunner = transactionRunner;
+        this.fleetCache = fleetCache;
+        this.loyaltyStatsService = loyaltyStatsService;
+        this.idGeneratorService = idGeneratorService;
+        this.deadlineScheduler = deadlineScheduler;
+        this.phaseTimings = phaseTimings;
+        this.demandForecaster = demandForecaster;
+    }
 
     /**
      * Wrapper method for docking bike and ending trip
@@ -64,99 +106,153 @@ public class TripService {
      */
     public String undockReservedBike(String bikeId, String riderId, String dockCode)
             throws ExecutionException, InterruptedException {
+        return Futures.await(undockReservedBikeAsync(bikeId, riderId, dockCode));
+    }
 
-        // Retrieve bike from Firestore
-        DocumentSnapshot bikeDoc = db.collection("bikes").document(bikeId).get().get();
-        Bike bike = bikeDoc.toObject(Bike.class);
-
-        if (bike == null) {
-            throw new IllegalArgumentException("Bike not found: " + bikeId);
-        }
-
-        // Validate bike is reserved
-        if (!Bike.STATUS_RESERVED.equalsIgnoreCase(bike.getStatus())) {
-            throw new IllegalStateException("Bike is not reserved. Current status: " + bike.getStatus());
-        }
-
-        // Validate reservation is still active (not expired)
-        if (!bike.isReservedActive()) {
-            throw new IllegalStateException("Reservation has expired for bike: " + bikeId);
-        }
-
-        // Validate riderId matches the user who made the reservation
-        if (!riderId.equals(bike.getReservedByUserId())) {
-            throw new IllegalArgumentException("Rider " + riderId + " did not reserve this bike");
-        }
-
-        // Stops the reservation timer
-        ReservationManager.cancel(bike.getBikeId());
-        bike.clearReservation();
-
-        // Get dock and station info before removing bike
-        String previousDockId = bike.getDockId();
-        String stationId = bike.getStationId();
-
-        if (previousDockId == null || stationId == null) {
-            throw new IllegalStateException("Bike has invalid dock or station assignment");
-        }
-
-        // Retrieve dock
-        DocumentSnapshot dockDoc = db.collection("docks").document(previousDockId).get().get();
-        Dock dock = dockDoc.toObject(Dock.class);
-
-        if (dock == null) {
-            throw new IllegalArgumentException("Dock not found: " + previousDockId);
-        }
-
-        // Validate dock code before allowing bike to be undocked
-        validateDockCode(dock, dockCode);
-
-        // Validate bike is at the dock
-        validateBikeAtDock(bike, previousDockId);
-
-        // Retrieve station
-        DocumentSnapshot stationDoc = db.collection("stations").document(stationId).get().get();
-        Station station = stationDoc.toObject(Station.class);
-
-        if (station == null) {
-            throw new IllegalArgumentException("Station not found: " + stationId);
-        }
-
-        // Attach observers
-        Observer dashboardObserver = new DashboardObserver();
-        bike.attach(dashboardObserver);
-        dock.attach(dashboardObserver);
-        station.attach(dashboardObserver);
+    /**
+     * Async counterpart of undockReservedBike
+     * The reads and the trip ID lease are chained rather than waited on, so no thread is held while they are in flight.
+     * The future fails with IllegalArgumentException/IllegalStateException (possibly wrapped in a
+     * CompletionException) where undockReservedBike would throw them.
+     */
+    public CompletableFuture<String> undockReservedBikeAsync(String bikeId, String riderId, String dockCode) {
+        PhaseTimings.PhaseTimer timer = phaseTimings.start("undockReservedBike");
+        Trip[] started = new Trip[1];
+        JournalObserver journal = new JournalObserver();
+        DashboardObserver dashboard = new DashboardObserver();
+
+        return transactionRunner.runInTransactionAsync(txn -> {
+            journal.discard();
+            dashboard.discard();
+
+            // The cached bike says which dock and station it sits at, so all three are read in one round-trip,
+            // along with the rider whose loyalty stats count the trip
+            Bike cachedBike = fleetCache.getCachedBike(bikeId);
+            boolean prefetched = cachedBike != null && cachedBike.getDockId() != null && cachedBike.getStationId() != null;
+            if (prefetched) {
+                txn.prefetchAsync(Key.bike(bikeId), Key.dock(cachedBike.getDockId()), Key.station(cachedBike.getStationId()),
+                        Key.rider(riderId));
+            }
 
-        // Start trip - change bike status to ON_TRIP
-        bike.changeStatus(Bike.STATUS_ON_TRIP);
+            // Retrieve bike from the store
+            return txn.getBikeAsync(bikeId).thenCompose(bike -> {
+                if (bike == null) {
+                    throw new IllegalArgumentException("Bike not found: " + bikeId);
+                }
 
-        // Clear reservation data since trip has started
-        bike.clearReservation();
+                // Validate bike is reserved
+                if (!Bike.STATUS_RESERVED.equalsIgnoreCase(bike.getStatus())) {
+                    throw new IllegalStateException("Bike is not reserved. Current status: " + bike.getStatus());
+                }
 
-        // Update bike location - bike is no longer at dock
-        bike.setDockId(null);
-        bike.setStationId(null);
+                // Validate reservation is still active (not expired)
+                if (!bike.isReservedActive()) {
+                    throw new IllegalStateException("Reservation has expired for bike: " + bikeId);
+                }
 
-        // Update dock - set to empty and clear bike reference
-        dock.setStatus(Dock.STATUS_EMPTY);
-        dock.setBikeId(null);
-        dock.notifyObservers();
+                // Validate riderId matches the user who made the reservation
+                if (!riderId.equals(bike.getReservedByUserId())) {
+                    throw new IllegalArgumentException("Rider " + riderId + " did not reserve this bike");
+                }
 
-        station.removeBike(bike);
+                // Get dock and station info before removing bike
+                String previousDockId = bike.getDockId();
+                String stationId = bike.getStationId();
 
-        // Create trip record
-        Trip trip = createTripRecord(bikeId, bike.getType(), riderId, previousDockId, stationId, station.getStationName());
+                if (previousDockId == null || stationId == null) {
+                    throw new IllegalStateException("Bike has invalid dock or station assignment");
+                }
 
-        // Persist all changes to Firestore
-        db.collection("bikes").document(bikeId).set(bike).get();
-        db.collection("docks").document(previousDockId).set(dock).get();
-        db.collection("stations").document(stationId).set(station).get();
-        db.collection("trips").document(trip.getTripId()).set(trip).get();
+                // Cache was cold or out of date: read dock and station together now
+                boolean guessed = cachedBike != null
+                        && previousDockId.equals(cachedBike.getDockId()) && stationId.equals(cachedBike.getStationId());
+                if (!guessed) {
+                    if (prefetched) {
+                        txn.prefetchAsync(Key.dock(previousDockId), Key.station(stationId));
+                    } else {
+                        txn.prefetchAsync(Key.dock(previousDockId), Key.station(stationId), Key.rider(riderId));
+                    }
+                }
 
-        return "Trip started successfully for bike " + bikeId + " by rider " + riderId +
-                ". Trip ID: " + trip.getTripId() + ". Bike undocked from dock " + previousDockId +
-                " at station " + station.getStationName();
+                // Retrieve dock, station and rider; the trip ID is leased meanwhile
+                CompletableFuture<Dock> dockRead = txn.getDockAsync(previousDockId);
+                CompletableFuture<Station> stationRead = txn.getStationAsync(stationId);
+                CompletableFuture<RiderStatsAggregate> statsRecord = recordStartedTrip(txn.getRiderAsync(riderId));
+                CompletableFuture<String> tripIdLease = idGeneratorService.generateTripIdAsync();
+
+                return CompletableFuture.allOf(dockRead, stationRead, statsRecord, tripIdLease).thenApply(read -> {
+                    Dock dock = dockRead.join();
+
+                    if (dock == null) {
+                        throw new IllegalArgumentException("Dock not found: " + previousDockId);
+                    }
+
+                    // Validate dock code before allowing bike to be undocked
+                    validateDockCode(dock, dockCode);
+
+                    // Validate bike is at the dock
+                    validateBikeAtDock(bike, previousDockId);
+
+                    Station station = stationRead.join();
+
+                    if (station == null) {
+                        throw new IllegalArgumentException("Station not found: " + stationId);
+                    }
+                    timer.mark("reads");
+
+                    // Attach observers
+                    dashboard.watch(bike);
+                    dashboard.watch(dock);
+                    dashboard.watch(station);
+                    bike.attach(journal);
+                    dock.attach(journal);
+                    station.attach(journal);
+
+                    // Start trip - change bike status to ON_TRIP
+                    bike.changeStatus(Bike.STATUS_ON_TRIP);
+
+                    // Clear reservation data since trip has started
+                    bike.clearReservation();
+
+                    // Update bike location - bike is no longer at dock
+                    bike.setDockId(null);
+                    bike.setStationId(null);
+
+                    // Update dock - set to empty and clear bike reference
+                    dock.setStatus(Dock.STATUS_EMPTY);
+                    dock.setBikeId(null);
+                    dock.notifyObservers();
+
+                    station.removeBike(bike);
+
+                    // Create trip record
+                    Trip trip = new Trip(tripIdLease.join(), riderId, bikeId, bike.getType(), stationId,
+                            station.getStationName(), previousDockId);
+                    started[0] = trip;
+
+                    // All changes commit together
+                    txn.saveBike(bike);
+                    txn.saveDock(dock);
+                    txn.saveStation(station);
+                    txn.saveTrip(trip);
+                    saveStartedTrip(txn, riderId, statsRecord.join());
+
+                    return "Trip started successfully for bike " + bikeId + " by rider " + riderId +
+                            ". Trip ID: " + trip.getTripId() + ". Bike undocked from dock " + previousDockId +
+                            " at station " + station.getStationName();
+                });
+            });
+        }).thenApply(message -> {
+            timer.mark("commit");
+            timer.finish();
+
+            // Stops the reservation timer now that the trip is committed
+            ReservationManager.cancel(bikeId);
+            deadlineScheduler.register(started[0]);
+            journal.commit(started[0].getTripId());
+            dashboard.publish();
+            return message;
+        });
     }
 
     /**
@@ -169,88 +265,109 @@ public class TripService {
      */
     public String undockAvailableBike(String dockId, String dockCode, String riderId)
             throws ExecutionException, InterruptedException {
+        return Futures.await(undockAvailableBikeAsync(dockId, dockCode, riderId));
+    }
 
-        // Retrieve dock first to validate code
-        DocumentSnapshot dockDoc = db.collection("docks").document(dockId).get().get();
-        Dock dock = dockDoc.toObject(Dock.class);
-
-        if (dock == null) {
-            throw new IllegalArgumentException("Dock not found: " + dockId);
-        }
-
-        // Validate dock code
-        validateDockCode(dock, dockCode);
-
-        // Find bike at this dock
-        var bikeQuery = db.collection("bikes")
-                .whereEqualTo("dockId", dockId)
-                .whereEqualTo("status", Bike.STATUS_AVAILABLE)
-                .limit(1)
-                .get()
-                .get()
-                .getDocuments();
-
-        if (bikeQuery.isEmpty()) {
-            throw new IllegalStateException("No available bike found at dock: " + dockId);
-        }
-
-        DocumentSnapshot bikeDoc = bikeQuery.get(0);
-        Bike bike = bikeDoc.toObject(Bike.class);
-
-        if (bike == null) {
-            throw new IllegalStateException("Failed to retrieve bike from dock: " + dockId);
-        }
-
-        String bikeId = bike.getBikeId();
-        String stationId = bike.getStationId();
-
-        if (stationId == null) {
-            throw new IllegalStateException("Bike has no station assignment");
-        }
-
-        // Validate bike is at the dock
-        validateBikeAtDock(bike, dockId);
-
-        // Retrieve station
-        DocumentSnapshot stationDoc = db.collection("stations").document(stationId).get().get();
-        Station station = stationDoc.toObject(Station.class);
-
-        if (station == null) {
-            throw new IllegalArgumentException("Station not found: " + stationId);
-        }
-
-        // Attach observers
-        Observer dashboardObserver = new DashboardObserver();
-        bike.attach(dashboardObserver);
-        dock.attach(dashboardObserver);
-        station.attach(dashboardObserver);
-
-        // Start trip - change bike status to ON_TRIP
-        bike.changeStatus(Bike.STATUS_ON_TRIP);
+    /**
+     * Async counterpart of undockAvailableBike
+     * Each step is chained on the store's futures, so no thread waits out a round-trip.
+     * The future fails with IllegalArgumentException/IllegalStateException (possibly wrapped in a
+     * CompletionException) where undockAvailableBike would throw them.
+     */
+    public CompletableFuture<String> undockAvailableBikeAsync(String dockId, String dockCode, String riderId) {
+        Trip[] started = new Trip[1];
+        JournalObserver journal = new JournalObserver();
+        DashboardObserver dashboard = new DashboardObserver();
+        return transactionRunner.runInTransactionAsync(txn -> {
+            journal.discard();
+            dashboard.discard();
+
+            // The dock and the bike at it are read together; the bike is only looked at once the code checks out.
+            // The rider, whose loyalty stats count the trip, comes with the dock
+            txn.prefetchAsync(Key.dock(dockId), Key.rider(riderId));
+            CompletableFuture<Dock> dockRead = txn.getDockAsync(dockId);
+            CompletableFuture<RiderStatsAggregate> statsRecord = recordStartedTrip(txn.getRiderAsync(riderId));
+            CompletableFuture<Bike> bikeRead = txn.findFirstBikeByDockIdAndStatusAsync(dockId, Bike.STATUS_AVAILABLE);
+
+            return CompletableFuture.allOf(dockRead, bikeRead).thenCompose(read -> {
+                Dock dock = dockRead.join();
+
+                if (dock == null) {
+                    throw new IllegalArgumentException("Dock not found: " + dockId);
+                }
 
-        // Update bike location - bike is no longer at dock
-        bike.setDockId(null);
-        bike.setStationId(null);
+                // Validate dock code
+                validateDockCode(dock, dockCode);
 
-        // Update dock - set to empty and clear bike reference
-        dock.setStatus(Dock.STATUS_EMPTY);
-        dock.setBikeId(null);
-        dock.notifyObservers();
+                // Find bike at this dock
+                Bike bike = bikeRead.join();
 
-        station.removeBike(bike);
+                if (bike == null) {
+                    throw new IllegalStateException("No available bike found at dock: " + dockId);
+                }
 
-        // Create trip record
-        Trip trip = createTripRecord(bikeId, bike.getType(), riderId, dockId, stationId, station.getStationName());
+                String stationId = bike.getStationId();
 
-        // Persist all changes to Firestore
-        db.collection("bikes").document(bikeId).set(bike).get();
-        db.collection("docks").document(dockId).set(dock).get();
-        db.collection("stations").document(stationId).set(station).get();
-        db.collection("trips").document(trip.getTripId()).set(trip).get();
+                if (stationId == null) {
+                    throw new IllegalStateException("Bike has no station assignment");
+                }
 
-        return "Trip started successfully for bike " + bikeId + " by rider " + riderId +
-                ". Trip ID: " + trip.getTripId() + ". Bike undocked from dock " + dockId +
-                " at station " + station.getStationName();
+                // Validate bike is at the dock
+                validateBikeAtDock(bike, dockId);
+
+                // Retrieve station
+                return txn.getStationAsync(stationId).thenCombine(idGeneratorService.generateTripIdAsync(), (station, tripId) -> {
+                    RiderStatsAggregate stats = statsRecord.join();
+                    if (station == null) {
+                        throw new IllegalArgumentException("Station not found: " + stationId);
+                    }
+
+                    // Attach observers
+                    dashboard.watch(bike);
+                    dashboard.watch(dock);
+                    dashboard.watch(station);
+                    bike.attach(journal);
+                    dock.attach(journal);
+                    station.attach(journal);
+
+                    // Start trip - change bike status to ON_TRIP
+                    bike.changeStatus(Bike.STATUS_ON_TRIP);
+
+                    // Update bike location - bike is no longer at dock
+                    bike.setDockId(null);
+                    bike.setStationId(null);
+
+                    // Update dock - set to empty and clear bike reference
+                    dock.setStatus(Dock.STATUS_EMPTY);
+                    dock.setBikeId(null);
+                    dock.notifyObservers();
+
+                    station.removeBike(bike);
+
+                    // Create trip record
+                    Trip trip = new Trip(tripId, riderId, bike.getBikeId(), bike.getType(), stationId,
+                            station.getStationName(), dockId);
+                    started[0] = trip;
+
+                    // All changes commit together
+                    txn.saveBike(bike);
+                    txn.saveDock(dock);
+                    txn.saveStation(station);
+                    txn.saveTrip(trip);
+                    saveStartedTrip(txn, riderId, stats);
+
+                    return "Trip started successfully for bike " + bike.getBikeId() + " by rider " + riderId +
+                            ". Trip ID: " + trip.getTripId() + ". Bike undocked from dock " + dockId +
+                            " at station " + station.getStationName();
+                });
+            });
+        }).thenApply(message -> {
+            // The trip is abandoned at its deadline unless it ends first
+            deadlineScheduler.register(started[0]);
+            journal.commit(started[0].getTripId());
+            dashboard.publish();
+            return message;
+        });
     }
 
      /**
@@ -285,214 +402,225 @@ public class TripService {
      */
     public TripEndResponse endTrip(String bikeId, String dockId, String dockCode, String riderId)
             throws ExecutionException, InterruptedException {
+        return Futures.await(endTripAsync(bikeId, dockId, dockCode, riderId));
+    }
 
-        // Retrieve bike from Firestore
-        DocumentSnapshot bikeDoc = db.collection("bikes").document(bikeId).get().get();
-        Bike bike = bikeDoc.toObject(Bike.class);
-
-        if (bike == null) {
-            throw new IllegalArgumentException("Bike not found: " + bikeId);
-        }
-
-        // Validate bike is on a trip
-        if (!Bike.STATUS_ON_TRIP.equalsIgnoreCase(bike.getStatus())) {
-            throw new IllegalStateException("Bike is not currently on a trip. Current status: " + bike.getStatus());
-        }
-
-        // Find active trip for this bike and rider
-        Trip trip = getActiveTripForBike(bikeId, riderId);
-
-        if (trip == null) {
-            throw new IllegalStateException("No active trip found for bike " + bikeId + " and rider " + riderId);
-        }
-
-        // Retrieve dock
-        DocumentSnapshot dockDoc = db.collection("docks").document(dockId).get().get();
-        Dock dock = dockDoc.toObject(Dock.class);
-
-        if (dock == null) {
-            throw new IllegalArgumentException("Dock not found: " + dockId);
-        }
-
-        // Validate dock code before allowing bike return
-        validateDockCode(dock, dockCode);
-
-        // Validate dock is available
-        if (!Dock.STATUS_EMPTY.equalsIgnoreCase(dock.getStatus())) {
-            throw new IllegalStateException("Dock is not available. Current status: " + dock.getStatus());
-        }
-
-        // Get station from dock
-        String stationId = dock.getStationId();
-        if (stationId == null) {
-            throw new IllegalStateException("Dock has no station assignment");
-        }
-
-        // Validate dock belongs to station
-        validateDockAtStation(dock, stationId);
-
-        // Retrieve station
-        DocumentSnapshot stationDoc = db.collection("stations").document(stationId).get().get();
-        Station station = stationDoc.toObject(Station.class);
+    /**
+     * Async counterpart of endTrip
+     * The reads are chained rather than waited on, so no thread is held while they are in flight.
+     * The future fails with IllegalArgumentException/IllegalStateException (possibly wrapped in a
+     * CompletionException) where endTrip would throw them.
+     */
+    public CompletableFuture<TripEndResponse> endTripAsync(String bikeId, String dockId, String dockCode, String riderId) {
+        PhaseTimings.PhaseTimer timer = phaseTimings.start("endTrip");
+        Trip[] ended = new Trip[1];
+        JournalObserver journal = new JournalObserver();
+        DashboardObserver dashboard = new DashboardObserver();
+
+        return transactionRunner.runInTransactionAsync(txn -> {
+            journal.discard();
+            dashboard.discard();
+
+            // Bike, dock and rider don't depend on each other, and the cached dock says which station
+            // it belongs to, so all four are read in one round-trip alongside the active-trip query
+            List<Key> keys = new ArrayList<>(List.of(Key.bike(bikeId), Key.dock(dockId), Key.rider(riderId)));
+            Dock cachedDock = fleetCache.getCachedDock(dockId);
+            if (cachedDock != null && cachedDock.getStationId() != null) {
+                keys.add(Key.station(cachedDock.getStationId()));
+            }
+            txn.prefetchAsync(keys.toArray(new Key[0]));
+            CompletableFuture<Trip> activeTrip = txn.findActiveTripAsync(bikeId, riderId);
+            CompletableFuture<Bike> bikeRead = txn.getBikeAsync(bikeId);
+            CompletableFuture<Dock> dockRead = txn.getDockAsync(dockId);
+            CompletableFuture<Rider> riderRead = txn.getRiderAsync(riderId);
 
-        if (station == null) {
-            throw new IllegalArgumentException("Station not found: " + stationId);
-        }
+            return CompletableFuture.allOf(bikeRead, activeTrip, dockRead).thenCompose(read -> {
+                Bike bike = bikeRead.join();
 
-        // Validate station can accept bikes
-        if (station.isOutOfService()) {
-            throw new IllegalStateException("Station is out of service: " + stationId);
-        }
+                if (bike == null) {
+                    throw new IllegalArgumentException("Bike not found: " + bikeId);
+                }
 
-        if (station.isFull()) {
-            throw new IllegalStateException("Station is full: " + stationId);
-        }
+                // Validate bike is on a trip
+                if (!Bike.STATUS_ON_TRIP.equalsIgnoreCase(bike.getStatus())) {
+                    throw new IllegalStateException("Bike is not currently on a trip. Current status: " + bike.getStatus());
+                }
 
-        // Attach observers
-        Observer dashboardObserver = new DashboardObserver();
-        Observer notificationObserver = new StatusObserver();
-        bike.attach(dashboardObserver);
-        bike.attach(notificationObserver);
-        dock.attach(dashboardObserver);
-        dock.attach(notificationObserver);
-        station.attach(dashboardObserver);
-        station.attach(notificationObserver);
-
-        // Extra safety: ensure reservation timer is cancelled when ending trip
-        ReservationManager.cancel(bike.getBikeId());
-        bike.clearReservation();
-
-        // End trip - change bike status to AVAILABLE
-        bike.changeStatus(Bike.STATUS_AVAILABLE);
-
-        // Update bike location - bike is now at dock
-        bike.setDockId(dockId);
-        bike.setStationId(stationId);
-
-        // Update dock - set to occupied and link to bike
-        dock.setStatus(Dock.STATUS_OCCUPIED);
-        dock.setBikeId(bikeId);
-        dock.notifyObservers();
-
-        station.addBike(bike);
-
-        // Complete trip and calculate billing
-        trip.completeTrip(stationId, station.getStationName(), dockId);
-
-        //compute new loyalty tier
-        System.out.println("Looking up rider in Firestore: " + riderId);
-        Rider rider = userService.getUserById(riderId);
-        System.out.println("Rider object = " + rider);
-        Rider.TierChange tierChange = null;
-        if (rider != null) {
-            RiderStats stats = loyaltyStatsService.computeStats(riderId);
-            tierChange = rider.evaluateTier(stats);
-
-            Map<String, Object> updates = new HashMap<>();
-            updates.put("tier", rider.getTierName());
-            System.out.println("New tier for rider " + rider.getId() + ": " + rider.getTierState());
-            userService.updateUser(riderId, updates); //to persist the new tier state
-        }
+                // Find active trip for this bike and rider
+                Trip trip = activeTrip.join();
 
-        //calculate billing
-        Bill bill = calculateAndCreateBill(trip, rider);
-        trip.setBill(bill);
-
-        // Persist all changes to Firestore
-        db.collection("bikes").document(bikeId).set(bike).get();
-        db.collection("docks").document(dockId).set(dock).get();
-        db.collection("stations").document(stationId).set(station).get();
-
-        // Redeem flex dollar if available
-        DocumentReference riderRef = db.collection("riders").document(riderId);
-        boolean redeemed = false;
-        double redeemedAmount = 0.0;
-        DocumentSnapshot riderSnap = riderRef.get().get();
-        if (riderSnap.exists()) {
-            Long flex = riderSnap.getLong("flexDollars");
-            if (flex != null && flex > 0) {
-                db.collection("riders").document(riderId).update("flexDollars", FieldValue.increment(-1)).get();
-                redeemed = true;
-                redeemedAmount = 0.5;
-                double oldCost = bill.getCost();
-                double newCost = Math.max(0.0, Math.round((oldCost - redeemedAmount) * 100.0) / 100.0);
-                bill.setCost(newCost);
-
-                PaymentStrategy strategy = selectPaymentStrategy(trip.getBikeType());
-                double taxRate = 0.0;
-                if (strategy instanceof OneTimeStandardPayment) {
-                    taxRate = ((OneTimeStandardPayment) strategy).getTaxRate();
-                } else if (strategy instanceof OneTimeElectricPayment) {
-                    taxRate = ((OneTimeElectricPayment) strategy).getTaxRate();
+                if (trip == null) {
+                    throw new IllegalStateException("No active trip found for bike " + bikeId + " and rider " + riderId);
                 }
 
-                bill.calculateTax(taxRate);
-                bill.setTax(Math.round(bill.getTax() * 100.0) / 100.0);
-                bill.setTotal(Math.round(bill.getTotal() * 100.0) / 100.0);
-            }
-        }
+                Dock dock = dockRead.join();
 
-        trip.setBill(bill);
-        trip.setFlexRedeemed(redeemed);
-        trip.setFlexRedeemedAmount(redeemedAmount);
+                if (dock == null) {
+                    throw new IllegalArgumentException("Dock not found: " + dockId);
+                }
 
-        db.collection("trips").document(trip.getTripId()).set(trip).get();
-        db.collection("bills").document(bill.getBillId()).set(bill).get();
+                // Validate dock code before allowing bike return
+                validateDockCode(dock, dockCode);
 
-        // If station is low capacity, award flex
-        if (station.getNumDockedBikes() < (0.25 * station.getCapacity())) {
-            db.collection("riders").document(riderId).update("flexDollars", FieldValue.increment(2)).get();
-            db.collection("trips").document(trip.getTripId()).update("flexAwarded", true, "flexAwardAmount", 2).get();
-        }
+                // Validate dock is available
+                if (!Dock.STATUS_EMPTY.equalsIgnoreCase(dock.getStatus())) {
+                    throw new IllegalStateException("Dock is not available. Current status: " + dock.getStatus());
+                }
 
-        String message = String.format(
-                "Trip ended successfully. Bike %s docked at dock %s at station %s (%s). " +
-                        "Trip duration: %d minutes. Total cost: $%.2f (including tax).",
-                bikeId, dockId, stationId, station.getStationName(),
-                trip.getDurationMinutes(), bill.getTotal()
-        );
+                // Get station from dock
+                String stationId = dock.getStationId();
+                if (stationId == null) {
+                    throw new IllegalStateException("Dock has no station assignment");
+                }
 
-        return new TripEndResponse(message, tierChange);
+                // Validate dock belongs to station
+                validateDockAtStation(dock, stationId);
+
+                // Retrieve station (already prefetched unless the cached dock was missing or out of date);
+                // the bill ID is leased meanwhile
+                CompletableFuture<Station> stationRead = txn.getStationAsync(stationId);
+                CompletableFuture<String> billIdLease = idGeneratorService.generateBillIdAsync();
+
+                // O(1) update of the rider's stored stats; a rider without them has them rebuilt from
+                // their trip history, read alongside the station
+                CompletableFuture<RiderStatsAggregate> statsRecord = riderRead.thenCompose(rider -> rider != null
+                        ? loyaltyStatsService.recordCompletedTripAsync(rider, trip)
+                        : CompletableFuture.completedFuture(null));
+
+                return CompletableFuture.allOf(stationRead, statsRecord, billIdLease).thenApply(rest -> {
+                    Station station = stationRead.join();
+
+                    if (station == null) {
+                        throw new IllegalArgumentException("Station not found: " + stationId);
+                    }
+
+                    Rider rider = riderRead.join();
+                    timer.mark("reads");
+
+                    // Validate station can accept bikes
+                    if (station.isOutOfService()) {
+                        throw new IllegalStateException("Station is out of service: " + stationId);
+                    }
+
+                    if (station.isFull()) {
+                        throw new IllegalStateException("Station is full: " + stationId);
+                    }
+
+                    // Attach observers
+                    Observer notificationObserver = new StatusObserver();
+                    dashboard.watch(bike);
+                    bike.attach(notificationObserver);
+                    dashboard.watch(dock);
+                    dock.attach(notificationObserver);
+                    dashboard.watch(station);
+                    station.attach(notificationObserver);
+                    bike.attach(journal);
+                    dock.attach(journal);
+                    station.attach(journal);
+                    ended[0] = trip;
+
+                    bike.clearReservation();
+
+                    // End trip - change bike status to AVAILABLE
+                    bike.changeStatus(Bike.STATUS_AVAILABLE);
+
+                    // Update bike location - bike is now at dock
+                    bike.setDockId(dockId);
+                    bike.setStationId(stationId);
+
+                    // Update dock - set to occupied and link to bike
+                    dock.setStatus(Dock.STATUS_OCCUPIED);
+                    dock.setBikeId(bikeId);
+                    dock.notifyObservers();
+
+                    station.addBike(bike);
+
+                    // Complete trip and calculate billing
+                    trip.completeTrip(stationId, station.getStationName(), dockId);
+
+                    //compute new loyalty tier
+                    System.out.println("Rider object = " + rider);
+                    Rider.TierChange tierChange = null;
+                    Map<String, Object> riderUpdates = new HashMap<>();
+                    if (rider != null) {
+                        // the tier is evaluated from the stored stats directly
+                        RiderStatsAggregate stats = statsRecord.join();
+                        timer.mark("stats");
+                        tierChange = rider.evaluateTier();
+
+                        riderUpdates.put("tier", rider.getTierName());
+                        riderUpdates.put("loyaltyStats", stats);
+                        System.out.println("New tier for rider " + rider.getId() + ": " + rider.getTierState());
+                    }
+
+                    // Redeem a flex dollar if available; the credit comes off in the same pass as the bill
+                    int flexDollars = rider != null ? rider.getFlexDollars() : 0;
+                    boolean redeemed = flexDollars > 0;
+                    if (redeemed) {
+                        flexDollars -= 1;
+                    }
+
+                    //calculate billing
+                    Bill bill = calculateAndCreateBill(trip, rider, billIdLease.join(),
+                            redeemed ? FLEX_REDEMPTION_CENTS : 0);
+                    double redeemedAmount = redeemed ? RateCard.dollars(FLEX_REDEMPTION_CENTS) : 0.0;
+
+                    trip.setBill(bill);
+                    trip.setFlexRedeemed(redeemed);
+                    trip.setFlexRedeemedAmount(redeemedAmount);
+
+                    // If station is low capacity, award flex
+                    if (rider != null && station.getNumDockedBikes() < (0.25 * station.getCapacity())) {
+                        flexDollars += 2;
+                        trip.setFlexAwarded(true);
+                        trip.setFlexAwardAmount(2);
+                    }
+
+                    timer.mark("billing");
+
+                    // All changes commit together
+                    txn.saveBike(bike);
+                    txn.saveDock(dock);
+                    txn.saveStation(station);
+                    txn.saveTrip(trip);
+                    txn.saveBill(bill);
+                    if (rider != null) {
+                        riderUpdates.put("flexDollars", flexDollars);
+                        txn.updateRider(riderId, riderUpdates);
+                    }
+
+                    String message = String.format(
+                            "Trip ended successfully. Bike %s docked at dock %s at station %s (%s). " +
+                                    "Trip duration: %d minutes. Total cost: $%.2f (including tax).",
+                            bikeId, dockId, stationId, station.getStationName(),
+                            trip.getDurationMinutes(), bill.getTotal()
+                    );
+
+                    return new TripEndResponse(message, tierChange);
+                });
+            });
+        }).thenApply(response -> {
+            timer.mark("commit");
+            timer.finish();
+
+            // Extra safety: ensure reservation timer is cancelled when ending trip
+            ReservationManager.cancel(bikeId);
+            deadlineScheduler.cancel(bikeId);
+            journal.commit(ended[0].getTripId());
+            dashboard.publish();
+            demandForecaster.recordTrip(ended[0]);
+
+            return response;
+        });
     }
 
     // ==================== Trip Management Helper Methods ====================
 
-    /**
-     * Creates a new trip record
-     */
-    private Trip createTripRecord(String bikeId, String bikeType, String riderId,
-                                  String startDockId, String startStationId, String startStationName) throws ExecutionException, InterruptedException {
-        String tripId = idGeneratorService.generateTripId();
-        return new Trip(tripId, riderId, bikeId, bikeType, startStationId, startStationName, startDockId);
-    }
-
-    /**
-     * Retrieves the active trip for a specific bike and rider
-     */
-    private Trip getActiveTripForBike(String bikeId, String riderId)
-            throws ExecutionException, InterruptedException {
-
-        var tripQuery = db.collection("trips")
-                .whereEqualTo("bikeId", bikeId)
-                .whereEqualTo("riderId", riderId)
-                .whereEqualTo("status", Trip.STATUS_ACTIVE)
-                .limit(1)
-                .get()
-                .get()
-                .getDocuments();
-
-        if (tripQuery.isEmpty()) {
-            return null;
-        }
-
-        return tripQuery.get(0).toObject(Trip.class);
-    }
-
     /**
      * Calculates billing for a completed trip and creates a bill
      * Uses Strategy pattern - delegates bill creation to the payment strategy
      */
-    private Bill calculateAndCreateBill(Trip trip, Rider rider) throws ExecutionException, InterruptedException {
+    private Bill calculateAndCreateBill(Trip trip, Rider rider, String billId, long flexCreditCents) {
         if (trip.getDurationMinutes() == null) {
             trip.calculateDuration();
         }
@@ -500,31 +628,10 @@ public class TripService {
         long durationMinutes = trip.getDurationMinutes();
 
         // Select payment strategy based on bike type
-        PaymentStrategy paymentStrategy = selectPaymentStrategy(trip.getBikeType());
-
-
+        PaymentStrategy paymentStrategy = PaymentStrategies.forBikeType(trip.getBikeType());
 
         // Strategy creates the complete bill (cost + tax + total) and charge to rider
-        Bill bill = paymentStrategy.createBillAndProcessPayment(trip, durationMinutes, rider);
-
-        String billId = idGeneratorService.generateBillId();  // Creates BILL0001, BILL0002, etc.
-        bill.setBillId(billId);
-
-        return bill;
-    }
-
-    /**
-     * Selects the appropriate payment strategy based on bike type
-     *
-     * @param bikeType the type of bike used for the trip
-     * @return the appropriate payment strategy
-     */
-    private PaymentStrategy selectPaymentStrategy(String bikeType) {
-        if (bikeType != null && bikeType.toLowerCase().contains("electric")) {
-            return new OneTimeElectricPayment();
-        } else {
-            return new OneTimeStandardPayment();
-        }
+        return paymentStrategy.createBillAndProcessPayment(billId, trip, durationMinutes, rider, flexCreditCents);  // BILL0001, BILL0002, etc.
     }
 
     /**
@@ -533,8 +640,7 @@ public class TripService {
     public String updateBillPayment(String billId, String paymentMethodLastFour, String status)
             throws ExecutionException, InterruptedException {
 
-        DocumentSnapshot billDoc = db.collection("bills").document(billId).get().get();
-        Bill bill = billDoc.toObject(Bill.class);
+        Bill bill = billRepository.findById(billId);
 
         if (bill == null) {
             throw new IllegalArgumentException("Bill not found: " + billId);
@@ -543,7 +649,7 @@ public class TripService {
         bill.setPaymentMethodLastFour(paymentMethodLastFour);
         bill.setStatus(status);
 
-        db.collection("bills").document(billId).set(bill).get();
+        billRepository.save(bill);
 
         return "Bill " + billId + " updated successfully. Status: " + status;
     }
@@ -552,66 +658,132 @@ public class TripService {
      * Retrieves a trip by ID
      */
     public Trip getTripById(String tripId) throws ExecutionException, InterruptedException {
-        DocumentSnapshot doc = db.collection("trips").document(tripId).get().get();
-        if (!doc.exists()) {
+        Trip trip = tripRepository.findById(tripId);
+        if (trip == null) {
             throw new IllegalArgumentException("Trip not found: " + tripId);
         }
-        return doc.toObject(Trip.class);
+        return trip;
     }
 
     /**
      * Retrieves a bill by ID
      */
     public Bill getBillById(String billId) throws ExecutionException, InterruptedException {
-        DocumentSnapshot doc = db.collection("bills").document(billId).get().get();
-        if (!doc.exists()) {
+        Bill bill = billRepository.findById(billId);
+        if (bill == null) {
             throw new IllegalArgumentException("Bill not found: " + billId);
         }
-        return doc.toObject(Bill.class);
+        return bill;
     }
 
     /**
-     * Get all trips
+     * One page of trips, newest first
+     * @param nextCursor passed back for the following page, or null on the last page
      */
-    public List<Trip> getAllTrips() throws ExecutionException, InterruptedException {
-        CollectionReference tripsRef = db.collection("trips");
-        ApiFuture<QuerySnapshot> future = tripsRef.get();
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
+    public record TripPage(List<Trip> trips, String nextCursor) {}
 
-        List<Trip> trips = new ArrayList<>();
+    /**
+     * One page of bills, from the newest trips first
+     * @param nextCursor passed back for the following page, or null on the last page
+     */
+    public record BillPage(List<Bill> bills, String nextCursor) {}
 
-        for (QueryDocumentSnapshot doc : documents) {
-            if (doc.exists()) {
-                Trip trip = doc.toObject(Trip.class);
-                if (trip != null) trips.add(trip);
+    /**
+     * Gets one page of trips, every rider's or one rider's, newest start first
+     * Only the page is read from the store, so memory stays bounded however long the history is.
+     *
+     * @param riderId only this rider's trips, or null
+     * @param from    only trips started at or after this time, or null
+     * @param to      only trips started before this time, or null
+     * @param cursor  nextCursor of the previous page, or null for the first page
+     * @param fields  trip fields to return, or null for whole trips; tripId and startTime are always returned
+     */
+    public TripPage getTripPage(String riderId, Timestamp from, Timestamp to, String cursor, int limit,
+                                Set<String> fields) throws ExecutionException, InterruptedException {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (from != null && to != null && from.compareTo(to) >= 0) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (fields != null) {
+            for (String field : fields) {
+                if (!TripRepository.FIELDS.contains(field)) {
+                    throw new IllegalArgumentException("Unknown trip field: " + field);
+                }
             }
         }
+        PageCursor after = PageCursor.decode(cursor);
 
-        return trips;
+        // one trip past the page tells whether another page follows
+        List<Trip> trips = tripRepository.findPage(new TripRepository.PageQuery(riderId, from, to,
+                after != null ? after.startTime() : null, after != null ? after.tripId() : null, limit + 1, fields));
+        if (trips.size() <= limit) {
+            return new TripPage(trips, null);
+        }
+        trips = new ArrayList<>(trips.subList(0, limit));
+        Trip last = trips.get(limit - 1);
+        return new TripPage(trips, new PageCursor(last.getStartTime(), last.getTripId()).encode());
+    }
+
+    /**
+     * Gets one page of a rider's bills, from their newest trips first
+     * Pages over the rider's trips loading only their bills; trips without a bill (still active,
+     * cancelled) are skipped, so a page can hold fewer than limit bills while more follow.
+     */
+    public BillPage getBillPage(String riderId, Timestamp from, Timestamp to, String cursor, int limit)
+            throws ExecutionException, InterruptedException {
+        if (riderId == null || riderId.isBlank()) {
+            throw new IllegalArgumentException("Rider ID is required");
+        }
+        TripPage page = getTripPage(riderId, from, to, cursor, limit, BILL_FIELDS);
+        List<Bill> bills = page.trips().stream()
+                .map(Trip::getBill)
+                .filter(Objects::nonNull)
+                .toList();
+        return new BillPage(bills, page.nextCursor());
     }
 
     /**
-     * Get all trips for a specific rider (userId)
+     * Position after the last trip of a page, as an opaque URL-safe token
      */
-    public List<Trip> getRiderTrips(String riderId) throws ExecutionException, InterruptedException {
-    var future = db.collection("trips")
-            .whereEqualTo("riderId", riderId)
-            .get();
-
-    List<QueryDocumentSnapshot> docs = future.get().getDocuments();
-    List<Trip> trips = new ArrayList<>();
-
-    for (QueryDocumentSnapshot doc : docs) {
-        if (doc.exists()) {
-            Trip trip = doc.toObject(Trip.class);
-            if (trip != null) trips.add(trip);
+    private record PageCursor(Timestamp startTime, String tripId) {
+
+        String encode() {
+            String key = startTime.getSeconds() + ":" + startTime.getNanos() + ":" + tripId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static PageCursor decode(String cursor) {
+            if (cursor == null || cursor.isEmpty()) return null;
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+                return new PageCursor(Timestamp.ofTimeSecondsAndNanos(Long.parseLong(parts[0]), Integer.parseInt(parts[1])),
+                        parts[2]);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
         }
     }
-    return trips;
-}
 
 
 
+    /**
+     * Counts a starting trip in the rider's stored stats, so Bronze is withheld until the bike is returned
+     * A rider that no longer exists has nothing to update
+     */
+    private CompletableFuture<RiderStatsAggregate> recordStartedTrip(CompletableFuture<Rider> riderRead) {
+        return riderRead.thenCompose(rider -> rider != null
+                ? loyaltyStatsService.recordStartedTripAsync(rider)
+                : CompletableFuture.completedFuture(null));
+    }
+
+    private void saveStartedTrip(StoreTransaction txn, String riderId, RiderStatsAggregate stats) {
+        if (stats != null) {
+            txn.updateRider(riderId, Map.of("loyaltyStats", stats));
+        }
+    }
+
     // ==================== Validation Helper Methods ====================
 
     /**
@@ -686,34 +858,30 @@ public class TripService {
 
     public String reportBike(String tripId, String issue) throws ExecutionException, InterruptedException, IOException {
         // Get trip document
-        DocumentSnapshot tripDoc = db.collection("trips").document(tripId).get().get();
-        if (!tripDoc.exists()) {
+        Trip trip = tripRepository.findById(tripId);
+        if (trip == null) {
             throw new IllegalArgumentException("Trip not found: " + tripId);
         }
 
         // Extract bikeId from the trip
-        String bikeId = tripDoc.getString("bikeId");
+        String bikeId = trip.getBikeId();
         if (bikeId == null || bikeId.isEmpty()) {
             throw new IllegalArgumentException("Trip " + tripId + " does not contain a valid bikeId");
         }
 
         // Get the corresponding bike document
-        DocumentReference bikeRef = db.collection("bikes").document(bikeId);
-        DocumentSnapshot bikeDoc = bikeRef.get().get();
-        if (!bikeDoc.exists()) {
+        Bike bike = bikeRepository.findById(bikeId);
+        if (bike == null) {
             throw new IllegalArgumentException("Bike not found: " + bikeId);
         }
 
         // Update bike status to maintenance
-        Bike bike = bikeDoc.toObject(Bike.class);
         System.out.println(bike);
-        if (bike == null)
-            throw new NullPointerException("BikeId " + bikeId + " leads to null");
 
         bike.changeStatus(Bike.STATUS_MAINTENANCE);
 
         // persist changes
-        db.collection("bikes").document(bikeId).set(bike).get();
+        bikeRepository.save(bike);
 
         // Log the issue to a local file
         String logEntry = String.format(
@@ -1,41 +1,36 @@
 package com.concordia.velocity.service;
 
 import com.concordia.velocity.model.Rider;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.DocumentReference;    
-import com.google.firebase.cloud.FirestoreClient;
-import com.google.cloud.firestore.SetOptions;
+import com.concordia.velocity.repository.RiderRepository;
+import com.google.cloud.Timestamp;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 @Service
 public class UserService {
 
-    private final Firestore db = FirestoreClient.getFirestore();
+    private final RiderRepository riderRepository;
+
+    public UserService(RiderRepository riderRepository) {
+        this.riderRepository = riderRepository;
+    }
 
     //Fetch user info by ID (document ID or email) 
     public Rider getUserById(String userId) throws ExecutionException, InterruptedException {
-        DocumentSnapshot doc = db.collection("riders").document(userId).get().get();
-
-        if (!doc.exists()) return null;
+        return riderRepository.findById(userId);
+    }
 
-        Rider rider = doc.toObject(Rider.class);
-        if (rider != null) rider.setId(doc.getId());
-        return rider;
+    public CompletableFuture<Rider> getUserByIdAsync(String userId) {
+        return riderRepository.findByIdAsync(userId);
     }
 
     //Check if an email already exists (for uniqueness) 
     public boolean emailExists(String email) throws ExecutionException, InterruptedException {
-        var query = db.collection("riders")
-                .whereEqualTo("email", email)
-                .limit(1)
-                .get()
-                .get();
-        return !query.isEmpty();
+        return riderRepository.existsByEmail(email);
     }
 
     // Create a new rider (only if email is unique)
@@ -47,7 +42,7 @@ public class UserService {
             return response;
         }
 
-        db.collection("riders").document(rider.getEmail()).set(rider).get();
+        riderRepository.save(rider.getEmail(), rider);
         response.put("message", "Rider created successfully");
         response.put("email", rider.getEmail());
         return response;
@@ -56,8 +51,7 @@ public class UserService {
     public Map<String, Object> updateUser(String userId, Map<String, Object> updates) throws ExecutionException, InterruptedException {
         Map<String, Object> response = new HashMap<>();
 
-        DocumentReference docRef = db.collection("riders").document(userId);
-        docRef.set(updates, SetOptions.merge()).get();
+        riderRepository.update(userId, updates);
 
         response.put("message", "Rider updated successfully");
         response.put("userId", userId);
@@ -67,12 +61,15 @@ public class UserService {
     public Map<String, Object> deleteUser(String userId) throws ExecutionException, InterruptedException {
         Map<String, Object> response = new HashMap<>();
 
-        db.collection("riders").document(userId).delete().get();
+        riderRepository.delete(userId);
         response.put("message", "Rider deleted successfully");
         response.put("userId", userId);
         return response;
     }
 
+    // Records a reservation the rider let expire (counts against loyalty tiers)
+    public void recordMissedReservation(String userId) throws ExecutionException, InterruptedException {
+        riderRepository.addMissedReservation(userId, Timestamp.now());
+    }
 
 }
-
@@ -41,4 +41,12 @@ public class BronzeTierState implements TierState {
     public int getExtraHoldMinutes() {
         return hold;
     }
+    @Override
+    public int getLevel() {
+        return 1;
+    }
+    @Override
+    public int getDiscountBasisPoints() {
+        return (int) Math.round(discount * 10000);
+    }
 }
@@ -35,4 +35,12 @@ public class GoldTierState implements TierState {
     public int getExtraHoldMinutes() {
         return hold;
     }
+    @Override
+    public int getLevel() {
+        return 3;
+    }
+    @Override
+    public int getDiscountBasisPoints() {
+        return (int) Math.round(discount * 10000);
+    }
 }
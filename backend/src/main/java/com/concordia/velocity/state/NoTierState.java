@@ -22,4 +22,12 @@ public class NoTierState implements TierState {
     public int getExtraHoldMinutes() {
         return hold; //no extra hold minutes in this tier state
     }
-}
\ No newline at end of file
+    @Override
+    public int getLevel() {
+        return 0;
+    }
+    @Override
+    public int getDiscountBasisPoints() {
+        return (int) Math.round(discount * 10000);
+    }
+}
@@ -47,4 +47,12 @@ public class SilverTierState implements TierState {
     public int getExtraHoldMinutes() {
         return hold;
     }
+    @Override
+    public int getLevel() {
+        return 2;
+    }
+    @Override
+    public int getDiscountBasisPoints() {
+        return (int) Math.round(discount * 10000);
+    }
 }
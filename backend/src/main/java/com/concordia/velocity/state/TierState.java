@@ -6,4 +6,14 @@ public interface TierState {
     public void evaluateTier(Rider rider, RiderStats riderStats);
     public double applyDiscount(double price);
     public int getExtraHoldMinutes();
+
+    /**
+     * Position in the tier ladder, 0 for no tier up to 3 for Gold
+     */
+    public int getLevel();
+
+    /**
+     * The tier's trip discount in basis points (1/100 of a percent), for integer-cents billing
+     */
+    public int getDiscountBasisPoints();
 }
@@ -4,47 +4,28 @@ import com.concordia.velocity.model.Bill;
 import com.concordia.velocity.model.Rider;
 import com.concordia.velocity.model.Trip;
 
-import java.util.UUID;
-
 /**
  * Payment strategy for abandoned trips (trips active >12 hours)
  * Pricing: Fixed $333.00 fee (no per-minute charges)
- * Note: Tier discounts do NOT apply to abandonment fees
+ * Note: Tier discounts and flex credit do NOT apply to abandonment fees
  */
 public class AbandonedPayment implements PaymentStrategy {
 
-    private static final double ABANDONMENT_FEE = 333.00;
-    private static final double TAX_RATE = 0.14975; // 14.975% tax
+    private static final long ABANDONMENT_FEE_CENTS = 33300;
+    private static final long TAX_PER_100K = 14975; // 14.975% tax
+
+    private static final RateCard RATES = RateCard.flat(ABANDONMENT_FEE_CENTS, TAX_PER_100K);
 
     @Override
-    public Bill createBillAndProcessPayment(Trip trip, long durationMinutes, Rider rider) {
+    public Bill createBillAndProcessPayment(String billId, Trip trip, long durationMinutes, Rider rider, long flexCreditCents) {
         // Fixed abandonment fee - no discounts apply
-        double cost = ABANDONMENT_FEE; // cost = base cost
-        double discount = 0.0; // No tier discounts for abandonment
-        double operatorDiscount = 0.0;
-
-        // Round to 2 decimal places
-        cost = Math.round(cost * 100.0) / 100.0;
-
-        // Create bill with abandonment fee
-        String billId = UUID.randomUUID().toString();
-        Bill bill = new Bill(billId, trip.getTripId(), trip.getRiderId(), cost, cost, discount, operatorDiscount, 0, 0);
-
-        // Calculate tax and total
-        bill.calculateTax(TAX_RATE);
-
-        // Round total and tax to 2 decimal places
-        bill.setTotal(Math.round(bill.getTotal() * 100.0) / 100.0);
-        bill.setTax(Math.round(bill.getTax() * 100.0) / 100.0);
-
-        // Mark as paid (charge the user's payment method)
-        bill.setStatus("paid");
+        Bill bill = RATES.bill(billId, trip, durationMinutes, rider, flexCreditCents);
 
         System.out.println(String.format(
                 "[ABANDONED PAYMENT] Created abandonment bill for rider %s: " +
                         "Fee=$%.2f, Tax=$%.2f, Total=$%.2f (Duration: %d minutes)",
                 rider != null ? rider.getFullName() : trip.getRiderId(),
-                ABANDONMENT_FEE,
+                bill.getCost(),
                 bill.getTax(),
                 bill.getTotal(),
                 durationMinutes
@@ -53,23 +34,28 @@ public class AbandonedPayment implements PaymentStrategy {
         return bill;
     }
 
+    @Override
+    public RateCard getRateCard() {
+        return RATES;
+    }
+
     /**
      * Gets the abandonment fee
      */
     public double getAbandonmentFee() {
-        return ABANDONMENT_FEE;
+        return RateCard.dollars(ABANDONMENT_FEE_CENTS);
     }
 
     /**
      * Gets the tax rate
      */
     public double getTaxRate() {
-        return TAX_RATE;
+        return RATES.getTaxRate();
     }
 
     @Override
     public String toString() {
         return String.format("AbandonedPayment{fee=$%.2f, taxRate=%.2f%%}",
-                ABANDONMENT_FEE, TAX_RATE * 100);
+                getAbandonmentFee(), getTaxRate() * 100);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package com.concordia.velocity.strategy;
+
+/**
+ * The shared payment strategy instances
+ * Strategies hold no per-trip state and their rate tables are built once, so every bill reuses these.
+ */
+public final class PaymentStrategies {
+
+    public static final OneTimeStandardPayment STANDARD = new OneTimeStandardPayment();
+    public static final OneTimeElectricPayment ELECTRIC = new OneTimeElectricPayment();
+    public static final AbandonedPayment ABANDONED = new AbandonedPayment();
+
+    private PaymentStrategies() {
+    }
+
+    /**
+     * The strategy a completed trip on this type of bike is billed with
+     */
+    public static PaymentStrategy forBikeType(String bikeType) {
+        if (bikeType != null && bikeType.toLowerCase().contains("electric")) {
+            return ELECTRIC;
+        }
+        return STANDARD;
+    }
+}
@@ -4,17 +4,34 @@ import com.concordia.velocity.model.Bill;
 import com.concordia.velocity.model.Rider;
 import com.concordia.velocity.model.Trip;
 
+import java.util.UUID;
+
 /**
  * Strategy interface for calculating trip costs and creating bills
  * Allows different pricing strategies based on bike type and payment plans
+ * Implementations are stateless; PaymentStrategies holds the shared instances.
  */
 public interface PaymentStrategy {
 
     /**
      * Calculates the cost for a trip and creates a complete Bill object
-     * @param trip the ID of the trip being billed
+     * @param billId the ID the bill is stored under
+     * @param trip the trip being billed
      * @param durationMinutes the trip duration in minutes
+     * @param flexCreditCents flex dollar credit redeemed against the cost, 0 for none
      * @return a complete Bill object with cost, tax, and total calculated
      */
-    Bill createBillAndProcessPayment(Trip trip, long durationMinutes, Rider rider);
-}
\ No newline at end of file
+    Bill createBillAndProcessPayment(String billId, Trip trip, long durationMinutes, Rider rider, long flexCreditCents);
+
+    /**
+     * Bills a trip with no flex credit under a random bill ID
+     */
+    default Bill createBillAndProcessPayment(Trip trip, long durationMinutes, Rider rider) {
+        return createBillAndProcessPayment(UUID.randomUUID().toString(), trip, durationMinutes, rider, 0);
+    }
+
+    /**
+     * The prices this strategy bills with
+     */
+    RateCard getRateCard();
+}
@@ -0,0 +1,151 @@
+package com.concordia.velocity.strategy;
+
+import com.concordia.velocity.model.Bill;
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.state.BronzeTierState;
+import com.concordia.velocity.state.GoldTierState;
+import com.concordia.velocity.state.NoTierState;
+import com.concordia.velocity.state.SilverTierState;
+import com.concordia.velocity.state.TierState;
+
+/**
+ * Prices for one payment strategy, computed in whole cents
+ *
+ * Amounts are longs in cents and rates are integer fractions, rounded half up once per amount,
+ * so a bill's cost, discounts, tax and total always add up. The tier and operator discounts for
+ * every trip length up to TABLE_MINUTES are worked out once per tier when the card is built;
+ * longer trips fall back to computing them. Dollars only appear when the Bill is filled in.
+ *
+ * The operator discount is taken on the base price, like the tier discount, and the two are
+ * rounded together, so costs match the former double arithmetic except on exact half cents.
+ */
+public final class RateCard {
+
+    /** Trips longer than this are abandoned (AbandonedTripService), so this covers every regular trip */
+    public static final int TABLE_MINUTES = 240;
+
+    private static final long OPERATOR_DISCOUNT_BASIS_POINTS = 1000;
+    private static final long TAX_SCALE = 100_000;
+
+    private static final TierState[] TIERS = {
+            new NoTierState(), new BronzeTierState(), new SilverTierState(), new GoldTierState()
+    };
+
+    private final long baseCents;
+    private final long perMinuteCents;
+    private final long taxPer100k;
+    private final boolean discountsApply;
+
+    // [tier level][minutes] tier discount, and [tier level * 2 + operator][minutes] tier plus operator discount
+    private final long[][] tierDiscountCents;
+    private final long[][] totalDiscountCents;
+
+    private RateCard(long baseCents, long perMinuteCents, long taxPer100k, boolean discountsApply) {
+        this.baseCents = baseCents;
+        this.perMinuteCents = perMinuteCents;
+        this.taxPer100k = taxPer100k;
+        this.discountsApply = discountsApply;
+
+        if (discountsApply) {
+            tierDiscountCents = new long[TIERS.length][TABLE_MINUTES + 1];
+            totalDiscountCents = new long[TIERS.length * 2][TABLE_MINUTES + 1];
+            for (TierState tier : TIERS) {
+                int level = tier.getLevel();
+                for (int minutes = 0; minutes <= TABLE_MINUTES; minutes++) {
+                    long base = baseCents(minutes);
+                    tierDiscountCents[level][minutes] = share(base, tier.getDiscountBasisPoints(), 10_000);
+                    totalDiscountCents[level * 2][minutes] = tierDiscountCents[level][minutes];
+                    totalDiscountCents[level * 2 + 1][minutes] =
+                            share(base, tier.getDiscountBasisPoints() + OPERATOR_DISCOUNT_BASIS_POINTS, 10_000);
+                }
+            }
+        } else {
+            tierDiscountCents = null;
+            totalDiscountCents = null;
+        }
+    }
+
+    /**
+     * A base fee plus a per-minute price, with tier and operator discounts and flex credit
+     * @param taxPer100k tax rate in parts per hundred thousand (14975 for 14.975%)
+     */
+    public static RateCard perMinute(long baseCents, long perMinuteCents, long taxPer100k) {
+        return new RateCard(baseCents, perMinuteCents, taxPer100k, true);
+    }
+
+    /**
+     * A fixed fee whatever the duration, with no discounts or credit
+     */
+    public static RateCard flat(long feeCents, long taxPer100k) {
+        return new RateCard(feeCents, 0, taxPer100k, false);
+    }
+
+    /**
+     * Prices a trip and fills in a paid bill in one pass
+     * Tier and operator discounts come off the base price, then the flex credit, then tax is added.
+     * @param flexCreditCents credit the rider redeems on this trip, ignored where discounts don't apply
+     */
+    public Bill bill(String billId, Trip trip, long durationMinutes, Rider rider, long flexCreditCents) {
+        long minutes = Math.max(0, durationMinutes);
+        long base = baseCents(minutes);
+        long tierDiscount = 0;
+        long totalDiscount = 0;
+        long cost = base;
+
+        if (discountsApply) {
+            if (rider != null) {
+                TierState tier = rider.getTierState();
+                int level = tier.getLevel();
+                int operator = Boolean.TRUE.equals(rider.getIsOperator()) ? 1 : 0;
+                if (minutes <= TABLE_MINUTES && level >= 0 && level < TIERS.length) {
+                    tierDiscount = tierDiscountCents[level][(int) minutes];
+                    totalDiscount = totalDiscountCents[level * 2 + operator][(int) minutes];
+                } else {
+                    tierDiscount = share(base, tier.getDiscountBasisPoints(), 10_000);
+                    totalDiscount = share(base, tier.getDiscountBasisPoints() + operator * OPERATOR_DISCOUNT_BASIS_POINTS, 10_000);
+                }
+            }
+            cost = Math.max(0, base - totalDiscount - Math.max(0, flexCreditCents));
+        }
+
+        long tax = share(cost, taxPer100k, TAX_SCALE);
+        Bill bill = new Bill(billId, trip.getTripId(), trip.getRiderId(), dollars(base), dollars(cost),
+                dollars(tierDiscount), dollars(totalDiscount - tierDiscount), dollars(tax), dollars(cost + tax));
+
+        // process bill payment here --> get user credit card and charge
+        bill.setStatus("paid");
+        return bill;
+    }
+
+    public long baseCents(long durationMinutes) {
+        return baseCents + durationMinutes * perMinuteCents;
+    }
+
+    public long getBaseCents() {
+        return baseCents;
+    }
+
+    public long getPerMinuteCents() {
+        return perMinuteCents;
+    }
+
+    public double getTaxRate() {
+        return (double) taxPer100k / TAX_SCALE;
+    }
+
+    public static double dollars(long cents) {
+        return cents / 100.0;
+    }
+
+    public static long cents(double dollars) {
+        return Math.round(dollars * 100.0);
+    }
+
+    /**
+     * amount * numerator / denominator, rounded half up
+     */
+    static long share(long amount, long numerator, long denominator) {
+        return (amount * numerator + denominator / 2) / denominator;
+    }
+}
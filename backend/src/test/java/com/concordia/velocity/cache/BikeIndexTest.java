@@ -0,0 +1,62 @@
+package com.concordia.velocity.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import com.concordia.velocity.model.Bike;
+
+class BikeIndexTest {
+
+    private BikeIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new BikeIndex();
+        index.reload(List.of(
+                new Bike("B001", Bike.STATUS_AVAILABLE, "electric", "D001", "S001"),
+                new Bike("B002", Bike.STATUS_AVAILABLE, "standard", "D002", "S001"),
+                new Bike("B003", Bike.STATUS_RESERVED, "electric", "D003", "S001"),
+                new Bike("B004", Bike.STATUS_AVAILABLE, "electric", "D004", "S002")));
+    }
+
+    @Test
+    void findIntersectsAllFiltersTest() {
+        List<Bike> bikes = index.find("S001", Bike.STATUS_AVAILABLE, "electric");
+        assertEquals(1, bikes.size());
+        assertEquals("B001", bikes.get(0).getBikeId());
+
+        assertEquals(2, index.count("S001", Bike.STATUS_AVAILABLE, null));
+        assertEquals(3, index.count(null, null, "ELECTRIC"));
+        assertEquals(4, index.count(null, null, null));
+        assertTrue(index.find("S404", null, null).isEmpty());
+    }
+
+    @Test
+    void applyMovesBikeBetweenBitmapsTest() {
+        Bike moved = new Bike("B001", Bike.STATUS_ON_TRIP, "electric", null, null);
+        index.apply("B001", moved);
+
+        assertEquals(0, index.count("S001", Bike.STATUS_AVAILABLE, "electric"));
+        assertEquals(1, index.count(null, Bike.STATUS_ON_TRIP, null));
+
+        moved = new Bike("B001", Bike.STATUS_AVAILABLE, "electric", "D009", "S002");
+        index.apply("B001", moved);
+        assertEquals(2, index.count("S002", Bike.STATUS_AVAILABLE, "electric"));
+        assertEquals(4, index.count(null, null, null));
+    }
+
+    @Test
+    void removedOrdinalsAreReusedTest() {
+        index.apply("B002", null);
+        assertEquals(3, index.count(null, null, null));
+        assertEquals(0, index.count(null, null, "standard"));
+
+        index.apply("B005", new Bike("B005", Bike.STATUS_MAINTENANCE, "standard", "D005", "S003"));
+        assertEquals(4, index.stats().get("ordinals"));
+        assertEquals("B005", index.find("S003", null, null).get(0).getBikeId());
+    }
+}
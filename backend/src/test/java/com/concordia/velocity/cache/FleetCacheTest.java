@@ -0,0 +1,128 @@
+package com.concordia.velocity.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.repository.FleetChangeListener;
+import com.concordia.velocity.repository.local.LocalBikeRepository;
+import com.concordia.velocity.repository.local.LocalDockRepository;
+import com.concordia.velocity.repository.local.LocalFleetChangeFeed;
+import com.concordia.velocity.repository.local.LocalStationRepository;
+import com.concordia.velocity.repository.local.LocalStore;
+
+class FleetCacheTest {
+
+    private LocalBikeRepository bikeRepository;
+    private LocalDockRepository dockRepository;
+    private LocalStationRepository stationRepository;
+    private FleetCache fleetCache;
+
+    @BeforeEach
+    void setup() {
+        LocalStore store = new LocalStore();
+        bikeRepository = new LocalBikeRepository(store);
+        dockRepository = new LocalDockRepository(store);
+        bikeRepository.save(new Bike("B001", Bike.STATUS_AVAILABLE, "standard", "D001", "S001"));
+
+        stationRepository = new LocalStationRepository(store);
+        fleetCache = new FleetCache(stationRepository, dockRepository, bikeRepository,
+                new LocalFleetChangeFeed(store), 30000);
+        fleetCache.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleetCache.stop();
+    }
+
+    @Test
+    void warmUpLoadsExistingEntitiesTest() throws Exception {
+        List<Bike> bikes = fleetCache.getAllBikes();
+        assertEquals(1, bikes.size());
+        assertEquals("B001", bikes.get(0).getBikeId());
+    }
+
+    @Test
+    void writesReachCacheThroughFeedTest() throws Exception {
+        List<Bike> before = fleetCache.getAllBikes();
+        assertSame(before, fleetCache.getAllBikes());
+
+        Bike bike = bikeRepository.findById("B001");
+        bike.setStatus(Bike.STATUS_MAINTENANCE);
+        bikeRepository.save(bike);
+        dockRepository.save(new Dock("D001", Dock.STATUS_OCCUPIED, "B001", "S001"));
+
+        assertEquals(Bike.STATUS_MAINTENANCE, fleetCache.getAllBikes().get(0).getStatus());
+        assertEquals(1, fleetCache.getAllDocks().size());
+    }
+
+    @Test
+    void bikeIndexFollowsStatusChangesTest() throws Exception {
+        assertEquals(1, fleetCache.findBikes("S001", Bike.STATUS_AVAILABLE, "standard").size());
+
+        Bike bike = bikeRepository.findById("B001");
+        bike.changeStatus(Bike.STATUS_MAINTENANCE);
+        bikeRepository.save(bike);
+
+        assertTrue(fleetCache.findBikes("S001", Bike.STATUS_AVAILABLE, null).isEmpty());
+        assertEquals(1, fleetCache.countBikes("S001", Bike.STATUS_MAINTENANCE, null));
+    }
+
+    @Test
+    void failedFeedReloadsOnceStaleTest() throws Exception {
+        FleetCache shortLived = new FleetCache(new LocalStationRepository(new LocalStore()), dockRepository,
+                bikeRepository, listener -> () -> { }, 0);
+        shortLived.start();
+        shortLived.failed(FleetChangeListener.BIKES, new RuntimeException("listener closed"));
+
+        bikeRepository.save(new Bike("B002", Bike.STATUS_AVAILABLE, "electric", "D002", "S001"));
+        Thread.sleep(5);
+
+        assertEquals(2, shortLived.getAllBikes().size());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> bikeStats = (Map<String, Object>) shortLived.getStats().get(FleetChangeListener.BIKES);
+        assertEquals(1L, bikeStats.get("misses"));
+        assertEquals(false, bikeStats.get("live"));
+    }
+
+    @Test
+    void nearestStationsFollowFeedTest() throws Exception {
+        stationRepository.save(new Station("S001", "Downtown", "empty", "45.5017", "-73.5673", "1 Main St",
+                10, 0, 5, new ArrayList<>(), new ArrayList<>(), 0, 0));
+        stationRepository.save(new Station("S002", "Old Port", "occupied", "45.5070", "-73.5540", "2 Main St",
+                10, 3, 5, new ArrayList<>(), new ArrayList<>(), 0, 3));
+
+        List<NearbyStation> nearest = fleetCache.findNearestStations(45.5017, -73.5673, 2, false, false);
+        assertEquals("S001", nearest.get(0).station().getStationId());
+        assertEquals("S002", fleetCache.findNearestStations(45.5017, -73.5673, 2, true, false).get(0).station().getStationId());
+
+        Station downtown = stationRepository.findById("S001");
+        downtown.setNumDockedBikes(2);
+        stationRepository.save(downtown);
+        assertEquals("S001", fleetCache.findNearestStations(45.5017, -73.5673, 1, true, false).get(0).station().getStationId());
+    }
+
+    @Test
+    void statsCountHitsTest() throws Exception {
+        fleetCache.getAllBikes();
+        fleetCache.getAllBikes();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> bikeStats = (Map<String, Object>) fleetCache.getStats().get(FleetChangeListener.BIKES);
+        assertEquals(2L, bikeStats.get("hits"));
+        assertEquals(0L, bikeStats.get("misses"));
+        assertTrue((Boolean) bikeStats.get("live"));
+    }
+}
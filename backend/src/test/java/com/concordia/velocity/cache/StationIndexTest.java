@@ -0,0 +1,127 @@
+package com.concordia.velocity.cache;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.concordia.velocity.model.Station;
+
+class StationIndexTest {
+
+    @Test
+    void nearestMatchesBruteForceTest() {
+        Random random = new Random(343);
+        List<Station> stations = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int docked = random.nextInt(11);
+            stations.add(station(String.format("S%04d", i),
+                    45.40 + random.nextDouble() * 0.25, -73.75 + random.nextDouble() * 0.30, 10, docked));
+        }
+        StationIndex index = new StationIndex();
+        index.reload(stations);
+
+        for (int query = 0; query < 200; query++) {
+            double lat = 45.40 + random.nextDouble() * 0.25;
+            double lon = -73.75 + random.nextDouble() * 0.30;
+            boolean hasBikes = query % 3 == 1;
+            boolean hasDocks = query % 3 == 2;
+
+            List<NearbyStation> nearest = index.nearest(lat, lon, 7,
+                    station -> (!hasBikes || station.hasBikesAvailable()) && (!hasDocks || station.hasAvailableSpace()));
+
+            List<Station> expected = stations.stream()
+                    .filter(station -> (!hasBikes || station.hasBikesAvailable()) && (!hasDocks || station.hasAvailableSpace()))
+                    .sorted(Comparator.comparingDouble(station -> distance(lat, lon, station)))
+                    .limit(7)
+                    .toList();
+
+            assertEquals(expected.size(), nearest.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getStationId(), nearest.get(i).station().getStationId());
+                assertEquals(distance(lat, lon, expected.get(i)), nearest.get(i).distanceMeters(), 0.01);
+            }
+        }
+    }
+
+    @Test
+    void distanceIsGreatCircleTest() {
+        // one degree of latitude is about 111.2 km
+        assertEquals(111_195, StationIndex.distanceMeters(45.0, -73.0, 46.0, -73.0), 1);
+        // across the antimeridian
+        assertEquals(StationIndex.distanceMeters(0, 179.5, 0, -179.5), StationIndex.distanceMeters(0, 0, 0, 1), 0.001);
+    }
+
+    @Test
+    void occupancyChangesAreSeenWithoutRebuildTest() {
+        StationIndex index = new StationIndex();
+        index.reload(List.of(
+                station("S001", 45.5017, -73.5673, 10, 0),
+                station("S002", 45.5070, -73.5540, 10, 4)));
+
+        assertEquals("S002", index.nearest(45.5017, -73.5673, 1, Station::hasBikesAvailable).get(0).station().getStationId());
+        long rebuilds = (long) index.stats().get("rebuilds");
+
+        index.apply("S001", station("S001", 45.5017, -73.5673, 10, 3));
+        assertEquals("S001", index.nearest(45.5017, -73.5673, 1, Station::hasBikesAvailable).get(0).station().getStationId());
+        assertEquals(rebuilds, index.stats().get("rebuilds"));
+    }
+
+    @Test
+    void movedAddedAndRemovedStationsAreReindexedTest() {
+        StationIndex index = new StationIndex();
+        index.reload(List.of(
+                station("S001", 45.5017, -73.5673, 10, 5),
+                station("S002", 45.5070, -73.5540, 10, 5)));
+
+        index.apply("S002", station("S002", 45.5018, -73.5672, 10, 5));
+        index.apply("S003", station("S003", 45.6000, -73.6000, 10, 5));
+        index.apply("S001", null);
+
+        List<NearbyStation> nearest = index.nearest(45.5017, -73.5673, 5, null);
+        assertEquals(2, nearest.size());
+        assertEquals("S002", nearest.get(0).station().getStationId());
+        assertEquals("S003", nearest.get(1).station().getStationId());
+        assertTrue(nearest.get(0).distanceMeters() < 20);
+    }
+
+    @Test
+    void stationsWithoutCoordinatesAreLeftOutTest() {
+        StationIndex index = new StationIndex();
+        Station unlocated = station("S002", 0, 0, 10, 5);
+        unlocated.setLatitude("not a latitude");
+        index.reload(List.of(station("S001", 45.5017, -73.5673, 10, 5), unlocated));
+
+        assertEquals(1, index.nearest(45.5, -73.5, 5, null).size());
+        Map<String, Object> stats = index.stats();
+        assertEquals(1, stats.get("stations"));
+        assertEquals(1, stats.get("unlocated"));
+
+        index.apply("S002", station("S002", 45.5, -73.5, 10, 5));
+        assertEquals(2, index.nearest(45.5, -73.5, 5, null).size());
+        assertEquals(0, index.stats().get("unlocated"));
+    }
+
+    private static Station station(String stationId, double latitude, double longitude, int capacity, int docked) {
+        return new Station(stationId, "Station " + stationId, docked == 0 ? "empty" : docked == capacity ? "full" : "occupied",
+                String.valueOf(latitude), String.valueOf(longitude), "1 Main St", capacity, docked, 5,
+                new ArrayList<>(), new ArrayList<>(), 0, docked);
+    }
+
+    private static double distance(double lat, double lon, Station station) {
+        return haversine(lat, lon, Double.parseDouble(station.getLatitude()), Double.parseDouble(station.getLongitude()));
+    }
+
+    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * StationIndex.EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
+    }
+}
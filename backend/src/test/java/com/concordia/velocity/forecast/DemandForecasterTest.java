@@ -0,0 +1,224 @@
+package com.concordia.velocity.forecast;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Random;
+
+import com.concordia.velocity.forecast.DemandForecaster.HourlyDemand;
+import com.concordia.velocity.forecast.DemandForecaster.StationForecast;
+import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.local.LocalStore;
+import com.concordia.velocity.repository.local.LocalTripRepository;
+import com.google.cloud.Timestamp;
+
+class DemandForecasterTest {
+
+    private static final ZoneId MONTREAL = ZoneId.of("America/Montreal");
+    private static final long MINUTE = 60_000L;
+    private static final long WEEK = DemandCurves.WEEK_MILLIS;
+
+    // Monday 3 March 2025, 07:10 in Montreal
+    private static final long NOW = ZonedDateTime.of(2025, 3, 3, 7, 10, 0, 0, MONTREAL).toInstant().toEpochMilli();
+
+    private LocalTripRepository tripRepository;
+    private int nextTripId;
+
+    @BeforeEach
+    void setup() {
+        tripRepository = new LocalTripRepository(new LocalStore());
+    }
+
+    @Test
+    void hoursOfTheWeekFollowLocalTimeTest() {
+        DemandCurves curves = new DemandCurves(MONTREAL, 0);
+        // Monday 08:30 in winter (UTC-5) and summer (UTC-4)
+        assertEquals(8, curves.hourOfWeek(ZonedDateTime.of(2025, 3, 3, 8, 30, 0, 0, MONTREAL).toInstant().toEpochMilli()));
+        assertEquals(8, curves.hourOfWeek(ZonedDateTime.of(2025, 7, 7, 8, 30, 0, 0, MONTREAL).toInstant().toEpochMilli()));
+        // Sunday 23:59 is the last hour
+        assertEquals(167, curves.hourOfWeek(ZonedDateTime.of(2025, 3, 9, 23, 59, 0, 0, MONTREAL).toInstant().toEpochMilli()));
+        assertEquals(ZonedDateTime.of(2025, 3, 3, 7, 0, 0, 0, MONTREAL).toInstant().toEpochMilli(), curves.startOfHour(NOW));
+    }
+
+    @Test
+    void forecastAveragesTheWeeksObservedTest() throws Exception {
+        // the past four Mondays: three rides from S001 to S002 leaving at 08:05, back at 08:40
+        for (int week = 1; week <= 4; week++) {
+            for (int i = 0; i < 3; i++) {
+                tripRepository.save(completedTrip("S001", "S002", NOW - week * WEEK + 55 * MINUTE, 35));
+            }
+        }
+        DemandForecaster forecaster = new DemandForecaster(tripRepository, MONTREAL.getId(), 0);
+        assertEquals(12, forecaster.rebuild());
+
+        StationForecast source = forecaster.forecast("S001", NOW, 3);
+        assertEquals(3, source.hours().size());
+        HourlyDemand seven = source.hours().get(0);
+        HourlyDemand eight = source.hours().get(1);
+        assertEquals(7, seven.hourOfWeek());
+        assertEquals(0.0, seven.departures(), 1e-9);
+        assertEquals(3.0, eight.departures(), 1e-6);
+        assertEquals(-3.0, eight.netFlow(), 1e-6);
+        assertEquals(-3.0, source.netFlow(), 1e-6);
+
+        StationForecast destination = forecaster.forecast("S002", NOW, 3);
+        assertEquals(3.0, destination.arrivals(), 1e-6);
+        assertEquals(0.0, destination.departures(), 1e-9);
+
+        Map<String, Double> netFlow = forecaster.netFlow(NOW, 3);
+        assertEquals(-3.0, netFlow.get("S001"), 1e-6);
+        assertEquals(3.0, netFlow.get("S002"), 1e-6);
+        // the hour after the rides has no demand
+        assertEquals(0.0, forecaster.netFlow(NOW + 2 * 60 * MINUTE, 1).get("S001"), 1e-9);
+    }
+
+    @Test
+    void recentWeeksWeighMoreTest() throws Exception {
+        // demand at S001 on Mondays at 08:00 grew from one ride a week to six over eight weeks
+        for (int week = 1; week <= 8; week++) {
+            int rides = week <= 4 ? 6 : 1;
+            for (int i = 0; i < rides; i++) {
+                tripRepository.save(completedTrip("S001", "S002", NOW - week * WEEK + 55 * MINUTE, 10));
+            }
+        }
+        DemandForecaster flat = new DemandForecaster(tripRepository, MONTREAL.getId(), 0);
+        DemandForecaster decayed = new DemandForecaster(tripRepository, MONTREAL.getId(), 14);
+        flat.rebuild();
+        decayed.rebuild();
+
+        double flatDepartures = flat.forecast("S001", NOW, 2).departures();
+        double decayedDepartures = decayed.forecast("S001", NOW, 2).departures();
+        assertEquals(3.5, flatDepartures, 1e-6);
+        assertTrue(decayedDepartures > flatDepartures + 0.5, decayedDepartures + " vs " + flatDepartures);
+        assertTrue(decayedDepartures < 6.0, String.valueOf(decayedDepartures));
+    }
+
+    @Test
+    void tripsEndingAfterStartupMatchARebuildTest() throws Exception {
+        Random random = new Random(343);
+        DemandForecaster incremental = new DemandForecaster(tripRepository, MONTREAL.getId(), 56);
+        incremental.start();
+        for (int i = 0; i < 2000; i++) {
+            String from = "S00" + random.nextInt(5);
+            String to = "S00" + random.nextInt(5);
+            Trip trip = completedTrip(from, to, NOW - (long) (random.nextDouble() * 10 * WEEK), 5 + random.nextInt(40));
+            tripRepository.save(trip);
+            incremental.recordTrip(trip);
+        }
+        DemandForecaster rebuilt = new DemandForecaster(tripRepository, MONTREAL.getId(), 56);
+        rebuilt.rebuild();
+
+        Map<String, Double> expected = rebuilt.netFlow(NOW, 24);
+        Map<String, Double> actual = incremental.netFlow(NOW, 24);
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String stationId : expected.keySet()) {
+            assertEquals(expected.get(stationId), actual.get(stationId), 1e-3, stationId);
+        }
+    }
+
+    @Test
+    void onlyTripsThatLeftADockAreCountedTest() throws Exception {
+        tripRepository.save(completedTrip("S001", "S002", NOW - WEEK, 10));
+        Trip active = new Trip(tripId(), "R001", "B001", "standard", "S001", "Station S001", "D001");
+        tripRepository.save(active);
+        Trip cancelled = new Trip(tripId(), "R001", "B001", "standard", "S001", "Station S001", "D001");
+        cancelled.setStatus(Trip.STATUS_CANCELLED);
+        tripRepository.save(cancelled);
+        Trip abandoned = new Trip(tripId(), "R001", "B001", "standard", "S003", "Station S003", "D003");
+        abandoned.setStartTime(timestamp(NOW - WEEK));
+        abandoned.setStatus(Trip.STATUS_ABANDONED);
+        tripRepository.save(abandoned);
+
+        DemandForecaster forecaster = new DemandForecaster(tripRepository, MONTREAL.getId(), 0);
+        assertEquals(2, forecaster.rebuild());
+
+        Map<String, Double> netFlow = forecaster.netFlow(NOW, 1);
+        assertEquals(Map.of("S001", -1.0, "S002", 1.0, "S003", -1.0), netFlow);
+        assertFalse(forecaster.netFlow(NOW, 1).containsKey("S004"));
+        assertEquals(0.0, forecaster.forecast("S004", NOW, 1).netFlow());
+    }
+
+    @Test
+    void invalidHorizonsAreRejectedTest() {
+        DemandForecaster forecaster = new DemandForecaster(tripRepository, MONTREAL.getId(), 56);
+        assertThrows(IllegalArgumentException.class, () -> forecaster.forecast("S001", 0));
+        assertThrows(IllegalArgumentException.class, () -> forecaster.forecast("S001", DemandForecaster.MAX_HORIZON_HOURS + 1));
+        assertThrows(IllegalArgumentException.class, () -> forecaster.forecast(" ", 3));
+        assertThrows(IllegalArgumentException.class, () -> forecaster.netFlow(-1));
+    }
+
+    @Test
+    void countersDoNotGrowWithHistoryTest() {
+        DemandCurves curves = new DemandCurves(MONTREAL, 56 * 24 * DemandCurves.HOUR_MILLIS);
+        int trips = 50_000;
+        recordYear(curves, 1000, trips);
+
+        assertEquals(1000, curves.netFlow(curves.startOfHour(NOW), 24).size());
+        assertEquals(2L * trips, curves.stats().get("recorded"));
+        // the whole history fits in two counters per station and hour
+        assertEquals(2L * 1024 * DemandCurves.HOURS_PER_WEEK * Float.BYTES, curves.stats().get("counterBytes"));
+    }
+
+    @Test
+    @Tag("load")
+    void aggregatesMillionsOfTripsInSecondsTest() {
+        DemandCurves curves = new DemandCurves(MONTREAL, 56 * 24 * DemandCurves.HOUR_MILLIS);
+        int trips = 2_000_000;
+
+        long started = System.nanoTime();
+        recordYear(curves, 1000, trips);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        long queryStarted = System.nanoTime();
+        Map<String, Double> netFlow = curves.netFlow(curves.startOfHour(NOW), 24);
+        long queryMicros = (System.nanoTime() - queryStarted) / 1000;
+        System.out.println("Aggregated " + trips + " trips in " + elapsedMillis + " ms; net flow of "
+                + netFlow.size() + " stations in " + queryMicros + " us; " + curves.stats());
+
+        assertEquals(1000, netFlow.size());
+        assertEquals(2L * trips, curves.stats().get("recorded"));
+        assertEquals(2L * 1024 * DemandCurves.HOURS_PER_WEEK * Float.BYTES, curves.stats().get("counterBytes"));
+        assertTrue(elapsedMillis < 5000, elapsedMillis + " ms");
+    }
+
+    // A year of trips between random stations, in time order, as the store returns them roughly
+    private void recordYear(DemandCurves curves, int stationCount, int trips) {
+        String[] stations = new String[stationCount];
+        for (int i = 0; i < stations.length; i++) {
+            stations[i] = String.format("S%04d", i);
+        }
+        Random random = new Random(343);
+        long first = NOW - 52 * WEEK;
+        for (int i = 0; i < trips; i++) {
+            long departure = first + (long) i * (52 * WEEK / trips);
+            curves.recordDeparture(stations[random.nextInt(stations.length)], departure);
+            curves.recordArrival(stations[random.nextInt(stations.length)], departure + 15 * MINUTE);
+        }
+    }
+
+    private Trip completedTrip(String from, String to, long departureMillis, int minutes) {
+        Trip trip = new Trip(tripId(), "R001", "B001", "standard", from, "Station " + from, from + "-D1");
+        trip.setStartTime(timestamp(departureMillis));
+        trip.setEndTime(timestamp(departureMillis + minutes * MINUTE));
+        trip.setEndStationId(to);
+        trip.setEndStationName("Station " + to);
+        trip.setStatus(Trip.STATUS_COMPLETED);
+        return trip;
+    }
+
+    private String tripId() {
+        return String.format("T%05d", ++nextTripId);
+    }
+
+    private static Timestamp timestamp(long millis) {
+        return Timestamp.ofTimeMicroseconds(millis * 1000);
+    }
+}
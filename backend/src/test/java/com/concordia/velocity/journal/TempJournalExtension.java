@@ -0,0 +1,51 @@
+package com.concordia.velocity.journal;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import com.concordia.velocity.observer.StatusLogAppender;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Points the shared transition journal and status log at a temp directory for a test class
+ *
+ * Services commit through JournalObserver and StatusObserver, which write to the process-wide
+ * instances; left alone those open in the working directory. After the class both are closed,
+ * so later writes are dropped rather than landing there, and the directory is deleted.
+ */
+public class TempJournalExtension implements BeforeAllCallback, AfterAllCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(TempJournalExtension.class);
+
+    @Override
+    public void beforeAll(ExtensionContext context) throws IOException {
+        Path dir = Files.createTempDirectory("velocity-journal");
+        context.getStore(NAMESPACE).put("dir", dir);
+
+        TransitionJournal.configure(new TransitionJournal.Settings(dir.resolve("journal"), 1 << 14, 256));
+        StatusLogAppender.Settings log = StatusLogAppender.Settings.defaults();
+        StatusLogAppender.configure(new StatusLogAppender.Settings(dir.resolve("status_changes.log"),
+                log.queueCapacity(), log.batchSize(), log.fsync(), log.fsyncIntervalMillis(),
+                log.maxFileBytes(), log.maxArchives()));
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) throws IOException {
+        TransitionJournal.shared().close();
+        StatusLogAppender.shared().close();
+
+        Path dir = context.getStore(NAMESPACE).remove("dir", Path.class);
+        if (dir == null) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
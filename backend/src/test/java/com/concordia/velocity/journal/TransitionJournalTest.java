@@ -0,0 +1,146 @@
+package com.concordia.velocity.journal;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.observer.JournalObserver;
+import com.concordia.velocity.observer.StatusTransition;
+import com.concordia.velocity.observer.StatusTransition.Kind;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@ExtendWith(TempJournalExtension.class)
+class TransitionJournalTest {
+
+    private static final int RECORDS = 1_000_000;
+    private static final int BIKES = 5000;
+
+    @TempDir
+    Path dir;
+
+    private TransitionJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) journal.close();
+    }
+
+    @Test
+    void scansByEntityAndKindTest() throws Exception {
+        journal = new TransitionJournal(new TransitionJournal.Settings(dir, 1024, 16));
+        journal.append(List.of(
+                new StatusTransition(Kind.BIKE, "B001", "available", "on_trip"),
+                new StatusTransition(Kind.DOCK, "D001", "occupied", "empty"),
+                new StatusTransition(Kind.STATION, "S001", "full", "occupied")), "T0001");
+        journal.append(List.of(new StatusTransition(Kind.BIKE, "B002", null, "maintenance")), null);
+        journal.append(List.of(new StatusTransition(Kind.BIKE, "B001", "on_trip", "available")), "T0001");
+
+        List<TransitionJournal.Entry> bike = journal.scan(new TransitionJournal.Query(null, "B001", null, null, 100));
+        assertEquals(2, bike.size());
+        assertEquals("bike", bike.get(0).kind());
+        assertEquals("available", bike.get(0).oldStatus());
+        assertEquals("on_trip", bike.get(0).newStatus());
+        assertEquals("T0001", bike.get(1).tripId());
+
+        List<TransitionJournal.Entry> bikes = journal.scan(new TransitionJournal.Query(Kind.BIKE, null, null, null, 100));
+        assertEquals(3, bikes.size());
+        assertNull(bikes.get(1).oldStatus());
+        assertNull(bikes.get(1).tripId());
+
+        assertEquals(0, journal.scan(new TransitionJournal.Query(null, "B999", null, null, 100)).size());
+        assertEquals(5, journal.scan(new TransitionJournal.Query(null, null, null, null, 100)).size());
+    }
+
+    @Test
+    void reopensAcrossSegmentsTest() throws Exception {
+        journal = new TransitionJournal(new TransitionJournal.Settings(dir, 8, 4));
+        List<Long> batchTimes = new ArrayList<>();
+        for (int batch = 0; batch < 10; batch++) {
+            List<StatusTransition> transitions = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                transitions.add(new StatusTransition(Kind.BIKE, "B" + i, "available", "reserved"));
+            }
+            journal.append(transitions, "T" + batch);
+            batchTimes.add(journal.scan(new TransitionJournal.Query(null, null, null, null, Integer.MAX_VALUE))
+                    .get(batch * 5).timestamp());
+            Thread.sleep(3);
+        }
+        journal.close();
+
+        // a different segment size only applies to a new journal
+        journal = new TransitionJournal(new TransitionJournal.Settings(dir, 1024, 4));
+        assertEquals(50, journal.size());
+        journal.append(List.of(new StatusTransition(Kind.DOCK, "D001", "empty", "occupied")), null);
+        assertEquals(51, journal.size());
+
+        // time range from the 7th batch on, with the index landing mid-batch
+        List<TransitionJournal.Entry> recent = journal.scan(
+                new TransitionJournal.Query(Kind.BIKE, null, batchTimes.get(7), null, 100));
+        assertEquals(15, recent.size());
+        assertEquals("T7", recent.get(0).tripId());
+
+        List<TransitionJournal.Entry> window = journal.scan(
+                new TransitionJournal.Query(null, "B3", batchTimes.get(2), batchTimes.get(4), 100));
+        assertEquals(3, window.size());
+        assertEquals("T2", window.get(0).tripId());
+        assertEquals("T4", window.get(2).tripId());
+    }
+
+    @Test
+    void observerCommitsTransitionsTest() throws Exception {
+        TransitionJournal.configure(new TransitionJournal.Settings(dir, 1024, 16));
+
+        // a bike as loaded from the store: the journal sees its stored status as the old one
+        Bike bike = new Bike();
+        bike.setBikeId("B001");
+        bike.setStatus(Bike.STATUS_AVAILABLE);
+        JournalObserver observer = new JournalObserver();
+        bike.attach(observer);
+
+        bike.changeStatus(Bike.STATUS_ON_TRIP);
+        bike.notifyObservers();
+        observer.commit("T0042");
+
+        List<TransitionJournal.Entry> entries = TransitionJournal.shared()
+                .scan(new TransitionJournal.Query(null, "B001", null, null, 10));
+        assertEquals(1, entries.size());
+        assertEquals("available", entries.get(0).oldStatus());
+        assertEquals("on_trip", entries.get(0).newStatus());
+        assertEquals("T0042", entries.get(0).tripId());
+    }
+
+    @Test
+    @Tag("load")
+    void scanThroughputTest() throws Exception {
+        journal = new TransitionJournal(new TransitionJournal.Settings(dir, 1 << 18, 256));
+        List<StatusTransition> batch = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < RECORDS; i++) {
+            batch.add(new StatusTransition(Kind.BIKE, "B" + (i % BIKES), "available", "on_trip"));
+            if (batch.size() == 100) {
+                journal.append(batch, "T" + i);
+                batch.clear();
+            }
+        }
+        double appendSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        int matched = journal.scan(new TransitionJournal.Query(null, "B42", null, null, Integer.MAX_VALUE)).size();
+        double scanSeconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(RECORDS / BIKES, matched);
+        assertTrue(journal.size() == RECORDS);
+        System.out.printf("[throughput] journal append: %.0f records/s; entity scan over %d records: %.0f records/s (%.0f MB/s)%n",
+                RECORDS / appendSeconds, RECORDS, RECORDS / scanSeconds,
+                RECORDS * (double) TransitionJournal.RECORD_BYTES / scanSeconds / 1e6);
+    }
+}
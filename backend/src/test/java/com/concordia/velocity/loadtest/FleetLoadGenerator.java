@@ -0,0 +1,401 @@
+package com.concordia.velocity.loadtest;
+
+import com.concordia.velocity.BackendApplication;
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.repository.BikeRepository;
+import com.concordia.velocity.repository.DockRepository;
+import com.concordia.velocity.repository.RiderRepository;
+import com.concordia.velocity.repository.StationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives rider trip flows against the REST API of one node running on the local store
+ *
+ * Boots the backend with velocity.store=local on a free port, seeds stations, docks, bikes and riders
+ * through the repositories, then sends HTTP requests over loopback, so the whole request path is
+ * measured (Tomcat, filters, controllers, services, store) without Firestore or any other network.
+ *
+ * Arrivals are open-loop: flows start at Poisson-distributed times at the configured rate whether or
+ * not earlier ones have finished, each on its own virtual thread. A flow takes an idle rider and either
+ * reserves a bike then starts from the reservation (POST /api/bikes/reserve, /api/trips/start/reserved)
+ * or undocks one directly (/api/trips/start/direct), rides for an exponentially distributed time and
+ * docks at a free dock somewhere (/api/trips/end), trying other docks if that one is refused.
+ *
+ * Riders pick bikes and docks from a client-side view of the fleet updated from their own responses,
+ * like riders looking at the map, so two riders can go for the same bike or dock and one of them gets
+ * a 409. The first request of a flow is timed from its scheduled arrival rather than from when it was
+ * sent, so a generator or server that falls behind shows up in the latency instead of hiding it.
+ *
+ * Run with ./gradlew loadTest --args='--stations=50 --docks=1000 --riders=2000 --rate=200 --duration=60'
+ */
+public class FleetLoadGenerator implements AutoCloseable {
+
+    static final String RESERVE = "reserve";
+    static final String START_RESERVED = "start/reserved";
+    static final String START_DIRECT = "start/direct";
+    static final String END = "end";
+
+    private static final String DOCK_CODE = "1234";
+    private static final int END_ATTEMPTS = 5;
+    private static final Pattern STARTED_BIKE = Pattern.compile("for bike (\\S+) by rider");
+
+    private final Settings settings;
+    private final ConfigurableApplicationContext context;
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // the riders' view of the fleet
+    private final List<String> stationIds = new ArrayList<>();
+    private final Map<String, List<String>> dockIdsByStation = new HashMap<>();
+    private final Map<String, String> stationOfDock = new HashMap<>();
+    private final Map<String, String> bikeAtDock = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<String> idleRiders = new ConcurrentLinkedQueue<>();
+    private final LoadReport report = new LoadReport();
+
+    private FleetLoadGenerator(Settings settings, ConfigurableApplicationContext context) {
+        this.settings = settings;
+        this.context = context;
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        this.baseUrl = "http://localhost:" + port;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.parse(args);
+        try (FleetLoadGenerator generator = start(settings)) {
+            generator.run().print(settings);
+        }
+    }
+
+    /**
+     * Boots a node on the local store and seeds its fleet
+     * @param properties extra --name=value application properties for the node, e.g. where its journal goes
+     */
+    public static FleetLoadGenerator start(Settings settings, String... properties) throws Exception {
+        List<String> args = new ArrayList<>(List.of(
+                "--velocity.store=local",
+                "--server.port=0",
+                "--velocity.local.simulated-latency-us=" + settings.simulatedLatencyMicros()));
+        args.addAll(List.of(properties));
+        ConfigurableApplicationContext context = new SpringApplication(BackendApplication.class).run(
+                args.toArray(new String[0]));
+        FleetLoadGenerator generator = new FleetLoadGenerator(settings, context);
+        try {
+            generator.seed();
+        } catch (Exception e) {
+            generator.close();
+            throw e;
+        }
+        return generator;
+    }
+
+    /**
+     * Spreads the docks evenly over the stations, fills the first docks of each station with bikes
+     * and registers the riders
+     */
+    private void seed() throws Exception {
+        StationRepository stationRepository = context.getBean(StationRepository.class);
+        DockRepository dockRepository = context.getBean(DockRepository.class);
+        BikeRepository bikeRepository = context.getBean(BikeRepository.class);
+        RiderRepository riderRepository = context.getBean(RiderRepository.class);
+        Random random = new Random(settings.seed());
+
+        int bikesLeft = settings.bikes();
+        for (int s = 0; s < settings.stations(); s++) {
+            String stationId = String.format("S%04d", s);
+            int capacity = settings.docks() / settings.stations() + (s < settings.docks() % settings.stations() ? 1 : 0);
+            int docked = Math.min(bikesLeft, (int) Math.round((double) settings.bikes() * capacity / settings.docks()));
+            if (s == settings.stations() - 1) docked = Math.min(capacity, bikesLeft);
+            bikesLeft -= docked;
+
+            List<String> dockIds = new ArrayList<>();
+            List<String> bikeIds = new ArrayList<>();
+            int electric = 0;
+            for (int d = 0; d < capacity; d++) {
+                String dockId = stationId + String.format("-D%03d", d);
+                dockIds.add(dockId);
+                stationOfDock.put(dockId, stationId);
+                if (d < docked) {
+                    String bikeId = stationId + String.format("-B%03d", d);
+                    String type = random.nextDouble() < settings.electricShare() ? "electric" : "standard";
+                    if ("electric".equals(type)) electric++;
+                    bikeIds.add(bikeId);
+                    bikeAtDock.put(dockId, bikeId);
+                    dockRepository.save(new Dock(dockId, Dock.STATUS_OCCUPIED, bikeId, stationId, DOCK_CODE));
+                    bikeRepository.save(new Bike(bikeId, Bike.STATUS_AVAILABLE, type, dockId, stationId));
+                } else {
+                    dockRepository.save(new Dock(dockId, Dock.STATUS_EMPTY, null, stationId, DOCK_CODE));
+                }
+            }
+            stationRepository.save(new Station(stationId, "Load Station " + s, Station.STATUS_OCCUPIED,
+                    "45.4972", "-73.5789", s + " Load St.", capacity, docked, 15,
+                    new ArrayList<>(dockIds), new ArrayList<>(bikeIds), electric, docked - electric));
+            stationIds.add(stationId);
+            dockIdsByStation.put(stationId, dockIds);
+        }
+
+        for (int r = 0; r < settings.riders(); r++) {
+            String riderId = String.format("R%05d", r);
+            Rider rider = new Rider("Load", "Rider " + r, r + " Load St.", "load" + r + "@test.com", "5145550000");
+            rider.setIsOperator(false);
+            riderRepository.save(riderId, rider);
+            idleRiders.add(riderId);
+        }
+    }
+
+    /**
+     * Sends arrivals at the configured rate for the configured duration, then waits for every flow to finish
+     */
+    public LoadReport run() {
+        Random random = new Random(settings.seed());
+        long start = System.nanoTime();
+        long end = start + settings.durationSeconds() * 1_000_000_000L;
+        long next = start;
+        long arrivalsEnded;
+
+        try (ExecutorService flows = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (next < end) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+
+                long scheduledAt = next;
+                boolean reserved = random.nextDouble() < settings.reservedShare();
+                flows.execute(() -> flow(scheduledAt, reserved));
+
+                next += (long) (-Math.log(1 - random.nextDouble()) / settings.rate() * 1e9);
+            }
+            arrivalsEnded = System.nanoTime();
+        }
+
+        report.finish(arrivalsEnded - start, System.nanoTime() - start);
+        return report;
+    }
+
+    private void flow(long scheduledAt, boolean reserved) {
+        report.arrival();
+        String riderId = idleRiders.poll();
+        if (riderId == null) {
+            report.noIdleRider();
+            return;
+        }
+        try {
+            String bikeId = reserved ? startFromReservation(riderId, scheduledAt) : startDirect(riderId, scheduledAt);
+            if (bikeId == null) return;
+
+            long rideMillis = (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * settings.rideMillis());
+            Thread.sleep(rideMillis);
+
+            if (endTrip(bikeId, riderId)) {
+                report.completed();
+            } else {
+                report.stranded();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            idleRiders.add(riderId);
+        }
+    }
+
+    /**
+     * @return the bike the rider is now riding, or null if the flow ends here
+     */
+    private String startFromReservation(String riderId, long scheduledAt) throws InterruptedException {
+        String dockId = pickDock(true);
+        if (dockId == null) return null;
+        String bikeId = bikeAtDock.get(dockId);
+        if (bikeId == null) {
+            report.noBikeVisible();
+            return null;
+        }
+
+        Map<String, String> reserve = Map.of("bikeId", bikeId, "userId", riderId, "stationId", stationOfDock.get(dockId));
+        if (post("/api/bikes/reserve", RESERVE, reserve, scheduledAt) == null) {
+            report.startFailed();
+            return null;
+        }
+
+        Map<String, String> start = Map.of("bikeId", bikeId, "riderId", riderId, "dockCode", DOCK_CODE);
+        if (post("/api/trips/start/reserved", START_RESERVED, start, System.nanoTime()) == null) {
+            report.startFailed();
+            return null;
+        }
+        bikeAtDock.remove(dockId, bikeId);
+        return bikeId;
+    }
+
+    private String startDirect(String riderId, long scheduledAt) throws InterruptedException {
+        String dockId = pickDock(true);
+        if (dockId == null) return null;
+        String expectedBikeId = bikeAtDock.get(dockId);
+
+        Map<String, String> start = Map.of("dockId", dockId, "dockCode", DOCK_CODE, "riderId", riderId);
+        Map<String, Object> response = post("/api/trips/start/direct", START_DIRECT, start, scheduledAt);
+        if (response == null) {
+            report.startFailed();
+            return null;
+        }
+        bikeAtDock.remove(dockId);
+
+        Matcher matcher = STARTED_BIKE.matcher(String.valueOf(response.get("message")));
+        return matcher.find() ? matcher.group(1) : expectedBikeId;
+    }
+
+    /**
+     * Docks at a free dock, trying other docks when one is refused
+     * @return whether the trip ended
+     */
+    private boolean endTrip(String bikeId, String riderId) throws InterruptedException {
+        for (int attempt = 0; attempt < END_ATTEMPTS; attempt++) {
+            String dockId = pickDock(false);
+            if (dockId == null) continue;
+
+            Map<String, String> end = Map.of("bikeId", bikeId, "riderId", riderId, "dockId", dockId, "dockCode", DOCK_CODE);
+            if (post("/api/trips/end", END, end, System.nanoTime()) != null) {
+                bikeAtDock.put(dockId, bikeId);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A random dock the rider believes holds a bike (or is free), looking at random stations
+     */
+    private String pickDock(boolean withBike) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int tries = 0; tries < stationIds.size(); tries++) {
+            List<String> dockIds = dockIdsByStation.get(stationIds.get(random.nextInt(stationIds.size())));
+            if (dockIds.isEmpty()) continue;
+            int offset = random.nextInt(dockIds.size());
+            for (int i = 0; i < dockIds.size(); i++) {
+                String dockId = dockIds.get((offset + i) % dockIds.size());
+                if (bikeAtDock.containsKey(dockId) == withBike) return dockId;
+            }
+        }
+        if (withBike) report.noBikeVisible();
+        return null;
+    }
+
+    /**
+     * Posts a JSON body and records the response time from the given start
+     * @return the response body if the request succeeded, null otherwise
+     */
+    private Map<String, Object> post(String path, String endpoint, Map<String, String> body, long startNanos)
+            throws InterruptedException {
+        int status = LoadReport.NO_RESPONSE;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+            if (status != 200) return null;
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> json = objectMapper.readValue(response.body(), Map.class);
+            return json;
+        } catch (IOException e) {
+            return null;
+        } finally {
+            report.record(endpoint, status, System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+        context.close();
+    }
+
+    /**
+     * Fleet size and load shape; each can be set with --name=value
+     * @param docks total docks, spread evenly over the stations
+     * @param bikes bikes seeded at the docks, at most one per dock
+     * @param rate flow arrivals per second
+     * @param reservedShare fraction of flows that reserve before starting, the rest undock directly
+     * @param rideMillis mean time between starting and ending a trip
+     * @param simulatedLatencyMicros round-trip charged by the local store for every call
+     */
+    public record Settings(int stations, int docks, int bikes, int riders, double rate, int durationSeconds,
+                           double reservedShare, long rideMillis, double electricShare,
+                           long simulatedLatencyMicros, long seed) {
+
+        public Settings {
+            if (stations <= 0 || docks < stations || riders <= 0 || rate <= 0 || durationSeconds <= 0) {
+                throw new IllegalArgumentException("stations, riders, rate and duration must be positive, with at least one dock per station");
+            }
+            if (bikes < 0 || bikes > docks) {
+                throw new IllegalArgumentException("bikes must be between 0 and the number of docks");
+            }
+            if (reservedShare < 0 || reservedShare > 1 || electricShare < 0 || electricShare > 1) {
+                throw new IllegalArgumentException("reserved-share and electric-share must be between 0 and 1");
+            }
+        }
+
+        public static Settings parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+                }
+                values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+
+            int docks = Integer.parseInt(values.getOrDefault("docks", "1000"));
+            Settings settings = new Settings(
+                    Integer.parseInt(values.getOrDefault("stations", "50")),
+                    docks,
+                    Integer.parseInt(values.getOrDefault("bikes", String.valueOf(docks * 6 / 10))),
+                    Integer.parseInt(values.getOrDefault("riders", "2000")),
+                    Double.parseDouble(values.getOrDefault("rate", "100")),
+                    Integer.parseInt(values.getOrDefault("duration", "30")),
+                    Double.parseDouble(values.getOrDefault("reserved-share", "0.5")),
+                    Long.parseLong(values.getOrDefault("ride-ms", "500")),
+                    Double.parseDouble(values.getOrDefault("electric-share", "0.3")),
+                    Long.parseLong(values.getOrDefault("latency-us", "0")),
+                    Long.parseLong(values.getOrDefault("seed", "343")));
+
+            values.keySet().removeAll(List.of("stations", "docks", "bikes", "riders", "rate", "duration",
+                    "reserved-share", "ride-ms", "electric-share", "latency-us", "seed"));
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException("Unknown settings: " + values.keySet());
+            }
+            return settings;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.concordia.velocity.loadtest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+
+/**
+ * Runs the load generator briefly at a low rate against a local-store node
+ * At this rate riders rarely collide, so every flow should get through without server errors.
+ * The run boots a node and takes seconds, so it is tagged load (./gradlew loadTests).
+ */
+class FleetLoadGeneratorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @Tag("load")
+    void shortRunCompletesTripsWithoutServerErrorsTest() throws Exception {
+        FleetLoadGenerator.Settings settings = FleetLoadGenerator.Settings.parse(new String[]{
+                "--stations=5", "--docks=50", "--riders=40", "--rate=10", "--duration=3", "--ride-ms=50"});
+
+        LoadReport report;
+        // the node's journal and status log go to the temp directory, not the working directory
+        try (FleetLoadGenerator generator = FleetLoadGenerator.start(settings,
+                "--velocity.journal.directory=" + dir.resolve("journal"),
+                "--velocity.status-log.path=" + dir.resolve("status_changes.log"))) {
+            report = generator.run();
+        }
+        report.print(settings);
+
+        assertTrue(report.getArrivals() > 0);
+        assertTrue(report.getCompleted() > 0);
+        assertEquals(0, report.count(500, 600));
+        assertEquals(0, report.count(LoadReport.NO_RESPONSE));
+        assertEquals(0, report.getStranded());
+        assertTrue(report.histogram(FleetLoadGenerator.END).getCount() >= report.getCompleted());
+    }
+
+    @Test
+    void reportCountsStatusesAcrossEndpointsTest() {
+        LoadReport report = new LoadReport();
+        report.record(FleetLoadGenerator.END, 200, 2_000_000);
+        report.record(FleetLoadGenerator.END, 409, 1_000_000);
+        report.record(FleetLoadGenerator.RESERVE, 200, 1_000_000);
+        report.record(FleetLoadGenerator.RESERVE, 503, 5_000_000);
+        report.record(FleetLoadGenerator.RESERVE, LoadReport.NO_RESPONSE, 9_000_000);
+
+        assertEquals(5, report.requests());
+        assertEquals(2, report.count(200));
+        assertEquals(2, report.count(200, 300));
+        assertEquals(1, report.count(500, 600));
+        assertEquals(1, report.count(LoadReport.NO_RESPONSE));
+        assertEquals(2, report.histogram(FleetLoadGenerator.END).getCount());
+    }
+
+    @Test
+    void settingsAreValidatedTest() {
+        assertThrows(IllegalArgumentException.class,
+                () -> FleetLoadGenerator.Settings.parse(new String[]{"--stations=10", "--docks=5"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> FleetLoadGenerator.Settings.parse(new String[]{"--docks=10", "--bikes=11", "--stations=2"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> FleetLoadGenerator.Settings.parse(new String[]{"--speed=3"}));
+    }
+}
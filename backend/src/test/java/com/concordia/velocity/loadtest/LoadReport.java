@@ -0,0 +1,132 @@
+package com.concordia.velocity.loadtest;
+
+import com.concordia.velocity.metrics.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and response status counts per endpoint, plus what happened to each arrival
+ * Status 0 stands for a request that got no response (connection refused, reset or timed out).
+ */
+public class LoadReport {
+
+    public static final int NO_RESPONSE = 0;
+
+    private final Map<String, LatencyHistogram> latency = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, LongAdder>> statuses = new ConcurrentHashMap<>();
+
+    private final LongAdder arrivals = new LongAdder();
+    private final LongAdder noIdleRider = new LongAdder();
+    private final LongAdder noBikeVisible = new LongAdder();
+    private final LongAdder startFailed = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder stranded = new LongAdder();
+
+    private long arrivalNanos;
+    private long totalNanos;
+
+    void record(String endpoint, int status, long nanos) {
+        latency.computeIfAbsent(endpoint, name -> new LatencyHistogram()).recordNanos(nanos);
+        statuses.computeIfAbsent(endpoint, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(status, code -> new LongAdder()).increment();
+    }
+
+    void arrival() { arrivals.increment(); }
+
+    /** The arrival found every rider already on a flow */
+    void noIdleRider() { noIdleRider.increment(); }
+
+    /** The rider's view of the fleet showed no docked bike anywhere */
+    void noBikeVisible() { noBikeVisible.increment(); }
+
+    /** Reserve or start was refused, so the flow ended without a trip */
+    void startFailed() { startFailed.increment(); }
+
+    void completed() { completed.increment(); }
+
+    /** Every attempt to end the trip was refused; the bike stays out */
+    void stranded() { stranded.increment(); }
+
+    void finish(long arrivalNanos, long totalNanos) {
+        this.arrivalNanos = arrivalNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    public LatencyHistogram histogram(String endpoint) {
+        return latency.computeIfAbsent(endpoint, name -> new LatencyHistogram());
+    }
+
+    /**
+     * Responses with the given status, across endpoints
+     */
+    public long count(int status) {
+        long count = 0;
+        for (Map<Integer, LongAdder> byStatus : statuses.values()) {
+            LongAdder adder = byStatus.get(status);
+            if (adder != null) count += adder.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Responses with a status in [from, to), across endpoints
+     */
+    public long count(int from, int to) {
+        long count = 0;
+        for (Map<Integer, LongAdder> byStatus : statuses.values()) {
+            for (Map.Entry<Integer, LongAdder> entry : byStatus.entrySet()) {
+                if (entry.getKey() >= from && entry.getKey() < to) count += entry.getValue().sum();
+            }
+        }
+        return count;
+    }
+
+    public long requests() {
+        long requests = 0;
+        for (LatencyHistogram histogram : latency.values()) requests += histogram.getCount();
+        return requests;
+    }
+
+    public long getArrivals() { return arrivals.sum(); }
+    public long getCompleted() { return completed.sum(); }
+    public long getStranded() { return stranded.sum(); }
+
+    public void print(FleetLoadGenerator.Settings settings) {
+        double arrivalSeconds = arrivalNanos / 1e9;
+        double totalSeconds = totalNanos / 1e9;
+
+        System.out.printf("[load] %d stations, %d docks, %d bikes, %d riders; %.0f arrivals/s for %ds, %.0f%% reserved, mean ride %d ms, %d us/round-trip%n",
+                settings.stations(), settings.docks(), settings.bikes(), settings.riders(), settings.rate(),
+                settings.durationSeconds(), settings.reservedShare() * 100, settings.rideMillis(), settings.simulatedLatencyMicros());
+        System.out.printf("[load] %d arrivals (%.1f/s offered), %d trips completed (%.1f/s), %d requests (%.1f/s) over %.1f s including drain%n",
+                arrivals.sum(), arrivals.sum() / arrivalSeconds, completed.sum(), completed.sum() / totalSeconds,
+                requests(), requests() / totalSeconds, totalSeconds);
+        System.out.printf("[load] not started: %d no idle rider, %d no bike visible, %d refused; %d stranded with a bike%n",
+                noIdleRider.sum(), noBikeVisible.sum(), startFailed.sum(), stranded.sum());
+
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(latency).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            System.out.printf("[load] %-22s n=%-7d p50=%.1f ms p90=%.1f ms p99=%.1f ms p99.9=%.1f ms  %s%n",
+                    entry.getKey(), histogram.getCount(),
+                    histogram.percentileMicros(0.50) / 1000.0, histogram.percentileMicros(0.90) / 1000.0,
+                    histogram.percentileMicros(0.99) / 1000.0, histogram.percentileMicros(0.999) / 1000.0,
+                    statusMix(statuses.get(entry.getKey())));
+        }
+
+        long errors = requests() - count(200, 300);
+        System.out.printf("[load] errors: %d of %d requests; 409 contention=%d, 400 rejected=%d, 5xx=%d, no response=%d%n",
+                errors, requests(), count(409), count(400), count(500, 600), count(NO_RESPONSE));
+    }
+
+    private static String statusMix(Map<Integer, LongAdder> byStatus) {
+        StringBuilder mix = new StringBuilder();
+        new TreeMap<>(byStatus).forEach((status, count) -> {
+            if (mix.length() > 0) mix.append(' ');
+            mix.append(status == NO_RESPONSE ? "none" : status).append('=').append(count.sum());
+        });
+        return mix.toString();
+    }
+}
@@ -0,0 +1,102 @@
+package com.concordia.velocity.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.repository.BikeRepository;
+import com.concordia.velocity.repository.StoreTransaction.Key;
+import com.concordia.velocity.repository.TransactionRunner;
+import com.concordia.velocity.repository.local.LocalBikeRepository;
+import com.concordia.velocity.repository.local.LocalDockRepository;
+import com.concordia.velocity.repository.local.LocalStore;
+import com.concordia.velocity.repository.local.LocalTransactionRunner;
+
+/**
+ * Checks that instrumented storage calls are timed, tagged and counted toward the current request
+ */
+class StoreInstrumentationTest {
+
+    private StoreMetrics metrics;
+    private BikeRepository bikeRepository;
+    private TransactionRunner transactionRunner;
+
+    @BeforeEach
+    void setup() throws Exception {
+        LocalStore store = new LocalStore();
+        new LocalDockRepository(store).save(new Dock("D001", Dock.STATUS_OCCUPIED, "B001", "S001", "1234"));
+        new LocalBikeRepository(store).save(new Bike("B001", Bike.STATUS_AVAILABLE, "standard", "D001", "S001"));
+
+        metrics = new StoreMetrics();
+        bikeRepository = StoreInstrumentation.instrument(BikeRepository.class, new LocalBikeRepository(store), "bikes", metrics);
+        transactionRunner = StoreInstrumentation.instrument(new LocalTransactionRunner(store), metrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestRoundTrips.unbind();
+    }
+
+    @Test
+    void repositoryCallsAreTaggedAndCountedTest() throws Exception {
+        RequestRoundTrips request = RequestRoundTrips.open();
+
+        assertNotNull(bikeRepository.findById("B001"));
+        bikeRepository.findByIdAsync("B001").join();
+
+        assertEquals(2, metrics.histogram("bikes", "findById").getCount());
+        assertEquals(2, request.get());
+        assertEquals(2, metrics.getRoundTrips());
+    }
+
+    @Test
+    void prefetchedReadsAndBufferedWritesAreNotRoundTripsTest() throws Exception {
+        RequestRoundTrips request = RequestRoundTrips.open();
+
+        transactionRunner.runInTransaction(txn -> {
+            txn.prefetch(Key.bike("B001"), Key.dock("D001"));
+            Bike bike = txn.getBike("B001");
+            Dock dock = txn.getDock("D001");
+            txn.saveBike(bike);
+            txn.saveDock(dock);
+            return null;
+        });
+
+        assertEquals(1, metrics.histogram("transactions", "runInTransaction").getCount());
+        assertEquals(1, metrics.histogram("batch", "txn.prefetch").getCount());
+        assertEquals(1, metrics.histogram("bikes", "txn.getBike").getCount());
+        assertEquals(1, metrics.histogram("docks", "txn.saveDock").getCount());
+        // the prefetch and the commit
+        assertEquals(2, request.get());
+    }
+
+    @Test
+    void failuresAreCountedAndRethrownTest() {
+        assertThrows(IllegalStateException.class, () -> transactionRunner.runInTransaction(txn -> {
+            throw new IllegalStateException("rejected");
+        }));
+
+        assertEquals(1, metrics.histogram("transactions", "runInTransaction").getCount());
+        assertEquals(1, metrics.errors("transactions", "runInTransaction"));
+    }
+
+    @Test
+    void prometheusOutputTest() {
+        RequestRoundTrips.open();
+        metrics.start("bikes", "findById", true).finish(null);
+
+        PrometheusWriter out = new PrometheusWriter();
+        metrics.writePrometheus(out);
+        String text = out.toString();
+
+        assertTrue(text.contains("# TYPE velocity_store_call_seconds summary"));
+        assertTrue(text.contains("velocity_store_call_seconds_count{collection=\"bikes\",operation=\"findById\"} 1"));
+        assertTrue(text.contains("velocity_store_round_trips_total 1"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.concordia.velocity.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+
+import com.concordia.velocity.state.NoTierState;
+
+class RiderStatsAggregateTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 6, 17);
+
+    private RiderStatsAggregate aggregate;
+
+    @BeforeEach
+    void setup() {
+        aggregate = new RiderStatsAggregate();
+    }
+
+    @Test
+    void monthAndWeekBucketsTest() {
+        aggregate.recordTrip(TODAY, TODAY);
+        aggregate.recordTrip(TODAY.minusWeeks(1), TODAY);
+        aggregate.recordTrip(TODAY.minusMonths(2), TODAY);
+
+        RiderStats stats = aggregate.toRiderStats(TODAY);
+        assertEquals(3, stats.getTripsLastYear());
+        assertEquals(3, stats.getSuccessfulClaims());
+        assertEquals(1, stats.getTripsPerWeek().get(0));
+        assertEquals(1, stats.getTripsPerWeek().get(1));
+        assertEquals(1, stats.getTripsPerMonth().get(2));
+        assertTrue(stats.hasNoMissedReservations());
+    }
+
+    @Test
+    void windowRollsForwardTest() {
+        aggregate.recordTrip(TODAY.minusMonths(11), TODAY);
+        aggregate.recordMissedReservation(TODAY.minusMonths(11), TODAY);
+        assertEquals(1, aggregate.toRiderStats(TODAY).getTripsLastYear());
+        assertFalse(aggregate.toRiderStats(TODAY).hasNoMissedReservations());
+
+        LocalDate later = TODAY.plusMonths(2);
+        aggregate.rollForward(later);
+        assertTrue(aggregate.getTripsByDay().isEmpty());
+        assertEquals(0, aggregate.toRiderStats(later).getTripsLastYear());
+        assertTrue(aggregate.toRiderStats(later).hasNoMissedReservations());
+    }
+
+    @Test
+    void evaluateTierFromAggregateTest() {
+        Rider rider = new Rider("Loyal", "Rider", "1 Test St.", "loyal@test.com", "5145550000");
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 11; i++) {
+            aggregate.recordTrip(today.minusDays(i), today);
+        }
+        rider.setLoyaltyStats(aggregate);
+
+        Rider.TierChange change = rider.evaluateTier();
+        assertEquals("NoTier", change.getOldTier());
+        assertEquals("Bronze", change.getNewTier());
+    }
+
+    @Test
+    void activeTripWithholdsBronzeTest() {
+        Rider rider = new Rider("Riding", "Rider", "1 Test St.", "riding@test.com", "5145550000");
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 11; i++) {
+            aggregate.recordTrip(today.minusDays(i), today);
+        }
+        aggregate.recordTripStarted();
+        rider.setLoyaltyStats(aggregate);
+
+        assertFalse(aggregate.toRiderStats(today).returnedAllBikes());
+        rider.evaluateTier();
+        assertInstanceOf(NoTierState.class, rider.getTierState());
+
+        aggregate.recordTripClosed();
+        assertTrue(aggregate.toRiderStats(today).returnedAllBikes());
+        assertEquals("Bronze", rider.evaluateTier().getNewTier());
+    }
+
+    @AfterEach
+    void tearDown() {
+        aggregate = null;
+    }
+}
@@ -0,0 +1,202 @@
+package com.concordia.velocity.observer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.observer.StatusTransition.Kind;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class DashboardStreamTest {
+
+    private DashboardStream stream;
+
+    @BeforeEach
+    void setup() {
+        // windows are flushed by hand
+        stream = new DashboardStream(new DashboardStream.Settings(60_000, 10, 60_000));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.close();
+    }
+
+    @Test
+    void coalescesBurstsPerEntityTest() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        stream.subscribe(sink);
+
+        String[] statuses = {"occupied", "empty"};
+        for (int i = 0; i < 100; i++) {
+            stream.publish(new StatusTransition(Kind.DOCK, "D001", statuses[i % 2], statuses[(i + 1) % 2]));
+        }
+        stream.publish(new StatusTransition(Kind.BIKE, "B001", "available", "on_trip"));
+        stream.publish(new StatusTransition(Kind.BIKE, "B002", "available", "on_trip"));
+        stream.publish(new StatusTransition(Kind.BIKE, "B002", "on_trip", "available"));
+        stream.flush();
+
+        List<DashboardStream.Delta> deltas = sink.awaitDeltas(1);
+        // D001 ended where it started and B002 went back to available, so only B001 is left
+        assertEquals(1, deltas.size());
+        assertEquals("bike", deltas.get(0).kind());
+        assertEquals("B001", deltas.get(0).id());
+        assertEquals("on_trip", deltas.get(0).status());
+
+        stream.publish(new StatusTransition(Kind.STATION, "S001", "occupied", "full"));
+        stream.publish(new StatusTransition(Kind.STATION, "S001", "full", "out_of_service"));
+        stream.flush();
+        deltas = sink.awaitDeltas(2);
+        assertEquals("occupied", deltas.get(1).previous());
+        assertEquals("out_of_service", deltas.get(1).status());
+        assertEquals(101L, stream.stats().get("coalesced"));
+    }
+
+    @Test
+    void slowClientIsToldToResyncTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink() {
+            @Override
+            public void send(String event, Object data) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(event, data);
+            }
+        };
+        RecordingSink fast = new RecordingSink();
+        stream.subscribe(slow);
+        stream.subscribe(fast);
+
+        for (int window = 0; window < 5; window++) {
+            for (int i = 0; i < 5; i++) {
+                stream.publish(new StatusTransition(Kind.BIKE, "B" + window + i, "available", "reserved"));
+            }
+            stream.flush();
+            fast.awaitDeltas((window + 1) * 5);
+        }
+        release.countDown();
+        stream.flush();
+
+        // the fast client got everything; the slow one fell more than 10 deltas behind and must resync
+        assertEquals(25, fast.awaitDeltas(25).size());
+        slow.await(() -> slow.events.contains(DashboardStream.EVENT_RESYNC));
+        assertTrue((long) stream.stats().get("overflows") >= 1);
+        assertEquals(0, fast.events.stream().filter(DashboardStream.EVENT_RESYNC::equals).count());
+    }
+
+    @Test
+    void brokenClientIsDroppedTest() throws Exception {
+        RecordingSink broken = new RecordingSink() {
+            @Override
+            public void send(String event, Object data) throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+        stream.subscribe(broken);
+        stream.subscribe(new RecordingSink());
+
+        stream.publish(new StatusTransition(Kind.DOCK, "D001", "occupied", "empty"));
+        stream.flush();
+
+        broken.await(() -> broken.closed);
+        assertEquals(1, stream.clientCount());
+    }
+
+    @Test
+    void observerPublishesOnlyCommittedChangesTest() throws Exception {
+        DashboardStream.configure(new DashboardStream.Settings(60_000, 10, 60_000));
+        DashboardStream shared = DashboardStream.shared();
+        try {
+            RecordingSink sink = new RecordingSink();
+            shared.subscribe(sink);
+            DashboardObserver dashboard = new DashboardObserver();
+
+            // an attempt that is retried leaves nothing behind
+            Bike stale = new Bike("B001", Bike.STATUS_AVAILABLE, "standard", "D001", "S001");
+            dashboard.watch(stale);
+            stale.changeStatus(Bike.STATUS_ON_TRIP);
+            dashboard.discard();
+
+            Bike bike = new Bike("B001", Bike.STATUS_AVAILABLE, "standard", "D001", "S001");
+            Station station = new Station("S001", "Station 1", null, "45.5", "-73.5", "1 Main St", 10, 5, 15,
+                    new ArrayList<>(List.of("D001")), new ArrayList<>(List.of("B001", "B002", "B003", "B004", "B005")), 0, 5);
+            dashboard.watch(bike);
+            dashboard.watch(station);
+            bike.changeStatus(Bike.STATUS_ON_TRIP);
+            bike.setDockId(null);
+            bike.setStationId(null);
+            station.removeBike(bike);
+
+            // nothing goes out until the changes are committed
+            shared.flush();
+            assertEquals(0L, shared.stats().get("published"));
+
+            dashboard.publish();
+            shared.flush();
+            List<DashboardStream.Delta> deltas = sink.awaitDeltas(2);
+            assertEquals(2, deltas.size());
+            DashboardStream.Delta bikeDelta = deltas.stream().filter(d -> "bike".equals(d.kind())).findFirst().orElseThrow();
+            assertEquals("available", bikeDelta.previous());
+            assertEquals("on_trip", bikeDelta.status());
+            assertNull(bikeDelta.dockId());
+            // the station stayed occupied, but its counts changed
+            DashboardStream.Delta stationDelta = deltas.stream().filter(d -> "station".equals(d.kind())).findFirst().orElseThrow();
+            assertEquals("occupied", stationDelta.status());
+            assertEquals(4, (int) stationDelta.dockedBikes());
+            assertEquals(6, (int) stationDelta.freeDocks());
+
+            // publishing again sends nothing new
+            dashboard.publish();
+            assertEquals(2L, shared.stats().get("published"));
+        } finally {
+            DashboardStream.configure(DashboardStream.Settings.defaults());
+        }
+    }
+
+    private static class RecordingSink implements DashboardStream.Sink {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final List<DashboardStream.Delta> deltas = new CopyOnWriteArrayList<>();
+        volatile boolean closed;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void send(String event, Object data) throws IOException {
+            events.add(event);
+            if (DashboardStream.EVENT_DELTAS.equals(event)) {
+                deltas.addAll((List<DashboardStream.Delta>) data);
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        List<DashboardStream.Delta> awaitDeltas(int count) throws InterruptedException {
+            await(() -> deltas.size() >= count);
+            return new ArrayList<>(deltas);
+        }
+
+        void await(java.util.function.BooleanSupplier condition) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(condition.getAsBoolean());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.concordia.velocity.observer;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+class StatusLogAppenderTest {
+
+    private static final int EVENTS = 20_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesAllLinesInOrderTest() throws Exception {
+        Path log = dir.resolve("status_changes.log");
+        StatusLogAppender appender = new StatusLogAppender(settings(log, 1024, StatusLogAppender.FsyncPolicy.BATCH, 1L << 20, 3));
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(appender.append("line " + i + "\n"));
+        }
+        appender.close();
+
+        List<String> lines = Files.readAllLines(log);
+        assertEquals(1000, lines.size());
+        assertEquals("line 0", lines.get(0));
+        assertEquals("line 999", lines.get(999));
+        assertEquals(1000L, appender.stats().get("written"));
+        assertFalse(appender.append("after close\n"));
+    }
+
+    @Test
+    void rotatesAndCompressesTest() throws Exception {
+        Path log = dir.resolve("status_changes.log");
+        StatusLogAppender appender = new StatusLogAppender(settings(log, 16, StatusLogAppender.FsyncPolicy.NEVER, 2000, 2));
+        for (int i = 0; i < 2000; i++) {
+            appender.append(String.format("[%05d] bike changed status%n", i));
+            if (i % 100 == 0) Thread.sleep(5);
+        }
+        appender.close();
+
+        List<Path> archives = archives();
+        assertTrue((long) appender.stats().get("rotations") > 2);
+        assertEquals(2, archives.size());
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archives.get(1)))) {
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(content.startsWith("["));
+            assertTrue(content.endsWith("bike changed status" + System.lineSeparator()));
+        }
+    }
+
+    @Test
+    void fullQueueDropsInsteadOfBlockingTest() throws Exception {
+        Path log = dir.resolve("status_changes.log");
+        StatusLogAppender appender = new StatusLogAppender(settings(log, 0, StatusLogAppender.FsyncPolicy.NEVER, 1L << 20, 3));
+
+        assertFalse(appender.append("dropped\n"));
+        appender.close();
+        assertEquals(1L, appender.stats().get("dropped"));
+    }
+
+    @Test
+    @Tag("load")
+    void appendThroughputTest() throws Exception {
+        Path direct = dir.resolve("direct.log");
+        long t0 = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            Files.write(direct, ("event " + i + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        long directNanos = System.nanoTime() - t0;
+
+        Path log = dir.resolve("status_changes.log");
+        StatusLogAppender appender = new StatusLogAppender(settings(log, 65_536, StatusLogAppender.FsyncPolicy.INTERVAL, 1L << 30, 3));
+        long t1 = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            appender.append("event " + i + "\n");
+        }
+        long enqueueNanos = System.nanoTime() - t1;
+        appender.close();
+        long flushedNanos = System.nanoTime() - t1;
+
+        assertEquals(EVENTS, Files.readAllLines(log).size());
+        System.out.printf("[throughput] status log, %d events: Files.write per event %.0f events/s (%.1f us/event); "
+                        + "appender enqueue %.0f events/s (%.2f us/event), flushed to disk %.0f events/s in %d batches%n",
+                EVENTS, EVENTS / (directNanos / 1e9), directNanos / 1e3 / EVENTS,
+                EVENTS / (enqueueNanos / 1e9), enqueueNanos / 1e3 / EVENTS,
+                EVENTS / (flushedNanos / 1e9), appender.stats().get("batches"));
+    }
+
+    private StatusLogAppender.Settings settings(Path log, int capacity, StatusLogAppender.FsyncPolicy fsync,
+                                                long maxFileBytes, int maxArchives) {
+        return new StatusLogAppender.Settings(log, capacity, 256, fsync, 100, maxFileBytes, maxArchives);
+    }
+
+    private List<Path> archives() throws IOException {
+        List<Path> archives = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir, "status_changes-*.log.gz")) {
+            entries.forEach(archives::add);
+        }
+        archives.sort(null);
+        return archives;
+    }
+}
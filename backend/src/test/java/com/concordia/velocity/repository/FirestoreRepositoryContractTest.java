@@ -0,0 +1,36 @@
+package com.concordia.velocity.repository;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import com.concordia.velocity.repository.firestore.FirestoreBikeRepository;
+import com.concordia.velocity.repository.firestore.FirestoreCounterRepository;
+import com.concordia.velocity.repository.firestore.FirestoreDockRepository;
+import com.concordia.velocity.repository.firestore.FirestoreRiderRepository;
+import com.concordia.velocity.repository.firestore.FirestoreStationRepository;
+import com.concordia.velocity.repository.firestore.FirestoreTransactionRunner;
+import com.concordia.velocity.repository.firestore.FirestoreTripRepository;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreOptions;
+
+/**
+ * Runs the contract against the Firestore emulator (gcloud emulators firestore start)
+ * Skipped unless FIRESTORE_EMULATOR_HOST is set
+ */
+@EnabledIfEnvironmentVariable(named = "FIRESTORE_EMULATOR_HOST", matches = ".+")
+class FirestoreRepositoryContractTest extends RepositoryContractTest {
+
+    @Override
+    protected void createRepositories() {
+        Firestore db = FirestoreOptions.getDefaultInstance().toBuilder()
+                .setProjectId("velocity-test")
+                .build()
+                .getService();
+        bikeRepository = new FirestoreBikeRepository(db);
+        dockRepository = new FirestoreDockRepository(db);
+        stationRepository = new FirestoreStationRepository(db);
+        tripRepository = new FirestoreTripRepository(db);
+        riderRepository = new FirestoreRiderRepository(db);
+        counterRepository = new FirestoreCounterRepository(db);
+        transactionRunner = new FirestoreTransactionRunner(db);
+    }
+}
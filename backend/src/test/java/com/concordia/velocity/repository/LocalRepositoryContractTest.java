@@ -0,0 +1,25 @@
+package com.concordia.velocity.repository;
+
+import com.concordia.velocity.repository.local.LocalBikeRepository;
+import com.concordia.velocity.repository.local.LocalCounterRepository;
+import com.concordia.velocity.repository.local.LocalDockRepository;
+import com.concordia.velocity.repository.local.LocalRiderRepository;
+import com.concordia.velocity.repository.local.LocalStationRepository;
+import com.concordia.velocity.repository.local.LocalStore;
+import com.concordia.velocity.repository.local.LocalTransactionRunner;
+import com.concordia.velocity.repository.local.LocalTripRepository;
+
+class LocalRepositoryContractTest extends RepositoryContractTest {
+
+    @Override
+    protected void createRepositories() {
+        LocalStore store = new LocalStore();
+        bikeRepository = new LocalBikeRepository(store);
+        dockRepository = new LocalDockRepository(store);
+        stationRepository = new LocalStationRepository(store);
+        tripRepository = new LocalTripRepository(store);
+        riderRepository = new LocalRiderRepository(store);
+        counterRepository = new LocalCounterRepository(store);
+        transactionRunner = new LocalTransactionRunner(store);
+    }
+}
@@ -0,0 +1,254 @@
+package com.concordia.velocity.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Bill;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.model.Trip;
+import com.google.cloud.Timestamp;
+
+/**
+ * Behaviour every store implementation must share
+ * IDs are prefixed per test so the suite can run against a store that is not wiped between runs
+ */
+abstract class RepositoryContractTest {
+
+    protected BikeRepository bikeRepository;
+    protected DockRepository dockRepository;
+    protected StationRepository stationRepository;
+    protected TripRepository tripRepository;
+    protected RiderRepository riderRepository;
+    protected CounterRepository counterRepository;
+    protected TransactionRunner transactionRunner;
+
+    private String prefix;
+
+    protected abstract void createRepositories();
+
+    @BeforeEach
+    void setup() {
+        createRepositories();
+        prefix = "CT" + UUID.randomUUID().toString().substring(0, 8) + "-";
+    }
+
+    @Test
+    void missingEntityIsNullTest() throws Exception {
+        assertNull(bikeRepository.findById(prefix + "B404"));
+        assertNull(dockRepository.findById(prefix + "D404"));
+        assertNull(stationRepository.findById(prefix + "S404"));
+        assertNull(tripRepository.findById(prefix + "T404"));
+        assertNull(riderRepository.findById(prefix + "R404"));
+    }
+
+    @Test
+    void saveAndFindBikeTest() throws Exception {
+        Bike bike = new Bike(prefix + "B001", Bike.STATUS_AVAILABLE, "electric", prefix + "D001", prefix + "S001");
+        bikeRepository.save(bike);
+
+        Bike found = bikeRepository.findById(prefix + "B001");
+        assertNotNull(found);
+        assertEquals(Bike.STATUS_AVAILABLE, found.getStatus());
+        assertEquals("electric", found.getType());
+        assertEquals(prefix + "D001", found.getDockId());
+    }
+
+    @Test
+    void findBikesByStationAndStatusTest() throws Exception {
+        bikeRepository.save(new Bike(prefix + "B001", Bike.STATUS_AVAILABLE, "standard", prefix + "D001", prefix + "S001"));
+        bikeRepository.save(new Bike(prefix + "B002", Bike.STATUS_RESERVED, "standard", prefix + "D002", prefix + "S001"));
+        bikeRepository.save(new Bike(prefix + "B003", Bike.STATUS_AVAILABLE, "standard", prefix + "D003", prefix + "S002"));
+
+        List<Bike> available = bikeRepository.findByStationIdAndStatus(prefix + "S001", Bike.STATUS_AVAILABLE);
+        assertEquals(1, available.size());
+        assertEquals(prefix + "B001", available.get(0).getBikeId());
+
+        Bike atDock = bikeRepository.findFirstByDockIdAndStatus(prefix + "D002", Bike.STATUS_RESERVED);
+        assertNotNull(atDock);
+        assertEquals(prefix + "B002", atDock.getBikeId());
+        assertNull(bikeRepository.findFirstByDockIdAndStatus(prefix + "D002", Bike.STATUS_AVAILABLE));
+    }
+
+    @Test
+    void findBikesByStatusTest() throws Exception {
+        bikeRepository.save(new Bike(prefix + "B001", Bike.STATUS_RESERVED, "standard", prefix + "D001", prefix + "S001"));
+        bikeRepository.save(new Bike(prefix + "B002", Bike.STATUS_AVAILABLE, "standard", prefix + "D002", prefix + "S001"));
+        bikeRepository.save(new Bike(prefix + "B003", Bike.STATUS_RESERVED, "electric", prefix + "D003", prefix + "S002"));
+
+        List<String> reserved = bikeRepository.findByStatus(Bike.STATUS_RESERVED).stream()
+                .map(Bike::getBikeId)
+                .filter(id -> id.startsWith(prefix))
+                .sorted()
+                .toList();
+        assertEquals(List.of(prefix + "B001", prefix + "B003"), reserved);
+    }
+
+    @Test
+    void findDocksByStationAndStatusTest() throws Exception {
+        dockRepository.save(new Dock(prefix + "D001", Dock.STATUS_EMPTY, null, prefix + "S001"));
+        dockRepository.save(new Dock(prefix + "D002", Dock.STATUS_OCCUPIED, prefix + "B001", prefix + "S001"));
+
+        List<Dock> empty = dockRepository.findByStationIdAndStatus(prefix + "S001", Dock.STATUS_EMPTY);
+        assertEquals(1, empty.size());
+        assertEquals(prefix + "D001", empty.get(0).getDockId());
+    }
+
+    @Test
+    void findAllBikesByIdTest() throws Exception {
+        bikeRepository.saveAll(List.of(
+                new Bike(prefix + "B001", Bike.STATUS_AVAILABLE, "standard", prefix + "D001", prefix + "S001"),
+                new Bike(prefix + "B002", Bike.STATUS_RESERVED, "electric", prefix + "D002", prefix + "S001")));
+
+        List<Bike> found = bikeRepository.findAllById(
+                List.of(prefix + "B002", prefix + "B404", prefix + "B001", prefix + "B002"));
+        assertEquals(2, found.size());
+        assertEquals(prefix + "B002", found.get(0).getBikeId());
+        assertEquals(Bike.STATUS_RESERVED, found.get(0).getStatus());
+        assertEquals(prefix + "B001", found.get(1).getBikeId());
+
+        assertTrue(bikeRepository.findAllById(List.of()).isEmpty());
+        assertTrue(dockRepository.findAllById(List.of(prefix + "D404")).isEmpty());
+        assertTrue(stationRepository.findAllById(List.of(prefix + "S404")).isEmpty());
+    }
+
+    @Test
+    void findActiveTripTest() throws Exception {
+        Trip trip = new Trip(prefix + "T001", prefix + "R001", prefix + "B001", "standard",
+                prefix + "S001", "Station", prefix + "D001");
+        tripRepository.save(trip);
+
+        Trip active = tripRepository.findActiveTrip(prefix + "B001", prefix + "R001");
+        assertNotNull(active);
+        assertEquals(prefix + "T001", active.getTripId());
+        assertEquals(1, tripRepository.findByRiderId(prefix + "R001").size());
+        assertEquals(1, tripRepository.findByRiderIdAsync(prefix + "R001").get().size());
+
+        active.completeTrip(prefix + "S002", "Other station", prefix + "D002");
+        tripRepository.save(active);
+        assertNull(tripRepository.findActiveTrip(prefix + "B001", prefix + "R001"));
+    }
+
+    @Test
+    void tripPagesFollowStartTimeTest() throws Exception {
+        // T002 and T003 start at the same second, so the trip ID breaks the tie
+        long[] starts = {1_000, 2_000, 2_000, 3_000, 4_000};
+        for (int i = 0; i < starts.length; i++) {
+            Trip trip = new Trip(prefix + "T00" + (i + 1), prefix + "R001", prefix + "B001", "standard",
+                    prefix + "S001", "Station", prefix + "D001");
+            trip.setStartTime(Timestamp.ofTimeSecondsAndNanos(1_700_000_000L + starts[i], 0));
+            trip.setBill(new Bill(prefix + "BILL" + i, trip.getTripId(), prefix + "R001", 1.0, 1.0, 0, 0, 0, 0));
+            tripRepository.save(trip);
+        }
+        tripRepository.save(new Trip(prefix + "T900", prefix + "R002", prefix + "B002", "standard",
+                prefix + "S001", "Station", prefix + "D002"));
+
+        List<Trip> first = tripRepository.findPage(page(null, null, null, 2, null));
+        assertEquals(List.of(prefix + "T005", prefix + "T004"), first.stream().map(Trip::getTripId).toList());
+        assertNotNull(first.get(0).getBill());
+
+        List<Trip> second = tripRepository.findPage(page(null, null, first.get(1), 2, null));
+        assertEquals(List.of(prefix + "T003", prefix + "T002"), second.stream().map(Trip::getTripId).toList());
+        List<Trip> last = tripRepository.findPage(page(null, null, second.get(1), 2, null));
+        assertEquals(List.of(prefix + "T001"), last.stream().map(Trip::getTripId).toList());
+
+        // started in [2_000, 4_000), without bills
+        List<Trip> ranged = tripRepository.findPage(page(Timestamp.ofTimeSecondsAndNanos(1_700_002_000L, 0),
+                Timestamp.ofTimeSecondsAndNanos(1_700_004_000L, 0), null, 10, Set.of("status")));
+        assertEquals(List.of(prefix + "T004", prefix + "T003", prefix + "T002"), ranged.stream().map(Trip::getTripId).toList());
+        assertEquals(Trip.STATUS_ACTIVE, ranged.get(0).getStatus());
+        assertNotNull(ranged.get(0).getStartTime());
+        assertNull(ranged.get(0).getBill());
+        assertNull(ranged.get(0).getBikeId());
+    }
+
+    private TripRepository.PageQuery page(Timestamp from, Timestamp before, Trip after, int limit, Set<String> fields) {
+        return new TripRepository.PageQuery(prefix + "R001", from, before, after != null ? after.getStartTime() : null,
+                after != null ? after.getTripId() : null, limit, fields);
+    }
+
+    @Test
+    void riderFlexDollarsTest() throws Exception {
+        Rider rider = new Rider("Test", "Rider", "1 Test St.", prefix + "rider@test.com", "5145550000");
+        riderRepository.save(prefix + "R001", rider);
+
+        riderRepository.incrementFlexDollars(prefix + "R001", 2);
+        riderRepository.incrementFlexDollars(prefix + "R001", -1);
+
+        Rider found = riderRepository.findById(prefix + "R001");
+        assertNotNull(found);
+        assertEquals(prefix + "R001", found.getId());
+        assertEquals(1, found.getFlexDollars());
+        assertTrue(riderRepository.existsByEmail(prefix + "rider@test.com"));
+    }
+
+    @Test
+    void counterStartsAtOneTest() throws Exception {
+        String counter = prefix + "counter";
+        assertEquals(0, counterRepository.get(counter));
+        assertEquals(1, counterRepository.getAndIncrement(counter));
+        assertEquals(2, counterRepository.getAndIncrement(counter));
+        assertEquals(3, counterRepository.get(counter));
+        assertEquals(3, counterRepository.getAndAdd(counter, 50));
+        assertEquals(53, counterRepository.get(counter));
+    }
+
+    @Test
+    void failedTransactionWritesNothingTest() throws Exception {
+        bikeRepository.save(new Bike(prefix + "B001", Bike.STATUS_AVAILABLE, "standard", prefix + "D001", prefix + "S001"));
+
+        assertThrows(IllegalStateException.class, () -> transactionRunner.runInTransaction(txn -> {
+            Bike bike = txn.getBike(prefix + "B001");
+            bike.setStatus(Bike.STATUS_MAINTENANCE);
+            txn.saveBike(bike);
+            throw new IllegalStateException("abort");
+        }));
+
+        assertEquals(Bike.STATUS_AVAILABLE, bikeRepository.findById(prefix + "B001").getStatus());
+    }
+
+    @Test
+    void transactionCommitsAllWritesTest() throws Exception {
+        bikeRepository.save(new Bike(prefix + "B001", Bike.STATUS_ON_TRIP, "standard", null, null));
+        dockRepository.save(new Dock(prefix + "D001", Dock.STATUS_EMPTY, null, prefix + "S001"));
+        Rider rider = new Rider("Test", "Rider", "1 Test St.", prefix + "rider@test.com", "5145550000");
+        rider.setFlexDollars(1);
+        riderRepository.save(prefix + "R001", rider);
+
+        transactionRunner.runInTransaction(txn -> {
+            txn.prefetch(StoreTransaction.Key.bike(prefix + "B001"), StoreTransaction.Key.dock(prefix + "D001"),
+                    StoreTransaction.Key.rider(prefix + "R001"));
+            Bike bike = txn.getBike(prefix + "B001");
+            Dock dock = txn.getDock(prefix + "D001");
+            Rider found = txn.getRider(prefix + "R001");
+            assertEquals(prefix + "R001", found.getId());
+
+            bike.setStatus(Bike.STATUS_AVAILABLE);
+            bike.setDockId(dock.getDockId());
+            dock.setStatus(Dock.STATUS_OCCUPIED);
+            dock.setBikeId(bike.getBikeId());
+            txn.saveBike(bike);
+            txn.saveDock(dock);
+            txn.updateRider(prefix + "R001", Map.of("flexDollars", found.getFlexDollars() + 2));
+            return null;
+        });
+
+        assertEquals(Bike.STATUS_AVAILABLE, bikeRepository.findById(prefix + "B001").getStatus());
+        assertEquals(Dock.STATUS_OCCUPIED, dockRepository.findById(prefix + "D001").getStatus());
+        Rider updated = riderRepository.findById(prefix + "R001");
+        assertEquals(3, updated.getFlexDollars());
+        assertEquals("Test", updated.getFirstName());
+    }
+}
@@ -0,0 +1,140 @@
+package com.concordia.velocity.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.Map;
+
+import com.concordia.velocity.forecast.DemandForecaster;
+import com.concordia.velocity.journal.TempJournalExtension;
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.local.LocalBikeRepository;
+import com.concordia.velocity.repository.local.LocalCounterRepository;
+import com.concordia.velocity.repository.local.LocalRiderRepository;
+import com.concordia.velocity.repository.local.LocalStore;
+import com.concordia.velocity.repository.local.LocalTransactionRunner;
+import com.concordia.velocity.repository.local.LocalTripRepository;
+import com.google.cloud.Timestamp;
+
+@ExtendWith(TempJournalExtension.class)
+class AbandonedTripServiceTest {
+
+    private static final int BACKLOG = 2000;
+    private static final long FIVE_HOURS_MILLIS = 5 * 60 * 60 * 1000L;
+
+    private AbandonedTripService abandonedTripService;
+    private AbandonmentDeadlineScheduler deadlineScheduler;
+    private LocalTripRepository tripRepository;
+    private LocalBikeRepository bikeRepository;
+    private LocalRiderRepository riderRepository;
+    private DemandForecaster demandForecaster;
+    private LocalStore store;
+
+    @BeforeEach
+    void setup() throws Exception {
+        store = new LocalStore();
+        tripRepository = new LocalTripRepository(store);
+        bikeRepository = new LocalBikeRepository(store);
+        deadlineScheduler = new AbandonmentDeadlineScheduler();
+        LocalTransactionRunner transactionRunner = new LocalTransactionRunner(store);
+        riderRepository = new LocalRiderRepository(store);
+        demandForecaster = new DemandForecaster(tripRepository, "America/Montreal", 56);
+        abandonedTripService = new AbandonedTripService(tripRepository, transactionRunner,
+                new IdGeneratorService(new LocalCounterRepository(store), 50),
+                new LoyaltyStatsService(tripRepository, riderRepository, transactionRunner), deadlineScheduler,
+                demandForecaster, 8);
+        riderRepository.save("R001",
+                new Rider("Gone", "Rider", "1 Test St.", "gone@test.com", "5145550000"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        abandonedTripService.stop();
+        deadlineScheduler.stop();
+    }
+
+    @Test
+    void deadlineAbandonsTripTest() throws Exception {
+        Trip trip = startTrip("T0001", "B001", FIVE_HOURS_MILLIS);
+        deadlineScheduler.register(trip);
+
+        Trip saved = tripRepository.findById("T0001");
+        for (int i = 0; i < 100 && Trip.STATUS_ACTIVE.equals(saved.getStatus()); i++) {
+            Thread.sleep(50);
+            saved = tripRepository.findById("T0001");
+        }
+
+        assertEquals(AbandonedTripService.STATUS_ABANDONED, saved.getStatus());
+        assertNotNull(saved.getBill());
+        assertEquals(Bike.STATUS_ABANDONED, bikeRepository.findById("B001").getStatus());
+        assertEquals(0, deadlineScheduler.pendingCount());
+        assertEquals(0, riderRepository.findById("R001").getLoyaltyStats().getActiveTrips());
+    }
+
+    @Test
+    void endedAndFreshTripsAreSkippedTest() throws Exception {
+        Trip ended = startTrip("T0001", "B001", FIVE_HOURS_MILLIS);
+        ended.completeTrip("S002", "Other station", "D002");
+        tripRepository.save(ended);
+        startTrip("T0002", "B002", 60_000);
+
+        assertEquals(0, abandonedTripService.manualCheckForAbandonedTrips());
+        assertEquals(Trip.STATUS_COMPLETED, tripRepository.findById("T0001").getStatus());
+        assertEquals(Trip.STATUS_ACTIVE, tripRepository.findById("T0002").getStatus());
+        assertEquals(0L, ((Number) demandForecaster.stats().get("recorded")).longValue());
+    }
+
+    @Test
+    void abandonedTripIsForecastLikeARebuildTest() throws Exception {
+        startTrip("T0001", "B001", FIVE_HOURS_MILLIS);
+        assertEquals(1, abandonedTripService.manualCheckForAbandonedTrips());
+
+        // the live curves count the departure, as a rebuild from the trip history does
+        Map<String, Object> live = demandForecaster.stats();
+        DemandForecaster rebuilt = new DemandForecaster(tripRepository, "America/Montreal", 56);
+        assertEquals(1, rebuilt.rebuild());
+        assertEquals(1L, ((Number) live.get("recorded")).longValue());
+        assertEquals(rebuilt.stats().get("recorded"), live.get("recorded"));
+        assertEquals(rebuilt.stats().get("stations"), live.get("stations"));
+    }
+
+    @Test
+    void catchUpClearsBacklogTest() throws Exception {
+        // one rider per trip, as each abandonment also updates its rider's loyalty stats
+        for (int i = 0; i < BACKLOG; i++) {
+            String riderId = String.format("R%05d", i);
+            riderRepository.save(riderId, new Rider("Gone", "Rider", "1 Test St.", "gone@test.com", "5145550000"));
+            startTrip(String.format("T%05d", i), String.format("B%05d", i), riderId, FIVE_HOURS_MILLIS + i * 1000L);
+        }
+        startTrip("TFRESH", "BFRESH", 60_000);
+
+        long roundTrips = store.getRoundTrips();
+        long start = System.nanoTime();
+        int processed = abandonedTripService.manualCheckForAbandonedTrips();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        roundTrips = store.getRoundTrips() - roundTrips;
+
+        assertEquals(BACKLOG, processed);
+        assertEquals(1, tripRepository.findByStatus(Trip.STATUS_ACTIVE).size());
+        System.out.printf("[latency] abandoned-trip catch-up of %d trips: %d ms, %.1f round-trips/trip%n",
+                BACKLOG, millis, (double) roundTrips / BACKLOG);
+    }
+
+    private Trip startTrip(String tripId, String bikeId, long startedMillisAgo) throws Exception {
+        return startTrip(tripId, bikeId, "R001", startedMillisAgo);
+    }
+
+    private Trip startTrip(String tripId, String bikeId, String riderId, long startedMillisAgo) throws Exception {
+        Trip trip = new Trip(tripId, riderId, bikeId, "standard", "S001", "Station", "D001");
+        trip.setStartTime(Timestamp.ofTimeMicroseconds((System.currentTimeMillis() - startedMillisAgo) * 1000));
+        tripRepository.save(trip);
+        bikeRepository.save(new Bike(bikeId, Bike.STATUS_ON_TRIP, "standard", null, null));
+        return trip;
+    }
+}
@@ -13,22 +13,33 @@ import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
 
+import com.concordia.velocity.cache.FleetCache;
 import com.concordia.velocity.model.Bike;
 import com.concordia.velocity.model.Bill;
 import com.concordia.velocity.model.Rider;
 import com.concordia.velocity.model.Station;
 import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.BikeRepository;
+import com.concordia.velocity.repository.StationRepository;
 import com.google.cloud.firestore.Firestore;
 import com.google.firebase.cloud.FirestoreClient;
 
 public class HappyPathTesting {
 
+    @Mock
+    private BikeRepository bikeRepository;
+    @Mock
+    private StationRepository stationRepository;
     @Mock
     private UserService userService;
     @Mock
     private LoyaltyStatsService loyaltyStatsService;
     @Mock
     private TripService tripService;
+    @Mock
+    private FleetCache fleetCache;
+    @Mock
+    private ReservationExpiryService reservationExpiryService;
 
     private BikeService bikeService;
 
@@ -42,7 +53,7 @@ public class HappyPathTesting {
                 firestoreClientStatic.when(FirestoreClient::getFirestore).thenReturn(mockFirestore);
 
                 MockitoAnnotations.openMocks(this);
-                bikeService = new BikeService(userService, loyaltyStatsService);
+                bikeService = new BikeService(bikeRepository, stationRepository, userService, loyaltyStatsService, fleetCache, reservationExpiryService);
     }
 
     @AfterEach
@@ -0,0 +1,102 @@
+package com.concordia.velocity.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.concordia.velocity.repository.local.LocalCounterRepository;
+import com.concordia.velocity.repository.local.LocalStore;
+
+/**
+ * Measures trip IDs per second handed out to concurrent callers
+ * Each counter write is charged a simulated round-trip, so a block size of 1 shows the
+ * one-write-per-ID baseline and larger blocks show the hi/lo allocation
+ * The timed comparison is tagged load (./gradlew loadTests); the unit suite checks the IDs and leases.
+ */
+class IdGeneratorThroughputTest {
+
+    private static final int THREADS = 16;
+    private static final int IDS_PER_THREAD = 500;
+    private static final long SIMULATED_LATENCY_MICROS = 1000;
+
+    private LocalStore store;
+
+    @BeforeEach
+    void setup() {
+        store = new LocalStore();
+    }
+
+    @Test
+    void idsStayUniqueAndFormattedTest() throws Exception {
+        IdGeneratorService ids = new IdGeneratorService(new LocalCounterRepository(store), 3);
+        assertEquals("T0001", ids.generateTripId());
+        assertEquals("BILL0001", ids.generateBillId());
+        assertEquals("T0002", ids.generateTripId());
+
+        // A second node leases the next block rather than reusing this one
+        IdGeneratorService otherNode = new IdGeneratorService(new LocalCounterRepository(store), 3);
+        assertEquals("T0004", otherNode.generateTripId());
+        assertEquals("T0003", ids.generateTripId());
+
+        ids.resetTripCounter(100);
+        assertEquals("T0100", ids.generateTripId());
+    }
+
+    @Test
+    void concurrentCallersLeaseWholeBlocksTest() throws Exception {
+        long roundTrips = store.getRoundTrips();
+        measure(100);
+        // callers that run out together wait on one lease instead of each leasing a block
+        assertEquals(THREADS * IDS_PER_THREAD / 100, store.getRoundTrips() - roundTrips);
+    }
+
+    @Test
+    @Tag("load")
+    void concurrentThroughputTest() throws Exception {
+        store.setSimulatedLatencyMicros(SIMULATED_LATENCY_MICROS);
+        double baseline = measure(1);
+        double blocked = measure(100);
+        assertTrue(blocked > baseline, "block allocation should outpace one write per ID");
+    }
+
+    private double measure(int blockSize) throws Exception {
+        IdGeneratorService ids = new IdGeneratorService(new LocalCounterRepository(store), blockSize);
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long roundTrips = store.getRoundTrips();
+
+        long t0 = System.nanoTime();
+        List<Future<?>> callers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            callers.add(pool.submit(() -> {
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    seen.add(ids.generateTripId());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> caller : callers) {
+            caller.get();
+        }
+        long elapsed = System.nanoTime() - t0;
+        pool.shutdown();
+
+        int total = THREADS * IDS_PER_THREAD;
+        assertEquals(total, seen.size());
+
+        double idsPerSecond = total / (elapsed / 1e9);
+        System.out.printf("[throughput] block size %d, %d threads: %.0f IDs/sec, %d counter writes%n",
+                blockSize, THREADS, idsPerSecond, store.getRoundTrips() - roundTrips);
+        return idsPerSecond;
+    }
+}
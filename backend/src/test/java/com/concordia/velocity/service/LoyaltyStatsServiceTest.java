@@ -0,0 +1,92 @@
+package com.concordia.velocity.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.RiderStats;
+import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.local.LocalRiderRepository;
+import com.concordia.velocity.repository.local.LocalStore;
+import com.concordia.velocity.repository.local.LocalTransactionRunner;
+import com.concordia.velocity.repository.local.LocalTripRepository;
+import com.concordia.velocity.state.NoTierState;
+import com.google.cloud.Timestamp;
+
+class LoyaltyStatsServiceTest {
+
+    private LoyaltyStatsService loyaltyStatsService;
+    private LocalRiderRepository riderRepository;
+    private LocalTripRepository tripRepository;
+
+    @BeforeEach
+    void setup() throws Exception {
+        LocalStore store = new LocalStore();
+        riderRepository = new LocalRiderRepository(store);
+        tripRepository = new LocalTripRepository(store);
+        loyaltyStatsService = new LoyaltyStatsService(tripRepository, riderRepository, new LocalTransactionRunner(store));
+
+        Rider rider = new Rider("Loyal", "Rider", "1 Test St.", "loyal@test.com", "5145550000");
+        riderRepository.save("R001", rider);
+
+        // Spread over the last ~14 months so every bucket boundary is exercised
+        for (int i = 0; i < 60; i++) {
+            Trip trip = new Trip(String.format("T%04d", i), "R001", "B001", "standard", "S001", "Station", "D001");
+            LocalDateTime start = LocalDateTime.now().minusDays(i * 7L);
+            trip.setStartTime(Timestamp.ofTimeSecondsAndNanos(start.atZone(ZoneId.systemDefault()).toEpochSecond(), 0));
+            trip.setStatus(Trip.STATUS_COMPLETED);
+            tripRepository.save(trip);
+        }
+    }
+
+    @Test
+    void reconcileMatchesFullRecomputeTest() throws Exception {
+        RiderStats full = loyaltyStatsService.computeStats("R001");
+        RiderStats reconciled = loyaltyStatsService.reconcile("R001");
+
+        assertEquals(full.getTripsLastYear(), reconciled.getTripsLastYear());
+        assertEquals(full.getSuccessfulClaims(), reconciled.getSuccessfulClaims());
+        assertEquals(full.getTripsPerMonth(), reconciled.getTripsPerMonth());
+        assertEquals(full.getTripsPerWeek(), reconciled.getTripsPerWeek());
+        assertNotNull(riderRepository.findById("R001").getLoyaltyStats());
+    }
+
+    @Test
+    void completedTripUpdatesAggregateTest() throws Exception {
+        loyaltyStatsService.reconcile("R001");
+        Rider rider = riderRepository.findById("R001");
+        int before = rider.getLoyaltyStats().toRiderStats(LocalDate.now()).getTripsLastYear();
+
+        Trip trip = new Trip("T9999", "R001", "B001", "standard", "S001", "Station", "D001");
+        trip.completeTrip("S002", "Other station", "D002");
+        loyaltyStatsService.recordCompletedTrip(rider, trip);
+
+        assertEquals(before + 1, rider.getLoyaltyStats().toRiderStats(LocalDate.now()).getTripsLastYear());
+    }
+
+    @Test
+    void missedReservationDemotesTest() throws Exception {
+        loyaltyStatsService.reconcile("R001");
+        Rider rider = riderRepository.findById("R001");
+        rider.evaluateTier();
+        riderRepository.update("R001", Map.of("tier", rider.getTierName()));
+        assertEquals("Bronze", riderRepository.findById("R001").getTier());
+
+        riderRepository.addMissedReservation("R001", Timestamp.now());
+        Rider.TierChange change = loyaltyStatsService.recordMissedReservation("R001");
+
+        assertNotNull(change);
+        assertEquals("Bronze", change.getOldTier());
+        Rider saved = riderRepository.findById("R001");
+        assertInstanceOf(NoTierState.class, saved.getTierState());
+        assertEquals(1, saved.getLoyaltyStats().toRiderStats(LocalDate.now()).getMissedReservations());
+    }
+}
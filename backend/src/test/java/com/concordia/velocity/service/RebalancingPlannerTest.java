@@ -0,0 +1,255 @@
+package com.concordia.velocity.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import com.concordia.velocity.cache.FleetCache;
+import com.concordia.velocity.forecast.DemandForecaster;
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.local.LocalBikeRepository;
+import com.concordia.velocity.repository.local.LocalDockRepository;
+import com.concordia.velocity.repository.local.LocalFleetChangeFeed;
+import com.concordia.velocity.repository.local.LocalStationRepository;
+import com.concordia.velocity.repository.local.LocalStore;
+import com.concordia.velocity.repository.local.LocalTripRepository;
+import com.concordia.velocity.service.RebalancingPlanner.Move;
+import com.concordia.velocity.service.RebalancingPlanner.RebalancingPlan;
+import com.concordia.velocity.service.RebalancingPlanner.Transfer;
+import com.google.cloud.Timestamp;
+
+class RebalancingPlannerTest {
+
+    private LocalStore store;
+    private LocalStationRepository stationRepository;
+    private LocalDockRepository dockRepository;
+    private LocalBikeRepository bikeRepository;
+    private LocalTripRepository tripRepository;
+    private FleetCache fleetCache;
+    private RebalancingPlanner planner;
+
+    @BeforeEach
+    void setup() {
+        store = new LocalStore();
+        stationRepository = new LocalStationRepository(store);
+        dockRepository = new LocalDockRepository(store);
+        bikeRepository = new LocalBikeRepository(store);
+        tripRepository = new LocalTripRepository(store);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (fleetCache != null) fleetCache.stop();
+    }
+
+    @Test
+    void spareBikesGoToTheNearestShortStationTest() throws Exception {
+        station("S001", 45.5000, -73.5700, 10, 10);
+        station("S002", 45.5050, -73.5700, 10, 0);    // ~550 m north
+        station("S003", 45.5500, -73.5700, 10, 0);    // ~5.5 km north
+        station("S004", 45.5010, -73.5700, 10, 5);    // already at target
+        start();
+
+        RebalancingPlan plan = planner.plan(0.5, 0.1);
+
+        assertEquals(1, plan.moves().size());
+        Move move = plan.moves().get(0);
+        assertEquals("S001", move.sourceStationId());
+        assertEquals("S002", move.destinationStationId());
+        assertEquals(5, move.bikes());
+        assertTrue(move.lowCapacityDestination());
+        assertEquals(5, plan.bikesMoved());
+        assertEquals(5, plan.unmetDemand());
+        assertEquals(0, plan.unusedSurplus());
+
+        for (Transfer transfer : move.transfers()) {
+            Bike bike = bikeRepository.findById(transfer.bikeId());
+            assertEquals(transfer.sourceDockId(), bike.getDockId());
+            assertEquals("S001", bike.getStationId());
+            assertEquals(Dock.STATUS_EMPTY, dockRepository.findById(transfer.destinationDockId()).getStatus());
+        }
+    }
+
+    @Test
+    void reservedBikesAndFullDocksLimitTheMovesTest() throws Exception {
+        station("S001", 45.5000, -73.5700, 10, 10);
+        station("S002", 45.5050, -73.5700, 10, 0);
+        for (int i = 1; i <= 4; i++) {
+            Bike bike = bikeRepository.findById("S001-B" + i);
+            bike.setStatus(Bike.STATUS_RESERVED);
+            bikeRepository.save(bike);
+        }
+        // two of S002's docks are out of service
+        dockRepository.save(new Dock("S002-D1", Dock.STATUS_OUT_OF_SERVICE, null, "S002", "1234"));
+        dockRepository.save(new Dock("S002-D2", Dock.STATUS_OUT_OF_SERVICE, null, "S002", "1234"));
+        start();
+
+        RebalancingPlan plan = planner.plan(0.5, 0.0);
+
+        assertEquals(5, plan.bikesMoved());
+        for (Transfer transfer : plan.moves().get(0).transfers()) {
+            assertEquals(Bike.STATUS_AVAILABLE, bikeRepository.findById(transfer.bikeId()).getStatus());
+            assertTrue(!transfer.destinationDockId().equals("S002-D1") && !transfer.destinationDockId().equals("S002-D2"));
+        }
+    }
+
+    @Test
+    void stationTargetsOverrideTheDefaultTest() throws Exception {
+        station("S001", 45.5000, -73.5700, 10, 8);
+        station("S002", 45.5050, -73.5700, 10, 5);
+        start();
+
+        // S001 has spare bikes but no station is short of any
+        assertTrue(planner.plan(0.5, 0.1).moves().isEmpty());
+
+        RebalancingPlan plan = planner.plan(0.5, 0.1, Map.of("S002", 0.9));
+        assertEquals(1, plan.moves().size());
+        assertEquals("S002", plan.moves().get(0).destinationStationId());
+        assertEquals(3, plan.bikesMoved());
+        assertEquals(1, plan.unmetDemand());
+    }
+
+    @Test
+    void horizonPlansForForecastDemandTest() throws Exception {
+        station("S001", 45.5000, -73.5700, 10, 5);
+        station("S002", 45.5050, -73.5700, 10, 9);
+        // for the past four weeks, five bikes left S001 half an hour from now
+        long now = System.currentTimeMillis();
+        for (int week = 1; week <= 4; week++) {
+            for (int i = 0; i < 5; i++) {
+                long startMillis = now - week * 7L * 24 * 3_600_000 + 30 * 60_000;
+                Trip trip = new Trip("T" + week + i, "R001", "B001", "standard", "S001", "Station S001", "S001-D1");
+                trip.setStartTime(Timestamp.ofTimeMicroseconds(startMillis * 1000));
+                trip.setEndTime(Timestamp.ofTimeMicroseconds((startMillis + 15 * 60_000) * 1000));
+                trip.setEndStationId("S900");
+                trip.setStatus(Trip.STATUS_COMPLETED);
+                tripRepository.save(trip);
+            }
+        }
+        start();
+
+        // S001 is at target now, so only the forecast makes it short
+        assertEquals(0, planner.plan(0.5, 0.1).bikesMoved());
+
+        RebalancingPlan plan = planner.plan(0.5, 0.1, Map.of(), 3);
+        assertEquals(1, plan.moves().size());
+        assertEquals("S002", plan.moves().get(0).sourceStationId());
+        assertEquals("S001", plan.moves().get(0).destinationStationId());
+        assertTrue(plan.bikesMoved() >= 3, plan.bikesMoved() + " bikes");
+    }
+
+    @Test
+    void invalidSettingsAreRejectedTest() {
+        start();
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(1.5, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(0.5, -0.1));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(0.5, 0.1, Map.of("S001", -1.0)));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(0.5, 0.1, Map.of(), 169));
+    }
+
+    @Test
+    void plansHundredsOfStationsConsistentlyTest() throws Exception {
+        Map<String, int[]> occupancy = randomFleet(300);
+        assertConsistent(planner.plan(0.5, 0.1), occupancy);
+    }
+
+    @Test
+    @Tag("load")
+    void plansThousandsOfStationsConsistentlyTest() throws Exception {
+        Map<String, int[]> occupancy = randomFleet(3000);
+
+        planner.plan(0.5, 0.1); // warm up
+        RebalancingPlan plan = planner.plan(0.5, 0.1);
+        System.out.println("Planned " + plan.bikesMoved() + " bikes in " + plan.moves().size() + " moves across "
+                + plan.stationsPlanned() + " stations in " + plan.elapsedMillis() + " ms");
+
+        assertConsistent(plan, occupancy);
+        // a plan over thousands of stations is meant to be re-run continuously
+        assertTrue(plan.elapsedMillis() < 1000, plan.elapsedMillis() + " ms");
+    }
+
+    // Stations scattered over the island with random capacity and occupancy, then the planner started
+    private Map<String, int[]> randomFleet(int stations) {
+        Random random = new Random(343);
+        Map<String, int[]> occupancy = new HashMap<>();
+        for (int i = 0; i < stations; i++) {
+            String stationId = String.format("S%04d", i);
+            int capacity = 10 + random.nextInt(11);
+            int docked = random.nextInt(capacity + 1);
+            station(stationId, 45.40 + random.nextDouble() * 0.25, -73.75 + random.nextDouble() * 0.30, capacity, docked);
+            occupancy.put(stationId, new int[]{capacity, docked});
+        }
+        start();
+        return occupancy;
+    }
+
+    // Each bike and dock used once, no station pushed past its target, and none both gives and takes
+    private void assertConsistent(RebalancingPlan plan, Map<String, int[]> occupancy) {
+        assertTrue(plan.bikesMoved() > 0);
+        Set<String> bikes = new HashSet<>();
+        Set<String> docks = new HashSet<>();
+        Map<String, Integer> net = new HashMap<>();
+        for (Move move : plan.moves()) {
+            assertEquals(move.bikes(), move.transfers().size());
+            for (Transfer transfer : move.transfers()) {
+                assertTrue(bikes.add(transfer.bikeId()), "bike moved twice: " + transfer.bikeId());
+                assertTrue(docks.add(transfer.destinationDockId()), "dock filled twice: " + transfer.destinationDockId());
+            }
+            net.merge(move.sourceStationId(), -move.bikes(), Integer::sum);
+            net.merge(move.destinationStationId(), move.bikes(), Integer::sum);
+        }
+        for (Map.Entry<String, Integer> change : net.entrySet()) {
+            int[] station = occupancy.get(change.getKey());
+            int target = (int) Math.round(0.5 * station[0]);
+            int after = station[1] + change.getValue();
+            if (change.getValue() > 0) {
+                assertTrue(station[1] < target && after <= target, change.getKey());
+            } else {
+                assertTrue(station[1] > target && after >= target, change.getKey());
+            }
+        }
+    }
+
+    private void start() {
+        fleetCache = new FleetCache(stationRepository, dockRepository, bikeRepository, new LocalFleetChangeFeed(store), 30000);
+        fleetCache.start();
+        DemandForecaster demandForecaster = new DemandForecaster(tripRepository, "America/Montreal", 56);
+        demandForecaster.start();
+        planner = new RebalancingPlanner(fleetCache, demandForecaster);
+    }
+
+    // A station whose first docked docks hold available standard bikes
+    private void station(String stationId, double latitude, double longitude, int capacity, int docked) {
+        List<String> dockIds = new ArrayList<>();
+        List<String> bikeIds = new ArrayList<>();
+        for (int i = 1; i <= capacity; i++) {
+            String dockId = stationId + "-D" + i;
+            dockIds.add(dockId);
+            if (i <= docked) {
+                String bikeId = stationId + "-B" + i;
+                bikeIds.add(bikeId);
+                bikeRepository.save(new Bike(bikeId, Bike.STATUS_AVAILABLE, "standard", dockId, stationId));
+                dockRepository.save(new Dock(dockId, Dock.STATUS_OCCUPIED, bikeId, stationId, "1234"));
+            } else {
+                dockRepository.save(new Dock(dockId, Dock.STATUS_EMPTY, null, stationId, "1234"));
+            }
+        }
+        stationRepository.save(new Station(stationId, "Station " + stationId, null, String.valueOf(latitude),
+                String.valueOf(longitude), "1 Main St", capacity, docked, 5, dockIds, bikeIds, 0, docked));
+    }
+}
@@ -0,0 +1,172 @@
+package com.concordia.velocity.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.concordia.velocity.journal.TempJournalExtension;
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.observer.DashboardStream;
+import com.concordia.velocity.repository.local.LocalBikeRepository;
+import com.concordia.velocity.repository.local.LocalRiderRepository;
+import com.concordia.velocity.repository.local.LocalStore;
+import com.concordia.velocity.repository.local.LocalTransactionRunner;
+import com.concordia.velocity.repository.local.LocalTripRepository;
+import com.concordia.velocity.reservation.ReservationManager;
+
+@ExtendWith(TempJournalExtension.class)
+class ReservationExpiryServiceTest {
+
+    private static final int OUTSTANDING_RESERVATIONS = 100_000;
+    private static final int RIDERS = 1000;
+
+    private ReservationExpiryService reservationExpiryService;
+    private LocalBikeRepository bikeRepository;
+    private LocalRiderRepository riderRepository;
+    private LocalStore store;
+
+    @BeforeEach
+    void setup() throws Exception {
+        store = new LocalStore();
+        bikeRepository = new LocalBikeRepository(store);
+        riderRepository = new LocalRiderRepository(store);
+        LocalTransactionRunner transactionRunner = new LocalTransactionRunner(store);
+        LoyaltyStatsService loyaltyStatsService = new LoyaltyStatsService(new LocalTripRepository(store),
+                riderRepository, transactionRunner);
+        reservationExpiryService = new ReservationExpiryService(bikeRepository, transactionRunner, loyaltyStatsService);
+    }
+
+    @Test
+    void recoveryExpiresOverdueAndReschedulesPendingTest() throws Exception {
+        riderRepository.save("R001", new Rider("Late", "Rider", "1 Test St.", "late@test.com", "5145550000"));
+        bikeRepository.save(reserved("RB001", "R001", LocalDateTime.now().minusMinutes(5)));
+        bikeRepository.save(reserved("RB002", "R001", LocalDateTime.now().plusMinutes(10)));
+        bikeRepository.save(new Bike("RB003", Bike.STATUS_AVAILABLE, "standard", "D003", "S001"));
+
+        Map<String, Object> result = reservationExpiryService.recoverReservations();
+
+        assertEquals(2, result.get("reserved"));
+        assertEquals(1, result.get("expired"));
+        assertEquals(1, result.get("scheduled"));
+
+        Bike expired = bikeRepository.findById("RB001");
+        assertEquals(Bike.STATUS_AVAILABLE, expired.getStatus());
+        assertNull(expired.getReservationExpiry());
+        assertNull(expired.getReservedByUserId());
+        assertEquals(Bike.STATUS_RESERVED, bikeRepository.findById("RB002").getStatus());
+        assertEquals(1, riderRepository.findById("R001").getMissedReservationTimestamps().size());
+
+        ReservationManager.cancel("RB002");
+    }
+
+    @Test
+    void expireSkipsReservationsStillHeldTest() throws Exception {
+        riderRepository.save("R001", new Rider("Held", "Rider", "1 Test St.", "held@test.com", "5145550000"));
+        bikeRepository.save(reserved("RB010", "R001", LocalDateTime.now().plusMinutes(10)));
+
+        assertEquals(0, reservationExpiryService.expireOverdue(List.of("RB010", "RB404")));
+        assertEquals(Bike.STATUS_RESERVED, bikeRepository.findById("RB010").getStatus());
+        assertEquals(0, riderRepository.findById("R001").getMissedReservationTimestamps().size());
+    }
+
+    @Test
+    void expiryIsReportedOnceAfterCommitTest() throws Exception {
+        DashboardStream.configure(new DashboardStream.Settings(60_000, 10, 60_000));
+        try {
+            riderRepository.save("R001", new Rider("Late", "Rider", "1 Test St.", "late@test.com", "5145550000"));
+            bikeRepository.save(reserved("RB020", "R001", LocalDateTime.now().minusMinutes(5)));
+            bikeRepository.save(reserved("RB021", "R001", LocalDateTime.now().minusMinutes(5)));
+
+            assertEquals(2, reservationExpiryService.expireOverdue(List.of("RB020", "RB021")));
+            assertEquals(2L, DashboardStream.shared().stats().get("published"));
+            assertEquals(2, DashboardStream.shared().stats().get("pending"));
+
+            // a second pass finds nothing left to expire and reports nothing
+            assertEquals(0, reservationExpiryService.expireOverdue(List.of("RB020", "RB021")));
+            assertEquals(2L, DashboardStream.shared().stats().get("published"));
+        } finally {
+            DashboardStream.configure(DashboardStream.Settings.defaults());
+        }
+    }
+
+    @Test
+    void expiryBatchesChunksAndRidersTest() throws Exception {
+        for (int r = 0; r < 3; r++) {
+            riderRepository.save("RR" + r, new Rider("Batch", "Rider" + r, "1 Test St.", "batch" + r + "@test.com", "5145550000"));
+        }
+        // 1100 overdue spread over three chunks and three riders, 100 still held
+        List<Bike> bikes = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            LocalDateTime expiry = i < 1100 ? LocalDateTime.now().minusMinutes(1) : LocalDateTime.now().plusMinutes(60);
+            bikes.add(reserved(String.format("RB%04d", i), "RR" + i % 3, expiry));
+        }
+        bikeRepository.saveAll(bikes);
+
+        long roundTrips = store.getRoundTrips();
+        Map<String, Object> result = reservationExpiryService.recoverReservations();
+        roundTrips = store.getRoundTrips() - roundTrips;
+
+        // the reserved query, a read and a commit per chunk, then per rider a read, the trip
+        // history behind their first loyalty aggregate, and a commit
+        assertEquals(1 + 3 * 2 + 3 * 3, roundTrips);
+        assertEquals(1200, result.get("reserved"));
+        assertEquals(1100, result.get("expired"));
+        assertEquals(100, result.get("scheduled"));
+        assertEquals(100, bikeRepository.findByStatus(Bike.STATUS_RESERVED).size());
+        assertEquals(367, riderRepository.findById("RR0").getMissedReservationTimestamps().size());
+        assertEquals(367, riderRepository.findById("RR1").getMissedReservationTimestamps().size());
+        assertEquals(366, riderRepository.findById("RR2").getMissedReservationTimestamps().size());
+
+        for (int i = 1100; i < 1200; i++) {
+            ReservationManager.cancel(String.format("RB%04d", i));
+        }
+    }
+
+    @Test
+    @Tag("load")
+    void recoveryTimeTest() throws Exception {
+        for (int r = 0; r < RIDERS; r++) {
+            riderRepository.save(String.format("RR%04d", r),
+                    new Rider("Recovery", "Rider" + r, "1 Test St.", "recovery" + r + "@test.com", "5145550000"));
+        }
+        // half ran out while the server was down, half are still being held
+        List<Bike> bikes = new ArrayList<>();
+        for (int i = 0; i < OUTSTANDING_RESERVATIONS; i++) {
+            LocalDateTime expiry = i % 2 == 0
+                    ? LocalDateTime.now().minusMinutes(1 + i % 30)
+                    : LocalDateTime.now().plusMinutes(60 + i % 30);
+            bikes.add(reserved(String.format("RB%06d", i), String.format("RR%04d", i % RIDERS), expiry));
+        }
+        bikeRepository.saveAll(bikes);
+
+        long roundTrips = store.getRoundTrips();
+        Map<String, Object> result = reservationExpiryService.recoverReservations();
+        roundTrips = store.getRoundTrips() - roundTrips;
+
+        assertEquals(OUTSTANDING_RESERVATIONS, result.get("reserved"));
+        assertEquals(OUTSTANDING_RESERVATIONS / 2, result.get("expired"));
+        assertEquals(OUTSTANDING_RESERVATIONS / 2, result.get("scheduled"));
+        assertEquals(OUTSTANDING_RESERVATIONS / 2, bikeRepository.findByStatus(Bike.STATUS_RESERVED).size());
+        assertEquals(OUTSTANDING_RESERVATIONS / RIDERS,
+                riderRepository.findById("RR0000").getMissedReservationTimestamps().size());
+
+        System.out.printf("[latency] recovery of %d reservations (%d overdue): %d ms, %d round-trips%n",
+                OUTSTANDING_RESERVATIONS, result.get("expired"), result.get("millis"), roundTrips);
+    }
+
+    private Bike reserved(String bikeId, String riderId, LocalDateTime expiry) {
+        Bike bike = new Bike(bikeId, Bike.STATUS_RESERVED, "standard", "D" + bikeId, "S001");
+        bike.setReservedByUserId(riderId);
+        bike.setReservationExpiryFromLocalDateTime(expiry);
+        return bike;
+    }
+}
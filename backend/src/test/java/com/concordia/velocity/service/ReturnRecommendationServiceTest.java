@@ -0,0 +1,136 @@
+package com.concordia.velocity.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.concordia.velocity.cache.FleetCache;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.repository.local.LocalBikeRepository;
+import com.concordia.velocity.repository.local.LocalDockRepository;
+import com.concordia.velocity.repository.local.LocalFleetChangeFeed;
+import com.concordia.velocity.repository.local.LocalStationRepository;
+import com.concordia.velocity.repository.local.LocalStore;
+import com.concordia.velocity.service.ReturnRecommendationService.ReturnRecommendation;
+
+class ReturnRecommendationServiceTest {
+
+    private LocalStationRepository stationRepository;
+    private LocalDockRepository dockRepository;
+    private FleetCache fleetCache;
+    private ReturnRecommendationService service;
+
+    @BeforeEach
+    void setup() {
+        LocalStore store = new LocalStore();
+        stationRepository = new LocalStationRepository(store);
+        dockRepository = new LocalDockRepository(store);
+
+        // S001 is where the rider is and has one free dock, S002 is ~500 m away with three,
+        // S003 is next door but full, S004 is out of service
+        station("S001", "45.5017", "-73.5673", 4, 3, "occupied");
+        station("S002", "45.5062", "-73.5673", 4, 1, "occupied");
+        station("S003", "45.5018", "-73.5672", 2, 2, "full");
+        station("S004", "45.5016", "-73.5674", 4, 0, "out_of_service");
+        docks("S001", Dock.STATUS_OCCUPIED, Dock.STATUS_OCCUPIED, Dock.STATUS_EMPTY, Dock.STATUS_OCCUPIED);
+        docks("S002", Dock.STATUS_EMPTY, Dock.STATUS_OCCUPIED, Dock.STATUS_EMPTY, Dock.STATUS_EMPTY);
+        docks("S003", Dock.STATUS_OCCUPIED, Dock.STATUS_OCCUPIED);
+        docks("S004", Dock.STATUS_EMPTY, Dock.STATUS_EMPTY, Dock.STATUS_EMPTY, Dock.STATUS_EMPTY);
+
+        fleetCache = new FleetCache(stationRepository, dockRepository, new LocalBikeRepository(store),
+                new LocalFleetChangeFeed(store), 30000);
+        fleetCache.start();
+        service = new ReturnRecommendationService(fleetCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleetCache.stop();
+    }
+
+    @Test
+    void recommendsStationsWithFreeDocksAndAConcreteDockTest() throws Exception {
+        List<ReturnRecommendation> recommendations = service.recommend(45.5017, -73.5673, 5);
+
+        assertEquals(2, recommendations.size());
+        ReturnRecommendation first = recommendations.get(0);
+        assertEquals("S001", first.stationId());
+        assertEquals("S001-D3", first.dockId());
+        assertEquals(1, first.freeDocks());
+        assertTrue(first.distanceMeters() < 1);
+
+        ReturnRecommendation second = recommendations.get(1);
+        assertEquals("S002", second.stationId());
+        assertEquals("S002-D1", second.dockId());
+        assertEquals(3, second.freeDocks());
+        assertEquals(500, second.distanceMeters(), 5);
+    }
+
+    @Test
+    void lastFreeDockWeighsAgainstAStationTest() throws Exception {
+        // 333 m from S002 and 167 m from S001: S001's single free dock costs more than the extra walk
+        List<ReturnRecommendation> recommendations = service.recommend(45.5032, -73.5673, 2);
+
+        assertEquals("S002", recommendations.get(0).stationId());
+        assertEquals("S001", recommendations.get(1).stationId());
+        assertTrue(recommendations.get(0).distanceMeters() > recommendations.get(1).distanceMeters());
+    }
+
+    @Test
+    void dockingAndUndockingUpdateTheIndexTest() throws Exception {
+        assertEquals(1, fleetCache.countEmptyDocks("S001"));
+
+        // a bike is returned to S001's last free dock
+        dockRepository.save(new Dock("S001-D3", Dock.STATUS_OCCUPIED, "B900", "S001", "1234"));
+        Station full = stationRepository.findById("S001");
+        full.setNumDockedBikes(4);
+        stationRepository.save(full);
+
+        List<ReturnRecommendation> recommendations = service.recommend(45.5017, -73.5673, 3);
+        assertEquals(1, recommendations.size());
+        assertEquals("S002", recommendations.get(0).stationId());
+
+        // and a bike is taken from S002, freeing its second dock
+        dockRepository.save(new Dock("S002-D2", Dock.STATUS_EMPTY, null, "S002", "1234"));
+        assertEquals(List.of("S002-D1", "S002-D2", "S002-D3", "S002-D4"), fleetCache.findEmptyDockIds("S002"));
+    }
+
+    @Test
+    void alternativesExcludeTheRefusedStationTest() throws Exception {
+        List<ReturnRecommendation> alternatives = service.recommendInsteadOf("S003-D1", 3);
+
+        assertTrue(alternatives.stream().noneMatch(r -> r.stationId().equals("S003")));
+        assertEquals("S001", alternatives.get(0).stationId());
+        assertTrue(service.recommendInsteadOf("D404", 3).isEmpty());
+    }
+
+    @Test
+    void invalidRequestsAreRejectedTest() {
+        assertThrows(IllegalArgumentException.class, () -> service.recommend(91, 0, 3));
+        assertThrows(IllegalArgumentException.class, () -> service.recommend(45.5, -73.5, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.recommend(45.5, -73.5, ReturnRecommendationService.MAX_RECOMMENDATIONS + 1));
+    }
+
+    private void station(String stationId, String latitude, String longitude, int capacity, int docked, String status) {
+        Station station = new Station(stationId, "Station " + stationId, status, latitude, longitude, "1 Main St",
+                capacity, docked, 5, new ArrayList<>(), new ArrayList<>(), 0, docked);
+        station.setStatus(status); // the constructor derives it from the counts
+        stationRepository.save(station);
+    }
+
+    private void docks(String stationId, String... statuses) {
+        for (int i = 0; i < statuses.length; i++) {
+            String dockId = stationId + "-D" + (i + 1);
+            boolean occupied = Dock.STATUS_OCCUPIED.equals(statuses[i]);
+            dockRepository.save(new Dock(dockId, statuses[i], occupied ? "B" + dockId : null, stationId, "1234"));
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.concordia.velocity.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.concordia.velocity.cache.FleetCache;
+import com.concordia.velocity.journal.TempJournalExtension;
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.repository.local.LocalBikeRepository;
+import com.concordia.velocity.repository.local.LocalDockRepository;
+import com.concordia.velocity.repository.local.LocalFleetChangeFeed;
+import com.concordia.velocity.repository.local.LocalStationRepository;
+import com.concordia.velocity.repository.local.LocalStore;
+import com.concordia.velocity.repository.local.LocalTransactionRunner;
+import com.concordia.velocity.service.TransferService.BikeTransfer;
+import com.concordia.velocity.service.TransferService.TransferOutcome;
+
+@ExtendWith(TempJournalExtension.class)
+class TransferServiceTest {
+
+    private LocalStore store;
+    private LocalStationRepository stationRepository;
+    private LocalDockRepository dockRepository;
+    private LocalBikeRepository bikeRepository;
+    private FleetCache fleetCache;
+    private TransferService transferService;
+
+    @BeforeEach
+    void setup() {
+        store = new LocalStore();
+        stationRepository = new LocalStationRepository(store);
+        dockRepository = new LocalDockRepository(store);
+        bikeRepository = new LocalBikeRepository(store);
+        fleetCache = new FleetCache(stationRepository, dockRepository, bikeRepository, new LocalFleetChangeFeed(store), 30000);
+        fleetCache.start();
+        transferService = new TransferService(bikeRepository, dockRepository, stationRepository,
+                new LocalTransactionRunner(store), fleetCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleetCache.stop();
+    }
+
+    @Test
+    void truckloadCommitsInOneChunkTest() throws Exception {
+        station("S001", 40, 30);
+        station("S002", 40, 0);
+
+        List<TransferOutcome> outcomes = transferService.transferBikes(moves("S001", "S002", 30, 0));
+
+        assertEquals(30, outcomes.size());
+        for (TransferOutcome outcome : outcomes) {
+            assertEquals(TransferService.OUTCOME_TRANSFERRED, outcome.status(), outcome.message());
+            assertEquals(0, outcome.chunk());
+        }
+        Station source = stationRepository.findById("S001");
+        Station destination = stationRepository.findById("S002");
+        assertEquals(0, source.getNumDockedBikes());
+        assertEquals(30, destination.getNumDockedBikes());
+        assertEquals(30, destination.getBikeIds().size());
+        assertEquals(30, destination.getNumStandardBikes());
+
+        Bike bike = bikeRepository.findById("S001-B7");
+        assertEquals("S002", bike.getStationId());
+        assertEquals("S002-D7", bike.getDockId());
+        assertEquals(Dock.STATUS_EMPTY, dockRepository.findById("S001-D7").getStatus());
+        assertEquals("S001-B7", dockRepository.findById("S002-D7").getBikeId());
+    }
+
+    @Test
+    void largeBatchesAreSplitIntoChunksTest() throws Exception {
+        int bikes = TransferService.MAX_MOVES_PER_CHUNK + 20;
+        station("S001", bikes, bikes);
+        station("S002", bikes, 0);
+
+        List<TransferOutcome> outcomes = transferService.transferBikes(moves("S001", "S002", bikes, 0));
+
+        assertTrue(outcomes.stream().allMatch(o -> TransferService.OUTCOME_TRANSFERRED.equals(o.status())));
+        assertEquals(0, outcomes.get(TransferService.MAX_MOVES_PER_CHUNK - 1).chunk());
+        assertEquals(1, outcomes.get(TransferService.MAX_MOVES_PER_CHUNK).chunk());
+        assertEquals(bikes, stationRepository.findById("S002").getNumDockedBikes());
+        assertEquals(0, stationRepository.findById("S001").getNumDockedBikes());
+    }
+
+    @Test
+    void failedMovesAreLeftOutOfTheirChunkTest() throws Exception {
+        station("S001", 10, 5);
+        station("S002", 10, 0);
+        Bike reserved = bikeRepository.findById("S001-B2");
+        reserved.setStatus(Bike.STATUS_RESERVED);
+        bikeRepository.save(reserved);
+
+        List<BikeTransfer> transfers = moves("S001", "S002", 3, 0);
+        transfers.add(new BikeTransfer("S001-B4", "S001-D4", "S404-D1", "S001", "S002"));
+
+        List<TransferOutcome> outcomes = transferService.transferBikes(transfers);
+
+        assertEquals(TransferService.OUTCOME_TRANSFERRED, outcomes.get(0).status());
+        assertEquals(TransferService.OUTCOME_FAILED, outcomes.get(1).status());
+        assertTrue(outcomes.get(1).message().contains("not available"));
+        assertEquals(TransferService.OUTCOME_TRANSFERRED, outcomes.get(2).status());
+        assertEquals(TransferService.OUTCOME_FAILED, outcomes.get(3).status());
+        assertEquals(3, stationRepository.findById("S001").getNumDockedBikes());
+        assertEquals(2, stationRepository.findById("S002").getNumDockedBikes());
+        assertEquals("S001", bikeRepository.findById("S001-B2").getStationId());
+    }
+
+    @Test
+    void collidingAndIncompleteMovesAreRejectedUpFrontTest() throws Exception {
+        station("S001", 10, 5);
+        station("S002", 10, 0);
+
+        List<BikeTransfer> transfers = moves("S001", "S002", 2, 0);
+        transfers.add(new BikeTransfer("S001-B1", "S001-D1", "S002-D5", "S001", "S002"));   // same bike again
+        transfers.add(new BikeTransfer("S001-B3", "S001-D3", "S002-D2", "S001", "S002"));   // dock already filled
+        transfers.add(new BikeTransfer("S001-B4", "S001-D4", null, "S001", "S002"));
+
+        List<TransferOutcome> outcomes = transferService.transferBikes(transfers);
+
+        assertEquals(TransferService.OUTCOME_TRANSFERRED, outcomes.get(1).status());
+        for (int i = 2; i < 5; i++) {
+            assertEquals(TransferService.OUTCOME_REJECTED, outcomes.get(i).status());
+            assertEquals(-1, outcomes.get(i).chunk());
+        }
+        assertEquals(2, stationRepository.findById("S002").getNumDockedBikes());
+        assertThrows(IllegalArgumentException.class, () -> transferService.transferBikes(List.of()));
+    }
+
+    @Test
+    void destinationRoomIsCountedAcrossTheChunkTest() throws Exception {
+        station("S001", 10, 5);
+        station("S002", 10, 0);
+        // S002 reports only two free docks, e.g. docks held back for maintenance
+        Station destination = stationRepository.findById("S002");
+        destination.setCapacity(2);
+        stationRepository.save(destination);
+
+        List<TransferOutcome> outcomes = transferService.transferBikes(moves("S001", "S002", 3, 0));
+
+        assertEquals(TransferService.OUTCOME_TRANSFERRED, outcomes.get(0).status());
+        assertEquals(TransferService.OUTCOME_TRANSFERRED, outcomes.get(1).status());
+        assertEquals(TransferService.OUTCOME_FAILED, outcomes.get(2).status());
+        assertEquals(Station.STATUS_FULL, stationRepository.findById("S002").getStatus());
+    }
+
+    @Test
+    void singleTransferStillWorksTest() throws Exception {
+        station("S001", 10, 5);
+        station("S002", 10, 0);
+
+        Map<String, Object> response = transferService.transferBike("S001-B1", "S001-D1", "S002-D1", "S001", "S002");
+
+        assertEquals(true, response.get("success"));
+        assertEquals(1, stationRepository.findById("S002").getNumDockedBikes());
+        assertThrows(IllegalStateException.class,
+                () -> transferService.transferBike("S001-B2", "S001-D2", "S002-D1", "S001", "S002"));
+    }
+
+    // Moves bike i of the source to dock i of the destination, starting at i = first + 1
+    private static List<BikeTransfer> moves(String from, String to, int count, int first) {
+        List<BikeTransfer> transfers = new ArrayList<>();
+        for (int i = first + 1; i <= first + count; i++) {
+            transfers.add(new BikeTransfer(from + "-B" + i, from + "-D" + i, to + "-D" + i, from, to));
+        }
+        return transfers;
+    }
+
+    // A station whose first docked docks hold available standard bikes
+    private void station(String stationId, int capacity, int docked) {
+        List<String> dockIds = new ArrayList<>();
+        List<String> bikeIds = new ArrayList<>();
+        for (int i = 1; i <= capacity; i++) {
+            String dockId = stationId + "-D" + i;
+            dockIds.add(dockId);
+            if (i <= docked) {
+                String bikeId = stationId + "-B" + i;
+                bikeIds.add(bikeId);
+                bikeRepository.save(new Bike(bikeId, Bike.STATUS_AVAILABLE, "standard", dockId, stationId));
+                dockRepository.save(new Dock(dockId, Dock.STATUS_OCCUPIED, bikeId, stationId, "1234"));
+            } else {
+                dockRepository.save(new Dock(dockId, Dock.STATUS_EMPTY, null, stationId, "1234"));
+            }
+        }
+        stationRepository.save(new Station(stationId, "Station " + stationId, null, "45.5", "-73.57", "1 Main St",
+                capacity, docked, 5, dockIds, bikeIds, 0, docked));
+    }
+}
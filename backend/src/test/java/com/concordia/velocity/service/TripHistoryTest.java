@@ -0,0 +1,144 @@
+package com.concordia.velocity.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.concordia.velocity.forecast.DemandForecaster;
+import com.concordia.velocity.metrics.PhaseTimings;
+import com.concordia.velocity.model.Bill;
+import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.local.LocalBillRepository;
+import com.concordia.velocity.repository.local.LocalCounterRepository;
+import com.concordia.velocity.repository.local.LocalRiderRepository;
+import com.concordia.velocity.repository.local.LocalStore;
+import com.concordia.velocity.repository.local.LocalTransactionRunner;
+import com.concordia.velocity.repository.local.LocalTripRepository;
+import com.concordia.velocity.service.TripService.BillPage;
+import com.concordia.velocity.service.TripService.TripPage;
+import com.google.cloud.Timestamp;
+
+/**
+ * Pages through trip and bill history with cursors, date ranges and field projection
+ */
+class TripHistoryTest {
+
+    private static final long START_SECONDS = 1_735_689_600L; // 2025-01-01T00:00:00Z
+
+    private LocalTripRepository tripRepository;
+    private TripService tripService;
+
+    @BeforeEach
+    void setup() throws Exception {
+        LocalStore store = new LocalStore();
+        tripRepository = new LocalTripRepository(store);
+        LocalTransactionRunner transactionRunner = new LocalTransactionRunner(store);
+        tripService = new TripService(null, tripRepository, new LocalBillRepository(store), transactionRunner, null,
+                new LoyaltyStatsService(tripRepository, new LocalRiderRepository(store), transactionRunner),
+                new IdGeneratorService(new LocalCounterRepository(store), 50), null, new PhaseTimings(),
+                new DemandForecaster(tripRepository, "America/Montreal", 56));
+
+        // R001 rides once an hour for 250 hours, every third ride still active and unbilled; R002 rides once
+        for (int i = 0; i < 250; i++) {
+            tripRepository.save(trip(String.format("T%04d", i), "R001", START_SECONDS + i * 3600L, i % 3 != 0));
+        }
+        tripRepository.save(trip("T9999", "R002", START_SECONDS, true));
+    }
+
+    @Test
+    void cursorWalksEveryTripOnceNewestFirstTest() throws Exception {
+        List<Trip> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TripPage page = tripService.getTripPage("R001", null, null, cursor, 40, null);
+            assertTrue(page.trips().size() <= 40);
+            seen.addAll(page.trips());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(7, pages);
+        assertEquals(250, seen.size());
+        assertEquals(250, new HashSet<>(seen.stream().map(Trip::getTripId).toList()).size());
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(seen.get(i - 1).getStartTime().compareTo(seen.get(i).getStartTime()) > 0);
+        }
+        assertEquals("T0249", seen.get(0).getTripId());
+
+        // every rider's trips when no rider is given
+        assertEquals(200, tripService.getTripPage(null, null, null, null, 200, null).trips().size());
+    }
+
+    @Test
+    void dateRangeAndProjectionTest() throws Exception {
+        Timestamp from = Timestamp.ofTimeSecondsAndNanos(START_SECONDS + 10 * 3600L, 0);
+        Timestamp to = Timestamp.ofTimeSecondsAndNanos(START_SECONDS + 20 * 3600L, 0);
+
+        TripPage page = tripService.getTripPage("R001", from, to, null, 50, TripService.SUMMARY_FIELDS);
+
+        assertEquals(10, page.trips().size());
+        assertNull(page.nextCursor());
+        assertEquals("T0019", page.trips().get(0).getTripId());
+        assertEquals("T0010", page.trips().get(9).getTripId());
+        for (Trip trip : page.trips()) {
+            assertNull(trip.getBill());
+            assertEquals("R001", trip.getRiderId());
+            assertNotNull(trip.getStatus());
+        }
+
+        Trip slim = tripService.getTripPage("R001", null, null, null, 1, Set.of("status")).trips().get(0);
+        assertEquals("T0249", slim.getTripId());
+        assertNotNull(slim.getStartTime());
+        assertNull(slim.getRiderId());
+    }
+
+    @Test
+    void billPagesSkipUnbilledTripsTest() throws Exception {
+        List<Bill> bills = new ArrayList<>();
+        String cursor = null;
+        do {
+            BillPage page = tripService.getBillPage("R001", null, null, cursor, 30);
+            bills.addAll(page.bills());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        // trips 0, 3, ..., 249 are unbilled
+        assertEquals(250 - 84, bills.size());
+        assertEquals("BILL-T0248", bills.get(0).getBillId());
+        assertEquals(bills.size(), new HashSet<>(bills.stream().map(Bill::getBillId).toList()).size());
+    }
+
+    @Test
+    void invalidPagesAreRejectedTest() {
+        assertThrows(IllegalArgumentException.class, () -> tripService.getTripPage("R001", null, null, null, 0, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> tripService.getTripPage("R001", null, null, null, TripService.MAX_PAGE_SIZE + 1, null));
+        assertThrows(IllegalArgumentException.class, () -> tripService.getTripPage("R001", null, null, "not a cursor!", 10, null));
+        assertThrows(IllegalArgumentException.class, () -> tripService.getTripPage("R001", null, null, "bm9wZQ", 10, null));
+        assertThrows(IllegalArgumentException.class, () -> tripService.getTripPage("R001", null, null, null, 10, Set.of("password")));
+        Timestamp now = Timestamp.now();
+        assertThrows(IllegalArgumentException.class, () -> tripService.getTripPage("R001", now, now, null, 10, null));
+        assertThrows(IllegalArgumentException.class, () -> tripService.getBillPage(" ", null, null, null, 10));
+    }
+
+    private static Trip trip(String tripId, String riderId, long startSeconds, boolean billed) {
+        Trip trip = new Trip(tripId, riderId, "B001", "standard", "S001", "Station 1", "D001");
+        trip.setStartTime(Timestamp.ofTimeSecondsAndNanos(startSeconds, 0));
+        if (billed) {
+            trip.setEndTime(Timestamp.ofTimeSecondsAndNanos(startSeconds + 600, 0));
+            trip.setStatus(Trip.STATUS_COMPLETED);
+            trip.setBill(new Bill("BILL-" + tripId, tripId, riderId, 3.31, 3.31, 0, 0, 0.50, 3.81));
+        }
+        return trip;
+    }
+}
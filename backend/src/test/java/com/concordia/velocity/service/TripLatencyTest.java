@@ -0,0 +1,139 @@
+package com.concordia.velocity.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.concordia.velocity.journal.TempJournalExtension;
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.local.LocalBikeRepository;
+import com.concordia.velocity.repository.local.LocalStore;
+import com.concordia.velocity.repository.local.LocalTripRepository;
+
+/**
+ * Measures reserved trip start and trip end latency against the in-process store
+ * Each store call is charged a simulated round-trip, so the numbers track how many
+ * sequential round-trips the lifecycle operations make
+ * The timed run is tagged load (./gradlew loadTests); the unit suite pins the round-trip counts.
+ */
+@ExtendWith(TempJournalExtension.class)
+class TripLatencyTest {
+
+    private static final int WARMUP = 10;
+    private static final int ITERATIONS = 50;
+    private static final long SIMULATED_LATENCY_MICROS = 5000;
+    private static final String DOCK_CODE = TripServiceFixture.DOCK_CODE;
+
+    private TripServiceFixture fixture;
+    private TripService tripService;
+    private LocalBikeRepository bikeRepository;
+    private LocalTripRepository tripRepository;
+    private LocalStore store;
+
+    @BeforeEach
+    void setup() throws Exception {
+        fixture = new TripServiceFixture();
+        fixture.seedStation("S001", "D001", "D002", "B001", "R001");
+        fixture.start();
+        tripService = fixture.tripService;
+        bikeRepository = fixture.bikeRepository;
+        tripRepository = fixture.tripRepository;
+        store = fixture.store;
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.stop();
+    }
+
+    @Test
+    void startAndEndTripRoundTripsTest() throws Exception {
+        // the first trip leases a block of trip ids and builds the rider's loyalty aggregate
+        reserve();
+        tripService.undockReservedBike("B001", "R001", DOCK_CODE);
+        tripService.endTrip("B001", "D001", DOCK_CODE, "R001");
+
+        reserve();
+        long r0 = store.getRoundTrips();
+        tripService.undockReservedBike("B001", "R001", DOCK_CODE);
+        long r1 = store.getRoundTrips();
+        tripService.endTrip("B001", "D001", DOCK_CODE, "R001");
+        long r2 = store.getRoundTrips();
+
+        // start: one batched read, then the commit; end: the batched read and the active-trip
+        // query, then the commit
+        assertEquals(2, r1 - r0);
+        assertEquals(3, r2 - r1);
+        List<Trip> trips = tripRepository.findByRiderId("R001");
+        assertEquals(2, trips.size());
+        assertTrue(trips.stream().allMatch(t -> Trip.STATUS_COMPLETED.equals(t.getStatus())));
+    }
+
+    @Test
+    @Tag("load")
+    void startAndEndTripLatencyTest() throws Exception {
+        store.setSimulatedLatencyMicros(SIMULATED_LATENCY_MICROS);
+        long[] startNanos = new long[ITERATIONS];
+        long[] endNanos = new long[ITERATIONS];
+        long startRoundTrips = 0;
+        long endRoundTrips = 0;
+
+        for (int i = 0; i < WARMUP; i++) {
+            reserve();
+            tripService.undockReservedBike("B001", "R001", DOCK_CODE);
+            tripService.endTrip("B001", "D001", DOCK_CODE, "R001");
+        }
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            reserve();
+            long r0 = store.getRoundTrips();
+            long t0 = System.nanoTime();
+            tripService.undockReservedBike("B001", "R001", DOCK_CODE);
+            long t1 = System.nanoTime();
+            long r1 = store.getRoundTrips();
+            tripService.endTrip("B001", "D001", DOCK_CODE, "R001");
+            long t2 = System.nanoTime();
+            startNanos[i] = t1 - t0;
+            endNanos[i] = t2 - t1;
+            startRoundTrips += r1 - r0;
+            endRoundTrips += store.getRoundTrips() - r1;
+        }
+
+        List<Trip> trips = tripRepository.findByRiderId("R001");
+        assertEquals(WARMUP + ITERATIONS, trips.size());
+        assertTrue(trips.stream().allMatch(t -> Trip.STATUS_COMPLETED.equals(t.getStatus())));
+
+        report("undockReservedBike", startNanos, startRoundTrips);
+        report("endTrip", endNanos, endRoundTrips);
+        for (Map.Entry<String, Object> operation : fixture.phaseTimings.snapshot().entrySet()) {
+            System.out.println("[latency] " + operation.getKey() + " phases: " + operation.getValue());
+        }
+    }
+
+    private void reserve() throws Exception {
+        Bike bike = bikeRepository.findById("B001");
+        bike.setStatus(Bike.STATUS_RESERVED);
+        bike.setReservedByUserId("R001");
+        bike.setReservationExpiryFromLocalDateTime(LocalDateTime.now().plusMinutes(15));
+        bikeRepository.save(bike);
+    }
+
+    private void report(String operation, long[] nanos, long roundTrips) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("[latency] %s over %d runs at %d us/round-trip: p50=%.3f ms, p99=%.3f ms, %.1f round-trips/op%n",
+                operation, sorted.length, SIMULATED_LATENCY_MICROS,
+                sorted[sorted.length / 2] / 1e6, sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1e6,
+                (double) roundTrips / sorted.length);
+    }
+}
@@ -0,0 +1,123 @@
+package com.concordia.velocity.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.concordia.velocity.journal.TempJournalExtension;
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.RiderStatsAggregate;
+import com.concordia.velocity.model.Trip;
+import com.concordia.velocity.repository.local.LocalBikeRepository;
+import com.concordia.velocity.repository.local.LocalRiderRepository;
+import com.concordia.velocity.repository.local.LocalTripRepository;
+
+/**
+ * Runs the trip lifecycle through the CompletableFuture variants of TripService against the in-process store
+ */
+@ExtendWith(TempJournalExtension.class)
+class TripServiceAsyncTest {
+
+    private static final String DOCK_CODE = TripServiceFixture.DOCK_CODE;
+
+    private TripServiceFixture fixture;
+    private TripService tripService;
+    private LocalBikeRepository bikeRepository;
+    private LocalTripRepository tripRepository;
+    private LocalRiderRepository riderRepository;
+
+    @BeforeEach
+    void setup() throws Exception {
+        fixture = new TripServiceFixture();
+        fixture.seedStation("S001", "D001", "D002", "B001", "R001");
+        fixture.start();
+        tripService = fixture.tripService;
+        bikeRepository = fixture.bikeRepository;
+        tripRepository = fixture.tripRepository;
+        riderRepository = fixture.riderRepository;
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.stop();
+    }
+
+    @Test
+    void asyncTripLifecycleTest() throws Exception {
+        String started = tripService.undockAvailableBikeAsync("D001", DOCK_CODE, "R001").join();
+        assertTrue(started.contains("Trip started successfully"));
+        assertEquals(Bike.STATUS_ON_TRIP, bikeRepository.findById("B001").getStatus());
+
+        TripService.TripEndResponse ended = tripService.endTripAsync("B001", "D002", DOCK_CODE, "R001").join();
+        assertTrue(ended.getMessage().contains("Trip ended successfully"));
+
+        Bike bike = bikeRepository.findById("B001");
+        assertEquals(Bike.STATUS_AVAILABLE, bike.getStatus());
+        assertEquals("D002", bike.getDockId());
+
+        List<Trip> trips = tripRepository.findByRiderId("R001");
+        assertEquals(1, trips.size());
+        assertEquals(Trip.STATUS_COMPLETED, trips.get(0).getStatus());
+        assertNotNull(trips.get(0).getBill());
+    }
+
+    @Test
+    void asyncReservedTripBuildsLoyaltyStatsTest() throws Exception {
+        Bike reserved = bikeRepository.findById("B001");
+        reserved.setStatus(Bike.STATUS_RESERVED);
+        reserved.setReservedByUserId("R001");
+        reserved.setReservationExpiryFromLocalDateTime(LocalDateTime.now().plusMinutes(15));
+        bikeRepository.save(reserved);
+
+        CompletableFuture<String> otherRider = tripService.undockReservedBikeAsync("B001", "R002", DOCK_CODE);
+        CompletionException failure = assertThrows(CompletionException.class, otherRider::join);
+        assertInstanceOf(IllegalArgumentException.class, Futures.unwrap(failure));
+
+        String started = tripService.undockReservedBikeAsync("B001", "R001", DOCK_CODE).join();
+        assertTrue(started.contains("Trip started successfully"));
+        Bike bike = bikeRepository.findById("B001");
+        assertEquals(Bike.STATUS_ON_TRIP, bike.getStatus());
+        assertNull(bike.getReservedByUserId());
+
+        // the rider had no stored stats, so starting the trip built them from their history
+        RiderStatsAggregate riding = riderRepository.findById("R001").getLoyaltyStats();
+        assertNotNull(riding);
+        assertEquals(1, riding.getActiveTrips());
+        assertFalse(riding.toRiderStats(LocalDate.now()).returnedAllBikes());
+        tripService.endTripAsync("B001", "D002", DOCK_CODE, "R001").join();
+
+        Rider rider = riderRepository.findById("R001");
+        assertEquals(0, rider.getLoyaltyStats().getActiveTrips());
+        assertTrue(rider.getLoyaltyStats().toRiderStats(LocalDate.now()).returnedAllBikes());
+        assertEquals(1, rider.getLoyaltyStats().toRiderStats(LocalDate.now()).getTripsLastYear());
+    }
+
+    @Test
+    void asyncFailureKeepsValidationExceptionTest() {
+        CompletableFuture<String> wrongCode = tripService.undockAvailableBikeAsync("D001", "0000", "R001");
+        CompletionException failure = assertThrows(CompletionException.class, wrongCode::join);
+        assertInstanceOf(IllegalStateException.class, Futures.unwrap(failure));
+
+        CompletableFuture<TripService.TripEndResponse> notOnTrip = tripService.endTripAsync("B001", "D002", DOCK_CODE, "R001");
+        failure = assertThrows(CompletionException.class, notOnTrip::join);
+        assertInstanceOf(IllegalStateException.class, Futures.unwrap(failure));
+
+        // the blocking methods still throw the validation exceptions themselves
+        assertThrows(IllegalArgumentException.class, () -> tripService.undockAvailableBike("D999", DOCK_CODE, "R001"));
+    }
+}
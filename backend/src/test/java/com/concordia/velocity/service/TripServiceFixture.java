@@ -0,0 +1,78 @@
+package com.concordia.velocity.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.concordia.velocity.cache.FleetCache;
+import com.concordia.velocity.forecast.DemandForecaster;
+import com.concordia.velocity.metrics.PhaseTimings;
+import com.concordia.velocity.model.Bike;
+import com.concordia.velocity.model.Dock;
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.Station;
+import com.concordia.velocity.repository.local.LocalBikeRepository;
+import com.concordia.velocity.repository.local.LocalBillRepository;
+import com.concordia.velocity.repository.local.LocalCounterRepository;
+import com.concordia.velocity.repository.local.LocalDockRepository;
+import com.concordia.velocity.repository.local.LocalFleetChangeFeed;
+import com.concordia.velocity.repository.local.LocalRiderRepository;
+import com.concordia.velocity.repository.local.LocalStationRepository;
+import com.concordia.velocity.repository.local.LocalStore;
+import com.concordia.velocity.repository.local.LocalTransactionRunner;
+import com.concordia.velocity.repository.local.LocalTripRepository;
+
+/**
+ * A TripService wired to its collaborators over an in-process LocalStore
+ * Seed stations with seedStation, then start() the fleet cache before the first trip and stop() it after.
+ */
+class TripServiceFixture {
+
+    static final String DOCK_CODE = "1234";
+
+    final LocalStore store = new LocalStore();
+    final LocalBikeRepository bikeRepository = new LocalBikeRepository(store);
+    final LocalDockRepository dockRepository = new LocalDockRepository(store);
+    final LocalStationRepository stationRepository = new LocalStationRepository(store);
+    final LocalRiderRepository riderRepository = new LocalRiderRepository(store);
+    final LocalTripRepository tripRepository = new LocalTripRepository(store);
+    final PhaseTimings phaseTimings = new PhaseTimings();
+    final FleetCache fleetCache;
+    final TripService tripService;
+    private final AbandonmentDeadlineScheduler deadlineScheduler = new AbandonmentDeadlineScheduler();
+
+    TripServiceFixture() {
+        LocalTransactionRunner transactionRunner = new LocalTransactionRunner(store);
+        LoyaltyStatsService loyaltyStatsService = new LoyaltyStatsService(tripRepository, riderRepository, transactionRunner);
+        IdGeneratorService idGeneratorService = new IdGeneratorService(new LocalCounterRepository(store), 50);
+        fleetCache = new FleetCache(stationRepository, dockRepository, bikeRepository, new LocalFleetChangeFeed(store), 30000);
+        tripService = new TripService(bikeRepository, tripRepository, new LocalBillRepository(store),
+                transactionRunner, fleetCache, loyaltyStatsService, idGeneratorService,
+                deadlineScheduler, phaseTimings,
+                new DemandForecaster(tripRepository, "America/Montreal", 56));
+    }
+
+    /**
+     * A station with an available bike at one dock, an empty dock to return it to, and a rider (not an operator)
+     */
+    void seedStation(String stationId, String dockId, String emptyDockId, String bikeId, String riderId) throws Exception {
+        stationRepository.save(new Station(stationId, "Station " + stationId, "occupied", "45.4972", "-73.5789",
+                "1455 De Maisonneuve Blvd W.", 2, 1, 15,
+                new ArrayList<>(Arrays.asList(dockId, emptyDockId)), new ArrayList<>(List.of(bikeId)), 0, 1));
+        dockRepository.save(new Dock(dockId, Dock.STATUS_OCCUPIED, bikeId, stationId, DOCK_CODE));
+        dockRepository.save(new Dock(emptyDockId, Dock.STATUS_EMPTY, null, stationId, DOCK_CODE));
+        bikeRepository.save(new Bike(bikeId, Bike.STATUS_AVAILABLE, "standard", dockId, stationId));
+        Rider rider = new Rider("Test", "Rider " + riderId, "1 Test St.", riderId.toLowerCase() + "@test.com", "5145550000");
+        rider.setIsOperator(false);
+        riderRepository.save(riderId, rider);
+    }
+
+    void start() throws Exception {
+        fleetCache.start();
+    }
+
+    void stop() {
+        fleetCache.stop();
+        deadlineScheduler.stop();
+    }
+}
@@ -0,0 +1,139 @@
+package com.concordia.velocity.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.concordia.velocity.journal.TempJournalExtension;
+import com.concordia.velocity.model.Trip;
+
+/**
+ * Compares how many concurrent trips the trip endpoints sustain when each request gets a virtual thread
+ * versus a pool of 200 platform threads, Tomcat's default
+ * Every rider has a station of their own, so trips don't contend for documents and the only limit
+ * is how many requests can be waiting on the store at once. The simulated round-trip is long enough
+ * that the 200 platform threads run out before the CPU does, even on a single core.
+ * The comparison is tagged load and runs with ./gradlew loadTests; the unit suite only checks that
+ * concurrent trips on virtual threads all complete.
+ */
+@ExtendWith(TempJournalExtension.class)
+class VirtualThreadLoadTest {
+
+    private static final int PLATFORM_THREADS = 200;
+    private static final int[] CONCURRENCY = {100, 300, 600, 1200};
+    private static final int TRIPS_PER_RIDER = 2;
+    private static final long SIMULATED_LATENCY_MICROS = 50_000;
+    private static final long SLO_P99_MILLIS = 1500;
+    private static final String DOCK_CODE = TripServiceFixture.DOCK_CODE;
+
+    @Test
+    void concurrentTripsCompleteOnVirtualThreadsTest() throws Exception {
+        try (ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor()) {
+            run(null, virtual, 50, 0);
+        }
+    }
+
+    @Test
+    @Tag("load")
+    void concurrentTripsTest() throws Exception {
+        // the first run pays for class loading and JIT compilation
+        try (ExecutorService warmup = Executors.newVirtualThreadPerTaskExecutor()) {
+            run(null, warmup, CONCURRENCY[0], SIMULATED_LATENCY_MICROS);
+        }
+
+        int maxPlatform = 0;
+        int maxVirtual = 0;
+        for (int riders : CONCURRENCY) {
+            double platformP99;
+            try (ExecutorService platform = Executors.newFixedThreadPool(PLATFORM_THREADS)) {
+                platformP99 = run("platform", platform, riders, SIMULATED_LATENCY_MICROS);
+            }
+            double virtualP99;
+            try (ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor()) {
+                virtualP99 = run("virtual", virtual, riders, SIMULATED_LATENCY_MICROS);
+            }
+            if (platformP99 <= SLO_P99_MILLIS) maxPlatform = riders;
+            if (virtualP99 <= SLO_P99_MILLIS) maxVirtual = riders;
+        }
+
+        System.out.printf("[throughput] max concurrent trips with p99 under %d ms: platform=%d, virtual=%d%n",
+                SLO_P99_MILLIS, maxPlatform, maxVirtual);
+        assertTrue(maxVirtual >= maxPlatform);
+    }
+
+    /**
+     * Each rider runs TRIPS_PER_RIDER trips back to back, every request going through the given executor
+     * Fails unless every trip completes.
+     * @return the p99 trip latency in milliseconds
+     */
+    private double run(String mode, ExecutorService server, int riders, long latencyMicros) throws Exception {
+        Fleet fleet = new Fleet(riders, latencyMicros);
+        try {
+            long[] nanos = new long[riders * TRIPS_PER_RIDER];
+            AtomicInteger next = new AtomicInteger();
+            AtomicInteger failures = new AtomicInteger();
+
+            long start = System.nanoTime();
+            List<CompletableFuture<Void>> clients = new ArrayList<>(riders);
+            try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < riders; i++) {
+                    String n = String.format("%05d", i);
+                    clients.add(CompletableFuture.runAsync(() -> {
+                        for (int trip = 0; trip < TRIPS_PER_RIDER; trip++) {
+                            long t0 = System.nanoTime();
+                            try {
+                                server.submit(() -> fleet.tripService.undockAvailableBike("D" + n, DOCK_CODE, "R" + n)).get();
+                                server.submit(() -> fleet.tripService.endTrip("B" + n, "D" + n, DOCK_CODE, "R" + n)).get();
+                            } catch (Exception e) {
+                                failures.incrementAndGet();
+                            }
+                            nanos[next.getAndIncrement()] = System.nanoTime() - t0;
+                        }
+                    }, clientThreads));
+                }
+                CompletableFuture.allOf(clients.toArray(new CompletableFuture[0])).join();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertEquals(0, failures.get());
+            long completed = fleet.tripRepository.findAll().stream()
+                    .filter(trip -> Trip.STATUS_COMPLETED.equals(trip.getStatus())).count();
+            assertEquals(nanos.length, completed);
+
+            Arrays.sort(nanos);
+            double p50 = nanos[nanos.length / 2] / 1e6;
+            double p99 = nanos[(int) Math.ceil(nanos.length * 0.99) - 1] / 1e6;
+            if (mode == null) return p99;
+            System.out.printf("[throughput] %s threads, %d concurrent riders at %d us/round-trip: %.0f trips/s, p50=%.1f ms, p99=%.1f ms%n",
+                    mode, riders, latencyMicros, nanos.length / seconds, p50, p99);
+            return p99;
+        } finally {
+            fleet.stop();
+        }
+    }
+
+    /**
+     * One station with one docked bike and one rider per concurrent client
+     */
+    private static class Fleet extends TripServiceFixture {
+
+        Fleet(int riders, long latencyMicros) throws Exception {
+            for (int i = 0; i < riders; i++) {
+                String n = String.format("%05d", i);
+                seedStation("S" + n, "D" + n, "E" + n, "B" + n, "R" + n);
+            }
+            start();
+            store.setSimulatedLatencyMicros(latencyMicros);
+        }
+    }
+}
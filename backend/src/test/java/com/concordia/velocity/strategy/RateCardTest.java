@@ -0,0 +1,153 @@
+package com.concordia.velocity.strategy;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.concordia.velocity.model.Bill;
+import com.concordia.velocity.model.Rider;
+import com.concordia.velocity.model.Trip;
+
+/**
+ * Cross-checks integer-cents billing against the double arithmetic the strategies used before
+ * Every tier, operator flag, bike type and flex redemption is billed for 0 to 300 minutes (past the
+ * precomputed tables) both ways. Amounts must match to the cent, except where the exact amount
+ * falls on a half cent, which the doubles rounded either way depending on representation error.
+ */
+class RateCardTest {
+
+    private static final String[] TIERS = {"NoTier", "Bronze", "Silver", "Gold"};
+    private static final long TAX_PER_100K = 14975;
+
+    @Test
+    void matchesFormerDoubleBillingTest() {
+        Trip trip = new Trip("T0001", "R001", "B001", "standard", "S001", "Station 1", "D001");
+        int compared = 0;
+        int halfCents = 0;
+
+        for (String type : new String[]{"standard", "electric"}) {
+            PaymentStrategy strategy = PaymentStrategies.forBikeType(type);
+            double perMinute = "electric".equals(type) ? 0.33 : 0.22;
+            for (String tier : TIERS) {
+                for (boolean operator : new boolean[]{false, true}) {
+                    Rider rider = rider(tier, operator);
+                    long tierBasisPoints = rider.getTierState().getDiscountBasisPoints();
+                    for (boolean flex : new boolean[]{false, true}) {
+                        for (long minutes = 0; minutes <= 300; minutes++) {
+                            Bill expected = legacyBill(trip, minutes, rider, perMinute, flex);
+                            Bill actual = strategy.createBillAndProcessPayment("BILL0001", trip, minutes, rider, flex ? 50 : 0);
+
+                            long base = 111 + minutes * ("electric".equals(type) ? 33 : 22);
+                            long reduction = tierBasisPoints + (operator ? 1000 : 0);
+                            boolean halfCent = (base * tierBasisPoints) % 10_000 == 5_000
+                                    || (base * reduction) % 10_000 == 5_000
+                                    || (RateCard.cents(actual.getCost()) * TAX_PER_100K) % 100_000 == 50_000;
+                            double tolerance = halfCent ? 0.0101 : 0.0001;
+                            if (halfCent) halfCents++;
+
+                            String at = type + "/" + tier + "/operator=" + operator + "/flex=" + flex + "/" + minutes + "min";
+                            assertEquals(expected.getBaseCost(), actual.getBaseCost(), 0.0001, at);
+                            assertEquals(expected.getDiscount(), actual.getDiscount(), tolerance, at);
+                            assertEquals(expected.getCost(), actual.getCost(), tolerance, at);
+                            // the operator discount used to be stored unrounded; it is now the cents that make the bill add up
+                            assertEquals(expected.getOperatorDiscount(), actual.getOperatorDiscount(), 0.0101, at);
+                            if (!halfCent) {
+                                assertEquals(expected.getTax(), actual.getTax(), 0.0001, at);
+                                assertEquals(expected.getTotal(), actual.getTotal(), 0.0001, at);
+                            }
+                            compared++;
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(halfCents < compared / 10, halfCents + " of " + compared + " bills fell on a half cent");
+    }
+
+    @Test
+    void billAddsUpInCentsTest() {
+        Trip trip = new Trip("T0001", "R001", "B001", "electric", "S001", "Station 1", "D001");
+        Bill bill = PaymentStrategies.ELECTRIC.createBillAndProcessPayment("BILL0001", trip, 37, rider("Gold", true), 50);
+
+        long base = RateCard.cents(bill.getBaseCost());
+        long cost = RateCard.cents(bill.getCost());
+        assertEquals(111 + 37 * 33, base);
+        assertEquals(base - RateCard.cents(bill.getDiscount()) - RateCard.cents(bill.getOperatorDiscount()) - 50, cost);
+        assertEquals(cost + RateCard.cents(bill.getTax()), RateCard.cents(bill.getTotal()));
+        assertEquals("BILL0001", bill.getBillId());
+        assertEquals("paid", bill.getStatus());
+    }
+
+    @Test
+    void flexCreditNeverMakesCostNegativeTest() {
+        Trip trip = new Trip("T0001", "R001", "B001", "standard", "S001", "Station 1", "D001");
+        Bill bill = PaymentStrategies.STANDARD.createBillAndProcessPayment("BILL0001", trip, 0, rider("NoTier", false), 500);
+
+        assertEquals(0.0, bill.getCost());
+        assertEquals(0.0, bill.getTotal());
+    }
+
+    @Test
+    void abandonmentFeeIgnoresDiscountsAndCreditTest() {
+        Trip trip = new Trip("T0001", "R001", "B001", "standard", "S001", "Station 1", "D001");
+        Bill bill = PaymentStrategies.ABANDONED.createBillAndProcessPayment("BILL0001", trip, 900, rider("Gold", true), 50);
+
+        assertEquals(333.00, bill.getCost());
+        assertEquals(0.0, bill.getDiscount());
+        assertEquals(49.87, bill.getTax());
+        assertEquals(382.87, bill.getTotal());
+    }
+
+    @Test
+    void strategiesAreSharedTest() {
+        assertSame(PaymentStrategies.ELECTRIC, PaymentStrategies.forBikeType("Electric"));
+        assertSame(PaymentStrategies.STANDARD, PaymentStrategies.forBikeType("standard"));
+        assertSame(PaymentStrategies.STANDARD, PaymentStrategies.forBikeType(null));
+    }
+
+    private static Rider rider(String tier, boolean operator) {
+        Rider rider = new Rider("Ada", "Rider", "1 Main St", "ada@example.com", "5140000000");
+        rider.setId("R001");
+        rider.setTier(tier);
+        rider.setIsOperator(operator);
+        return rider;
+    }
+
+    /**
+     * The per-minute strategies and TripService's flex re-billing as they were computed in doubles
+     */
+    private static Bill legacyBill(Trip trip, long durationMinutes, Rider rider, double perMinute, boolean flex) {
+        double baseCost = 1.11 + (durationMinutes * perMinute);
+        baseCost = Math.round(baseCost * 100.0) / 100.0;
+
+        double discount = 0.0;
+        double operatorDiscount = 0.0;
+        double finalCost = baseCost;
+        if (rider != null) {
+            double discountedCost = rider.applyDiscount(baseCost);
+            discount = baseCost - discountedCost;
+            finalCost = discountedCost;
+        }
+        if (rider != null && rider.getIsOperator()) {
+            operatorDiscount = baseCost * 0.1;
+            finalCost -= operatorDiscount;
+        }
+        finalCost = Math.round(finalCost * 100.0) / 100.0;
+        discount = Math.round(discount * 100.0) / 100.0;
+
+        Bill bill = new Bill("BILL0001", trip.getTripId(), trip.getRiderId(), baseCost, finalCost, discount, operatorDiscount, 0, 0);
+        bill.calculateTax(0.14975);
+        bill.setTotal(Math.round(bill.getTotal() * 100.0) / 100.0);
+        bill.setTax(Math.round(bill.getTax() * 100.0) / 100.0);
+
+        if (flex) {
+            double newCost = Math.max(0.0, Math.round((bill.getCost() - 0.5) * 100.0) / 100.0);
+            bill.setCost(newCost);
+            bill.calculateTax(0.14975);
+            bill.setTax(Math.round(bill.getTax() * 100.0) / 100.0);
+            bill.setTotal(Math.round(bill.getTotal() * 100.0) / 100.0);
+        }
+        return bill;
+    }
+}
@@ -197,12 +197,13 @@ export const tripApi = {
     }
   },
     /**
-   * Get all trips for the logged-in user
+   * Get one page of trips for the logged-in user, newest first
    * @param {string} userId
+   * @param {object} params optional cursor (nextCursor of the previous page), limit, from, to, fields
    */
-  getRiderTrips: async (userId) => {
+  getRiderTrips: async (userId, params = {}) => {
     try {
-      const response = await axios.get(`${API_BASE_URL}/trips/rider/${userId}`);
+      const response = await axios.get(`${API_BASE_URL}/trips/rider/${userId}`, { params });
       return response.data;
     } catch (error) {
       console.error("Error fetching rider trips:", error);
@@ -297,4 +298,30 @@ export const transferApi = {
   },
 };
 
+// ==================== Dashboard Stream ====================
+
+export const dashboardApi = {
+  /**
+   * Subscribe to live station, dock and bike status deltas (server-sent events)
+   * Bike deltas carry stationId and dockId (null while on a trip); station deltas carry
+   * dockedBikes and freeDocks.
+   * @param {Function} onDeltas - called with an array of {kind, id, previous, status, stationId, dockId, dockedBikes, freeDocks, at}
+   * @param {Function} onResync - called when deltas were dropped or the connection was re-established,
+   *                              so the current state should be re-read
+   * @returns {Function} call it to close the stream
+   */
+  subscribe(onDeltas, onResync) {
+    const source = new EventSource(`${API_BASE_URL}/dashboard/stream`);
+    let opened = false;
+    source.addEventListener('open', () => {
+      // the browser reconnects on its own; deltas sent while it was away are lost
+      if (opened && onResync) onResync();
+      opened = true;
+    });
+    source.addEventListener('deltas', (event) => onDeltas(JSON.parse(event.data)));
+    source.addEventListener('resync', () => onResync && onResync());
+    return () => source.close();
+  },
+};
+
 export default api;
\ No newline at end of file